@@ -0,0 +1,13 @@
+package com.demoapp.birdapi.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class BirdapiReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(BirdapiReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.demoapp.birdapi.reactive.controller;
+
+import com.demoapp.birdapi.reactive.dto.SightingDTO;
+import com.demoapp.birdapi.reactive.service.SightingSearchService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/sightings")
+public class SightingController {
+
+    private final SightingSearchService sightingSearchService;
+
+    public SightingController(SightingSearchService sightingSearchService) {
+        this.sightingSearchService = sightingSearchService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Page<SightingDTO>> getAllSightings(@PageableDefault(size = 5, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        return sightingSearchService.getAllSightings(pageable);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Page<SightingDTO>> searchSightings(@RequestParam(required = false) String birdName,
+                                                   @RequestParam(required = false) String location,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+                                                   @PageableDefault(size = 5, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        return sightingSearchService.searchSightings(birdName, location, fromDate, toDate, pageable);
+    }
+
+    // Accept: application/x-ndjson streams every match instead of one page, paced by the client
+    @GetMapping(value = {"", "/search"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SightingDTO> streamSightings(@RequestParam(required = false) String birdName,
+                                             @RequestParam(required = false) String location,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+                                             @SortDefault(sort = "id", direction = Sort.Direction.ASC) Sort sort) {
+        return sightingSearchService.streamSightings(birdName, location, fromDate, toDate, sort);
+    }
+}
@@ -0,0 +1,62 @@
+package com.demoapp.birdapi.reactive.dto;
+
+// Same JSON shape as the servlet module's BirdDTO; read-only, so without validation
+public class BirdDTO {
+
+    private Long id;
+    private String name;
+    private String color;
+    private Double weight;
+    private Double height;
+
+    public BirdDTO() {
+    }
+
+    public BirdDTO(Long id, String name, String color, Double weight, Double height) {
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.weight = weight;
+        this.height = height;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+
+    public Double getHeight() {
+        return height;
+    }
+
+    public void setHeight(Double height) {
+        this.height = height;
+    }
+}
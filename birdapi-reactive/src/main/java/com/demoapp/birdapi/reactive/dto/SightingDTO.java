@@ -0,0 +1,81 @@
+package com.demoapp.birdapi.reactive.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+// Same JSON shape as the servlet module's SightingDTO; read-only, so without validation
+public class SightingDTO {
+
+    private Long id;
+    private Long birdId;
+    private String location;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime dateTime;
+
+    // Number of near-duplicate reports merged into this sighting
+    private Integer reportCount;
+
+    private BirdDTO bird;
+
+    public SightingDTO() {
+    }
+
+    public SightingDTO(Long id, Long birdId, String location, LocalDateTime dateTime, Integer reportCount, BirdDTO bird) {
+        this.id = id;
+        this.birdId = birdId;
+        this.location = location;
+        this.dateTime = dateTime;
+        this.reportCount = reportCount;
+        this.bird = bird;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBirdId() {
+        return birdId;
+    }
+
+    public void setBirdId(Long birdId) {
+        this.birdId = birdId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    public Integer getReportCount() {
+        return reportCount;
+    }
+
+    public void setReportCount(Integer reportCount) {
+        this.reportCount = reportCount;
+    }
+
+    public BirdDTO getBird() {
+        return bird;
+    }
+
+    public void setBird(BirdDTO bird) {
+        this.bird = bird;
+    }
+}
@@ -0,0 +1,141 @@
+package com.demoapp.birdapi.reactive.repository;
+
+import com.demoapp.birdapi.reactive.dto.BirdDTO;
+import com.demoapp.birdapi.reactive.dto.SightingDTO;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only queries over the {@code sighting_view} read model the servlet module maintains, which
+ * carries each sighting's bird columns. Location and bird color are stored as ids into the small
+ * {@code locations} and {@code colors} dictionaries; rows are joined to them only for their strings,
+ * and the location filter is resolved against the dictionary before it probes the view. The filter has the same semantics as
+ * {@code SightingService.searchSightings}: exact bird name, case-insensitive partial location and
+ * an inclusive date range, each applied only when given.
+ */
+@Repository
+public class SightingQueryRepository {
+
+    private static final String FROM = " FROM sighting_view s";
+
+    private static final String SELECT = "SELECT s.id, s.bird_id, l.name AS location, s.date_time, s.report_count,"
+            + " s.bird_name, c.name AS bird_color, s.bird_weight, s.bird_height" + FROM
+            + " JOIN locations l ON l.id = s.location_id JOIN colors c ON c.id = s.bird_color_id";
+
+    // Sortable DTO properties; anything else is rejected rather than concatenated into SQL
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "s.id",
+            "birdId", "s.bird_id",
+            "location", "l.name",
+            "dateTime", "s.date_time",
+            "reportCount", "s.report_count");
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public SightingQueryRepository(DatabaseClient databaseClient,
+                                   @Value("${birdapi.reactive.fetch-size:500}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Matching rows in the given order, from offset on; a negative limit streams all of them. Rows
+     * are fetched from the database in batches of {@code birdapi.reactive.fetch-size} as the
+     * subscriber requests them.
+     */
+    public Flux<SightingDTO> search(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                                    Sort sort, long offset, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder(SELECT).append(where(birdName, location, fromDate, toDate, parameters));
+        sql.append(orderBy(sort));
+        if (limit >= 0) {
+            sql.append(" LIMIT :limit OFFSET :offset");
+            parameters.put("limit", limit);
+            parameters.put("offset", offset);
+        }
+        return bind(databaseClient.sql(sql.toString()), parameters)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map((row, metadata) -> toDTO(row))
+                .all();
+    }
+
+    public Mono<Long> count(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String sql = "SELECT COUNT(*) AS total" + FROM + where(birdName, location, fromDate, toDate, parameters);
+        return bind(databaseClient.sql(sql), parameters)
+                .map((row, metadata) -> row.get("total", Long.class))
+                .one();
+    }
+
+    private static String where(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                                Map<String, Object> parameters) {
+        StringBuilder where = new StringBuilder();
+        if (birdName != null && !birdName.isEmpty()) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ").append("s.bird_name = :birdName");
+            parameters.put("birdName", birdName);
+        }
+        if (location != null && !location.isEmpty()) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ").append("s.location_id IN (SELECT id FROM locations WHERE LOWER(name) LIKE :location)");
+            parameters.put("location", "%" + location.toLowerCase() + "%");
+        }
+        if (fromDate != null) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ").append("s.date_time >= :fromDate");
+            parameters.put("fromDate", fromDate);
+        }
+        if (toDate != null) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ").append("s.date_time <= :toDate");
+            parameters.put("toDate", toDate);
+        }
+        return where.toString();
+    }
+
+    // Always ends on the id, so offset pages and streams are stable between requests
+    private static String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        boolean byId = false;
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Cannot sort sightings by " + order.getProperty());
+            }
+            orderBy.append(column).append(order.isAscending() ? " ASC, " : " DESC, ");
+            byId |= "id".equals(order.getProperty());
+        }
+        if (!byId) {
+            orderBy.append("s.id ASC, ");
+        }
+        return orderBy.substring(0, orderBy.length() - 2);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> parameters) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec;
+    }
+
+    private static SightingDTO toDTO(Row row) {
+        Long birdId = row.get("bird_id", Long.class);
+        BirdDTO bird = new BirdDTO(birdId,
+                row.get("bird_name", String.class),
+                row.get("bird_color", String.class),
+                row.get("bird_weight", Double.class),
+                row.get("bird_height", Double.class));
+        return new SightingDTO(row.get("id", Long.class),
+                birdId,
+                row.get("location", String.class),
+                row.get("date_time", LocalDateTime.class),
+                row.get("report_count", Integer.class),
+                bird);
+    }
+}
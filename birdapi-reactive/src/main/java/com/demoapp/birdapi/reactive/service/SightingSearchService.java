@@ -0,0 +1,56 @@
+package com.demoapp.birdapi.reactive.service;
+
+import com.demoapp.birdapi.reactive.dto.SightingDTO;
+import com.demoapp.birdapi.reactive.repository.SightingQueryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Service
+public class SightingSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SightingSearchService.class);
+
+    private final SightingQueryRepository sightingQueryRepository;
+
+    public SightingSearchService(SightingQueryRepository sightingQueryRepository) {
+        this.sightingQueryRepository = sightingQueryRepository;
+    }
+
+    public Mono<Page<SightingDTO>> getAllSightings(Pageable pageable) {
+        log.info("Listing all sightings, pageable={}", pageable);
+
+        return searchSightings(null, null, null, null, pageable);
+    }
+
+    public Mono<Page<SightingDTO>> searchSightings(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                                                   Pageable pageable) {
+        log.info("Searching sightings birdName={} location={} fromDate={} toDate={} pageable={}", birdName, location, fromDate, toDate, pageable);
+
+        return sightingQueryRepository.search(birdName, location, fromDate, toDate, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+                .collectList()
+                .flatMap(content -> {
+                    // Like Spring Data's paging: the count query only runs when the page alone cannot tell the total
+                    if (content.isEmpty() ? pageable.getOffset() == 0 : content.size() < pageable.getPageSize()) {
+                        return Mono.just((Page<SightingDTO>) new PageImpl<>(content, pageable, pageable.getOffset() + content.size()));
+                    }
+                    return sightingQueryRepository.count(birdName, location, fromDate, toDate)
+                            .map(total -> (Page<SightingDTO>) new PageImpl<>(content, pageable, total));
+                });
+    }
+
+    // Every match, emitted as the subscriber requests it
+    public Flux<SightingDTO> streamSightings(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate, Sort sort) {
+        log.info("Streaming sightings birdName={} location={} fromDate={} toDate={} sort={}", birdName, location, fromDate, toDate, sort);
+
+        return sightingQueryRepository.search(birdName, location, fromDate, toDate, sort, 0, -1);
+    }
+}
@@ -0,0 +1,60 @@
+package com.demoapp.birdapi.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.LocalDateTime;
+
+// Seeds the shared tables the way the servlet module would have written them
+public final class SightingFixtures {
+
+    private SightingFixtures() {
+    }
+
+    public static void clear(DatabaseClient databaseClient) {
+        databaseClient.sql("DELETE FROM sighting_view").then().block();
+        databaseClient.sql("DELETE FROM sightings").then().block();
+        databaseClient.sql("DELETE FROM birds").then().block();
+        databaseClient.sql("DELETE FROM locations").then().block();
+        databaseClient.sql("DELETE FROM colors").then().block();
+    }
+
+    public static long bird(DatabaseClient databaseClient, String name, String color) {
+        return databaseClient.sql("INSERT INTO birds (name, color, weight, height) VALUES (:name, :color, 10.0, 5.0)")
+                .bind("name", name)
+                .bind("color", color)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+
+    public static void sighting(DatabaseClient databaseClient, long birdId, String location, LocalDateTime dateTime) {
+        databaseClient.sql("INSERT INTO sightings (bird_id, location, date_time, report_count) VALUES (:birdId, :location, :dateTime, 1)")
+                .bind("birdId", birdId)
+                .bind("location", location)
+                .bind("dateTime", dateTime)
+                .then()
+                .block();
+        syncView(databaseClient);
+    }
+
+    // Adds the dictionary entries and read model rows of sightings inserted directly, as the servlet module's write paths do
+    public static void syncView(DatabaseClient databaseClient) {
+        databaseClient.sql("INSERT INTO locations (name) SELECT DISTINCT s.location FROM sightings s"
+                        + " WHERE NOT EXISTS (SELECT 1 FROM locations l WHERE l.name = s.location)")
+                .then()
+                .block();
+        databaseClient.sql("INSERT INTO colors (name) SELECT DISTINCT b.color FROM birds b"
+                        + " WHERE NOT EXISTS (SELECT 1 FROM colors c WHERE c.name = b.color)")
+                .then()
+                .block();
+        databaseClient.sql("INSERT INTO sighting_view"
+                        + " (id, bird_id, bird_name, bird_color_id, bird_weight, bird_height, location_id, date_time, report_count)"
+                        + " SELECT s.id, s.bird_id, b.name, c.id, b.weight, b.height, l.id, s.date_time, s.report_count"
+                        + " FROM sightings s JOIN birds b ON b.id = s.bird_id"
+                        + " JOIN colors c ON c.name = b.color JOIN locations l ON l.name = s.location"
+                        + " WHERE NOT EXISTS (SELECT 1 FROM sighting_view v WHERE v.id = s.id)")
+                .then()
+                .block();
+    }
+}
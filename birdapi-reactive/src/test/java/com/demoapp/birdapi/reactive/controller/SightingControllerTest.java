@@ -0,0 +1,121 @@
+package com.demoapp.birdapi.reactive.controller;
+
+import com.demoapp.birdapi.reactive.SightingFixtures;
+import com.demoapp.birdapi.reactive.dto.SightingDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class SightingControllerTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private long blueJayId;
+
+    @BeforeEach
+    void setUp() {
+        SightingFixtures.clear(databaseClient);
+        blueJayId = SightingFixtures.bird(databaseClient, "Blue Jay", "Blue");
+        long robinId = SightingFixtures.bird(databaseClient, "Robin", "Red");
+        for (int i = 0; i < 6; i++) {
+            SightingFixtures.sighting(databaseClient, blueJayId, "Central Park " + i, DATE_TIME.plusDays(i));
+        }
+        SightingFixtures.sighting(databaseClient, robinId, "Hyde Park", DATE_TIME);
+    }
+
+    @Test
+    void getAllSightings_withDefaultPageable_shouldReturnFirstPageWithBird() {
+        // Act & Assert
+        webTestClient.get().uri("/api/sightings")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(5)
+                .jsonPath("$.totalElements").isEqualTo(7)
+                .jsonPath("$.totalPages").isEqualTo(2)
+                .jsonPath("$.content[0].birdId").isEqualTo(blueJayId)
+                .jsonPath("$.content[0].location").isEqualTo("Central Park 0")
+                .jsonPath("$.content[0].dateTime").isEqualTo("2025-01-15T10:30:00")
+                .jsonPath("$.content[0].reportCount").isEqualTo(1)
+                .jsonPath("$.content[0].bird.name").isEqualTo("Blue Jay");
+    }
+
+    @Test
+    void searchSightings_withAllParameters_shouldMatchLikeServletSearch() {
+        // Act & Assert
+        webTestClient.get().uri(uri -> uri.path("/api/sightings/search")
+                        .queryParam("birdName", "Blue Jay")
+                        .queryParam("location", "PARK")
+                        .queryParam("fromDate", "2025-01-16T10:30:00")
+                        .queryParam("toDate", "2025-01-18T10:30:00")
+                        .queryParam("sort", "dateTime,desc")
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(3)
+                .jsonPath("$.content[0].location").isEqualTo("Central Park 3")
+                .jsonPath("$.content[2].location").isEqualTo("Central Park 1");
+    }
+
+    @Test
+    void searchSightings_withBirdNameInOtherCase_shouldReturnEmptyPage() {
+        // Act & Assert
+        webTestClient.get().uri("/api/sightings/search?birdName=blue jay")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(0)
+                .jsonPath("$.totalElements").isEqualTo(0);
+    }
+
+    @Test
+    void searchSightings_asNdjson_shouldStreamEveryMatch() {
+        // Act
+        List<SightingDTO> sightings = webTestClient.get().uri("/api/sightings/search?location=central")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(SightingDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // Assert
+        assertEquals(6, sightings.size());
+        assertEquals("Central Park 5", sightings.get(5).getLocation());
+        assertEquals("Blue Jay", sightings.get(5).getBird().getName());
+    }
+
+    @Test
+    void searchSightings_withUnknownSortProperty_shouldReturnBadRequest() {
+        // Act & Assert
+        webTestClient.get().uri("/api/sightings/search?sort=secret")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Cannot sort sightings by secret");
+    }
+}
@@ -0,0 +1,62 @@
+package com.demoapp.birdapi.reactive.repository;
+
+import com.demoapp.birdapi.reactive.SightingFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "birdapi.reactive.fetch-size=2")
+class SightingQueryRepositoryTest {
+
+    @Autowired
+    private SightingQueryRepository sightingQueryRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        SightingFixtures.clear(databaseClient);
+        long birdId = SightingFixtures.bird(databaseClient, "Sparrow", "Brown");
+        for (int i = 0; i < 10; i++) {
+            SightingFixtures.sighting(databaseClient, birdId, "Meadow " + i, LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i));
+        }
+    }
+
+    @Test
+    void search_withoutLimit_shouldEmitOnlyWhatIsRequested() {
+        // Act & Assert
+        StepVerifier.create(sightingQueryRepository.search(null, null, null, null, Sort.by("id"), 0, -1), 3)
+                .expectNextCount(3)
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(7)
+                .expectNextCount(7)
+                .verifyComplete();
+    }
+
+    @Test
+    void search_withOffsetAndLimit_shouldReturnThatSlice() {
+        // Act & Assert
+        StepVerifier.create(sightingQueryRepository.search(null, "meadow", null, null, Sort.by(Sort.Direction.DESC, "dateTime"), 2, 3))
+                .assertNext(sighting -> assertEquals("Meadow 7", sighting.getLocation()))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void count_withFilter_shouldCountMatches() {
+        // Act & Assert
+        StepVerifier.create(sightingQueryRepository.count("Sparrow", null, LocalDateTime.of(2025, 1, 1, 5, 0), null))
+                .expectNext(5L)
+                .verifyComplete();
+    }
+}
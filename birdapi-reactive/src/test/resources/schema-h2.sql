@@ -0,0 +1,37 @@
+CREATE TABLE IF NOT EXISTS birds (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    color VARCHAR(255) NOT NULL,
+    weight DOUBLE NOT NULL,
+    height DOUBLE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS sightings (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    bird_id BIGINT NOT NULL REFERENCES birds (id),
+    location VARCHAR(255) NOT NULL,
+    date_time TIMESTAMP NOT NULL,
+    report_count INTEGER DEFAULT 1 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS locations (
+    id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS colors (
+    id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS sighting_view (
+    id BIGINT PRIMARY KEY,
+    bird_id BIGINT NOT NULL,
+    bird_name VARCHAR(255) NOT NULL,
+    bird_color_id INTEGER NOT NULL REFERENCES colors (id),
+    bird_weight DOUBLE NOT NULL,
+    bird_height DOUBLE NOT NULL,
+    location_id INTEGER NOT NULL REFERENCES locations (id),
+    date_time TIMESTAMP NOT NULL,
+    report_count INTEGER NOT NULL
+);
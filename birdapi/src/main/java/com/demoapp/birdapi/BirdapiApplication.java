@@ -1,13 +1,19 @@
 package com.demoapp.birdapi;
 
+import com.demoapp.birdapi.config.CommandLineMode;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class BirdapiApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(BirdapiApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(BirdapiApplication.class, args);
+		// The runners have done the one-shot work; closing flushes what they left pending
+		if (CommandLineMode.isActive(context.getEnvironment())) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
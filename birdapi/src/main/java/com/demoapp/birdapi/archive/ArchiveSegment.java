@@ -0,0 +1,459 @@
+package com.demoapp.birdapi.archive;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * One immutable archive file of sightings, stored column by column.
+ * <p>
+ * Layout: a header {@code [int magic][int version][int rows][long minId][long maxId][long minDateTime]
+ * [long maxDateTime]}, then the dictionaries of bird names, bird colors and locations as
+ * {@code [int count]} followed by {@code [int length][utf-8 bytes]} entries, then nine columns as
+ * {@code [int length][deflated bytes]}, and a trailing CRC32 of everything before it. String columns
+ * hold indexes into their dictionary; ids and times are delta-encoded against the previous row, which
+ * the archiver writes in date order, so both compress to a few bytes per row. Times are UTC epoch
+ * microseconds.
+ * <p>
+ * Opening a segment checks its checksum and keeps only its header and dictionaries, which are
+ * enough for {@link #mayContain} to rule it out of a search. The columns are decoded on the first scan and kept
+ * behind a soft reference, so the collector can drop them under memory pressure.
+ */
+public final class ArchiveSegment {
+
+    static final int MAGIC = 0x42524152; // "BRAR"
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 3 * Integer.BYTES + 4 * Long.BYTES;
+    private static final int CHECKSUM_SIZE = Long.BYTES;
+
+    private final Path file;
+    private final int rowCount;
+    private final long minId;
+    private final long maxId;
+    private final LocalDateTime minDateTime;
+    private final LocalDateTime maxDateTime;
+    private final List<String> birdNames;
+    private final List<String> colors;
+    private final List<String> locations;
+    private final long sizeBytes;
+
+    private volatile SoftReference<Columns> columns = new SoftReference<>(null);
+
+    private ArchiveSegment(Path file, int rowCount, long minId, long maxId, LocalDateTime minDateTime,
+                           LocalDateTime maxDateTime, List<String> birdNames, List<String> colors,
+                           List<String> locations, long sizeBytes) {
+        this.file = file;
+        this.rowCount = rowCount;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.minDateTime = minDateTime;
+        this.maxDateTime = maxDateTime;
+        this.birdNames = birdNames;
+        this.colors = colors;
+        this.locations = locations;
+        this.sizeBytes = sizeBytes;
+    }
+
+    /**
+     * Writes the rows, in the order given, to a temporary file that is forced to disk and then moved
+     * to {@code file}, so a crash never leaves a partly written segment under its final name.
+     */
+    public static ArchiveSegment write(Path file, List<ArchivedSighting> rows) throws IOException {
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("An archive segment needs at least one row");
+        }
+        Map<String, Integer> birdNames = new LinkedHashMap<>();
+        Map<String, Integer> colors = new LinkedHashMap<>();
+        Map<String, Integer> locations = new LinkedHashMap<>();
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+
+        ColumnWriter ids = new ColumnWriter();
+        ColumnWriter birdIds = new ColumnWriter();
+        ColumnWriter birdNameIndexes = new ColumnWriter();
+        ColumnWriter colorIndexes = new ColumnWriter();
+        ColumnWriter weights = new ColumnWriter();
+        ColumnWriter heights = new ColumnWriter();
+        ColumnWriter locationIndexes = new ColumnWriter();
+        ColumnWriter times = new ColumnWriter();
+        ColumnWriter reportCounts = new ColumnWriter();
+
+        long previousId = 0;
+        long previousTime = 0;
+        for (ArchivedSighting row : rows) {
+            long time = encode(row.getDateTime());
+            minId = Math.min(minId, row.getId());
+            maxId = Math.max(maxId, row.getId());
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+
+            ids.out.writeLong(row.getId() - previousId);
+            birdIds.out.writeLong(row.getBirdId());
+            birdNameIndexes.out.writeInt(intern(birdNames, row.getBirdName()));
+            colorIndexes.out.writeInt(intern(colors, row.getBirdColor()));
+            weights.out.writeDouble(row.getBirdWeight());
+            heights.out.writeDouble(row.getBirdHeight());
+            locationIndexes.out.writeInt(intern(locations, row.getLocation()));
+            times.out.writeLong(time - previousTime);
+            reportCounts.out.writeInt(row.getReportCount());
+            previousId = row.getId();
+            previousTime = time;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(rows.size());
+        out.writeLong(minId);
+        out.writeLong(maxId);
+        out.writeLong(minTime);
+        out.writeLong(maxTime);
+        writeDictionary(out, birdNames.keySet());
+        writeDictionary(out, colors.keySet());
+        writeDictionary(out, locations.keySet());
+        for (ColumnWriter column : List.of(ids, birdIds, birdNameIndexes, colorIndexes, weights, heights,
+                locationIndexes, times, reportCounts)) {
+            byte[] compressed = column.finish();
+            out.writeInt(compressed.length);
+            out.write(compressed);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return open(file);
+    }
+
+    /**
+     * Reads the header and dictionaries of a segment, after checking the whole file against its
+     * checksum.
+     */
+    public static ArchiveSegment open(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < HEADER_SIZE + CHECKSUM_SIZE) {
+            throw new IOException("Archive segment is truncated: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - CHECKSUM_SIZE);
+        if (ByteBuffer.wrap(bytes, bytes.length - CHECKSUM_SIZE, CHECKSUM_SIZE).getLong() != crc.getValue()) {
+            throw new IOException("Archive segment checksum mismatch: " + file);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an archive segment: " + file);
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported archive segment version " + version + ": " + file);
+        }
+        int rowCount = in.readInt();
+        long minId = in.readLong();
+        long maxId = in.readLong();
+        LocalDateTime minDateTime = decode(in.readLong());
+        LocalDateTime maxDateTime = decode(in.readLong());
+        List<String> birdNames = readDictionary(in);
+        List<String> colors = readDictionary(in);
+        List<String> locations = readDictionary(in);
+        return new ArchiveSegment(file, rowCount, minId, maxId, minDateTime, maxDateTime,
+                birdNames, colors, locations, bytes.length);
+    }
+
+    /**
+     * Whether the segment can hold a sighting matching the search filters, judged from its date
+     * range and dictionaries alone. The filters mean what they mean in the sighting search: an exact
+     * bird name, a case-insensitive location substring and an inclusive date range.
+     */
+    public boolean mayContain(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate) {
+        if (fromDate != null && maxDateTime.isBefore(fromDate)) {
+            return false;
+        }
+        if (toDate != null && minDateTime.isAfter(toDate)) {
+            return false;
+        }
+        if (!isEmpty(birdName) && !birdNames.contains(birdName)) {
+            return false;
+        }
+        return isEmpty(location) || matchingLocations(location) != null;
+    }
+
+    /**
+     * Passes every sighting of the segment matching the filters to {@code action}, in the order they
+     * were written.
+     *
+     * @return the number of matching sightings
+     */
+    public int forEachMatching(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                               Consumer<ArchivedSighting> action) throws IOException {
+        if (!mayContain(birdName, location, fromDate, toDate)) {
+            return 0;
+        }
+        int birdNameIndex = isEmpty(birdName) ? -1 : birdNames.indexOf(birdName);
+        boolean[] locationMatches = isEmpty(location) ? null : matchingLocations(location);
+        long from = fromDate == null ? Long.MIN_VALUE : encode(fromDate);
+        long to = toDate == null ? Long.MAX_VALUE : encode(toDate);
+
+        Columns columns = columns();
+        int matched = 0;
+        for (int row = 0; row < rowCount; row++) {
+            long time = columns.times[row];
+            if (time < from || time > to
+                    || (birdNameIndex >= 0 && columns.birdNames[row] != birdNameIndex)
+                    || (locationMatches != null && !locationMatches[columns.locations[row]])) {
+                continue;
+            }
+            action.accept(columns.row(row, this));
+            matched++;
+        }
+        return matched;
+    }
+
+    public List<ArchivedSighting> readAll() throws IOException {
+        List<ArchivedSighting> rows = new ArrayList<>(rowCount);
+        forEachMatching(null, null, null, null, rows::add);
+        return rows;
+    }
+
+    public long[] ids() throws IOException {
+        return columns().ids.clone();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public LocalDateTime getMinDateTime() {
+        return minDateTime;
+    }
+
+    public LocalDateTime getMaxDateTime() {
+        return maxDateTime;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchiveSegment{" +
+                "file=" + file.getFileName() +
+                ", rows=" + rowCount +
+                ", dateTime=" + minDateTime + ".." + maxDateTime +
+                '}';
+    }
+
+    // Null when no location in the dictionary matches, as a database LIKE '%location%' on lower case would
+    private boolean[] matchingLocations(String location) {
+        String needle = location.toLowerCase();
+        boolean[] matches = new boolean[locations.size()];
+        boolean any = false;
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = locations.get(i).toLowerCase().contains(needle);
+            any |= matches[i];
+        }
+        return any ? matches : null;
+    }
+
+    private Columns columns() throws IOException {
+        Columns decoded = columns.get();
+        if (decoded == null) {
+            decoded = Columns.read(file, rowCount);
+            columns = new SoftReference<>(decoded);
+        }
+        return decoded;
+    }
+
+    private static int intern(Map<String, Integer> dictionary, String value) {
+        return dictionary.computeIfAbsent(value, v -> dictionary.size());
+    }
+
+    private static void writeDictionary(DataOutputStream out, Iterable<String> values) throws IOException {
+        List<byte[]> encoded = new ArrayList<>();
+        values.forEach(value -> encoded.add(value.getBytes(StandardCharsets.UTF_8)));
+        out.writeInt(encoded.size());
+        for (byte[] value : encoded) {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static List<String> readDictionary(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] value = new byte[in.readInt()];
+            in.readFully(value);
+            values.add(new String(value, StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    static long encode(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    static LocalDateTime decode(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static final class ColumnWriter {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes));
+
+        byte[] finish() throws IOException {
+            out.close();
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * The decoded columns of a segment, with ids and times already undone from their deltas.
+     */
+    private static final class Columns {
+
+        private final long[] ids;
+        private final long[] birdIds;
+        private final int[] birdNames;
+        private final int[] colors;
+        private final double[] weights;
+        private final double[] heights;
+        private final int[] locations;
+        private final long[] times;
+        private final int[] reportCounts;
+
+        private Columns(int rows) {
+            ids = new long[rows];
+            birdIds = new long[rows];
+            birdNames = new int[rows];
+            colors = new int[rows];
+            weights = new double[rows];
+            heights = new double[rows];
+            locations = new int[rows];
+            times = new long[rows];
+            reportCounts = new int[rows];
+        }
+
+        static Columns read(Path file, int rows) throws IOException {
+            Columns columns = new Columns(rows);
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                in.readFully(new byte[HEADER_SIZE]);
+                for (int i = 0; i < 3; i++) {
+                    readDictionary(in);
+                }
+                long previousId = 0;
+                try (DataInputStream column = column(in)) {
+                    for (int row = 0; row < rows; row++) {
+                        previousId += column.readLong();
+                        columns.ids[row] = previousId;
+                    }
+                }
+                try (DataInputStream column = column(in)) {
+                    for (int row = 0; row < rows; row++) {
+                        columns.birdIds[row] = column.readLong();
+                    }
+                }
+                readInts(column(in), columns.birdNames);
+                readInts(column(in), columns.colors);
+                try (DataInputStream column = column(in)) {
+                    for (int row = 0; row < rows; row++) {
+                        columns.weights[row] = column.readDouble();
+                    }
+                }
+                try (DataInputStream column = column(in)) {
+                    for (int row = 0; row < rows; row++) {
+                        columns.heights[row] = column.readDouble();
+                    }
+                }
+                readInts(column(in), columns.locations);
+                long previousTime = 0;
+                try (DataInputStream column = column(in)) {
+                    for (int row = 0; row < rows; row++) {
+                        previousTime += column.readLong();
+                        columns.times[row] = previousTime;
+                    }
+                }
+                readInts(column(in), columns.reportCounts);
+            }
+            return columns;
+        }
+
+        // The next column, inflated from a copy so a short read cannot run into the following one
+        private static DataInputStream column(DataInputStream in) throws IOException {
+            byte[] compressed = new byte[in.readInt()];
+            in.readFully(compressed);
+            InputStream inflated = new InflaterInputStream(new ByteArrayInputStream(compressed));
+            return new DataInputStream(new BufferedInputStream(inflated));
+        }
+
+        private static void readInts(DataInputStream column, int[] values) throws IOException {
+            try (column) {
+                for (int row = 0; row < values.length; row++) {
+                    values[row] = column.readInt();
+                }
+            }
+        }
+
+        ArchivedSighting row(int row, ArchiveSegment segment) {
+            return new ArchivedSighting(ids[row], birdIds[row], segment.birdNames.get(birdNames[row]),
+                    segment.colors.get(colors[row]), weights[row], heights[row],
+                    segment.locations.get(locations[row]), decode(times[row]), reportCounts[row]);
+        }
+    }
+}
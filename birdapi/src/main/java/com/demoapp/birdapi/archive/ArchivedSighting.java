@@ -0,0 +1,102 @@
+package com.demoapp.birdapi.archive;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A sighting moved to the archive, with its bird's columns as they were when it was archived, the
+ * way the {@code sighting_view} read model carries them.
+ */
+public final class ArchivedSighting {
+
+    private final long id;
+    private final long birdId;
+    private final String birdName;
+    private final String birdColor;
+    private final double birdWeight;
+    private final double birdHeight;
+    private final String location;
+    private final LocalDateTime dateTime;
+    private final int reportCount;
+
+    public ArchivedSighting(long id, long birdId, String birdName, String birdColor, double birdWeight, double birdHeight,
+                            String location, LocalDateTime dateTime, int reportCount) {
+        this.id = id;
+        this.birdId = birdId;
+        this.birdName = birdName;
+        this.birdColor = birdColor;
+        this.birdWeight = birdWeight;
+        this.birdHeight = birdHeight;
+        this.location = location;
+        this.dateTime = dateTime;
+        this.reportCount = reportCount;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getBirdId() {
+        return birdId;
+    }
+
+    public String getBirdName() {
+        return birdName;
+    }
+
+    public String getBirdColor() {
+        return birdColor;
+    }
+
+    public double getBirdWeight() {
+        return birdWeight;
+    }
+
+    public double getBirdHeight() {
+        return birdHeight;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public int getReportCount() {
+        return reportCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArchivedSighting that = (ArchivedSighting) o;
+        return id == that.id
+                && birdId == that.birdId
+                && Double.compare(that.birdWeight, birdWeight) == 0
+                && Double.compare(that.birdHeight, birdHeight) == 0
+                && reportCount == that.reportCount
+                && Objects.equals(birdName, that.birdName)
+                && Objects.equals(birdColor, that.birdColor)
+                && Objects.equals(location, that.location)
+                && Objects.equals(dateTime, that.dateTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, birdId, birdName, birdColor, birdWeight, birdHeight, location, dateTime, reportCount);
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedSighting{" +
+                "id=" + id +
+                ", birdId=" + birdId +
+                ", birdName='" + birdName + '\'' +
+                ", location='" + location + '\'' +
+                ", dateTime=" + dateTime +
+                '}';
+    }
+}
@@ -0,0 +1,260 @@
+package com.demoapp.birdapi.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Directory of {@link ArchiveSegment} files holding sightings moved out of the database.
+ * <p>
+ * A segment is first written as {@code segment-<sequence>.bsa.pending} and becomes
+ * {@code segment-<sequence>.bsa}, visible to searches, only once the archiver has deleted its rows from
+ * the database; a pending segment left by a crash is either promoted or discarded by the archiver,
+ * depending on whether that delete committed. Searches read an immutable snapshot of the visible
+ * segments and take no lock. {@link #refresh()} picks up segments written by another instance when the
+ * directory is shared.
+ */
+public class SightingArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(SightingArchive.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".bsa";
+    private static final String PENDING_SUFFIX = ".pending";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+
+    // Held across file I/O, so a lock rather than a monitor, which would pin a virtual thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile List<ArchiveSegment> segments = Collections.emptyList();
+
+    private final LongAdder scannedSegments = new LongAdder();
+    private final LongAdder skippedSegments = new LongAdder();
+
+    private SightingArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    public static SightingArchive open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        // Left by a write interrupted before its move; never visible, so nothing refers to them
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + TEMP_SUFFIX)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+        SightingArchive archive = new SightingArchive(directory);
+        archive.refresh();
+        log.info("Opened sighting archive {} with {} segment(s), {} sightings",
+                directory, archive.segments.size(), archive.rowCount());
+        return archive;
+    }
+
+    /**
+     * Rescans the directory. Segments already open are kept, with their decoded columns; a segment
+     * that fails its checksum is logged and left out.
+     */
+    public void refresh() throws IOException {
+        writeLock.lock();
+        try {
+            Map<Path, ArchiveSegment> open = new HashMap<>();
+            for (ArchiveSegment segment : segments) {
+                open.put(segment.getFile(), segment);
+            }
+            List<ArchiveSegment> found = new ArrayList<>();
+            for (Path file : files(SEGMENT_SUFFIX).values()) {
+                ArchiveSegment segment = open.get(file);
+                if (segment == null) {
+                    try {
+                        segment = ArchiveSegment.open(file);
+                    } catch (IOException e) {
+                        log.error("Skipping unreadable archive segment {}: {}", file, e.getMessage());
+                        continue;
+                    }
+                }
+                found.add(segment);
+            }
+            segments = Collections.unmodifiableList(found);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public List<ArchiveSegment> segments() {
+        return segments;
+    }
+
+    /**
+     * Visible segments that may hold a sighting matching the search filters, in sequence order.
+     */
+    public List<ArchiveSegment> matching(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate) {
+        List<ArchiveSegment> snapshot = segments;
+        List<ArchiveSegment> matching = new ArrayList<>();
+        for (ArchiveSegment segment : snapshot) {
+            if (segment.mayContain(birdName, location, fromDate, toDate)) {
+                matching.add(segment);
+            }
+        }
+        scannedSegments.add(matching.size());
+        skippedSegments.add(snapshot.size() - matching.size());
+        return matching;
+    }
+
+    /**
+     * Passes the archived sightings of the given segments that match the filters to {@code action}.
+     *
+     * @return the number of matching sightings
+     */
+    public long forEachMatching(List<ArchiveSegment> segments, String birdName, String location,
+                                LocalDateTime fromDate, LocalDateTime toDate, Consumer<ArchivedSighting> action) {
+        long matched = 0;
+        for (ArchiveSegment segment : segments) {
+            try {
+                matched += segment.forEachMatching(birdName, location, fromDate, toDate, action);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read archive segment " + segment.getFile(), e);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Writes the rows as the next pending segment, not yet visible to searches.
+     */
+    public ArchiveSegment writePending(List<ArchivedSighting> rows) throws IOException {
+        writeLock.lock();
+        try {
+            long sequence = 0;
+            for (TreeMap<Long, Path> files : List.of(files(SEGMENT_SUFFIX), files(SEGMENT_SUFFIX + PENDING_SUFFIX))) {
+                if (!files.isEmpty()) {
+                    sequence = Math.max(sequence, files.lastKey());
+                }
+            }
+            String name = SEGMENT_PREFIX + String.format("%010d", sequence + 1) + SEGMENT_SUFFIX + PENDING_SUFFIX;
+            return ArchiveSegment.write(directory.resolve(name), rows);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Pending segments left in the directory, in sequence order
+    public List<ArchiveSegment> pending() throws IOException {
+        List<ArchiveSegment> pending = new ArrayList<>();
+        for (Path file : files(SEGMENT_SUFFIX + PENDING_SUFFIX).values()) {
+            try {
+                pending.add(ArchiveSegment.open(file));
+            } catch (IOException e) {
+                // Written through a temporary file and a move, so only damage to the disk gets here; kept for inspection
+                log.error("Skipping unreadable pending archive segment {}: {}", file, e.getMessage());
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Makes a pending segment visible to searches.
+     */
+    public ArchiveSegment promote(ArchiveSegment pending) throws IOException {
+        writeLock.lock();
+        try {
+            String name = pending.getFile().getFileName().toString();
+            Path file = pending.getFile().resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length()));
+            Files.move(pending.getFile(), file, StandardCopyOption.ATOMIC_MOVE);
+            ArchiveSegment segment = ArchiveSegment.open(file);
+            List<ArchiveSegment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            segments = Collections.unmodifiableList(updated);
+            return segment;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void discard(ArchiveSegment pending) throws IOException {
+        Files.deleteIfExists(pending.getFile());
+    }
+
+    /**
+     * Deletes the segments whose sightings are all older than {@code cutoff}.
+     *
+     * @return the number of sightings deleted with them
+     */
+    public long dropBefore(LocalDateTime cutoff) throws IOException {
+        writeLock.lock();
+        try {
+            List<ArchiveSegment> kept = new ArrayList<>();
+            long dropped = 0;
+            for (ArchiveSegment segment : segments) {
+                if (segment.getMaxDateTime().isBefore(cutoff)) {
+                    Files.deleteIfExists(segment.getFile());
+                    dropped += segment.getRowCount();
+                } else {
+                    kept.add(segment);
+                }
+            }
+            segments = Collections.unmodifiableList(kept);
+            return dropped;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long rowCount() {
+        long rows = 0;
+        for (ArchiveSegment segment : segments) {
+            rows += segment.getRowCount();
+        }
+        return rows;
+    }
+
+    public long sizeBytes() {
+        long bytes = 0;
+        for (ArchiveSegment segment : segments) {
+            bytes += segment.getSizeBytes();
+        }
+        return bytes;
+    }
+
+    // Segments a search had to read, and those ruled out by their statistics
+    public long scannedSegments() {
+        return scannedSegments.sum();
+    }
+
+    public long skippedSegments() {
+        return skippedSegments.sum();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Files with the suffix by sequence
+    private TreeMap<Long, Path> files(String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + suffix)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                files.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.indexOf(SEGMENT_SUFFIX))), file);
+            }
+        }
+        return files;
+    }
+}
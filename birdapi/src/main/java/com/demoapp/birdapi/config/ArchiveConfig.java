@@ -0,0 +1,27 @@
+package com.demoapp.birdapi.config;
+
+import com.demoapp.birdapi.archive.SightingArchive;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+public class ArchiveConfig {
+
+    // Archived sightings are gone from the database, so once archiving is on the directory must not be a temp one.
+    // With archiving off nothing is written, and searches read an empty archive
+    @Bean
+    public SightingArchive sightingArchive(@Value("${birdapi.archive.dir:}") String directory,
+                                           @Value("${birdapi.archive.after-days:0}") int afterDays) throws IOException {
+        if (directory.isBlank()) {
+            if (afterDays > 0) {
+                throw new IllegalArgumentException("birdapi.archive.dir must be set to a directory on persistent storage when birdapi.archive.after-days is set");
+            }
+            directory = System.getProperty("java.io.tmpdir") + "/birdapi/archive";
+        }
+        return SightingArchive.open(Paths.get(directory));
+    }
+}
@@ -0,0 +1,29 @@
+package com.demoapp.birdapi.config;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * A one-shot run from the command line, started with {@code birdapi.import.file},
+ * {@code birdapi.snapshot.create} or {@code birdapi.snapshot.restore}. It serves nothing, so the gRPC server and the scheduled jobs stay off, and the process exits once the
+ * runners return.
+ */
+public final class CommandLineMode {
+
+    // For @ConditionalOnExpression on beans only a serving instance needs
+    public static final String SERVING = "'${birdapi.import.file:}' == ''" +
+            " and '${birdapi.snapshot.create:}' == '' and '${birdapi.snapshot.restore:}' == ''";
+
+    private static final String[] PROPERTIES = {"birdapi.import.file", "birdapi.snapshot.create", "birdapi.snapshot.restore"};
+
+    private CommandLineMode() {
+    }
+
+    public static boolean isActive(Environment environment) {
+        for (String property : PROPERTIES) {
+            if (!environment.getProperty(property, "").isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
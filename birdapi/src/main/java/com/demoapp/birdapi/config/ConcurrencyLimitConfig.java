@@ -0,0 +1,46 @@
+package com.demoapp.birdapi.config;
+
+import com.demoapp.birdapi.controller.BirdController;
+import com.demoapp.birdapi.controller.SightingController;
+import com.demoapp.birdapi.limit.AdaptiveConcurrencyLimit;
+import com.demoapp.birdapi.limit.ConcurrencyLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Set;
+
+// Load shedding in front of the bird and sighting endpoints; disabled with birdapi.limit.enabled=false
+@Configuration
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final boolean enabled;
+    private final ConcurrencyLimitInterceptor interceptor;
+
+    public ConcurrencyLimitConfig(ObjectProvider<MeterRegistry> meterRegistry,
+                                  @Value("${birdapi.limit.enabled:true}") boolean enabled,
+                                  @Value("${birdapi.limit.read.initial:20}") int readInitial,
+                                  @Value("${birdapi.limit.read.min:4}") int readMin,
+                                  @Value("${birdapi.limit.read.max:200}") int readMax,
+                                  @Value("${birdapi.limit.write.initial:10}") int writeInitial,
+                                  @Value("${birdapi.limit.write.min:2}") int writeMin,
+                                  @Value("${birdapi.limit.write.max:100}") int writeMax) {
+        this.enabled = enabled;
+        // Web slice tests have no meter registry
+        this.interceptor = new ConcurrencyLimitInterceptor(Set.of(BirdController.class, SightingController.class),
+                new AdaptiveConcurrencyLimit(readInitial, readMin, readMax),
+                new AdaptiveConcurrencyLimit(writeInitial, writeMin, writeMax),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (enabled) {
+            registry.addInterceptor(interceptor);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.demoapp.birdapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class DashboardConfig {
+
+    // Bounded on both threads and queue; when saturated the request thread runs the section itself
+    @Bean
+    public ThreadPoolTaskExecutor dashboardExecutor(VirtualThreadSupport virtualThreads,
+                                                    @Value("${birdapi.dashboard.threads:4}") int threads,
+                                                    @Value("${birdapi.dashboard.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("dashboard-");
+        if (virtualThreads.isEnabled()) {
+            executor.setThreadFactory(virtualThreads.newThreadFactory("dashboard-"));
+        }
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,269 @@
+package com.demoapp.birdapi.config;
+
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import com.demoapp.birdapi.limit.ConcurrencyLimitInterceptor;
+import com.demoapp.birdapi.repository.QueryScope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bulkheads for database-bound request handlers. Searches and exports each run on their own
+ * bounded pool, so a burst of one cannot delay the other, and neither holds Tomcat worker threads
+ * while it waits on the database. Each pool has one thread per database connection it may use.
+ * Together they stay within the Hikari pool minus {@code birdapi.async.reserved-connections}: the
+ * bulkheads can never hold those connections, but they are not set aside for anyone in particular.
+ * Point lookups and writes on the request threads share them with everything else that uses the
+ * pool outside the bulkheads: the ingest commit workers, journal replay, the counter, retention and
+ * archive jobs, gRPC, GraphQL and the dashboard executor. Size the reserve for that load. Work
+ * beyond a pool's queue is rejected with 503 rather than piling up. The export pool also runs Spring MVC's
+ * own async work (streaming responses).
+ * <p>
+ * Handlers name their endpoint and default workload; {@code birdapi.async.endpoints.<endpoint>}
+ * moves an endpoint to another bulkhead ({@code search}, {@code export}) or onto the request thread
+ * ({@code inline}). With {@code birdapi.async.enabled=false} every handler runs inline, as before.
+ * <p>
+ * Every statement a handler runs gets the endpoint's {@code birdapi.query-timeout.<endpoint>}
+ * (seconds, default {@code birdapi.query-timeout.default}). When the client disconnects or the
+ * async request times out, the statement still running for it is cancelled in the database.
+ */
+@Component
+public class DatabaseExecutor implements WebMvcConfigurer, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseExecutor.class);
+
+    private static final String QUERY_SCOPE = DatabaseExecutor.class.getName() + ".queryScope";
+    private static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 30;
+
+    public enum Workload {
+        INLINE, SEARCH, EXPORT
+    }
+
+    private final Environment environment;
+    private final boolean enabled;
+    private final Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+
+    public DatabaseExecutor(ObjectProvider<VirtualThreadSupport> virtualThreadSupport,
+                            ObjectProvider<MeterRegistry> meterRegistry,
+                            Environment environment,
+                            @Value("${birdapi.async.enabled:true}") boolean enabled,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                            @Value("${birdapi.async.reserved-connections:2}") int reservedConnections,
+                            @Value("${birdapi.async.export-threads:0}") int exportThreads,
+                            @Value("${birdapi.async.search-threads:0}") int searchThreads,
+                            @Value("${birdapi.async.queue-capacity:100}") int searchQueueCapacity,
+                            @Value("${birdapi.async.export-queue-capacity:10}") int exportQueueCapacity,
+                            @Value("${birdapi.async.timeout-ms:30000}") long searchTimeoutMillis,
+                            @Value("${birdapi.async.streaming-timeout-ms:600000}") long exportTimeoutMillis) {
+        this.environment = environment;
+        this.enabled = enabled;
+        int budget = Math.max(2, connectionPoolSize - reservedConnections);
+        // Unset sizes split the budget: a quarter for exports, the rest for searches
+        int exports = exportThreads > 0 ? exportThreads : Math.max(1, budget / 4);
+        int searches = searchThreads > 0 ? searchThreads : Math.max(1, budget - exports);
+        if (searches + exports > budget) {
+            throw new IllegalArgumentException("birdapi.async.search-threads + export-threads (" + (searches + exports)
+                    + ") exceed the " + budget + " connections left after birdapi.async.reserved-connections");
+        }
+        // Absent in web slice tests, which only load the MVC configurers
+        VirtualThreadSupport virtualThreads = virtualThreadSupport.getIfAvailable(() -> new VirtualThreadSupport(false));
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        bulkheads.put(Workload.SEARCH, new Bulkhead(Workload.SEARCH, searches, searchQueueCapacity, searchTimeoutMillis, virtualThreads, registry));
+        bulkheads.put(Workload.EXPORT, new Bulkhead(Workload.EXPORT, exports, exportQueueCapacity, exportTimeoutMillis, virtualThreads, registry));
+        log.info("Database executor enabled={} searchThreads={} exportThreads={} reservedConnections={} virtual={}",
+                enabled, searches, exports, reservedConnections, virtualThreads.isEnabled());
+    }
+
+    /**
+     * Runs the call in the bulkhead configured for the endpoint and fails it with
+     * {@link ServiceUnavailableException} when that bulkhead is saturated or the call exceeds its
+     * timeout. A timed-out call has its running statement cancelled.
+     */
+    public <T> CompletableFuture<T> submit(String endpoint, Workload defaultWorkload, Supplier<T> call) {
+        QueryScope scope = openScope(endpoint);
+        Workload workload = workload(endpoint, defaultWorkload);
+        if (workload == Workload.INLINE) {
+            return CompletableFuture.completedFuture(scope.call(call));
+        }
+        return bulkheads.get(workload).submit(() -> scope.call(call), scope);
+    }
+
+    /**
+     * Applies the endpoint's statement timeout and disconnect cancellation to a streaming response,
+     * which Spring MVC runs in the export bulkhead.
+     */
+    public StreamingResponseBody stream(String endpoint, StreamingResponseBody body) {
+        QueryScope scope = openScope(endpoint);
+        return out -> {
+            try (QueryScope.Binding ignored = scope.bind()) {
+                body.writeTo(out);
+            }
+        };
+    }
+
+    // Kept on the request so the async interceptors below can find it when the client goes away
+    private QueryScope openScope(String endpoint) {
+        QueryScope scope = new QueryScope(endpoint, queryTimeoutSeconds(endpoint));
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(QUERY_SCOPE, scope, RequestAttributes.SCOPE_REQUEST);
+        }
+        return scope;
+    }
+
+    int queryTimeoutSeconds(String endpoint) {
+        int defaultTimeout = environment.getProperty("birdapi.query-timeout.default", Integer.class, DEFAULT_QUERY_TIMEOUT_SECONDS);
+        return environment.getProperty("birdapi.query-timeout." + endpoint, Integer.class, defaultTimeout);
+    }
+
+    Workload workload(String endpoint, Workload defaultWorkload) {
+        if (!enabled) {
+            return Workload.INLINE;
+        }
+        String key = "birdapi.async.endpoints." + endpoint;
+        String configured = environment.getProperty(key);
+        if (configured == null) {
+            return defaultWorkload;
+        }
+        try {
+            return Workload.valueOf(configured.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(key + " must be one of inline, search or export, not " + configured);
+        }
+    }
+
+    // Streaming responses are exports; submit() enforces its own timeouts, so this one only bounds them
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        Bulkhead exports = bulkheads.get(Workload.EXPORT);
+        configurer.setTaskExecutor(exports.executor);
+        configurer.setDefaultTimeout(exports.timeoutMillis);
+        // The container reports a client that disconnects during async processing as an error
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+                cancelQueries(request);
+                return RESULT_NONE;
+            }
+
+            @Override
+            public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+                cancelQueries(request);
+                return RESULT_NONE;
+            }
+        });
+        configurer.registerDeferredResultInterceptors(new DeferredResultProcessingInterceptor() {
+            @Override
+            public <T> boolean handleTimeout(NativeWebRequest request, DeferredResult<T> deferredResult) {
+                cancelQueries(request);
+                return true;
+            }
+
+            @Override
+            public <T> boolean handleError(NativeWebRequest request, DeferredResult<T> deferredResult, Throwable t) {
+                cancelQueries(request);
+                return true;
+            }
+        });
+    }
+
+    private static void cancelQueries(NativeWebRequest request) {
+        QueryScope scope = (QueryScope) request.getAttribute(QUERY_SCOPE, RequestAttributes.SCOPE_REQUEST);
+        if (scope != null) {
+            scope.cancel();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        bulkheads.values().forEach(bulkhead -> bulkhead.executor.shutdown());
+    }
+
+    private static final class Bulkhead {
+        private final String name;
+        private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        private final long timeoutMillis;
+        private final Counter rejected;
+
+        private Bulkhead(Workload workload, int threads, int queueCapacity, long timeoutMillis,
+                         VirtualThreadSupport virtualThreads, MeterRegistry meterRegistry) {
+            this.name = workload.name().toLowerCase(Locale.ROOT);
+            this.timeoutMillis = timeoutMillis;
+            executor.setCorePoolSize(threads);
+            executor.setMaxPoolSize(threads);
+            executor.setQueueCapacity(queueCapacity);
+            executor.setThreadNamePrefix("db-" + name + "-");
+            if (virtualThreads.isEnabled()) {
+                executor.setThreadFactory(virtualThreads.newThreadFactory("db-" + name + "-"));
+            }
+            executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+            executor.initialize();
+
+            Gauge.builder("birdapi.bulkhead.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                    .description("Database calls running in the bulkhead")
+                    .tag("workload", name)
+                    .register(meterRegistry);
+            Gauge.builder("birdapi.bulkhead.queued", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                    .description("Database calls waiting for a bulkhead thread")
+                    .tag("workload", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("birdapi.bulkhead.rejected")
+                    .description("Database calls refused with 503 because the bulkhead was full")
+                    .tag("workload", name)
+                    .register(meterRegistry);
+        }
+
+        private <T> CompletableFuture<T> submit(Supplier<T> call, QueryScope scope) {
+            CompletableFuture<T> future;
+            try {
+                future = CompletableFuture.supplyAsync(call, executor);
+            } catch (TaskRejectedException e) {
+                rejected.increment();
+                // Refused by our own bulkhead, not a sign of a struggling database
+                RequestAttributes request = RequestContextHolder.getRequestAttributes();
+                if (request != null) {
+                    request.setAttribute(ConcurrencyLimitInterceptor.SHED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+                }
+                throw new ServiceUnavailableException("Too many " + name + " requests in progress", 1);
+            }
+            return future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).exceptionally(ex -> {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if (cause instanceof TimeoutException) {
+                    scope.cancel();
+                    throw new ServiceUnavailableException("Request did not complete within " + timeoutMillis + " ms", 1);
+                }
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+            });
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.demoapp.birdapi.config;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Rejects GraphQL queries that are too deep or too expensive before any data is fetched.
+ * A field costs 1 plus its children; list fields multiply that by the number of items they can
+ * return ({@code size}, or the per-bird cap for {@code Bird.sightings}).
+ */
+@Configuration
+public class GraphQlConfig {
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(@Value("${birdapi.graphql.max-depth:6}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${birdapi.graphql.max-complexity:5000}") int maxComplexity,
+            @Value("${birdapi.graphql.sightings-per-bird:20}") int sightingsPerBird) {
+        FieldComplexityCalculator calculator = (environment, childComplexity) -> {
+            Object size = environment.getArguments().get("size");
+            if (size instanceof Integer) {
+                return (Integer) size * (1 + childComplexity);
+            }
+            if ("sightings".equals(environment.getField().getName())) {
+                return sightingsPerBird * (1 + childComplexity);
+            }
+            return 1 + childComplexity;
+        };
+        return new MaxQueryComplexityInstrumentation(maxComplexity, calculator);
+    }
+}
@@ -0,0 +1,23 @@
+package com.demoapp.birdapi.config;
+
+import com.demoapp.birdapi.journal.SightingJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+public class JournalConfig {
+
+    // No fallback here: application.properties sets one off temp storage, and blanking it is a mistake
+    @Bean(destroyMethod = "close")
+    public SightingJournal sightingJournal(@Value("${birdapi.journal.dir:}") String directory,
+                                           @Value("${birdapi.journal.segment-size-bytes:67108864}") int segmentSize) throws IOException {
+        if (directory.isBlank()) {
+            throw new IllegalArgumentException("birdapi.journal.dir must be set to a directory on persistent storage");
+        }
+        return SightingJournal.open(Paths.get(directory), segmentSize);
+    }
+}
@@ -0,0 +1,26 @@
+package com.demoapp.birdapi.config;
+
+import com.demoapp.birdapi.repository.CancellableDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Lets statement timeouts and client-disconnect cancellation reach the statements run by searches and exports
+@Configuration
+public class QueryCancellationConfig {
+
+    @Bean
+    static BeanPostProcessor cancellableDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof CancellableDataSource)) {
+                    return new CancellableDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.demoapp.birdapi.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@ConditionalOnExpression(CommandLineMode.SERVING)
+@EnableScheduling
+public class SchedulingConfig {
+}
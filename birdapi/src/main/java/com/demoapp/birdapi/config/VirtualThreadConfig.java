@@ -0,0 +1,17 @@
+package com.demoapp.birdapi.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "birdapi.virtual-threads.enabled")
+public class VirtualThreadConfig {
+
+    // One virtual thread per request instead of Tomcat's worker pool; max-connections becomes the limit
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(VirtualThreadSupport virtualThreads) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreads.newPerTaskExecutor("http-"));
+    }
+}
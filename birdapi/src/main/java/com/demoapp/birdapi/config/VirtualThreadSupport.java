@@ -0,0 +1,91 @@
+package com.demoapp.birdapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads of the request and worker pools: virtual threads with
+ * {@code birdapi.virtual-threads.enabled=true} (the {@code virtual-threads} profile), platform
+ * threads otherwise. The build targets Java 11, so virtual threads are reached by reflection and
+ * enabling them on an older runtime fails at startup.
+ */
+@Component
+public class VirtualThreadSupport {
+
+    private final boolean enabled;
+    private final Method ofVirtual;
+    private final Method name;
+    private final Method nameWithCounter;
+    private final Method factory;
+
+    public VirtualThreadSupport(@Value("${birdapi.virtual-threads.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            this.ofVirtual = null;
+            this.name = null;
+            this.nameWithCounter = null;
+            this.factory = null;
+            return;
+        }
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            this.ofVirtual = Thread.class.getMethod("ofVirtual");
+            this.name = builder.getMethod("name", String.class);
+            this.nameWithCounter = builder.getMethod("name", String.class, long.class);
+            this.factory = builder.getMethod("factory");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running on "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Thread factory for a bounded pool, naming threads {@code prefix0}, {@code prefix1}, ...; null
+     * when virtual threads are off, so the pool keeps its own platform-thread factory.
+     */
+    public ThreadFactory newThreadFactory(String prefix) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            return (ThreadFactory) factory.invoke(nameWithCounter.invoke(ofVirtual.invoke(null), prefix, 0L));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread factory", e);
+        }
+    }
+
+    /**
+     * Executor that starts a new virtual thread per task, for pools that only existed to bound
+     * the number of platform threads.
+     */
+    public Executor newPerTaskExecutor(String prefix) {
+        ThreadFactory threadFactory = newThreadFactory(prefix);
+        if (threadFactory == null) {
+            throw new IllegalStateException("Virtual threads are not enabled");
+        }
+        return task -> threadFactory.newThread(task).start();
+    }
+
+    // Long-running worker loop; platform workers are daemons so they never hold up JVM exit
+    public Thread newWorker(String threadName, Runnable loop) {
+        if (!enabled) {
+            Thread thread = new Thread(loop, threadName);
+            thread.setDaemon(true);
+            return thread;
+        }
+        try {
+            ThreadFactory threadFactory = (ThreadFactory) factory.invoke(name.invoke(ofVirtual.invoke(null), threadName));
+            return threadFactory.newThread(loop);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread " + threadName, e);
+        }
+    }
+}
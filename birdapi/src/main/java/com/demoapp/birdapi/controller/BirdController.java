@@ -1,7 +1,14 @@
 package com.demoapp.birdapi.controller;
 
+import com.demoapp.birdapi.config.DatabaseExecutor;
+import com.demoapp.birdapi.config.DatabaseExecutor.Workload;
 import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.dto.BirdUpsertRequestDTO;
+import com.demoapp.birdapi.dto.BirdUpsertResultDTO;
+import com.demoapp.birdapi.dto.BulkIdsDTO;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
 import com.demoapp.birdapi.service.BirdService;
+import com.demoapp.birdapi.service.IdempotencyService;
 import javax.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,14 +18,20 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/birds")
 public class BirdController {
 
     private final BirdService birdService;
+    private final IdempotencyService idempotencyService;
+    private final DatabaseExecutor databaseExecutor;
 
-    public BirdController(BirdService birdService) {
+    public BirdController(BirdService birdService, IdempotencyService idempotencyService, DatabaseExecutor databaseExecutor) {
         this.birdService = birdService;
+        this.idempotencyService = idempotencyService;
+        this.databaseExecutor = databaseExecutor;
     }
 
     @PostMapping
@@ -41,6 +54,20 @@ public class BirdController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/bulk-upsert")
+    public ResponseEntity<BirdUpsertResultDTO> upsertBirds(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                           @Valid @RequestBody BirdUpsertRequestDTO upsertRequestDTO) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/birds/bulk-upsert", upsertRequestDTO, BirdUpsertResultDTO.class,
+                () -> ResponseEntity.ok(birdService.upsertBirds(upsertRequestDTO.getBirds())));
+    }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkOperationResultDTO> deleteBirds(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                              @Valid @RequestBody BulkIdsDTO bulkIdsDTO) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/birds/bulk-delete", bulkIdsDTO, BulkOperationResultDTO.class,
+                () -> ResponseEntity.ok(birdService.deleteBirds(bulkIdsDTO.getIds())));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<BirdDTO> getBirdById(@PathVariable Long id) {
         BirdDTO bird = birdService.getBirdById(id);
@@ -53,11 +80,11 @@ public class BirdController {
     }
 
     @GetMapping("/search")
-    public Page<BirdDTO> searchBird(
+    public CompletableFuture<Page<BirdDTO>> searchBird(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String color,
             @PageableDefault(size = 5, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
-        return birdService.searchBirdsByNameAndColor(name, color, pageable);
+        return databaseExecutor.submit("birds.search", Workload.SEARCH, () -> birdService.searchBirdsByNameAndColor(name, color, pageable));
     }
 
 }
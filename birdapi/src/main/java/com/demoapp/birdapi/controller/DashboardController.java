@@ -0,0 +1,50 @@
+package com.demoapp.birdapi.controller;
+
+import com.demoapp.birdapi.dto.DashboardDTO;
+import com.demoapp.birdapi.exception.InvalidRequestException;
+import com.demoapp.birdapi.service.DashboardService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private static final List<String> SECTIONS = Arrays.asList(
+            DashboardService.BIRDS, DashboardService.RECENT_SIGHTINGS, DashboardService.SUMMARY);
+    private static final int MAX_LIMIT = 100;
+
+    private final DashboardService dashboardService;
+
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    @GetMapping
+    public ResponseEntity<DashboardDTO> getDashboard(@RequestParam(required = false) List<String> include,
+                                                     @RequestParam(defaultValue = "10") int birds,
+                                                     @RequestParam(defaultValue = "10") int sightings) {
+        Set<String> sections = new LinkedHashSet<>(include == null || include.isEmpty() ? SECTIONS : include);
+        if (!SECTIONS.containsAll(sections)) {
+            throw new InvalidRequestException("include must be a subset of " + SECTIONS);
+        }
+        if (birds < 1 || birds > MAX_LIMIT || sightings < 1 || sightings > MAX_LIMIT) {
+            throw new InvalidRequestException("birds and sightings must be between 1 and " + MAX_LIMIT);
+        }
+
+        DashboardDTO dashboard = dashboardService.getDashboard(sections, birds, sightings);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(dashboardService.maxAgeMillis(sections), TimeUnit.MILLISECONDS).cachePrivate())
+                .body(dashboard);
+    }
+}
@@ -0,0 +1,148 @@
+package com.demoapp.birdapi.controller;
+
+import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.exception.InvalidRequestException;
+import com.demoapp.birdapi.service.BirdService;
+import com.demoapp.birdapi.service.SightingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GraphQL queries over birds and sightings ({@code /graphql}, schema in {@code graphql/schema.graphqls}).
+ * Nested {@code bird} and {@code sightings} fields are {@link BatchMapping}s: they are collected per
+ * request and loaded with one query per field, not one per parent. A bird's {@code sightingCount} and
+ * {@code lastSeen} come with the bird itself.
+ */
+@Controller
+public class GraphQlQueryController {
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final BirdService birdService;
+    private final SightingService sightingService;
+    private final int maxPageSize;
+    private final int sightingsPerBird;
+
+    public GraphQlQueryController(BirdService birdService,
+                                  SightingService sightingService,
+                                  @Value("${birdapi.graphql.max-page-size:100}") int maxPageSize,
+                                  @Value("${birdapi.graphql.sightings-per-bird:20}") int sightingsPerBird) {
+        this.birdService = birdService;
+        this.sightingService = sightingService;
+        this.maxPageSize = maxPageSize;
+        this.sightingsPerBird = sightingsPerBird;
+    }
+
+    @QueryMapping
+    public List<BirdDTO> birds(@Argument int page, @Argument int size) {
+        return birdService.getAllBirds(pageRequest(page, size)).getContent();
+    }
+
+    @QueryMapping
+    public List<BirdDTO> searchBirds(@Argument String name, @Argument String color, @Argument int page, @Argument int size) {
+        return birdService.searchBirdsByNameAndColor(name, color, pageRequest(page, size)).getContent();
+    }
+
+    @QueryMapping
+    public BirdDTO bird(@Argument Long id) {
+        return birdService.getBirdById(id);
+    }
+
+    @QueryMapping
+    public List<SightingDTO> sightings(@Argument String birdName, @Argument String location,
+                                       @Argument String fromDate, @Argument String toDate,
+                                       @Argument int page, @Argument int size) {
+        return sightingService.searchSightingSummaries(birdName, location, parseDateTime(fromDate), parseDateTime(toDate),
+                pageRequest(page, size)).getContent();
+    }
+
+    @QueryMapping
+    public SightingDTO sighting(@Argument Long id) {
+        return sightingService.getSightingById(id);
+    }
+
+    @BatchMapping(typeName = "Sighting", field = "bird")
+    public Map<SightingDTO, BirdDTO> bird(List<SightingDTO> sightings) {
+        List<Long> birdIds = new ArrayList<>(sightings.size());
+        for (SightingDTO sighting : sightings) {
+            birdIds.add(sighting.getBirdId());
+        }
+        Map<Long, BirdDTO> birds = new HashMap<>();
+        for (BirdDTO bird : birdService.getBirdsByIds(birdIds)) {
+            birds.put(bird.getId(), bird);
+        }
+
+        Map<SightingDTO, BirdDTO> result = new LinkedHashMap<>();
+        for (SightingDTO sighting : sightings) {
+            result.put(sighting, birds.get(sighting.getBirdId()));
+        }
+        return result;
+    }
+
+    @BatchMapping(typeName = "Bird", field = "sightings")
+    public Map<BirdDTO, List<SightingDTO>> sightings(List<BirdDTO> birds) {
+        Map<Long, List<SightingDTO>> sightings = sightingService.getLatestSightingsByBirdIds(birdIds(birds), sightingsPerBird);
+
+        Map<BirdDTO, List<SightingDTO>> result = new LinkedHashMap<>();
+        for (BirdDTO bird : birds) {
+            result.put(bird, sightings.getOrDefault(bird.getId(), Collections.emptyList()));
+        }
+        return result;
+    }
+
+    // Maintained on the bird row, so it needs no query of its own
+    @SchemaMapping(typeName = "Bird", field = "sightingCount")
+    public int sightingCount(BirdDTO bird) {
+        return bird.getSightingCount() != null ? bird.getSightingCount().intValue() : 0;
+    }
+
+    @SchemaMapping(typeName = "Bird", field = "lastSeen")
+    public String lastSeen(BirdDTO bird) {
+        return bird.getLastSeen() != null ? DATE_TIME_FORMAT.format(bird.getLastSeen()) : null;
+    }
+
+    @SchemaMapping(typeName = "Sighting", field = "dateTime")
+    public String dateTime(SightingDTO sighting) {
+        return DATE_TIME_FORMAT.format(sighting.getDateTime());
+    }
+
+    @SchemaMapping(typeName = "Sighting", field = "reportCount")
+    public int reportCount(SightingDTO sighting) {
+        return sighting.getReportCount() != null ? sighting.getReportCount() : 1;
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new InvalidRequestException("page must be >= 0 and size between 1 and " + maxPageSize);
+        }
+        return PageRequest.of(page, size, Sort.by("id"));
+    }
+
+    private static List<Long> birdIds(List<BirdDTO> birds) {
+        List<Long> ids = new ArrayList<>(birds.size());
+        for (BirdDTO bird : birds) {
+            ids.add(bird.getId());
+        }
+        return ids;
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value, DATE_TIME_FORMAT);
+    }
+}
@@ -1,6 +1,17 @@
 package com.demoapp.birdapi.controller;
 
+import com.demoapp.birdapi.config.DatabaseExecutor;
+import com.demoapp.birdapi.config.DatabaseExecutor.Workload;
+import com.demoapp.birdapi.dto.BulkIdsDTO;
+import com.demoapp.birdapi.dto.BulkLocationUpdateDTO;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
 import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.exception.InvalidRequestException;
+import com.demoapp.birdapi.ingest.ImportFormat;
+import com.demoapp.birdapi.ingest.SightingRow;
+import com.demoapp.birdapi.service.IdempotencyService;
+import com.demoapp.birdapi.service.SightingExportService;
+import com.demoapp.birdapi.service.SightingJournalService;
 import com.demoapp.birdapi.service.SightingService;
 import javax.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -8,26 +19,61 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/sightings")
 public class SightingController {
 
     private final SightingService sightingService;
+    private final SightingJournalService sightingJournalService;
+    private final IdempotencyService idempotencyService;
+    private final SightingExportService sightingExportService;
+    private final DatabaseExecutor databaseExecutor;
 
-    public SightingController(SightingService sightingService) {
+    public SightingController(SightingService sightingService,
+                              SightingJournalService sightingJournalService,
+                              IdempotencyService idempotencyService,
+                              SightingExportService sightingExportService,
+                              DatabaseExecutor databaseExecutor) {
         this.sightingService = sightingService;
+        this.sightingJournalService = sightingJournalService;
+        this.idempotencyService = idempotencyService;
+        this.sightingExportService = sightingExportService;
+        this.databaseExecutor = databaseExecutor;
     }
 
     @PostMapping
-    public ResponseEntity<SightingDTO> createSighting(@Valid @RequestBody SightingDTO sightingDTO) {
-        SightingDTO createdSighting = sightingService.createSighting(sightingDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdSighting);
+    public ResponseEntity<SightingDTO> createSighting(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                      @Valid @RequestBody SightingDTO sightingDTO) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/sightings", sightingDTO, SightingDTO.class,
+                () -> createOrJournalSighting(sightingDTO));
+    }
+
+    // While the database is unreachable the sighting is journaled locally and answered with 202 and no id
+    private ResponseEntity<SightingDTO> createOrJournalSighting(SightingDTO sightingDTO) {
+        try {
+            SightingDTO createdSighting = sightingService.createSighting(sightingDTO);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdSighting);
+        } catch (RuntimeException e) {
+            if (!sightingJournalService.isDatabaseUnavailable(e)) {
+                throw e;
+            }
+            sightingJournalService.append(Collections.singletonList(
+                    new SightingRow(sightingDTO.getBirdId(), null, sightingDTO.getLocation(), sightingDTO.getDateTime())));
+            return ResponseEntity.accepted().body(sightingDTO);
+        }
     }
 
     @PutMapping("/{id}")
@@ -43,6 +89,12 @@ public class SightingController {
         return sightingService.getAllSightings(pageable);
     }
 
+    // Latest sighting of every bird, without their birds
+    @GetMapping("/latest")
+    public List<SightingDTO> getLatestSightings() {
+        return sightingService.getLatestSightings();
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<SightingDTO> getSightingById(@PathVariable Long id) {
         SightingDTO sighting = sightingService.getSightingById(id);
@@ -50,12 +102,33 @@ public class SightingController {
     }
 
     @GetMapping("/search")
-    public Page<SightingDTO> searchSighting(@RequestParam(required = false) String birdName,
-                                            @RequestParam(required = false) String location,
-                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
-                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
-                                            @PageableDefault(size = 5, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
-        return sightingService.searchSightings(birdName, location, fromDate, toDate, pageable);
+    public CompletableFuture<Page<SightingDTO>> searchSighting(@RequestParam(required = false) String birdName,
+                                                               @RequestParam(required = false) String location,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+                                                               @PageableDefault(size = 5, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        return databaseExecutor.submit("sightings.search", Workload.SEARCH, () -> sightingService.searchSightings(birdName, location, fromDate, toDate, pageable));
+    }
+
+    // Streams every match in the requested import format; runs in the export bulkhead, not on a Tomcat thread
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSightings(@RequestParam(defaultValue = "ndjson") String format,
+                                                                 @RequestParam(required = false) String birdName,
+                                                                 @RequestParam(required = false) String location,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate) {
+        ImportFormat exportFormat;
+        try {
+            exportFormat = ImportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("format must be one of csv, ndjson or json");
+        }
+        StreamingResponseBody body = databaseExecutor.stream("sightings.export",
+                out -> sightingExportService.export(exportFormat, birdName, location, fromDate, toDate, out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sightings." + exportFormat.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(body);
     }
 
     @DeleteMapping("/{id}")
@@ -63,5 +136,28 @@ public class SightingController {
         sightingService.deleteSighting(id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkOperationResultDTO> deleteSightings(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                                  @Valid @RequestBody BulkIdsDTO bulkIdsDTO) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/sightings/bulk-delete", bulkIdsDTO, BulkOperationResultDTO.class,
+                () -> ResponseEntity.ok(sightingService.deleteSightings(bulkIdsDTO.getIds())));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<BulkOperationResultDTO> deleteSightingsByFilter(@RequestParam(required = false) String birdName,
+                                                                          @RequestParam(required = false) String location,
+                                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+                                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate) {
+        BulkOperationResultDTO result = sightingService.deleteSightingsByFilter(birdName, location, fromDate, toDate);
+        return ResponseEntity.ok(result);
+    }
+
+    @PatchMapping("/location")
+    public ResponseEntity<BulkOperationResultDTO> updateSightingLocations(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                                          @Valid @RequestBody BulkLocationUpdateDTO updateDTO) {
+        return idempotencyService.execute(idempotencyKey, "PATCH /api/sightings/location", updateDTO, BulkOperationResultDTO.class,
+                () -> ResponseEntity.ok(sightingService.updateSightingLocations(updateDTO.getIds(), updateDTO.getLocation())));
+    }
 }
 
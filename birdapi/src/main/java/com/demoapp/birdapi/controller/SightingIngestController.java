@@ -0,0 +1,90 @@
+package com.demoapp.birdapi.controller;
+
+import com.demoapp.birdapi.dto.ImportResultDTO;
+import com.demoapp.birdapi.dto.IngestReceiptDTO;
+import com.demoapp.birdapi.dto.IngestStatusDTO;
+import com.demoapp.birdapi.exception.InvalidRequestException;
+import com.demoapp.birdapi.exception.PayloadTooLargeException;
+import com.demoapp.birdapi.exception.ResourceNotFoundException;
+import com.demoapp.birdapi.ingest.ImportFormat;
+import com.demoapp.birdapi.ingest.IngestTicket;
+import com.demoapp.birdapi.ingest.SightingIngestPipeline;
+import com.demoapp.birdapi.service.IdempotencyService;
+import com.demoapp.birdapi.service.SightingImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/sightings")
+public class SightingIngestController {
+
+    private final SightingImportService sightingImportService;
+    private final SightingIngestPipeline sightingIngestPipeline;
+    private final IdempotencyService idempotencyService;
+    private final int maxPayloadBytes;
+
+    public SightingIngestController(SightingImportService sightingImportService,
+                                    SightingIngestPipeline sightingIngestPipeline,
+                                    IdempotencyService idempotencyService,
+                                    @Value("${birdapi.ingest.max-payload-bytes:8388608}") int maxPayloadBytes) {
+        this.sightingImportService = sightingImportService;
+        this.sightingIngestPipeline = sightingIngestPipeline;
+        this.idempotencyService = idempotencyService;
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    // The body is read straight from the request stream so uploads of any size are never buffered whole
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ImportResultDTO> importSightings(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) throws IOException {
+        ImportResultDTO result = sightingImportService.importSightings(body, ImportFormat.fromContentType(contentType));
+        return ResponseEntity.ok(result);
+    }
+
+    // Parsing and validation happen on the pipeline workers, so the raw body is handed over untouched.
+    // It is read up to the size cap only, so an oversized body never ends up in memory whole.
+    @PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IngestReceiptDTO> ingestSightings(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                            InputStream request) throws IOException {
+        byte[] body = request.readNBytes(maxPayloadBytes + 1);
+        if (body.length == 0) {
+            throw new InvalidRequestException("Request body is missing");
+        }
+        if (body.length > maxPayloadBytes) {
+            throw new PayloadTooLargeException("Ingest payloads may be at most " + maxPayloadBytes + " bytes");
+        }
+        return idempotencyService.execute(idempotencyKey, "POST /api/sightings/ingest", body, IngestReceiptDTO.class,
+                () -> submitIngest(body));
+    }
+
+    private ResponseEntity<IngestReceiptDTO> submitIngest(byte[] body) {
+        IngestTicket ticket = sightingIngestPipeline.submit(body);
+        URI statusUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{trackingId}")
+                .buildAndExpand(ticket.getTrackingId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(statusUri)
+                .body(new IngestReceiptDTO(ticket.getTrackingId(), IngestTicket.Status.QUEUED.name()));
+    }
+
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<IngestStatusDTO> getIngestStatus(@PathVariable String trackingId) {
+        IngestTicket ticket = sightingIngestPipeline.findTicket(trackingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Ingest request not found with tracking id: " + trackingId));
+        return ResponseEntity.ok(ticket.toDTO());
+    }
+}
@@ -0,0 +1,40 @@
+package com.demoapp.birdapi.controller;
+
+import com.demoapp.birdapi.dto.SnapshotStatusDTO;
+import com.demoapp.birdapi.service.DatabaseSnapshotService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Restores replace all birds and sightings, so the endpoints exist only where explicitly enabled
+@RestController
+@RequestMapping("/api/admin/snapshots")
+@ConditionalOnProperty(name = "birdapi.snapshot.enabled")
+public class SnapshotController {
+
+    private final DatabaseSnapshotService databaseSnapshotService;
+
+    public SnapshotController(DatabaseSnapshotService databaseSnapshotService) {
+        this.databaseSnapshotService = databaseSnapshotService;
+    }
+
+    @PostMapping
+    public ResponseEntity<SnapshotStatusDTO> createSnapshot(@RequestParam(required = false) String name) {
+        return ResponseEntity.ok(databaseSnapshotService.snapshot(name));
+    }
+
+    @PostMapping("/{name}/restore")
+    public ResponseEntity<SnapshotStatusDTO> restoreSnapshot(@PathVariable String name) {
+        return ResponseEntity.ok(databaseSnapshotService.restore(name));
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<SnapshotStatusDTO> getStatus() {
+        return ResponseEntity.ok(databaseSnapshotService.status());
+    }
+}
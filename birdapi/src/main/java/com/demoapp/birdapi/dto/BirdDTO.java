@@ -1,8 +1,11 @@
 package com.demoapp.birdapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
 
 public class BirdDTO {
 
@@ -22,6 +25,14 @@ public class BirdDTO {
     @Positive(message = "Height must be positive")
     private Double height;
 
+    // Read-only; absent where the bird was built from a sighting rather than loaded
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long sightingCount;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime lastSeen;
+
     public BirdDTO() {
     }
 
@@ -72,5 +83,20 @@ public class BirdDTO {
     public void setHeight(Double height) {
         this.height = height;
     }
-}
 
+    public Long getSightingCount() {
+        return sightingCount;
+    }
+
+    public void setSightingCount(Long sightingCount) {
+        this.sightingCount = sightingCount;
+    }
+
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(LocalDateTime lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+}
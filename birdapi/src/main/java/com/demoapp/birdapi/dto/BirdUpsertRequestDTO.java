@@ -0,0 +1,29 @@
+package com.demoapp.birdapi.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class BirdUpsertRequestDTO {
+
+    @NotEmpty(message = "At least one bird is required")
+    @Size(max = 10000, message = "At most 10000 birds are allowed per request")
+    private List<@Valid @NotNull BirdDTO> birds;
+
+    public BirdUpsertRequestDTO() {
+    }
+
+    public BirdUpsertRequestDTO(List<BirdDTO> birds) {
+        this.birds = birds;
+    }
+
+    public List<BirdDTO> getBirds() {
+        return birds;
+    }
+
+    public void setBirds(List<BirdDTO> birds) {
+        this.birds = birds;
+    }
+}
@@ -0,0 +1,55 @@
+package com.demoapp.birdapi.dto;
+
+public class BirdUpsertResultDTO {
+
+    private int created;
+
+    private int updated;
+
+    private int unchanged;
+
+    public BirdUpsertResultDTO() {
+    }
+
+    public BirdUpsertResultDTO(int created, int updated, int unchanged) {
+        this.created = created;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    public void addCreated(int count) {
+        created += count;
+    }
+
+    public void addUpdated(int count) {
+        updated += count;
+    }
+
+    public void addUnchanged(int count) {
+        unchanged += count;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(int unchanged) {
+        this.unchanged = unchanged;
+    }
+}
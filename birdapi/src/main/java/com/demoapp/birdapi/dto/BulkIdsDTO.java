@@ -0,0 +1,28 @@
+package com.demoapp.birdapi.dto;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class BulkIdsDTO {
+
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = 10000, message = "At most 10000 ids are allowed per request")
+    private List<@NotNull Long> ids;
+
+    public BulkIdsDTO() {
+    }
+
+    public BulkIdsDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,41 @@
+package com.demoapp.birdapi.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class BulkLocationUpdateDTO {
+
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = 10000, message = "At most 10000 ids are allowed per request")
+    private List<@NotNull Long> ids;
+
+    @NotBlank(message = "Location is required")
+    private String location;
+
+    public BulkLocationUpdateDTO() {
+    }
+
+    public BulkLocationUpdateDTO(List<Long> ids, String location) {
+        this.ids = ids;
+        this.location = location;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+}
@@ -0,0 +1,53 @@
+package com.demoapp.birdapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkOperationResultDTO {
+
+    // Number of distinct ids in the request; null for filter-based operations
+    private Integer requested;
+
+    private int affected;
+
+    // Sightings removed together with deleted birds
+    private Integer sightingsDeleted;
+
+    public BulkOperationResultDTO() {
+    }
+
+    public BulkOperationResultDTO(Integer requested, int affected) {
+        this.requested = requested;
+        this.affected = affected;
+    }
+
+    public BulkOperationResultDTO(Integer requested, int affected, Integer sightingsDeleted) {
+        this.requested = requested;
+        this.affected = affected;
+        this.sightingsDeleted = sightingsDeleted;
+    }
+
+    public Integer getRequested() {
+        return requested;
+    }
+
+    public void setRequested(Integer requested) {
+        this.requested = requested;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+
+    public void setAffected(int affected) {
+        this.affected = affected;
+    }
+
+    public Integer getSightingsDeleted() {
+        return sightingsDeleted;
+    }
+
+    public void setSightingsDeleted(Integer sightingsDeleted) {
+        this.sightingsDeleted = sightingsDeleted;
+    }
+}
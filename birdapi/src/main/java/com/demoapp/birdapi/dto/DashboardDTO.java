@@ -0,0 +1,43 @@
+package com.demoapp.birdapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Sections that were not requested are left out
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardDTO {
+
+    private List<BirdDTO> birds;
+
+    private List<SightingDTO> recentSightings;
+
+    private DashboardSummaryDTO summary;
+
+    public DashboardDTO() {
+    }
+
+    public List<BirdDTO> getBirds() {
+        return birds;
+    }
+
+    public void setBirds(List<BirdDTO> birds) {
+        this.birds = birds;
+    }
+
+    public List<SightingDTO> getRecentSightings() {
+        return recentSightings;
+    }
+
+    public void setRecentSightings(List<SightingDTO> recentSightings) {
+        this.recentSightings = recentSightings;
+    }
+
+    public DashboardSummaryDTO getSummary() {
+        return summary;
+    }
+
+    public void setSummary(DashboardSummaryDTO summary) {
+        this.summary = summary;
+    }
+}
@@ -0,0 +1,32 @@
+package com.demoapp.birdapi.dto;
+
+public class DashboardSummaryDTO {
+
+    private long birdCount;
+
+    private long sightingCount;
+
+    public DashboardSummaryDTO() {
+    }
+
+    public DashboardSummaryDTO(long birdCount, long sightingCount) {
+        this.birdCount = birdCount;
+        this.sightingCount = sightingCount;
+    }
+
+    public long getBirdCount() {
+        return birdCount;
+    }
+
+    public void setBirdCount(long birdCount) {
+        this.birdCount = birdCount;
+    }
+
+    public long getSightingCount() {
+        return sightingCount;
+    }
+
+    public void setSightingCount(long sightingCount) {
+        this.sightingCount = sightingCount;
+    }
+}
@@ -0,0 +1,32 @@
+package com.demoapp.birdapi.dto;
+
+public class IngestReceiptDTO {
+
+    private String trackingId;
+
+    private String status;
+
+    public IngestReceiptDTO() {
+    }
+
+    public IngestReceiptDTO(String trackingId, String status) {
+        this.trackingId = trackingId;
+        this.status = status;
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public void setTrackingId(String trackingId) {
+        this.trackingId = trackingId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
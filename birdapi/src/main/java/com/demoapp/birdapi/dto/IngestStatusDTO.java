@@ -0,0 +1,103 @@
+package com.demoapp.birdapi.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class IngestStatusDTO {
+
+    private String trackingId;
+
+    // QUEUED, PROCESSING, COMPLETED or FAILED
+    private String status;
+
+    // Null until the payload has been parsed
+    private Integer received;
+
+    private int committed;
+
+    // Held in the local journal until the database is reachable again
+    private int journaled;
+
+    private int rejected;
+
+    private List<String> errors;
+
+    private LocalDateTime acceptedAt;
+
+    private LocalDateTime completedAt;
+
+    public IngestStatusDTO() {
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public void setTrackingId(String trackingId) {
+        this.trackingId = trackingId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getReceived() {
+        return received;
+    }
+
+    public void setReceived(Integer received) {
+        this.received = received;
+    }
+
+    public int getCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(int committed) {
+        this.committed = committed;
+    }
+
+    public int getJournaled() {
+        return journaled;
+    }
+
+    public void setJournaled(int journaled) {
+        this.journaled = journaled;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    public LocalDateTime getAcceptedAt() {
+        return acceptedAt;
+    }
+
+    public void setAcceptedAt(LocalDateTime acceptedAt) {
+        this.acceptedAt = acceptedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
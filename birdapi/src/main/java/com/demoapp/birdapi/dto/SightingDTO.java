@@ -19,6 +19,9 @@ public class SightingDTO {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime dateTime;
 
+    // Number of near-duplicate reports merged into this sighting; response only
+    private Integer reportCount;
+
     // Bird details for response
     private BirdDTO bird;
 
@@ -64,6 +67,14 @@ public class SightingDTO {
         this.dateTime = dateTime;
     }
 
+    public Integer getReportCount() {
+        return reportCount;
+    }
+
+    public void setReportCount(Integer reportCount) {
+        this.reportCount = reportCount;
+    }
+
     public BirdDTO getBird() {
         return bird;
     }
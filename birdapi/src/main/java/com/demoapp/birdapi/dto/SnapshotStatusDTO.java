@@ -0,0 +1,140 @@
+package com.demoapp.birdapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SnapshotStatusDTO {
+
+    // SNAPSHOT or RESTORE
+    private String operation;
+
+    private String name;
+
+    // RUNNING, COMPLETED or FAILED
+    private String status;
+
+    // What the operation is doing, e.g. "copying sightings" or "rebuilding indexes"
+    private String phase;
+
+    // Rows copied per table so far
+    private Map<String, Long> rows;
+
+    // Binary COPY data written or read so far
+    private long dataBytes;
+
+    // Compressed snapshot file bytes written or read so far
+    private long fileBytes;
+
+    // Size of the snapshot file being restored; null while a snapshot is written
+    private Long totalFileBytes;
+
+    private long elapsedMillis;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    private String error;
+
+    public SnapshotStatusDTO() {
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public Map<String, Long> getRows() {
+        return rows;
+    }
+
+    public void setRows(Map<String, Long> rows) {
+        this.rows = rows;
+    }
+
+    public long getDataBytes() {
+        return dataBytes;
+    }
+
+    public void setDataBytes(long dataBytes) {
+        this.dataBytes = dataBytes;
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    public void setFileBytes(long fileBytes) {
+        this.fileBytes = fileBytes;
+    }
+
+    public Long getTotalFileBytes() {
+        return totalFileBytes;
+    }
+
+    public void setTotalFileBytes(Long totalFileBytes) {
+        this.totalFileBytes = totalFileBytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
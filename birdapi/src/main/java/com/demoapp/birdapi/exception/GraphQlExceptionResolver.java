@@ -0,0 +1,31 @@
+package com.demoapp.birdapi.exception;
+
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeParseException;
+
+// GraphQL counterpart of GlobalExceptionHandler
+@Component
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        ErrorType errorType;
+        if (ex instanceof ResourceNotFoundException) {
+            errorType = ErrorType.NOT_FOUND;
+        } else if (ex instanceof InvalidRequestException || ex instanceof DateTimeParseException) {
+            errorType = ErrorType.BAD_REQUEST;
+        } else {
+            return null;
+        }
+        return GraphqlErrorBuilder.newError(env)
+                .errorType(errorType)
+                .message(ex.getMessage())
+                .build();
+    }
+}
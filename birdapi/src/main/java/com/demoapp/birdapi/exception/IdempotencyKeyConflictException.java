@@ -0,0 +1,8 @@
+package com.demoapp.birdapi.exception;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
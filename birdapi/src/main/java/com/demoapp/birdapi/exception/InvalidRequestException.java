@@ -0,0 +1,9 @@
+package com.demoapp.birdapi.exception;
+
+// A request parameter or header the client got wrong; its message is returned to the client as is
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.demoapp.birdapi.exception;
+
+// Snapshots use PostgreSQL's COPY, so the configured database cannot run them
+public class SnapshotsUnsupportedException extends RuntimeException {
+
+    public SnapshotsUnsupportedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,91 @@
+package com.demoapp.birdapi.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import com.demoapp.birdapi.config.CommandLineMode;
+import com.demoapp.birdapi.config.VirtualThreadSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC server next to the servlet container on {@code birdapi.grpc.port}
+ * (0 picks a free port). Disabled with {@code birdapi.grpc.enabled=false}, and in
+ * {@link CommandLineMode}.
+ */
+@Component
+@ConditionalOnProperty(name = "birdapi.grpc.enabled", matchIfMissing = true)
+@ConditionalOnExpression(CommandLineMode.SERVING)
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final SightingGrpcService sightingGrpcService;
+    private final VirtualThreadSupport virtualThreads;
+    private final int port;
+    private final long shutdownGraceSeconds;
+
+    private volatile Server server;
+
+    public GrpcServerLifecycle(SightingGrpcService sightingGrpcService,
+                               VirtualThreadSupport virtualThreads,
+                               @Value("${birdapi.grpc.port:9090}") int port,
+                               @Value("${birdapi.grpc.shutdown-grace-seconds:10}") long shutdownGraceSeconds) {
+        this.sightingGrpcService = sightingGrpcService;
+        this.virtualThreads = virtualThreads;
+        this.port = port;
+        this.shutdownGraceSeconds = shutdownGraceSeconds;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (server != null) {
+            return;
+        }
+        try {
+            NettyServerBuilder builder = NettyServerBuilder.forPort(port).addService(sightingGrpcService);
+            if (virtualThreads.isEnabled()) {
+                builder.executor(virtualThreads.newPerTaskExecutor("grpc-"));
+            }
+            server = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start gRPC server on port " + port, e);
+        }
+        log.info("Started gRPC server on port {}", server.getPort());
+    }
+
+    // Lets in-flight streams finish for the grace period, then cancels them
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server != null ? server.getPort() : -1;
+    }
+}
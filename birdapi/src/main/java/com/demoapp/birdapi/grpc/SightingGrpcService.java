@@ -0,0 +1,310 @@
+package com.demoapp.birdapi.grpc;
+
+import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.dto.ImportResultDTO;
+import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.grpc.proto.Bird;
+import com.demoapp.birdapi.grpc.proto.IngestSummary;
+import com.demoapp.birdapi.grpc.proto.SearchSightingsRequest;
+import com.demoapp.birdapi.grpc.proto.Sighting;
+import com.demoapp.birdapi.grpc.proto.SightingStreamGrpc;
+import com.demoapp.birdapi.repository.QueryScope;
+import com.demoapp.birdapi.service.SightingService;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * gRPC counterpart of the sighting ingest and search endpoints, backed by {@link SightingService}.
+ * <p>
+ * {@code IngestSightings} disables automatic inbound flow control: it asks the client for one
+ * window of messages, writes that window in one transaction and only then asks for the next, so a
+ * fast sender is held back by HTTP/2 flow control instead of filling server memory.
+ * {@code SearchSightings} loads keyset pages only while the outbound stream is ready; when the
+ * client cancels the call, the page query still running for it is cancelled in the database.
+ */
+@Component
+public class SightingGrpcService extends SightingStreamGrpc.SightingStreamImplBase {
+
+    private static final Logger log = LoggerFactory.getLogger(SightingGrpcService.class);
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final int MAX_ERRORS = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final SightingService sightingService;
+    private final Validator validator;
+    private final int ingestWindow;
+    private final int searchPageSize;
+    private final int searchQueryTimeoutSeconds;
+
+    public SightingGrpcService(SightingService sightingService,
+                               Validator validator,
+                               @Value("${birdapi.grpc.ingest-window:500}") int ingestWindow,
+                               @Value("${birdapi.grpc.search-page-size:500}") int searchPageSize,
+                               @Value("${birdapi.query-timeout.grpc.search:${birdapi.query-timeout.default:30}}") int searchQueryTimeoutSeconds) {
+        this.sightingService = sightingService;
+        this.validator = validator;
+        this.ingestWindow = ingestWindow;
+        this.searchPageSize = searchPageSize;
+        this.searchQueryTimeoutSeconds = searchQueryTimeoutSeconds;
+    }
+
+    @Override
+    public StreamObserver<Sighting> ingestSightings(StreamObserver<IngestSummary> responseObserver) {
+        ServerCallStreamObserver<IngestSummary> call = (ServerCallStreamObserver<IngestSummary>) responseObserver;
+        call.disableAutoRequest();
+        call.request(ingestWindow);
+        return new IngestStream(call);
+    }
+
+    @Override
+    public void searchSightings(SearchSightingsRequest request, StreamObserver<Sighting> responseObserver) {
+        LocalDateTime fromDate;
+        LocalDateTime toDate;
+        try {
+            fromDate = parseOptional(request.getFromDate());
+            toDate = parseOptional(request.getToDate());
+        } catch (DateTimeParseException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Dates must use yyyy-MM-dd'T'HH:mm:ss").asRuntimeException());
+            return;
+        }
+        int pageSize = request.getPageSize() > 0 ? Math.min(request.getPageSize(), MAX_PAGE_SIZE) : searchPageSize;
+
+        ServerCallStreamObserver<Sighting> call = (ServerCallStreamObserver<Sighting>) responseObserver;
+        SearchStream stream = new SearchStream(call, request, fromDate, toDate, pageSize);
+        call.setOnCancelHandler(() -> {
+            log.debug("SearchSightings cancelled by client");
+            stream.scope.cancel();
+        });
+        call.setOnReadyHandler(stream);
+    }
+
+    private final class IngestStream implements StreamObserver<Sighting> {
+
+        private final ServerCallStreamObserver<IngestSummary> call;
+        private final List<SightingDTO> window = new ArrayList<>(ingestWindow);
+        private final ImportResultDTO summary = new ImportResultDTO();
+        private final long startNanos = System.nanoTime();
+        private boolean closed;
+
+        private IngestStream(ServerCallStreamObserver<IngestSummary> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void onNext(Sighting message) {
+            if (closed) {
+                return;
+            }
+            long index = summary.getRowsRead();
+            summary.setRowsRead(index + 1);
+            SightingDTO sighting = null;
+            String problem;
+            try {
+                sighting = toDTO(message);
+                problem = validate(sighting);
+            } catch (DateTimeParseException e) {
+                problem = "dateTime is not yyyy-MM-dd'T'HH:mm:ss: " + message.getDateTime();
+            }
+            if (problem != null) {
+                reject("Item " + index + ": " + problem);
+            } else {
+                window.add(sighting);
+            }
+            if (summary.getRowsRead() % ingestWindow == 0 && flush()) {
+                call.request(ingestWindow);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // Windows written so far stay committed; the buffered remainder is discarded
+            closed = true;
+            log.warn("IngestSightings aborted by client after {} messages: {}", summary.getRowsRead(), t.getMessage());
+        }
+
+        @Override
+        public void onCompleted() {
+            if (closed || !flush()) {
+                return;
+            }
+            closed = true;
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            log.info("gRPC ingest finished read={} imported={} rejected={} elapsedMs={}",
+                    summary.getRowsRead(), summary.getRowsImported(), summary.getRowsRejected(), elapsedMillis);
+            call.onNext(IngestSummary.newBuilder()
+                    .setRowsRead(summary.getRowsRead())
+                    .setRowsImported(summary.getRowsImported())
+                    .setRowsRejected(summary.getRowsRejected())
+                    .addAllErrors(summary.getErrors())
+                    .setElapsedMillis(elapsedMillis)
+                    .build());
+            call.onCompleted();
+        }
+
+        // Writes the buffered window; on failure ends the call, as nothing further can be acknowledged
+        private boolean flush() {
+            if (window.isEmpty()) {
+                return true;
+            }
+            ImportResultDTO result;
+            try {
+                result = sightingService.createSightings(window);
+            } catch (RuntimeException e) {
+                closed = true;
+                log.error("Failed to write gRPC ingest window of {} sightings", window.size(), e);
+                call.onError(Status.UNAVAILABLE.withDescription("Failed to write sightings: " + e.getMessage())
+                        .withCause(e).asRuntimeException());
+                return false;
+            }
+            window.clear();
+            summary.setRowsImported(summary.getRowsImported() + result.getRowsImported());
+            for (String error : result.getErrors()) {
+                reject(error);
+            }
+            return true;
+        }
+
+        private void reject(String error) {
+            summary.setRowsRejected(summary.getRowsRejected() + 1);
+            if (summary.getErrors().size() < MAX_ERRORS) {
+                summary.getErrors().add(error);
+            }
+        }
+    }
+
+    private final class SearchStream implements Runnable {
+
+        private final ServerCallStreamObserver<Sighting> call;
+        private final SearchSightingsRequest request;
+        private final LocalDateTime fromDate;
+        private final LocalDateTime toDate;
+        private final int pageSize;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final QueryScope scope = new QueryScope("grpc.search", searchQueryTimeoutSeconds);
+
+        private Iterator<SightingDTO> page;
+        private Long lastId;
+        private boolean lastPage;
+        private boolean done;
+
+        private SearchStream(ServerCallStreamObserver<Sighting> call, SearchSightingsRequest request,
+                             LocalDateTime fromDate, LocalDateTime toDate, int pageSize) {
+            this.call = call;
+            this.request = request;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.pageSize = pageSize;
+        }
+
+        // Runs whenever the transport can take more messages; stops as soon as it cannot. A lock
+        // rather than a monitor, because the page query runs while it is held.
+        @Override
+        public void run() {
+            lock.lock();
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            try {
+                while (call.isReady() && !call.isCancelled()) {
+                    if (page == null || !page.hasNext()) {
+                        if (lastPage) {
+                            done = true;
+                            call.onCompleted();
+                            return;
+                        }
+                        List<SightingDTO> sightings = scope.call(() -> sightingService.searchSightingsAfter(
+                                request.getBirdName(), request.getLocation(), fromDate, toDate, lastId, pageSize));
+                        lastPage = sightings.size() < pageSize;
+                        page = sightings.iterator();
+                        continue;
+                    }
+                    SightingDTO sighting = page.next();
+                    lastId = sighting.getId();
+                    call.onNext(toMessage(sighting));
+                }
+            } catch (RuntimeException e) {
+                done = true;
+                if (scope.isCancelled()) {
+                    return;
+                }
+                log.error("SearchSightings failed", e);
+                call.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
+            }
+        }
+    }
+
+    // Same Bean Validation rules as POST /api/sightings
+    private String validate(SightingDTO sighting) {
+        Set<ConstraintViolation<SightingDTO>> violations = validator.validate(sighting);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<SightingDTO> violation = violations.iterator().next();
+        return violation.getPropertyPath() + " " + violation.getMessage();
+    }
+
+    static SightingDTO toDTO(Sighting message) {
+        return new SightingDTO(null,
+                message.getBirdId() != 0 ? message.getBirdId() : null,
+                message.getLocation(),
+                message.getDateTime().isEmpty() ? null : LocalDateTime.parse(message.getDateTime(), DATE_TIME_FORMAT));
+    }
+
+    static Sighting toMessage(SightingDTO sighting) {
+        Sighting.Builder builder = Sighting.newBuilder()
+                .setBirdId(sighting.getBirdId())
+                .setLocation(sighting.getLocation())
+                .setDateTime(DATE_TIME_FORMAT.format(sighting.getDateTime()));
+        if (sighting.getId() != null) {
+            builder.setId(sighting.getId());
+        }
+        if (sighting.getReportCount() != null) {
+            builder.setReportCount(sighting.getReportCount());
+        }
+        BirdDTO bird = sighting.getBird();
+        if (bird != null) {
+            Bird.Builder birdBuilder = Bird.newBuilder().setId(bird.getId()).setName(bird.getName());
+            if (bird.getColor() != null) {
+                birdBuilder.setColor(bird.getColor());
+            }
+            if (bird.getWeight() != null) {
+                birdBuilder.setWeight(bird.getWeight());
+            }
+            if (bird.getHeight() != null) {
+                birdBuilder.setHeight(bird.getHeight());
+            }
+            builder.setBird(birdBuilder);
+        }
+        return builder.build();
+    }
+
+    private static LocalDateTime parseOptional(String value) {
+        return value.isEmpty() ? null : LocalDateTime.parse(value, DATE_TIME_FORMAT);
+    }
+}
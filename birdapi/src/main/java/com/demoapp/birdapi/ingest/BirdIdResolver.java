@@ -0,0 +1,94 @@
+package com.demoapp.birdapi.ingest;
+
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Resolves the bird of each row with one query per chunk instead of one lookup per row.
+ * Results are cached for the lifetime of the resolver, so it should be scoped to a single import
+ * or ingest batch stream; the cache is dropped once it exceeds {@code maxCacheSize} entries.
+ */
+public class BirdIdResolver {
+
+    private final SightingJdbcRepository sightingJdbcRepository;
+    private final int maxCacheSize;
+
+    private final Map<String, Long> idsByLowerName = new HashMap<>();
+    private final Set<String> unknownNames = new HashSet<>();
+    private final Set<Long> knownIds = new HashSet<>();
+    private final Set<Long> unknownIds = new HashSet<>();
+
+    public BirdIdResolver(SightingJdbcRepository sightingJdbcRepository, int maxCacheSize) {
+        this.sightingJdbcRepository = sightingJdbcRepository;
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Sets the bird id of every resolvable row and returns those rows; the others are handed to
+     * {@code unresolved}.
+     */
+    public List<SightingRow> resolve(List<SightingRow> rows, Consumer<SightingRow> unresolved) {
+        if (idsByLowerName.size() + unknownNames.size() + knownIds.size() + unknownIds.size() > maxCacheSize) {
+            idsByLowerName.clear();
+            unknownNames.clear();
+            knownIds.clear();
+            unknownIds.clear();
+        }
+
+        Set<String> namesToLoad = new HashSet<>();
+        Set<Long> idsToCheck = new HashSet<>();
+        for (SightingRow row : rows) {
+            if (row.getBirdId() != null) {
+                if (!knownIds.contains(row.getBirdId()) && !unknownIds.contains(row.getBirdId())) {
+                    idsToCheck.add(row.getBirdId());
+                }
+            } else {
+                String lowerName = row.getBirdName().toLowerCase(Locale.ROOT);
+                if (!idsByLowerName.containsKey(lowerName) && !unknownNames.contains(lowerName)) {
+                    namesToLoad.add(lowerName);
+                }
+            }
+        }
+
+        if (!namesToLoad.isEmpty()) {
+            Map<String, Long> loaded = sightingJdbcRepository.findBirdIdsByLowerName(namesToLoad);
+            idsByLowerName.putAll(loaded);
+            namesToLoad.removeAll(loaded.keySet());
+            unknownNames.addAll(namesToLoad);
+        }
+        if (!idsToCheck.isEmpty()) {
+            Set<Long> existing = sightingJdbcRepository.findExistingBirdIds(idsToCheck);
+            knownIds.addAll(existing);
+            idsToCheck.removeAll(existing);
+            unknownIds.addAll(idsToCheck);
+        }
+
+        List<SightingRow> resolved = new ArrayList<>(rows.size());
+        for (SightingRow row : rows) {
+            if (row.getBirdId() != null) {
+                if (knownIds.contains(row.getBirdId())) {
+                    resolved.add(row);
+                } else {
+                    unresolved.accept(row);
+                }
+            } else {
+                Long birdId = idsByLowerName.get(row.getBirdName().toLowerCase(Locale.ROOT));
+                if (birdId != null) {
+                    row.setBirdId(birdId);
+                    resolved.add(row);
+                } else {
+                    unresolved.accept(row);
+                }
+            }
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,140 @@
+package com.demoapp.birdapi.ingest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads sightings from CSV with a header row naming the columns {@code birdId}, {@code birdName},
+ * {@code location} and {@code dateTime} in any order. Quoted fields may contain commas and doubled
+ * quotes, but not line breaks.
+ */
+public class CsvSightingReader implements SightingRowReader {
+
+    private final BufferedReader reader;
+
+    private int birdIdColumn = -1;
+    private int birdNameColumn = -1;
+    private int locationColumn = -1;
+    private int dateTimeColumn = -1;
+
+    private long lineNumber;
+    private boolean headerRead;
+
+    public CsvSightingReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public SightingRow next() throws IOException {
+        if (!headerRead) {
+            readHeader();
+        }
+
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isEmpty());
+
+        List<String> fields = split(line, lineNumber);
+        SightingRow row = new SightingRow();
+        row.setLineNumber(lineNumber);
+        row.setBirdId(SightingRows.parseBirdId(field(fields, birdIdColumn), lineNumber));
+        row.setBirdName(field(fields, birdNameColumn));
+        row.setLocation(field(fields, locationColumn));
+        row.setDateTime(SightingRows.parseDateTime(field(fields, dateTimeColumn), lineNumber));
+        return SightingRows.validate(row);
+    }
+
+    private void readHeader() throws IOException {
+        headerRead = true;
+        String header = reader.readLine();
+        lineNumber++;
+        if (header == null) {
+            throw new MalformedSightingException(lineNumber, "CSV header is missing");
+        }
+        // Strip a UTF-8 byte order mark written by spreadsheet exports
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+
+        List<String> columns = split(header, lineNumber);
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "birdid":
+                case "bird_id":
+                    birdIdColumn = i;
+                    break;
+                case "birdname":
+                case "bird_name":
+                    birdNameColumn = i;
+                    break;
+                case "location":
+                    locationColumn = i;
+                    break;
+                case "datetime":
+                case "date_time":
+                    dateTimeColumn = i;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if ((birdIdColumn < 0 && birdNameColumn < 0) || locationColumn < 0 || dateTimeColumn < 0) {
+            throw new MalformedSightingException(lineNumber,
+                    "CSV header must name birdId or birdName, location and dateTime columns");
+        }
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column);
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<String> split(String line, long lineNumber) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new MalformedSightingException(lineNumber, "unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,69 @@
+package com.demoapp.birdapi.ingest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+public enum ImportFormat {
+
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson"),
+    JSON("application/json");
+
+    private final String mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public SightingRowReader open(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        switch (this) {
+            case CSV:
+                return new CsvSightingReader(reader);
+            case NDJSON:
+                return new NdjsonSightingReader(reader);
+            default:
+                return new JsonSightingReader(reader);
+        }
+    }
+
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/csv")) {
+                return CSV;
+            }
+            if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+                return NDJSON;
+            }
+            if (type.startsWith("application/json")) {
+                return JSON;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType
+                + " (expected text/csv, application/x-ndjson or application/json)");
+    }
+
+    public static ImportFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        if (name.endsWith(".json")) {
+            return JSON;
+        }
+        throw new IllegalArgumentException("Cannot infer import format from file name: " + fileName
+                + " (expected .csv, .ndjson, .jsonl or .json)");
+    }
+}
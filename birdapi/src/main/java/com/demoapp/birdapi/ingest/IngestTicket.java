@@ -0,0 +1,100 @@
+package com.demoapp.birdapi.ingest;
+
+import com.demoapp.birdapi.dto.IngestStatusDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks one accepted ingest request while its rows move through the pipeline stages.
+ */
+public class IngestTicket {
+
+    public enum Status { QUEUED, PROCESSING, COMPLETED, FAILED }
+
+    private static final int MAX_ERRORS = 20;
+
+    private final String trackingId;
+    private final LocalDateTime acceptedAt = LocalDateTime.now();
+
+    private Status status = Status.QUEUED;
+    private int received = -1;
+    private int committed;
+    private int journaled;
+    private int rejected;
+    private final List<String> errors = new ArrayList<>();
+    private LocalDateTime completedAt;
+
+    public IngestTicket(String trackingId) {
+        this.trackingId = trackingId;
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    synchronized void parsed(int rows) {
+        received = rows;
+        status = Status.PROCESSING;
+        completeIfDone();
+    }
+
+    synchronized void committed(int rows) {
+        committed += rows;
+        completeIfDone();
+    }
+
+    // Accepted into the local journal while the database was unavailable; written on replay
+    synchronized void journaled(int rows) {
+        journaled += rows;
+        completeIfDone();
+    }
+
+    synchronized void rejected(String reason) {
+        rejected++;
+        addError(reason);
+        completeIfDone();
+    }
+
+    synchronized void failed(String reason) {
+        addError(reason);
+        status = Status.FAILED;
+        completedAt = LocalDateTime.now();
+    }
+
+    synchronized boolean isDone() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    synchronized LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public synchronized IngestStatusDTO toDTO() {
+        IngestStatusDTO dto = new IngestStatusDTO();
+        dto.setTrackingId(trackingId);
+        dto.setStatus(status.name());
+        dto.setReceived(received < 0 ? null : received);
+        dto.setCommitted(committed);
+        dto.setJournaled(journaled);
+        dto.setRejected(rejected);
+        dto.setErrors(new ArrayList<>(errors));
+        dto.setAcceptedAt(acceptedAt);
+        dto.setCompletedAt(completedAt);
+        return dto;
+    }
+
+    private void addError(String reason) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(reason);
+        }
+    }
+
+    private void completeIfDone() {
+        if (status == Status.PROCESSING && committed + journaled + rejected >= received) {
+            status = Status.COMPLETED;
+            completedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.demoapp.birdapi.ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+
+/**
+ * Streams sightings out of a JSON array (or a single JSON object) with {@link JsonParser}, one row at
+ * a time, instead of binding the whole payload into {@link com.demoapp.birdapi.dto.SightingDTO}s.
+ * Fields use the {@code SightingDTO} names plus an optional {@code birdName}, are validated as they
+ * are read, and {@code dateTime} must be exactly {@code yyyy-MM-dd'T'HH:mm:ss}. Row numbers are
+ * zero-based item indexes. An invalid item is reported and skipped; a syntax error ends the stream.
+ */
+public class JsonSightingReader implements SightingRowReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+
+    private boolean started;
+    private boolean array;
+    private boolean done;
+    private long index = -1;
+
+    public JsonSightingReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    public JsonSightingReader(Reader reader) throws IOException {
+        this(JSON_FACTORY.createParser(reader));
+    }
+
+    @Override
+    public SightingRow next() throws IOException {
+        if (done) {
+            return null;
+        }
+        try {
+            JsonToken token = advance();
+            if (token == null) {
+                done = true;
+                return null;
+            }
+            index++;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                throw new MalformedSightingException(index, "expected a sighting object");
+            }
+            return readObject();
+        } catch (JsonProcessingException e) {
+            done = true;
+            throw new MalformedSightingException(index, "invalid JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    // The token starting the next item, or null at the end of the input
+    private JsonToken advance() throws IOException {
+        if (!started) {
+            started = true;
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                array = true;
+            } else {
+                return first;
+            }
+        } else if (!array) {
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        return token == JsonToken.END_ARRAY ? null : token;
+    }
+
+    private SightingRow readObject() throws IOException {
+        SightingRow row = new SightingRow();
+        row.setLineNumber(index);
+        // Keep consuming the object after the first problem so the parser ends up on the next item
+        String problem = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "birdId":
+                    if (value == JsonToken.VALUE_NUMBER_INT) {
+                        row.setBirdId(parser.getLongValue());
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        try {
+                            row.setBirdId(SightingRows.parseBirdId(parser.getText(), index));
+                        } catch (MalformedSightingException e) {
+                            problem = first(problem, e.getReason());
+                        }
+                    }
+                    break;
+                case "birdName":
+                    row.setBirdName(value == JsonToken.VALUE_STRING ? parser.getText() : null);
+                    break;
+                case "location":
+                    if (value == JsonToken.VALUE_STRING) {
+                        // Checked before the String is created, so oversized values are never copied
+                        if (parser.getTextLength() > SightingRows.MAX_LOCATION_LENGTH) {
+                            problem = first(problem, "location is longer than " + SightingRows.MAX_LOCATION_LENGTH + " characters");
+                        } else {
+                            row.setLocation(parser.getText());
+                        }
+                    }
+                    break;
+                case "dateTime":
+                    if (value == JsonToken.VALUE_STRING) {
+                        LocalDateTime dateTime = SightingRows.parseFixedDateTime(
+                                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                        if (dateTime == null) {
+                            problem = first(problem, "dateTime is not yyyy-MM-dd'T'HH:mm:ss: " + parser.getText());
+                        }
+                        row.setDateTime(dateTime);
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        problem = first(problem, "dateTime is not yyyy-MM-dd'T'HH:mm:ss");
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        if (problem != null) {
+            throw new MalformedSightingException(index, problem);
+        }
+        return SightingRows.validate(row);
+    }
+
+    private static String first(String problem, String candidate) {
+        return problem != null ? problem : candidate;
+    }
+
+    /**
+     * Counts the items of a JSON array (1 for a single object) by tokenizing only, without building
+     * any rows. Fails on any syntax error, so a payload can be checked before its rows are handed on.
+     */
+    public static int countItems(JsonParser parser) throws IOException {
+        JsonToken first = parser.nextToken();
+        if (first == null) {
+            return 0;
+        }
+        if (first != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return 1;
+        }
+        int items = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Unexpected end of JSON array");
+            }
+            items++;
+            parser.skipChildren();
+        }
+        return items;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
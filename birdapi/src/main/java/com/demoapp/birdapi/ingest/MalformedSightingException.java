@@ -0,0 +1,28 @@
+package com.demoapp.birdapi.ingest;
+
+public class MalformedSightingException extends RuntimeException {
+
+    private final long lineNumber;
+    private final String reason;
+
+    public MalformedSightingException(long lineNumber, String message) {
+        super("Line " + lineNumber + ": " + message);
+        this.lineNumber = lineNumber;
+        this.reason = message;
+    }
+
+    public MalformedSightingException(long lineNumber, String message, Throwable cause) {
+        super("Line " + lineNumber + ": " + message, cause);
+        this.lineNumber = lineNumber;
+        this.reason = message;
+    }
+
+    // Line number for CSV and NDJSON, zero-based item index for JSON arrays
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,78 @@
+package com.demoapp.birdapi.ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads one JSON object per line with the {@link com.demoapp.birdapi.dto.SightingDTO} field names
+ * ({@code birdId}, {@code location}, {@code dateTime}) plus an optional {@code birdName}.
+ * Each line gets its own parser so a malformed line can be skipped.
+ */
+public class NdjsonSightingReader implements SightingRowReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final BufferedReader reader;
+
+    private long lineNumber;
+
+    public NdjsonSightingReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public SightingRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.trim().isEmpty());
+
+        try (JsonParser parser = JSON_FACTORY.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new MalformedSightingException(lineNumber, "expected a JSON object");
+            }
+            SightingRow row = new SightingRow();
+            row.setLineNumber(lineNumber);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "birdId":
+                        row.setBirdId(value == JsonToken.VALUE_NUMBER_INT
+                                ? Long.valueOf(parser.getLongValue())
+                                : SightingRows.parseBirdId(value == JsonToken.VALUE_NULL ? null : parser.getText(), lineNumber));
+                        break;
+                    case "birdName":
+                        row.setBirdName(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                        break;
+                    case "location":
+                        row.setLocation(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                        break;
+                    case "dateTime":
+                        row.setDateTime(SightingRows.parseDateTime(value == JsonToken.VALUE_NULL ? null : parser.getText(), lineNumber));
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            return SightingRows.validate(row);
+        } catch (JsonProcessingException e) {
+            throw new MalformedSightingException(lineNumber, "invalid JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
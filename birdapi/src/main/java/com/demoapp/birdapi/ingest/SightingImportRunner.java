@@ -0,0 +1,52 @@
+package com.demoapp.birdapi.ingest;
+
+import com.demoapp.birdapi.config.CommandLineMode;
+import com.demoapp.birdapi.dto.ImportResultDTO;
+import com.demoapp.birdapi.service.SightingImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Imports a sightings file on startup, e.g.
+ * {@code java -jar birdapi.war --birdapi.import.file=/data/sightings.csv --spring.main.web-application-type=none}.
+ * The process exits once the import is done; see {@link CommandLineMode}.
+ */
+@Component
+@ConditionalOnProperty(name = "birdapi.import.file")
+public class SightingImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SightingImportRunner.class);
+
+    private final SightingImportService sightingImportService;
+    private final String file;
+
+    public SightingImportRunner(SightingImportService sightingImportService,
+                                @Value("${birdapi.import.file}") String file) {
+        this.sightingImportService = sightingImportService;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Paths.get(file);
+        ImportFormat format = ImportFormat.fromFileName(path.getFileName().toString());
+        log.info("Importing sightings from {} ({} bytes)", path, Files.size(path));
+
+        try (InputStream in = Files.newInputStream(path)) {
+            ImportResultDTO result = sightingImportService.importSightings(in, format);
+            for (String error : result.getErrors()) {
+                log.warn("Rejected: {}", error);
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.demoapp.birdapi.ingest;
+
+import com.demoapp.birdapi.config.VirtualThreadSupport;
+import com.demoapp.birdapi.exception.PayloadTooLargeException;
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import com.demoapp.birdapi.exception.TooManyRequestsException;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+import com.demoapp.birdapi.service.SightingDeduplicator;
+import com.demoapp.birdapi.service.SightingJournalService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous, staged ingest of sightings.
+ * <p>
+ * Request threads only copy the raw payload into a bounded buffer and return a tracking id. Parse
+ * workers stream and validate the payload and hand valid rows to a second bounded queue, from
+ * which commit workers drain batches, resolve birds with one query, suppress near-duplicates and
+ * write each batch in a single transaction. The buffer is bounded both in payloads and in bytes, since
+ * bodies are held raw until a parse worker has streamed them. When either bound is reached,
+ * {@link #submit(byte[])} fails fast with {@link TooManyRequestsException} instead of queueing more
+ * work, and with {@link ServiceUnavailableException} while the pipeline is not running; a single
+ * payload larger than the whole byte budget is refused outright. Batches that cannot be committed
+ * because the database is unreachable are written to the local journal and replayed later.
+ */
+@Component
+public class SightingIngestPipeline implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SightingIngestPipeline.class);
+
+    private static final long POLL_MILLIS = 100;
+    private static final int BIRD_CACHE_SIZE = 10_000;
+
+    private final ObjectMapper objectMapper;
+    private final SightingJdbcRepository sightingJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SightingJournalService sightingJournalService;
+    private final SightingDeduplicator sightingDeduplicator;
+    private final VirtualThreadSupport virtualThreads;
+
+    private final BlockingQueue<RawPayload> ingress;
+    // Bytes of the payloads in the ingress buffer or being parsed; released once a payload is streamed
+    private final Semaphore bufferBytes;
+    private final BlockingQueue<PendingRow> validated;
+    private final Map<String, IngestTicket> tickets = new ConcurrentHashMap<>();
+
+    private final int parseWorkers;
+    private final int commitWorkers;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final int maxRowsPerRequest;
+    private final int bufferCapacityBytes;
+    private final long statusTtlSeconds;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public SightingIngestPipeline(ObjectMapper objectMapper,
+                                  SightingJdbcRepository sightingJdbcRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  SightingJournalService sightingJournalService,
+                                  SightingDeduplicator sightingDeduplicator,
+                                  VirtualThreadSupport virtualThreads,
+                                  @Value("${birdapi.ingest.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${birdapi.ingest.buffer-bytes:67108864}") int bufferCapacityBytes,
+                                  @Value("${birdapi.ingest.parse-workers:2}") int parseWorkers,
+                                  @Value("${birdapi.ingest.commit-workers:2}") int commitWorkers,
+                                  @Value("${birdapi.ingest.batch-size:500}") int batchSize,
+                                  @Value("${birdapi.ingest.linger-ms:20}") long lingerMillis,
+                                  @Value("${birdapi.ingest.max-rows-per-request:10000}") int maxRowsPerRequest,
+                                  @Value("${birdapi.ingest.status-ttl-seconds:3600}") long statusTtlSeconds) {
+        this.objectMapper = objectMapper;
+        this.sightingJdbcRepository = sightingJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.sightingJournalService = sightingJournalService;
+        this.sightingDeduplicator = sightingDeduplicator;
+        this.virtualThreads = virtualThreads;
+        this.ingress = new ArrayBlockingQueue<>(queueCapacity);
+        this.bufferBytes = new Semaphore(bufferCapacityBytes);
+        this.bufferCapacityBytes = bufferCapacityBytes;
+        this.validated = new ArrayBlockingQueue<>(Math.max(batchSize * commitWorkers * 4, batchSize));
+        this.parseWorkers = parseWorkers;
+        this.commitWorkers = commitWorkers;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.maxRowsPerRequest = maxRowsPerRequest;
+        this.statusTtlSeconds = statusTtlSeconds;
+    }
+
+    public IngestTicket submit(byte[] payload) {
+        if (!running) {
+            throw new ServiceUnavailableException("Ingest pipeline is not accepting requests", 5);
+        }
+        if (payload.length > bufferCapacityBytes) {
+            throw new PayloadTooLargeException("Ingest payloads may be at most " + bufferCapacityBytes + " bytes");
+        }
+        if (!bufferBytes.tryAcquire(payload.length)) {
+            throw new TooManyRequestsException("Ingest buffer is full", 1);
+        }
+        IngestTicket ticket = new IngestTicket(UUID.randomUUID().toString());
+        tickets.put(ticket.getTrackingId(), ticket);
+        if (!ingress.offer(new RawPayload(ticket, payload))) {
+            tickets.remove(ticket.getTrackingId());
+            bufferBytes.release(payload.length);
+            throw new TooManyRequestsException("Ingest buffer is full", 1);
+        }
+        return ticket;
+    }
+
+    public Optional<IngestTicket> findTicket(String trackingId) {
+        return Optional.ofNullable(tickets.get(trackingId));
+    }
+
+    public int getQueuedPayloads() {
+        return ingress.size();
+    }
+
+    public int getQueuedRows() {
+        return validated.size();
+    }
+
+    @Scheduled(fixedDelayString = "${birdapi.ingest.status-eviction-ms:60000}")
+    public void evictExpiredTickets() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(statusTtlSeconds);
+        tickets.values().removeIf(ticket -> ticket.isDone() && ticket.getCompletedAt().isBefore(cutoff));
+    }
+
+    private void parseLoop() {
+        while (running || !ingress.isEmpty()) {
+            RawPayload payload;
+            try {
+                payload = ingress.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (payload != null) {
+                try {
+                    parse(payload);
+                } catch (InterruptedException e) {
+                    payload.ticket.failed("Ingest pipeline shut down before the payload was processed");
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Failed to process ingest payload trackingId={}", payload.ticket.getTrackingId(), e);
+                    payload.ticket.failed("Processing failed: " + e.getMessage());
+                } finally {
+                    bufferBytes.release(payload.body.length);
+                }
+            }
+        }
+    }
+
+    // Streams rows to the commit workers as they are read; the whole payload is never bound to DTOs
+    private void parse(RawPayload payload) throws InterruptedException {
+        IngestTicket ticket = payload.ticket;
+        int items;
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload.body)) {
+            items = JsonSightingReader.countItems(parser);
+        } catch (IOException e) {
+            ticket.failed("Malformed JSON: " + e.getMessage());
+            return;
+        }
+        if (items > maxRowsPerRequest) {
+            ticket.failed("At most " + maxRowsPerRequest + " sightings are allowed per request");
+            return;
+        }
+
+        ticket.parsed(items);
+        try (JsonSightingReader reader = new JsonSightingReader(objectMapper.getFactory().createParser(payload.body))) {
+            while (true) {
+                SightingRow row;
+                try {
+                    row = reader.next();
+                } catch (MalformedSightingException e) {
+                    ticket.rejected("Item " + e.getLineNumber() + ": " + e.getReason());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                validated.put(new PendingRow(ticket, row));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void commitLoop() {
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        while (running || !validated.isEmpty()) {
+            try {
+                if (!fillBatch(batch)) {
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            // One resolver per batch: a bird created or deleted since the previous batch is seen as it is now
+            try {
+                commit(batch, new BirdIdResolver(sightingJdbcRepository, BIRD_CACHE_SIZE));
+            } catch (DataIntegrityViolationException e) {
+                // Most likely a bird was deleted between the lookup and the insert: retry once
+                try {
+                    commit(batch, new BirdIdResolver(sightingJdbcRepository, BIRD_CACHE_SIZE));
+                } catch (RuntimeException retryFailure) {
+                    handleCommitFailure(batch, retryFailure);
+                }
+            } catch (RuntimeException e) {
+                handleCommitFailure(batch, e);
+            }
+            batch.clear();
+        }
+    }
+
+    // Waits for a first row, then lingers briefly so concurrent requests share one transaction
+    private boolean fillBatch(List<PendingRow> batch) throws InterruptedException {
+        PendingRow first = validated.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        while (batch.size() < batchSize) {
+            validated.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            PendingRow next = validated.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    private void commit(List<PendingRow> batch, BirdIdResolver birdIdResolver) {
+        List<SightingRow> rows = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            rows.add(pending.row);
+        }
+
+        Set<SightingRow> unresolved = Collections.newSetFromMap(new IdentityHashMap<>());
+        SightingDeduplicator.Plan plan = transactionTemplate.execute(status -> {
+            unresolved.clear();
+            SightingDeduplicator.Plan batchPlan = sightingDeduplicator.plan(birdIdResolver.resolve(rows, unresolved::add));
+            sightingDeduplicator.apply(batchPlan);
+            return batchPlan;
+        });
+        sightingDeduplicator.commit(plan);
+
+        for (PendingRow pending : batch) {
+            if (unresolved.contains(pending.row)) {
+                pending.ticket.rejected("Item " + pending.row.getLineNumber() + ": bird not found: "
+                        + (pending.row.getBirdId() != null ? "id " + pending.row.getBirdId() : "name " + pending.row.getBirdName()));
+            } else {
+                pending.ticket.committed(1);
+            }
+        }
+        log.debug("Committed ingest batch of {} sightings", batch.size() - unresolved.size());
+    }
+
+    private void handleCommitFailure(List<PendingRow> batch, RuntimeException failure) {
+        if (!sightingJournalService.isDatabaseUnavailable(failure)) {
+            rejectBatch(batch, failure);
+            return;
+        }
+        List<SightingRow> rows = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            rows.add(pending.row);
+        }
+        try {
+            sightingJournalService.append(rows);
+        } catch (RuntimeException journalFailure) {
+            journalFailure.addSuppressed(failure);
+            rejectBatch(batch, journalFailure);
+            return;
+        }
+        log.warn("Database unavailable, journaled ingest batch of {} sightings: {}", batch.size(), failure.getMessage());
+        for (PendingRow pending : batch) {
+            pending.ticket.journaled(1);
+        }
+    }
+
+    private void rejectBatch(List<PendingRow> batch, RuntimeException failure) {
+        log.error("Failed to commit ingest batch of {} sightings", batch.size(), failure);
+        for (PendingRow pending : batch) {
+            pending.ticket.rejected("Item " + pending.row.getLineNumber() + ": commit failed: " + failure.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < parseWorkers; i++) {
+            workers.add(startWorker("ingest-parse-" + i, this::parseLoop));
+        }
+        for (int i = 0; i < commitWorkers; i++) {
+            workers.add(startWorker("ingest-commit-" + i, this::commitLoop));
+        }
+        log.info("Started ingest pipeline with {} parse and {} commit workers", parseWorkers, commitWorkers);
+    }
+
+    // Stops accepting payloads and lets the workers drain what is already buffered
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+        log.info("Stopped ingest pipeline");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private Thread startWorker(String name, Runnable loop) {
+        Thread thread = virtualThreads.newWorker(name, loop);
+        thread.start();
+        return thread;
+    }
+
+    private static final class RawPayload {
+        private final IngestTicket ticket;
+        private final byte[] body;
+
+        private RawPayload(IngestTicket ticket, byte[] body) {
+            this.ticket = ticket;
+            this.body = body;
+        }
+    }
+
+    private static final class PendingRow {
+        private final IngestTicket ticket;
+        private final SightingRow row;
+
+        private PendingRow(IngestTicket ticket, SightingRow row) {
+            this.ticket = ticket;
+            this.row = row;
+        }
+    }
+}
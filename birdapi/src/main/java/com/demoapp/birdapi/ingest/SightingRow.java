@@ -0,0 +1,78 @@
+package com.demoapp.birdapi.ingest;
+
+import java.time.LocalDateTime;
+
+// Lightweight carrier for bulk ingest; unlike SightingDTO it carries no nested bird and may name the bird instead of referencing its id
+public class SightingRow {
+
+    private Long birdId;
+
+    private String birdName;
+
+    private String location;
+
+    private LocalDateTime dateTime;
+
+    private long lineNumber;
+
+    public SightingRow() {
+    }
+
+    public SightingRow(Long birdId, String birdName, String location, LocalDateTime dateTime) {
+        this.birdId = birdId;
+        this.birdName = birdName;
+        this.location = location;
+        this.dateTime = dateTime;
+    }
+
+    public Long getBirdId() {
+        return birdId;
+    }
+
+    public void setBirdId(Long birdId) {
+        this.birdId = birdId;
+    }
+
+    public String getBirdName() {
+        return birdName;
+    }
+
+    public void setBirdName(String birdName) {
+        this.birdName = birdName;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public void setLineNumber(long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "SightingRow{" +
+                "birdId=" + birdId +
+                ", birdName='" + birdName + '\'' +
+                ", location='" + location + '\'' +
+                ", dateTime=" + dateTime +
+                ", lineNumber=" + lineNumber +
+                '}';
+    }
+}
@@ -0,0 +1,13 @@
+package com.demoapp.birdapi.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface SightingRowReader extends Closeable {
+
+    /**
+     * Returns the next row, or {@code null} once the input is exhausted.
+     * A {@link MalformedSightingException} leaves the reader positioned on the following record.
+     */
+    SightingRow next() throws IOException;
+}
@@ -0,0 +1,107 @@
+package com.demoapp.birdapi.ingest;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+final class SightingRows {
+
+    // Matches the varchar(255) column Hibernate generates for sightings.location
+    static final int MAX_LOCATION_LENGTH = 255;
+
+    private SightingRows() {
+    }
+
+    static Long parseBirdId(String value, long lineNumber) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new MalformedSightingException(lineNumber, "birdId is not a number: " + value);
+        }
+    }
+
+    // Takes the fixed-format fast path first and falls back to ISO parsing (e.g. fractional seconds)
+    static LocalDateTime parseDateTime(String value, long lineNumber) {
+        if (value == null || value.isEmpty()) {
+            throw new MalformedSightingException(lineNumber, "dateTime is required");
+        }
+        LocalDateTime dateTime = parseFixedDateTime(value);
+        if (dateTime != null) {
+            return dateTime;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new MalformedSightingException(lineNumber, "dateTime is not yyyy-MM-dd'T'HH:mm:ss: " + value);
+        }
+    }
+
+    /**
+     * Parses exactly {@code yyyy-MM-dd'T'HH:mm:ss} straight from the characters, without a formatter
+     * or intermediate strings. Returns {@code null} when the text has any other shape or is not a
+     * valid date.
+     */
+    static LocalDateTime parseFixedDateTime(char[] chars, int offset, int length) {
+        if (length != 19
+                || chars[offset + 4] != '-' || chars[offset + 7] != '-' || chars[offset + 10] != 'T'
+                || chars[offset + 13] != ':' || chars[offset + 16] != ':') {
+            return null;
+        }
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        int hour = digits(chars, offset + 11, 2);
+        int minute = digits(chars, offset + 14, 2);
+        int second = digits(chars, offset + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    static LocalDateTime parseFixedDateTime(String value) {
+        if (value.length() != 19) {
+            return null;
+        }
+        char[] chars = new char[19];
+        value.getChars(0, 19, chars, 0);
+        return parseFixedDateTime(chars, 0, 19);
+    }
+
+    // -1 when any character is not a digit
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    static SightingRow validate(SightingRow row) {
+        long lineNumber = row.getLineNumber();
+        if (row.getBirdId() == null && (row.getBirdName() == null || row.getBirdName().isEmpty())) {
+            throw new MalformedSightingException(lineNumber, "birdId or birdName is required");
+        }
+        if (row.getLocation() == null || row.getLocation().trim().isEmpty()) {
+            throw new MalformedSightingException(lineNumber, "location is required");
+        }
+        if (row.getLocation().length() > MAX_LOCATION_LENGTH) {
+            throw new MalformedSightingException(lineNumber, "location is longer than " + MAX_LOCATION_LENGTH + " characters");
+        }
+        if (row.getDateTime() == null) {
+            throw new MalformedSightingException(lineNumber, "dateTime is required");
+        }
+        return row;
+    }
+}
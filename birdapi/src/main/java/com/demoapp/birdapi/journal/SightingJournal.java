@@ -0,0 +1,541 @@
+package com.demoapp.birdapi.journal;
+
+import com.demoapp.birdapi.ingest.SightingRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of sightings that could not be written to the database.
+ * <p>
+ * The journal is a sequence of fixed-size segment files {@code segment-<index>.log}. Each starts with
+ * an 8 byte header (magic, version) followed by records laid out as {@code [int length][int crc32][payload]};
+ * a zero length marks the end of the written data because segments are zero-filled. Positions are
+ * logical: {@code index * segmentSize + offset}. A payload names its bird by id or, for a row whose
+ * name could not be resolved while the database was down, by name; version 1 segments hold ids only.
+ * <p>
+ * {@link #append(List)} returns only once its records are forced to disk. Concurrent appenders share
+ * one {@code force()} (group commit): whoever syncs first makes everything written so far durable.
+ * Replay progress is tracked in a separately persisted checkpoint; fully replayed segments are deleted.
+ * On open, every segment is scanned and a torn or corrupt tail (length out of range or checksum
+ * mismatch) is discarded and zeroed.
+ */
+public class SightingJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SightingJournal.class);
+
+    static final int MAGIC = 0x42524A4C; // "BRJL"
+    static final int VERSION = 2;
+    static final int MIN_VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private static final byte BIRD_ID = 0;
+    private static final byte BIRD_NAME = 1;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOCK_FILE = "journal.lock";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    // Locks rather than monitors: both are held across file I/O, which would pin a virtual thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // Guarded by writeLock
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment active;
+
+    private volatile long durablePosition;
+    private volatile long checkpoint;
+    private volatile boolean closed;
+
+    private SightingJournal(Path directory, int segmentSize, FileChannel lockChannel, FileLock lock) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+    }
+
+    public static SightingJournal open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Journal segment size must be at least " + MIN_SEGMENT_SIZE + " bytes");
+        }
+        Files.createDirectories(directory);
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Journal directory is already in use: " + directory);
+        }
+
+        SightingJournal journal = new SightingJournal(directory, segmentSize, lockChannel, lock);
+        try {
+            journal.recover();
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long index = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = Segment.open(file, index, segmentSize);
+            int end = segment.scanValidEnd();
+            if (end < segmentSize && segment.buffer.getInt(end) != 0) {
+                log.warn("Discarding torn or corrupt journal tail in {} at offset {}", file, end);
+                segment.zeroFrom(end);
+            }
+            segment.writeOffset = end;
+            segments.put(index, segment);
+        }
+
+        if (segments.isEmpty()) {
+            active = createSegment(0);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        durablePosition = position(active.index, active.writeOffset);
+        checkpoint = Math.max(readCheckpoint(), position(segments.firstKey(), SEGMENT_HEADER_SIZE));
+        deleteReplayedSegments();
+
+        log.info("Opened journal {} with {} segment(s), {} bytes pending replay",
+                directory, segments.size(), pendingBytes());
+    }
+
+    /**
+     * Appends the rows and blocks until they are durable.
+     *
+     * @return the logical position just after the last appended record
+     */
+    public long append(List<SightingRow> rows) throws IOException {
+        if (rows.isEmpty()) {
+            return durablePosition;
+        }
+        long end;
+        writeLock.lock();
+        try {
+            ensureOpen();
+            for (SightingRow row : rows) {
+                byte[] payload = encode(row);
+                int recordSize = RECORD_HEADER_SIZE + payload.length;
+                if (recordSize > segmentSize - SEGMENT_HEADER_SIZE) {
+                    throw new IllegalArgumentException("Journal record does not fit into a segment: " + recordSize + " bytes");
+                }
+                if (active.writeOffset + recordSize > segmentSize) {
+                    rotate();
+                }
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                ByteBuffer buffer = active.buffer;
+                int offset = active.writeOffset;
+                // Write payload and checksum before the length so a torn record never looks complete
+                buffer.position(offset + RECORD_HEADER_SIZE);
+                buffer.put(payload);
+                buffer.putInt(offset + 4, (int) crc.getValue());
+                buffer.putInt(offset, payload.length);
+                active.writeOffset = offset + recordSize;
+            }
+            end = position(active.index, active.writeOffset);
+        } finally {
+            writeLock.unlock();
+        }
+        sync(end);
+        return end;
+    }
+
+    private void sync(long position) {
+        if (durablePosition >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durablePosition >= position) {
+                return;
+            }
+            Segment segment;
+            long target;
+            writeLock.lock();
+            try {
+                segment = active;
+                target = position(active.index, active.writeOffset);
+            } finally {
+                writeLock.unlock();
+            }
+            segment.buffer.force();
+            durablePosition = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Called with writeLock held; the previous segment is forced before the next one receives data
+    private void rotate() throws IOException {
+        active.buffer.force();
+        active = createSegment(active.index + 1);
+    }
+
+    private Segment createSegment(long index) throws IOException {
+        Segment segment = Segment.create(directory.resolve(segmentFileName(index)), index, segmentSize);
+        segments.put(index, segment);
+        return segment;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} durable records starting at the checkpoint. Reading does not
+     * advance the checkpoint; call {@link #commitCheckpoint(long)} once the batch has been applied.
+     */
+    public JournalBatch readBatch(int maxRecords) {
+        List<SightingRow> rows = new ArrayList<>();
+        long limit = durablePosition;
+        long position = checkpoint;
+
+        writeLock.lock();
+        try {
+            ensureOpen();
+            while (rows.size() < maxRecords && position < limit) {
+                long index = position / segmentSize;
+                int offset = (int) (position % segmentSize);
+                Segment segment = segments.get(index);
+                if (segment == null) {
+                    Map.Entry<Long, Segment> next = segments.higherEntry(index);
+                    if (next == null) {
+                        break;
+                    }
+                    position = position(next.getKey(), SEGMENT_HEADER_SIZE);
+                    continue;
+                }
+                if (offset < SEGMENT_HEADER_SIZE) {
+                    // A record that exactly filled the previous segment ends at the start of this one
+                    position = position(index, SEGMENT_HEADER_SIZE);
+                    continue;
+                }
+                int length = offset + RECORD_HEADER_SIZE <= segmentSize ? segment.buffer.getInt(offset) : 0;
+                if (length == 0) {
+                    // End of this segment's data; continue with the next one
+                    Map.Entry<Long, Segment> next = segments.higherEntry(index);
+                    if (next == null) {
+                        break;
+                    }
+                    position = position(next.getKey(), SEGMENT_HEADER_SIZE);
+                    continue;
+                }
+                byte[] payload = new byte[length];
+                ByteBuffer view = segment.buffer.duplicate();
+                view.position(offset + RECORD_HEADER_SIZE);
+                view.get(payload);
+                rows.add(decode(payload, segment.version));
+                position += RECORD_HEADER_SIZE + length;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return new JournalBatch(rows, position);
+    }
+
+    public void commitCheckpoint(long position) throws IOException {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            if (position <= checkpoint) {
+                return;
+            }
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            ByteBuffer data = ByteBuffer.allocate(16);
+            data.putLong(position);
+            CRC32 crc = new CRC32();
+            crc.update(data.array(), 0, 8);
+            data.putLong(crc.getValue());
+            data.flip();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            checkpoint = position;
+            deleteReplayedSegments();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (data.remaining() != 16) {
+            log.warn("Ignoring journal checkpoint with unexpected size {}", data.remaining());
+            return 0;
+        }
+        long position = data.getLong();
+        CRC32 crc = new CRC32();
+        crc.update(data.array(), 0, 8);
+        if (data.getLong() != crc.getValue()) {
+            log.warn("Ignoring journal checkpoint with bad checksum; records may be replayed again");
+            return 0;
+        }
+        return position;
+    }
+
+    // Called with writeLock held (or during recovery)
+    private void deleteReplayedSegments() {
+        long checkpointIndex = checkpoint / segmentSize;
+        while (segments.size() > 1 && segments.firstKey() < checkpointIndex) {
+            Segment segment = segments.pollFirstEntry().getValue();
+            segment.closeQuietly();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Could not delete replayed journal segment {}", segment.path, e);
+            }
+        }
+    }
+
+    public boolean hasPending() {
+        return checkpoint < durablePosition;
+    }
+
+    public long pendingBytes() {
+        return Math.max(0, durablePosition - checkpoint);
+    }
+
+    public int segmentCount() {
+        writeLock.lock();
+        try {
+            return segments.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long position(long index, int offset) {
+        return index * segmentSize + offset;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+    }
+
+    // [byte kind][long birdId | int length, birdName][long epochSecond][int nanos][int length, location]
+    static byte[] encode(SightingRow row) {
+        byte[] location = row.getLocation().getBytes(StandardCharsets.UTF_8);
+        byte[] birdName = row.getBirdId() == null ? row.getBirdName().getBytes(StandardCharsets.UTF_8) : null;
+        LocalDateTime dateTime = row.getDateTime();
+        int birdSize = birdName == null ? 8 : 4 + birdName.length;
+        ByteBuffer buffer = ByteBuffer.allocate(1 + birdSize + 8 + 4 + 4 + location.length);
+        if (birdName == null) {
+            buffer.put(BIRD_ID);
+            buffer.putLong(row.getBirdId());
+        } else {
+            buffer.put(BIRD_NAME);
+            buffer.putInt(birdName.length);
+            buffer.put(birdName);
+        }
+        buffer.putLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(dateTime.getNano());
+        buffer.putInt(location.length);
+        buffer.put(location);
+        return buffer.array();
+    }
+
+    static SightingRow decode(byte[] payload, int version) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        Long birdId = null;
+        String birdName = null;
+        if (version == 1 || buffer.get() == BIRD_ID) {
+            birdId = buffer.getLong();
+        } else {
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            birdName = new String(name, StandardCharsets.UTF_8);
+        }
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        byte[] location = new byte[buffer.getInt()];
+        buffer.get(location);
+        return new SightingRow(birdId, birdName, new String(location, StandardCharsets.UTF_8), dateTime);
+    }
+
+    private static String segmentFileName(long index) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Segment segment : segments.values()) {
+                segment.buffer.force();
+                segment.closeQuietly();
+            }
+            segments.clear();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            lock.release();
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    public static final class JournalBatch {
+
+        private final List<SightingRow> rows;
+        private final long endPosition;
+
+        JournalBatch(List<SightingRow> rows, long endPosition) {
+            this.rows = rows;
+            this.endPosition = endPosition;
+        }
+
+        public List<SightingRow> getRows() {
+            return rows;
+        }
+
+        public long getEndPosition() {
+            return endPosition;
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long index;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int version;
+        private int writeOffset;
+
+        private Segment(Path path, long index, FileChannel channel, MappedByteBuffer buffer, int version) {
+            this.path = path;
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.version = version;
+        }
+
+        static Segment create(Path path, long index, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.force();
+            // Make the new file name durable as well
+            channel.force(true);
+            Segment segment = new Segment(path, index, channel, buffer, VERSION);
+            segment.writeOffset = SEGMENT_HEADER_SIZE;
+            return segment;
+        }
+
+        static Segment open(Path path, long index, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() != size) {
+                channel.close();
+                throw new IOException("Journal segment " + path + " has size " + channel.size()
+                        + " but the configured segment size is " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            int version = buffer.getInt(4);
+            if (buffer.getInt(0) != MAGIC || version < MIN_VERSION || version > VERSION) {
+                channel.close();
+                throw new IOException("Not a journal segment (bad magic or version): " + path);
+            }
+            return new Segment(path, index, channel, buffer, version);
+        }
+
+        // Offset just after the last record with a valid length and checksum
+        int scanValidEnd() {
+            int capacity = buffer.capacity();
+            int offset = SEGMENT_HEADER_SIZE;
+            ByteBuffer view = buffer.duplicate();
+            while (offset + RECORD_HEADER_SIZE <= capacity) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || length > capacity - offset - RECORD_HEADER_SIZE) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                view.position(offset + RECORD_HEADER_SIZE);
+                view.get(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                    break;
+                }
+                offset += RECORD_HEADER_SIZE + length;
+            }
+            return offset;
+        }
+
+        void zeroFrom(int offset) {
+            byte[] zeros = new byte[8192];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            while (view.hasRemaining()) {
+                view.put(zeros, 0, Math.min(zeros.length, view.remaining()));
+            }
+            buffer.force();
+        }
+
+        void closeQuietly() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close journal segment {}", path, e);
+            }
+        }
+    }
+}
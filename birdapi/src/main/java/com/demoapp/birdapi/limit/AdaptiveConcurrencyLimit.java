@@ -0,0 +1,113 @@
+package com.demoapp.birdapi.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows observed latency (gradient algorithm). A slow moving average of
+ * request latency serves as the no-load baseline and a fast one as the current latency. While they
+ * agree the limit grows by about its square root per sample; as current latency rises above the
+ * baseline the limit shrinks in proportion. A failed request (server error) cuts the limit
+ * multiplicatively, AIMD style. Requests over the limit are refused instead of queued.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    // Weight of a new sample in the fast (current) and slow (baseline) latency averages
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double LONG_SMOOTHING = 1.0 / 600;
+    // How far one sample may move the limit towards the computed value
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    // Guarded by this
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #getLimit()} requests are in flight.
+     *
+     * @return the number of requests in flight including this one, or -1 when refused; pass it
+     * back to {@link #release}
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot and feeds the request's latency into the limit.
+     *
+     * @param inFlightAtStart value returned by {@link #tryAcquire()}
+     * @param dropped         whether the request failed in a way that suggests overload
+     */
+    public void release(int inFlightAtStart, long rttNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        update(inFlightAtStart, rttNanos, dropped);
+    }
+
+    /**
+     * Frees the slot without feeding the request into the limit, for requests whose latency and
+     * outcome say nothing about capacity.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void update(int inFlightAtStart, long rttNanos, boolean dropped) {
+        double current = limit;
+        if (dropped) {
+            limit = Math.max(minLimit, current * BACKOFF_RATIO);
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_SMOOTHING;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_SMOOTHING;
+        // After a lasting slowdown the baseline would lag behind for a long time; let it catch up
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // A limit that was never close to being used says nothing about the capacity above it
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
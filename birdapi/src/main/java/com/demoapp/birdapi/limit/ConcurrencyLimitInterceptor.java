@@ -0,0 +1,130 @@
+package com.demoapp.birdapi.limit;
+
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Set;
+
+/**
+ * Admits requests to the given controllers only while their adaptive limit allows; reads (GET,
+ * HEAD) and writes have separate limits, so a burst of one cannot starve the other. A refused
+ * request fails at once with 503 and Retry-After. For async handlers the slot is held until the
+ * async result has been written.
+ * <p>
+ * Streaming responses (exports) are not limited here: they run for minutes, so their latency would
+ * drag the read limit down for point reads, and the export bulkhead already bounds them. A request
+ * refused further down by load shedding of our own, marked with {@link #SHED_ATTRIBUTE}, frees its
+ * slot without counting as a drop, since its 503 says nothing about the database.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String SHED_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".shed";
+
+    private static final String PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final Set<Class<?>> limitedControllers;
+    private final Limiter reads;
+    private final Limiter writes;
+
+    public ConcurrencyLimitInterceptor(Set<Class<?>> limitedControllers,
+                                       AdaptiveConcurrencyLimit readLimit,
+                                       AdaptiveConcurrencyLimit writeLimit,
+                                       MeterRegistry meterRegistry) {
+        this.limitedControllers = limitedControllers;
+        this.reads = new Limiter("read", readLimit, meterRegistry);
+        this.writes = new Limiter("write", writeLimit, meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async dispatch of a request that already holds a slot passes through here again
+        if (request.getAttribute(PERMIT) != null || !(handler instanceof HandlerMethod)
+                || !limitedControllers.contains(((HandlerMethod) handler).getBeanType())
+                || isStreaming((HandlerMethod) handler)) {
+            return true;
+        }
+        Limiter limiter = isRead(request) ? reads : writes;
+        int inFlight = limiter.limit.tryAcquire();
+        if (inFlight < 0) {
+            limiter.rejected.increment();
+            throw new ServiceUnavailableException("Too many concurrent " + limiter.type + " requests, limit "
+                    + limiter.limit.getLimit(), 1);
+        }
+        request.setAttribute(PERMIT, new Permit(limiter, inFlight, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Permit permit = (Permit) request.getAttribute(PERMIT);
+        if (permit == null) {
+            return;
+        }
+        request.removeAttribute(PERMIT);
+        if (request.getAttribute(SHED_ATTRIBUTE) != null) {
+            permit.limiter.limit.cancel();
+            return;
+        }
+        // Server errors (timeouts, an unreachable or overloaded database) count as overload
+        boolean dropped = ex != null || response.getStatus() >= 500;
+        permit.limiter.limit.release(permit.inFlight, System.nanoTime() - permit.startNanos, dropped);
+    }
+
+    private static boolean isStreaming(HandlerMethod handler) {
+        ResolvableType type = ResolvableType.forMethodParameter(handler.getReturnType());
+        if (HttpEntity.class.isAssignableFrom(type.toClass())) {
+            type = type.getGeneric(0);
+        }
+        return StreamingResponseBody.class.isAssignableFrom(type.toClass());
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+    }
+
+    private static final class Limiter {
+        private final String type;
+        private final AdaptiveConcurrencyLimit limit;
+        private final Counter rejected;
+
+        private Limiter(String type, AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+            this.type = type;
+            this.limit = limit;
+            Gauge.builder("birdapi.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit, by request type")
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder("birdapi.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Requests currently holding a concurrency slot, by request type")
+                    .tag("type", type)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("birdapi.concurrency.rejected")
+                    .description("Requests refused with 503 at the concurrency limit, by request type")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static final class Permit {
+        private final Limiter limiter;
+        private final int inFlight;
+        private final long startNanos;
+
+        private Permit(Limiter limiter, int inFlight, long startNanos) {
+            this.limiter = limiter;
+            this.inFlight = inFlight;
+            this.startNanos = startNanos;
+        }
+    }
+}
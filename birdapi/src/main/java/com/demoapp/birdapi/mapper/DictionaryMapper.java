@@ -0,0 +1,28 @@
+package com.demoapp.birdapi.mapper;
+
+import com.demoapp.birdapi.model.ColorName;
+import com.demoapp.birdapi.model.LocationName;
+import com.demoapp.birdapi.repository.ValueDictionary;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+
+// Decodes dictionary references through the cache; reading a lazy reference's id does not load it
+@Component
+public class DictionaryMapper {
+
+    private final ValueDictionary valueDictionary;
+
+    public DictionaryMapper(ValueDictionary valueDictionary) {
+        this.valueDictionary = valueDictionary;
+    }
+
+    @Named("locationName")
+    public String locationName(LocationName location) {
+        return location == null ? null : valueDictionary.name(ValueDictionary.Kind.LOCATION, location.getId());
+    }
+
+    @Named("colorName")
+    public String colorName(ColorName color) {
+        return color == null ? null : valueDictionary.name(ValueDictionary.Kind.COLOR, color.getId());
+    }
+}
@@ -1,22 +1,69 @@
 package com.demoapp.birdapi.mapper;
 
+import com.demoapp.birdapi.archive.ArchivedSighting;
 import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.model.LatestSighting;
 import com.demoapp.birdapi.model.Sighting;
+import com.demoapp.birdapi.model.SightingView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.Named;
 
-@Mapper(componentModel = "spring", uses = {BirdMapper.class})
+import java.util.List;
+
+@Mapper(componentModel = "spring", uses = {BirdMapper.class, DictionaryMapper.class})
 public interface SightingMapper {
 
     @Mapping(source = "bird.id", target = "birdId")
     @Mapping(source = "bird", target = "bird")
     SightingDTO toDTO(Sighting sighting);
 
+    List<SightingDTO> toDTOList(List<Sighting> sightings);
+
+    // Leaves the bird unloaded; only its id is read, which does not initialize a lazy proxy
+    @Named("summary")
+    @Mapping(source = "bird.id", target = "birdId")
+    @Mapping(target = "bird", ignore = true)
+    SightingDTO toSummaryDTO(Sighting sighting);
+
+    // Read model rows carry their bird's columns, so the DTO is complete without loading the bird
+    @Mapping(source = "birdId", target = "bird.id")
+    @Mapping(source = "birdName", target = "bird.name")
+    @Mapping(source = "birdColor", target = "bird.color", qualifiedByName = "colorName")
+    @Mapping(source = "location", target = "location", qualifiedByName = "locationName")
+    @Mapping(source = "birdWeight", target = "bird.weight")
+    @Mapping(source = "birdHeight", target = "bird.height")
+    SightingDTO toDTO(SightingView sighting);
+
+    List<SightingDTO> viewsToDTOList(List<SightingView> sightings);
+
+    @Named("viewSummary")
+    @Mapping(source = "location", target = "location", qualifiedByName = "locationName")
+    @Mapping(target = "bird", ignore = true)
+    SightingDTO toSummaryDTO(SightingView sighting);
+
+    // Archived rows carry their bird's columns as they were when archived
+    @Mapping(source = "birdId", target = "bird.id")
+    @Mapping(source = "birdName", target = "bird.name")
+    @Mapping(source = "birdColor", target = "bird.color")
+    @Mapping(source = "birdWeight", target = "bird.weight")
+    @Mapping(source = "birdHeight", target = "bird.height")
+    SightingDTO toDTO(ArchivedSighting sighting);
+
+    @Mapping(source = "sightingId", target = "id")
+    @Mapping(target = "reportCount", ignore = true)
+    @Mapping(target = "bird", ignore = true)
+    SightingDTO toDTO(LatestSighting sighting);
+
+    List<SightingDTO> latestToDTOList(List<LatestSighting> sightings);
+
     @Mapping(source = "birdId", target = "bird.id")
+    @Mapping(target = "reportCount", ignore = true)
     Sighting toEntity(SightingDTO sightingDTO);
 
     @Mapping(source = "birdId", target = "bird.id")
+    @Mapping(target = "reportCount", ignore = true)
     void updateEntityFromDTO(SightingDTO sightingDTO, @MappingTarget Sighting sighting);
 }
 
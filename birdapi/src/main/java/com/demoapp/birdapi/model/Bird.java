@@ -1,6 +1,7 @@
 package com.demoapp.birdapi.model;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
@@ -23,6 +24,14 @@ public class Bird {
     @Column(nullable = false)
     private Double height;
 
+    // Maintained only by BirdSightingCounters, never written through the entity
+    @Column(name = "sighting_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0 not null")
+    private long sightingCount;
+
+    @Column(name = "last_seen", insertable = false, updatable = false)
+    private LocalDateTime lastSeen;
+
     public Bird() {
     }
 
@@ -73,6 +82,14 @@ public class Bird {
         this.height = height;
     }
 
+    public long getSightingCount() {
+        return sightingCount;
+    }
+
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,49 @@
+package com.demoapp.birdapi.model;
+
+import javax.persistence.*;
+import java.util.Objects;
+
+// Distinct bird color, stored once and referenced by id from the read model
+@Entity
+@Table(name = "colors")
+public class ColorName {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    public ColorName() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ColorName that = (ColorName) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ColorName{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
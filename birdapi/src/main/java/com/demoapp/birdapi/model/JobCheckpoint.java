@@ -0,0 +1,108 @@
+package com.demoapp.birdapi.model;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Progress of a long-running background job, one row per job, shared by all instances. The lease
+ * columns let one instance at a time run the job; the cutoff and position let a run interrupted by a
+ * restart or a lost lease be resumed where its last committed chunk ended.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Null when no run is in progress
+    @Column
+    private LocalDateTime cutoff;
+
+    // Sort key of the last row the current run has processed
+    @Column(name = "position_date_time")
+    private LocalDateTime positionDateTime;
+
+    @Column(name = "position_id")
+    private Long positionId;
+
+    // Rows processed by the current run, or by the last one once it finished
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public JobCheckpoint() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getCutoff() {
+        return cutoff;
+    }
+
+    public LocalDateTime getPositionDateTime() {
+        return positionDateTime;
+    }
+
+    public Long getPositionId() {
+        return positionId;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public boolean isInProgress() {
+        return cutoff != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JobCheckpoint that = (JobCheckpoint) o;
+        return Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name);
+    }
+
+    @Override
+    public String toString() {
+        return "JobCheckpoint{" +
+                "name='" + name + '\'' +
+                ", cutoff=" + cutoff +
+                ", positionDateTime=" + positionDateTime +
+                ", positionId=" + positionId +
+                ", processed=" + processed +
+                ", leaseOwner='" + leaseOwner + '\'' +
+                ", leaseUntil=" + leaseUntil +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package com.demoapp.birdapi.model;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * The most recent sighting of a bird, one row per bird that has any: latest by date and time, the
+ * highest id among sightings at the same time. Maintained by the sighting write paths, in the same
+ * transaction; never modified through this entity.
+ */
+@Entity
+@Table(name = "latest_sightings")
+public class LatestSighting {
+
+    @Id
+    @Column(name = "bird_id")
+    private Long birdId;
+
+    @Column(name = "sighting_id", nullable = false, unique = true)
+    private Long sightingId;
+
+    @Column(nullable = false)
+    private String location;
+
+    @Column(name = "date_time", nullable = false)
+    private LocalDateTime dateTime;
+
+    public LatestSighting() {
+    }
+
+    public LatestSighting(Long birdId, Long sightingId, String location, LocalDateTime dateTime) {
+        this.birdId = birdId;
+        this.sightingId = sightingId;
+        this.location = location;
+        this.dateTime = dateTime;
+    }
+
+    public Long getBirdId() {
+        return birdId;
+    }
+
+    public Long getSightingId() {
+        return sightingId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LatestSighting that = (LatestSighting) o;
+        return Objects.equals(birdId, that.birdId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(birdId);
+    }
+
+    @Override
+    public String toString() {
+        return "LatestSighting{" +
+                "birdId=" + birdId +
+                ", sightingId=" + sightingId +
+                ", location='" + location + '\'' +
+                ", dateTime=" + dateTime +
+                '}';
+    }
+}
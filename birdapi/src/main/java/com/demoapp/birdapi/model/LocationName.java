@@ -0,0 +1,49 @@
+package com.demoapp.birdapi.model;
+
+import javax.persistence.*;
+import java.util.Objects;
+
+// Distinct sighting location, stored once and referenced by id from the read model
+@Entity
+@Table(name = "locations")
+public class LocationName {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    public LocationName() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LocationName that = (LocationName) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "LocationName{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
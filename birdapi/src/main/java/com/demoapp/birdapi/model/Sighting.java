@@ -22,6 +22,10 @@ public class Sighting {
     @Column(nullable = false, name = "date_time")
     private LocalDateTime dateTime;
 
+    // Near-duplicate reports merged into this sighting, including the first one
+    @Column(name = "report_count", nullable = false, columnDefinition = "integer default 1 not null")
+    private int reportCount = 1;
+
     public Sighting() {
     }
 
@@ -63,6 +67,14 @@ public class Sighting {
         this.dateTime = dateTime;
     }
 
+    public int getReportCount() {
+        return reportCount;
+    }
+
+    public void setReportCount(int reportCount) {
+        this.reportCount = reportCount;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -83,6 +95,7 @@ public class Sighting {
                 ", birdId=" + (bird != null ? bird.getId() : null) +
                 ", location='" + location + '\'' +
                 ", dateTime=" + dateTime +
+                ", reportCount=" + reportCount +
                 '}';
     }
 }
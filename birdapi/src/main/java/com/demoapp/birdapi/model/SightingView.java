@@ -0,0 +1,110 @@
+package com.demoapp.birdapi.model;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Read model of a sighting together with its bird, one row per sighting, so lists and searches
+ * need no join. Location and bird color are dictionary-encoded: the row holds integer ids into
+ * {@link LocationName} and {@link ColorName}, which callers decode through the cached dictionary
+ * rather than by loading the association. Written only by the sighting and bird write paths, in the
+ * same transaction as the tables it mirrors; never modified through this entity.
+ */
+@Entity
+@Table(name = "sighting_view")
+public class SightingView {
+
+    @Id
+    private Long id;
+
+    @Column(name = "bird_id", nullable = false)
+    private Long birdId;
+
+    @Column(name = "bird_name", nullable = false)
+    private String birdName;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "bird_color_id", nullable = false)
+    private ColorName birdColor;
+
+    @Column(name = "bird_weight", nullable = false)
+    private Double birdWeight;
+
+    @Column(name = "bird_height", nullable = false)
+    private Double birdHeight;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "location_id", nullable = false)
+    private LocationName location;
+
+    @Column(nullable = false, name = "date_time")
+    private LocalDateTime dateTime;
+
+    @Column(name = "report_count", nullable = false)
+    private int reportCount;
+
+    public SightingView() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBirdId() {
+        return birdId;
+    }
+
+    public String getBirdName() {
+        return birdName;
+    }
+
+    public ColorName getBirdColor() {
+        return birdColor;
+    }
+
+    public Double getBirdWeight() {
+        return birdWeight;
+    }
+
+    public Double getBirdHeight() {
+        return birdHeight;
+    }
+
+    public LocationName getLocation() {
+        return location;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public int getReportCount() {
+        return reportCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SightingView that = (SightingView) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "SightingView{" +
+                "id=" + id +
+                ", birdId=" + birdId +
+                ", birdName='" + birdName + '\'' +
+                ", locationId=" + (location == null ? null : location.getId()) +
+                ", dateTime=" + dateTime +
+                ", reportCount=" + reportCount +
+                '}';
+    }
+}
@@ -0,0 +1,138 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.dto.BirdUpsertResultDTO;
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.util.Batches;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+@Repository
+public class BirdJdbcRepository {
+
+    // 4 bind parameters per row keeps a chunk well below the PostgreSQL limit
+    static final int UPSERT_CHUNK_SIZE = 500;
+
+    private static final String POSTGRES_UPSERT_PREFIX =
+            "INSERT INTO birds (name, color, weight, height) VALUES ";
+
+    private static final String POSTGRES_UPSERT_SUFFIX =
+            " ON CONFLICT ((lower(name)), (lower(color))) DO UPDATE"
+                    + " SET name = EXCLUDED.name, color = EXCLUDED.color, weight = EXCLUDED.weight, height = EXCLUDED.height"
+                    + " WHERE (birds.name, birds.color, birds.weight, birds.height)"
+                    + " IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.color, EXCLUDED.weight, EXCLUDED.height)"
+                    + " RETURNING (xmax = 0) AS inserted";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public BirdJdbcRepository(JdbcTemplate jdbcTemplate,
+                              NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                              DatabasePlatform databasePlatform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.databasePlatform = databasePlatform;
+    }
+
+    public BirdUpsertResultDTO upsertByNaturalKey(List<Bird> birds) {
+        // A statement may touch a conflicting row only once, so duplicates are collapsed (last one wins)
+        Map<String, Bird> byKey = new LinkedHashMap<>();
+        for (Bird bird : birds) {
+            byKey.put(naturalKey(bird.getName(), bird.getColor()), bird);
+        }
+        List<Bird> distinctBirds = new ArrayList<>(byKey.values());
+
+        BirdUpsertResultDTO result = new BirdUpsertResultDTO();
+        boolean postgres = databasePlatform.isPostgres();
+        for (List<Bird> chunk : Batches.partition(distinctBirds, UPSERT_CHUNK_SIZE)) {
+            if (postgres) {
+                upsertChunkOnConflict(chunk, result);
+            } else {
+                upsertChunkPortable(chunk, result);
+            }
+        }
+        return result;
+    }
+
+    private void upsertChunkOnConflict(List<Bird> chunk, BirdUpsertResultDTO result) {
+        StringBuilder sql = new StringBuilder(POSTGRES_UPSERT_PREFIX);
+        List<Object> args = new ArrayList<>(chunk.size() * 4);
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            Bird bird = chunk.get(i);
+            args.add(bird.getName());
+            args.add(bird.getColor());
+            args.add(bird.getWeight());
+            args.add(bird.getHeight());
+        }
+        sql.append(POSTGRES_UPSERT_SUFFIX);
+
+        // Rows filtered out by the DO UPDATE ... WHERE clause are not returned: they were unchanged
+        List<Boolean> inserted = jdbcTemplate.queryForList(sql.toString(), Boolean.class, args.toArray());
+        int created = Collections.frequency(inserted, Boolean.TRUE);
+        result.addCreated(created);
+        result.addUpdated(inserted.size() - created);
+        result.addUnchanged(chunk.size() - inserted.size());
+    }
+
+    private void upsertChunkPortable(List<Bird> chunk, BirdUpsertResultDTO result) {
+        List<String> lowerNames = new ArrayList<>(chunk.size());
+        for (Bird bird : chunk) {
+            lowerNames.add(bird.getName().toLowerCase(Locale.ROOT));
+        }
+
+        Map<String, Bird> existing = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT id, name, color, weight, height FROM birds WHERE lower(name) IN (:names) ORDER BY id",
+                Collections.singletonMap("names", lowerNames),
+                rs -> {
+                    Bird bird = new Bird(rs.getString("name"), rs.getString("color"),
+                            rs.getDouble("weight"), rs.getDouble("height"));
+                    bird.setId(rs.getLong("id"));
+                    existing.putIfAbsent(naturalKey(bird.getName(), bird.getColor()), bird);
+                });
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Bird bird : chunk) {
+            Bird current = existing.get(naturalKey(bird.getName(), bird.getColor()));
+            if (current == null) {
+                inserts.add(new Object[]{bird.getName(), bird.getColor(), bird.getWeight(), bird.getHeight()});
+            } else if (!sameValues(current, bird)) {
+                updates.add(new Object[]{bird.getName(), bird.getColor(), bird.getWeight(), bird.getHeight(), current.getId()});
+            } else {
+                result.addUnchanged(1);
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO birds (name, color, weight, height) VALUES (?, ?, ?, ?)", inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE birds SET name = ?, color = ?, weight = ?, height = ? WHERE id = ?", updates);
+        }
+        result.addCreated(inserts.size());
+        result.addUpdated(updates.size());
+    }
+
+    private static boolean sameValues(Bird current, Bird incoming) {
+        return Objects.equals(current.getName(), incoming.getName())
+                && Objects.equals(current.getColor(), incoming.getColor())
+                && Objects.equals(current.getWeight(), incoming.getWeight())
+                && Objects.equals(current.getHeight(), incoming.getHeight());
+    }
+
+    static String naturalKey(String name, String color) {
+        return name.toLowerCase(Locale.ROOT) + '\u0000' + color.toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,8 +4,12 @@ import com.demoapp.birdapi.model.Bird;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,5 +20,8 @@ public interface BirdRepository extends JpaRepository<Bird, Long> {
     Page<Bird> findByColorIgnoreCase(String color, Pageable pageable);
 
     Page<Bird> findByNameContainingIgnoreCaseAndColorIgnoreCase(String name, String color, Pageable pageable);
-}
 
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Bird b where b.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,334 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.ingest.SightingRow;
+import com.demoapp.birdapi.util.Batches;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maintains the {@code sighting_count} and {@code last_seen} columns of {@code birds}, so bird reads
+ * need no COUNT or MAX over their sightings. Writers only record committed changes in per-bird
+ * {@link LongAdder}s, which never contend on a row lock; {@link #flush()} writes what accumulated
+ * since the previous flush in one batched update. Changes not yet flushed when the process dies are
+ * lost; the reconciliation recomputes both columns from {@code sightings} on a schedule, rewriting
+ * only birds that drifted. It reads every sighting, so it runs at startup only when asked to. While
+ * {@link #reconcile()} recounts an id range, transactions that change counters wait to commit, so
+ * every sighting it counts has been recorded here and the recorded changes can be marked as written;
+ * nothing is counted twice or lost. Another instance's changes not yet flushed are not held back and
+ * may be counted again by its next flush.
+ */
+@Component
+public class BirdSightingCounters implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BirdSightingCounters.class);
+
+    // Adds the count delta and moves last_seen forward only; a null time leaves it unchanged
+    private static final String FLUSH_SQL =
+            "UPDATE birds SET sighting_count = sighting_count + ?," +
+                    " last_seen = CASE WHEN last_seen IS NULL OR last_seen < ? THEN ? ELSE last_seen END WHERE id = ?";
+
+    // Deleting or moving a sighting can take back a bird's latest time, which only the table knows
+    private static final String REFRESH_LAST_SEEN_SQL =
+            "UPDATE birds SET last_seen = (SELECT MAX(s.date_time) FROM sightings s WHERE s.bird_id = birds.id) WHERE id IN (:ids)";
+
+    private static final String RECONCILE_SQL =
+            "UPDATE birds SET" +
+                    " sighting_count = (SELECT COUNT(*) FROM sightings s WHERE s.bird_id = birds.id)," +
+                    " last_seen = (SELECT MAX(s.date_time) FROM sightings s WHERE s.bird_id = birds.id)" +
+                    " WHERE id > ? AND id <= ?" +
+                    " AND (sighting_count <> (SELECT COUNT(*) FROM sightings s WHERE s.bird_id = birds.id)" +
+                    " OR last_seen IS DISTINCT FROM (SELECT MAX(s.date_time) FROM sightings s WHERE s.bird_id = birds.id))";
+
+    private static final int[] FLUSH_ARG_TYPES = {Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP, Types.BIGINT};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int reconcileBatchSize;
+    private final boolean reconcileOnStart;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final Set<Long> staleLastSeen = ConcurrentHashMap.newKeySet();
+
+    // Shared by each transaction from its first recorded change until it completes, exclusive while
+    // the reconciliation recounts an id range, so no sighting it counts is still to be recorded
+    private final ReentrantReadWriteLock recording = new ReentrantReadWriteLock();
+
+    private volatile boolean running;
+
+    public BirdSightingCounters(JdbcTemplate jdbcTemplate,
+                                NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${birdapi.counters.reconcile-batch-size:1000}") int reconcileBatchSize,
+                                @Value("${birdapi.counters.reconcile-on-start:false}") boolean reconcileOnStart) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.reconcileBatchSize = reconcileBatchSize;
+        this.reconcileOnStart = reconcileOnStart;
+    }
+
+    /**
+     * Counts a sighting of the bird once the surrounding transaction commits.
+     */
+    public void added(long birdId, LocalDateTime dateTime) {
+        record(() -> counter(birdId).add(1, dateTime));
+    }
+
+    public void added(List<SightingRow> rows) {
+        Map<Long, Counter> batch = new HashMap<>();
+        for (SightingRow row : rows) {
+            batch.computeIfAbsent(row.getBirdId(), id -> new Counter()).add(1, row.getDateTime());
+        }
+        record(() -> batch.forEach((birdId, delta) -> counter(birdId).merge(delta)));
+    }
+
+    /**
+     * Takes back deleted or moved sightings, given as counts per bird id, once the surrounding
+     * transaction commits. The birds' {@code last_seen} is recomputed at the next flush.
+     */
+    public void removed(Map<Long, Long> countsByBird) {
+        if (countsByBird.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> counts = new HashMap<>(countsByBird);
+        record(() -> counts.forEach((birdId, count) -> {
+            counter(birdId).count.add(-count);
+            staleLastSeen.add(birdId);
+        }));
+    }
+
+    // Deleted birds take their pending changes with them
+    public void forget(Collection<Long> birdIds) {
+        List<Long> ids = new ArrayList<>(birdIds);
+        afterCommit(() -> ids.forEach(birdId -> {
+            counters.remove(birdId);
+            staleLastSeen.remove(birdId);
+        }));
+    }
+
+    /**
+     * Writes the changes accumulated since the previous flush, in one transaction. A failed flush
+     * leaves them pending for the next one.
+     */
+    @Scheduled(fixedDelayString = "${birdapi.counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> args = new ArrayList<>();
+        List<Runnable> flushed = new ArrayList<>();
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            long count = counter.count.sum();
+            long lastSeen = counter.lastSeen.get();
+            long delta = count - counter.flushedCount;
+            boolean newer = lastSeen > counter.flushedLastSeen;
+            if (delta == 0 && !newer) {
+                continue;
+            }
+            Timestamp time = newer ? Timestamp.valueOf(decode(lastSeen)) : null;
+            args.add(new Object[]{delta, time, time, entry.getKey()});
+            flushed.add(() -> {
+                counter.flushedCount = count;
+                counter.flushedLastSeen = Math.max(counter.flushedLastSeen, lastSeen);
+            });
+        }
+        List<Long> stale = new ArrayList<>(staleLastSeen);
+        if (args.isEmpty() && stale.isEmpty()) {
+            return;
+        }
+        staleLastSeen.removeAll(stale);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!args.isEmpty()) {
+                    jdbcTemplate.batchUpdate(FLUSH_SQL, args, FLUSH_ARG_TYPES);
+                }
+                for (List<Long> chunk : Batches.partition(stale)) {
+                    namedParameterJdbcTemplate.update(REFRESH_LAST_SEEN_SQL, Collections.singletonMap("ids", chunk));
+                }
+            });
+        } catch (DataAccessException e) {
+            staleLastSeen.addAll(stale);
+            log.warn("Could not flush sighting counters of {} birds, retrying at the next flush: {}", args.size(), e.getMessage());
+            return;
+        }
+        flushed.forEach(Runnable::run);
+        log.debug("Flushed sighting counters of {} birds", args.size());
+    }
+
+    /**
+     * Recomputes the counters of every bird from {@code sightings}, one id range per statement, and
+     * rewrites those that drifted. Writers changing counters wait while a range is recounted.
+     *
+     * @return the number of birds repaired
+     */
+    @Scheduled(cron = "${birdapi.counters.reconcile-cron:0 30 3 * * *}")
+    public synchronized int reconcile() {
+        flush();
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM birds", Long.class);
+        int repaired = 0;
+        for (long from = 0; maxId != null && from < maxId; from += reconcileBatchSize) {
+            Lock lock = recording.writeLock();
+            lock.lock();
+            try {
+                repaired += jdbcTemplate.update(RECONCILE_SQL, from, from + reconcileBatchSize);
+                absorb(from, from + reconcileBatchSize);
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (repaired > 0) {
+            log.warn("Reconciled sighting counters of {} birds", repaired);
+        }
+        return repaired;
+    }
+
+    /**
+     * Discards every change not yet flushed, e.g. after a restore replaced the counted birds. Waits
+     * for a running flush, whose changes a {@link #reconcile()} then has to repair.
+     */
+    public synchronized void reset() {
+        counters.clear();
+        staleLastSeen.clear();
+    }
+
+    // The statement for this id range counted exactly the changes recorded so far, as none can
+    // commit while it runs, so they must not be flushed on top
+    private void absorb(long fromExclusive, long toInclusive) {
+        for (long id = fromExclusive + 1; id <= toInclusive; id++) {
+            Counter counter = counters.get(id);
+            if (counter != null) {
+                counter.flushedCount = counter.count.sum();
+                counter.flushedLastSeen = Math.max(counter.flushedLastSeen, counter.lastSeen.get());
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (reconcileOnStart) {
+            reconcile();
+        }
+    }
+
+    @Override
+    public void stop() {
+        flush();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before and stops after the web server and the ingest pipeline, so their last sightings are flushed
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1024;
+    }
+
+    private Counter counter(long birdId) {
+        return counters.computeIfAbsent(birdId, id -> new Counter());
+    }
+
+    private static long encode(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime decode(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    // Records the change after commit, holding the shared lock from now until the transaction completes
+    private void record(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Lock lock = recording.readLock();
+            lock.lock();
+            try {
+                action.run();
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.hasResource(recording)) {
+            Lock lock = recording.readLock();
+            lock.lock();
+            TransactionSynchronizationManager.bindResource(recording, lock);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(recording);
+                    lock.unlock();
+                }
+            });
+        }
+        afterCommit(action);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Running totals of one bird. Writers only add; the flush remembers how much of the totals it
+     * has written instead of resetting them, so no change can slip between a read and a reset.
+     */
+    private static final class Counter {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator lastSeen = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        // Touched only by the flush and the reconciliation, which are synchronized
+        private long flushedCount;
+        private long flushedLastSeen = Long.MIN_VALUE;
+
+        void add(long sightings, LocalDateTime dateTime) {
+            count.add(sightings);
+            lastSeen.accumulate(encode(dateTime));
+        }
+
+        void merge(Counter other) {
+            count.add(other.count.sum());
+            lastSeen.accumulate(other.lastSeen.get());
+        }
+    }
+}
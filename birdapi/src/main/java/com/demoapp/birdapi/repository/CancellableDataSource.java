@@ -0,0 +1,84 @@
+package com.demoapp.birdapi.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out connections that register their statements with the {@link QueryScope} bound to the
+ * calling thread. Connections taken outside a scope are returned as they are.
+ */
+public class CancellableDataSource extends DelegatingDataSource implements Closeable {
+
+    public CancellableDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    // The wrapped pool is closed with the application context, which only sees this data source
+    @Override
+    public void close() throws IOException {
+        DataSource target = obtainTargetDataSource();
+        if (target instanceof Closeable) {
+            ((Closeable) target).close();
+        }
+    }
+
+    private static Connection track(Connection connection) {
+        if (QueryScope.current() == null) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(CancellableDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ScopedConnection(connection));
+    }
+
+    private static final class ScopedConnection implements InvocationHandler {
+        private final Connection target;
+
+        private ScopedConnection(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            // createStatement, prepareStatement and prepareCall
+            if (result instanceof Statement) {
+                QueryScope scope = QueryScope.current();
+                if (scope != null) {
+                    scope.register((Statement) result);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.demoapp.birdapi.repository;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@Component
+public class DatabasePlatform {
+
+    private final DataSource dataSource;
+
+    // Resolved on first use so the application can start while the database is unreachable
+    private volatile Boolean postgres;
+
+    public DatabasePlatform(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                result = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            } catch (SQLException e) {
+                throw new DataAccessResourceFailureException("Could not determine database platform", e);
+            }
+            postgres = result;
+        }
+        return result;
+    }
+}
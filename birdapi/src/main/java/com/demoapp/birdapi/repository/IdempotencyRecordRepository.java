@@ -0,0 +1,59 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Native insert so a concurrent claim of the same key fails on the primary key instead of being merged
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, fingerprint, claimed_until, created_at, expires_at) " +
+            "values (:key, :fingerprint, :claimedUntil, :createdAt, :expiresAt)", nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("fingerprint") String fingerprint,
+              @Param("claimedUntil") LocalDateTime claimedUntil,
+              @Param("createdAt") LocalDateTime createdAt,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Conditional, so of several retries finding the same stale claim only one takes it over
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update IdempotencyRecord r set r.claimedUntil = :claimedUntil where r.key = :key and r.statusCode is null " +
+            "and (r.claimedUntil is null or r.claimedUntil < :now)")
+    int takeOverStaleClaim(@Param("key") String key,
+                           @Param("now") LocalDateTime now,
+                           @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update IdempotencyRecord r set r.statusCode = :statusCode, r.responseBody = :responseBody, " +
+            "r.locationHeader = :locationHeader where r.key = :key")
+    int complete(@Param("key") String key,
+                 @Param("statusCode") int statusCode,
+                 @Param("responseBody") String responseBody,
+                 @Param("locationHeader") String locationHeader);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.statusCode is null")
+    int releaseClaim(@Param("key") String key);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.expiresAt < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
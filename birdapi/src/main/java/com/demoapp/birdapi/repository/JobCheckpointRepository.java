@@ -0,0 +1,70 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.model.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Every write below is a single conditional statement, so two instances racing for the same job are
+ * serialized by the row lock and only one of them sees its update applied.
+ */
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+
+    // Native insert so a concurrent create of the same job fails on the primary key instead of being merged
+    @Transactional
+    @Modifying
+    @Query(value = "insert into job_checkpoints (name, processed) values (:name, 0)", nativeQuery = true)
+    int create(@Param("name") String name);
+
+    // Takes the lease if it is free, expired or already ours
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobCheckpoint c set c.leaseOwner = :owner, c.leaseUntil = :leaseUntil, c.updatedAt = :now " +
+            "where c.name = :name and (c.leaseOwner is null or c.leaseOwner = :owner or c.leaseUntil < :now)")
+    int acquire(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now,
+                @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobCheckpoint c set c.cutoff = :cutoff, c.positionDateTime = null, c.positionId = null, " +
+            "c.processed = 0, c.updatedAt = :now where c.name = :name and c.leaseOwner = :owner")
+    int start(@Param("name") String name,
+              @Param("owner") String owner,
+              @Param("cutoff") LocalDateTime cutoff,
+              @Param("now") LocalDateTime now);
+
+    // Records progress and extends the lease; 0 means the lease was lost to another instance
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobCheckpoint c set c.positionDateTime = :positionDateTime, c.positionId = :positionId, " +
+            "c.processed = :processed, c.leaseUntil = :leaseUntil, c.updatedAt = :now " +
+            "where c.name = :name and c.leaseOwner = :owner")
+    int advance(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("positionDateTime") LocalDateTime positionDateTime,
+                @Param("positionId") Long positionId,
+                @Param("processed") long processed,
+                @Param("now") LocalDateTime now,
+                @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobCheckpoint c set c.cutoff = null, c.positionDateTime = null, c.positionId = null, " +
+            "c.updatedAt = :now where c.name = :name and c.leaseOwner = :owner")
+    int finish(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobCheckpoint c set c.leaseOwner = null, c.leaseUntil = null " +
+            "where c.name = :name and c.leaseOwner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
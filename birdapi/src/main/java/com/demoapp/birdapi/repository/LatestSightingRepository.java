@@ -0,0 +1,319 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.ingest.SightingRow;
+import com.demoapp.birdapi.model.LatestSighting;
+import com.demoapp.birdapi.util.Batches;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@code latest_sightings} table, one row per bird with its most recent sighting, and an
+ * in-memory copy ordered by bird id that answers reads without touching the database. Writes run on
+ * the connection of the surrounding transaction: a new sighting only replaces a bird's row if it is
+ * later, so sightings arriving out of order never move the latest one back; a changed or deleted
+ * latest sighting makes its bird's row be recomputed from {@code sightings}, one indexed lookup per
+ * bird. The in-memory copy is reloaded for the affected birds once the transaction commits, and in
+ * full periodically to pick up writes of other instances. Those reads hold no lock; each is stamped
+ * before it starts, and its rows replace only birds last read by an earlier one.
+ */
+@Repository
+public class LatestSightingRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(LatestSightingRepository.class);
+
+    private static final String COLUMNS = "bird_id, sighting_id, location, date_time";
+
+    // Candidate is the highest id at the given time; it wins over the current row only if later
+    private static final String ADVANCE_POSTGRES_SQL =
+            "INSERT INTO latest_sightings (" + COLUMNS + ")" +
+                    " SELECT s.bird_id, s.id, s.location, s.date_time FROM sightings s" +
+                    " WHERE s.bird_id = ? AND s.date_time = ? ORDER BY s.id DESC LIMIT 1" +
+                    " ON CONFLICT (bird_id) DO UPDATE SET sighting_id = EXCLUDED.sighting_id," +
+                    " location = EXCLUDED.location, date_time = EXCLUDED.date_time" +
+                    " WHERE (latest_sightings.date_time, latest_sightings.sighting_id) < (EXCLUDED.date_time, EXCLUDED.sighting_id)";
+
+    private static final String ADVANCE_SQL =
+            "MERGE INTO latest_sightings l USING (SELECT s.bird_id, s.id, s.location, s.date_time FROM sightings s" +
+                    " WHERE s.bird_id = ? AND s.date_time = ? ORDER BY s.id DESC LIMIT 1) c ON (l.bird_id = c.bird_id)" +
+                    " WHEN MATCHED AND (l.date_time < c.date_time OR (l.date_time = c.date_time AND l.sighting_id < c.id))" +
+                    " THEN UPDATE SET sighting_id = c.id, location = c.location, date_time = c.date_time" +
+                    " WHEN NOT MATCHED THEN INSERT (" + COLUMNS + ") VALUES (c.bird_id, c.id, c.location, c.date_time)";
+
+    // Unconditional: the bird's latest sighting as the table has it now
+    private static final String RECOMPUTE_POSTGRES_SQL =
+            "INSERT INTO latest_sightings (" + COLUMNS + ")" +
+                    " SELECT s.bird_id, s.id, s.location, s.date_time FROM sightings s" +
+                    " WHERE s.bird_id = ? ORDER BY s.date_time DESC, s.id DESC LIMIT 1" +
+                    " ON CONFLICT (bird_id) DO UPDATE SET sighting_id = EXCLUDED.sighting_id," +
+                    " location = EXCLUDED.location, date_time = EXCLUDED.date_time";
+
+    private static final String RECOMPUTE_SQL =
+            "MERGE INTO latest_sightings l USING (SELECT s.bird_id, s.id, s.location, s.date_time FROM sightings s" +
+                    " WHERE s.bird_id = ? ORDER BY s.date_time DESC, s.id DESC LIMIT 1) c ON (l.bird_id = c.bird_id)" +
+                    " WHEN MATCHED THEN UPDATE SET sighting_id = c.id, location = c.location, date_time = c.date_time" +
+                    " WHEN NOT MATCHED THEN INSERT (" + COLUMNS + ") VALUES (c.bird_id, c.id, c.location, c.date_time)";
+
+    // One sort of the whole table instead of a lookup per bird
+    private static final String INSERT_ALL_POSTGRES_SQL =
+            "INSERT INTO latest_sightings (" + COLUMNS + ")" +
+                    " SELECT DISTINCT ON (s.bird_id) s.bird_id, s.id, s.location, s.date_time FROM sightings s" +
+                    " ORDER BY s.bird_id, s.date_time DESC, s.id DESC";
+
+    private static final String INSERT_ALL_SQL =
+            "INSERT INTO latest_sightings (" + COLUMNS + ")" +
+                    " SELECT s.bird_id, s.id, s.location, s.date_time FROM sightings s" +
+                    " WHERE NOT EXISTS (SELECT 1 FROM sightings n WHERE n.bird_id = s.bird_id" +
+                    " AND (n.date_time > s.date_time OR (n.date_time = s.date_time AND n.id > s.id)))";
+
+    private static final String DELETE_WITHOUT_SIGHTINGS_SQL =
+            "DELETE FROM latest_sightings WHERE bird_id IN (:ids)" +
+                    " AND NOT EXISTS (SELECT 1 FROM sightings s WHERE s.bird_id = latest_sightings.bird_id)";
+
+    private static final RowMapper<LatestSighting> ROW_MAPPER = (rs, rowNum) -> new LatestSighting(
+            rs.getLong("bird_id"), rs.getLong("sighting_id"), rs.getString("location"),
+            rs.getTimestamp("date_time").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    private volatile Map<Long, LatestSighting> latest = new ConcurrentSkipListMap<>();
+    private volatile boolean loaded;
+
+    // A read stamped later saw every commit an earlier one saw; the fields below change under the lock
+    private final AtomicLong reads = new AtomicLong();
+    private final ReentrantLock applying = new ReentrantLock();
+    private long reloadedAt;
+    private final Map<Long, Long> refreshedAt = new HashMap<>();
+
+    public LatestSightingRepository(JdbcTemplate jdbcTemplate,
+                                    NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                    DatabasePlatform databasePlatform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.databasePlatform = databasePlatform;
+    }
+
+    /**
+     * Latest sighting of every bird that has one, in bird id order, from memory; the first call
+     * loads the table.
+     */
+    public List<LatestSighting> findAll() {
+        if (!loaded) {
+            reload();
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * Offers a sighting already written to {@code sightings} as its bird's latest.
+     */
+    public void advance(long birdId, LocalDateTime dateTime) {
+        advance(Collections.singletonMap(birdId, dateTime));
+    }
+
+    // Only the latest row of each bird in the batch is offered
+    public void advance(List<SightingRow> rows) {
+        Map<Long, LocalDateTime> latestByBird = new TreeMap<>();
+        for (SightingRow row : rows) {
+            latestByBird.merge(row.getBirdId(), row.getDateTime(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+        advance(latestByBird);
+    }
+
+    private void advance(Map<Long, LocalDateTime> latestByBird) {
+        if (latestByBird.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(latestByBird.size());
+        latestByBird.forEach((birdId, dateTime) -> args.add(new Object[]{birdId, Timestamp.valueOf(dateTime)}));
+        jdbcTemplate.batchUpdate(databasePlatform.isPostgres() ? ADVANCE_POSTGRES_SQL : ADVANCE_SQL, args);
+        refreshAfterCommit(latestByBird.keySet());
+    }
+
+    /**
+     * Recomputes the birds whose latest sighting is among the given ones, after those sightings have
+     * been changed or deleted.
+     */
+    public void replace(Collection<Long> sightingIds) {
+        Set<Long> birdIds = new TreeSet<>();
+        for (List<Long> chunk : Batches.partition(sightingIds)) {
+            birdIds.addAll(namedParameterJdbcTemplate.queryForList(
+                    "SELECT bird_id FROM latest_sightings WHERE sighting_id IN (:ids)",
+                    Collections.singletonMap("ids", chunk), Long.class));
+        }
+        recompute(birdIds);
+    }
+
+    /**
+     * Recomputes the birds whose latest sighting no longer exists, after a delete whose sighting
+     * ids are not known; reads the whole table, so O(birds).
+     */
+    public void replaceDeleted() {
+        recompute(new TreeSet<>(jdbcTemplate.queryForList(
+                "SELECT l.bird_id FROM latest_sightings l WHERE NOT EXISTS (SELECT 1 FROM sightings s WHERE s.id = l.sighting_id)",
+                Long.class)));
+    }
+
+    /**
+     * Fills the table from every row of {@code sightings}, after a bulk load into an empty table.
+     * The in-memory copy is not touched; {@link #reload()} it once the load has committed.
+     */
+    public int insertAll() {
+        return jdbcTemplate.update(databasePlatform.isPostgres() ? INSERT_ALL_POSTGRES_SQL : INSERT_ALL_SQL);
+    }
+
+    public void deleteByBirdIdIn(Collection<Long> birdIds) {
+        for (List<Long> chunk : Batches.partition(birdIds)) {
+            namedParameterJdbcTemplate.update("DELETE FROM latest_sightings WHERE bird_id IN (:ids)", Collections.singletonMap("ids", chunk));
+        }
+        refreshAfterCommit(birdIds);
+    }
+
+    private void recompute(Set<Long> birdIds) {
+        if (birdIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(birdIds.size());
+        for (Long birdId : birdIds) {
+            args.add(new Object[]{birdId});
+        }
+        jdbcTemplate.batchUpdate(databasePlatform.isPostgres() ? RECOMPUTE_POSTGRES_SQL : RECOMPUTE_SQL, args);
+        for (List<Long> chunk : Batches.partition(birdIds)) {
+            namedParameterJdbcTemplate.update(DELETE_WITHOUT_SIGHTINGS_SQL, Collections.singletonMap("ids", chunk));
+        }
+        refreshAfterCommit(birdIds);
+    }
+
+    /**
+     * Replaces the in-memory copy with the table's current contents, keeping birds refreshed from a
+     * later read.
+     */
+    public void reload() {
+        long stamp = reads.incrementAndGet();
+        Map<Long, LatestSighting> all = new ConcurrentSkipListMap<>();
+        jdbcTemplate.query("SELECT " + COLUMNS + " FROM latest_sightings", rs -> {
+            LatestSighting row = ROW_MAPPER.mapRow(rs, 0);
+            all.put(row.getBirdId(), row);
+        });
+        applying.lock();
+        try {
+            if (stamp < reloadedAt) {
+                return;
+            }
+            refreshedAt.values().removeIf(refreshed -> refreshed < stamp);
+            for (Long birdId : refreshedAt.keySet()) {
+                LatestSighting row = latest.get(birdId);
+                if (row != null) {
+                    all.put(birdId, row);
+                } else {
+                    all.remove(birdId);
+                }
+            }
+            latest = all;
+            reloadedAt = stamp;
+            loaded = true;
+        } finally {
+            applying.unlock();
+        }
+    }
+
+    // Picks up rows written by other instances; nothing to do before the first read
+    @Scheduled(fixedDelayString = "${birdapi.latest-sightings.reload-interval-ms:60000}")
+    public void reloadIfLoaded() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            reload();
+        } catch (DataAccessException e) {
+            log.warn("Could not reload latest sightings, keeping the current copy: {}", e.getMessage());
+        }
+    }
+
+    // Stamped like reload, so a slower refresh never overwrites a newer one
+    private void refresh(Collection<Long> birdIds) {
+        if (!loaded) {
+            return;
+        }
+        long stamp = reads.incrementAndGet();
+        List<LatestSighting> rows = new ArrayList<>();
+        for (List<Long> chunk : Batches.partition(birdIds)) {
+            rows.addAll(namedParameterJdbcTemplate.query(
+                    "SELECT " + COLUMNS + " FROM latest_sightings WHERE bird_id IN (:ids)",
+                    Collections.singletonMap("ids", chunk), ROW_MAPPER));
+        }
+        Set<Long> missing = new HashSet<>(birdIds);
+        applying.lock();
+        try {
+            for (LatestSighting row : rows) {
+                missing.remove(row.getBirdId());
+                if (isNewer(row.getBirdId(), stamp)) {
+                    latest.put(row.getBirdId(), row);
+                }
+            }
+            for (Long birdId : missing) {
+                if (isNewer(birdId, stamp)) {
+                    latest.remove(birdId);
+                }
+            }
+        } finally {
+            applying.unlock();
+        }
+    }
+
+    // Claims the bird for a read unless a later one already applied to it
+    private boolean isNewer(long birdId, long stamp) {
+        if (stamp < Math.max(reloadedAt, refreshedAt.getOrDefault(birdId, 0L))) {
+            return false;
+        }
+        refreshedAt.put(birdId, stamp);
+        return true;
+    }
+
+    private void refreshAfterCommit(Collection<Long> birdIds) {
+        List<Long> ids = new ArrayList<>(birdIds);
+        Runnable action = () -> {
+            try {
+                refresh(ids);
+            } catch (DataAccessException e) {
+                // The next full reload repairs the copy
+                log.warn("Could not refresh latest sightings of {} birds: {}", ids.size(), e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.demoapp.birdapi.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The JDBC statements run on behalf of one request. While a scope is bound to the thread doing the
+ * work, {@link CancellableDataSource} gives every statement that thread creates the endpoint's
+ * timeout and records it here, so that {@link #cancel()} can stop the statement still running in
+ * the database when the client has gone away. Statements created after cancellation fail at once.
+ */
+public final class QueryScope {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryScope.class);
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    // SQLSTATE query_canceled, as reported by PostgreSQL for a cancelled statement
+    private static final String QUERY_CANCELED = "57014";
+
+    private final String endpoint;
+    private final int timeoutSeconds;
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /**
+     * @param timeoutSeconds statement timeout for every statement in the scope, 0 for none
+     */
+    public QueryScope(String endpoint, int timeoutSeconds) {
+        this.endpoint = endpoint;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    static QueryScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the scope to the calling thread until the returned binding is closed.
+     */
+    public Binding bind() {
+        QueryScope previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public <T> T call(Supplier<T> work) {
+        try (Binding ignored = bind()) {
+            return work.get();
+        }
+    }
+
+    /**
+     * Cancels the statements of the scope that are still running. Safe to call from any thread and
+     * more than once.
+     */
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        log.debug("Cancelling {} statement(s) of {}", statements.size(), endpoint);
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // Already closed, or the driver could not reach the server; nothing left to stop
+                log.debug("Could not cancel statement of {}: {}", endpoint, e.getMessage());
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void register(Statement statement) throws SQLException {
+        if (cancelled) {
+            statement.close();
+            throw new SQLException("Query for " + endpoint + " cancelled: the client has gone away", QUERY_CANCELED);
+        }
+        if (timeoutSeconds > 0) {
+            statement.setQueryTimeout(timeoutSeconds);
+        }
+        // A scope runs its statements one after another; only the open ones can still be cancelled
+        statements.removeIf(QueryScope::isClosed);
+        statements.add(statement);
+        if (cancelled) {
+            statement.cancel();
+        }
+    }
+
+    private static boolean isClosed(Statement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,242 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.ingest.SightingRow;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+public class SightingJdbcRepository {
+
+    // Rows are copied into a session-local staging table first, so that one statement can insert
+    // them into sightings and the read model together; ord keeps the input order for the ids
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS sightings_staging (ord bigserial, bird_id bigint, location varchar(255), date_time timestamp)";
+
+    private static final String COPY_SQL =
+            "COPY sightings_staging (bird_id, location, date_time) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String INSERT_FROM_STAGING_SQL =
+            "WITH inserted AS (INSERT INTO sightings (bird_id, location, date_time)" +
+                    " SELECT bird_id, location, date_time FROM sightings_staging ORDER BY ord" +
+                    " RETURNING id, bird_id, location, date_time, report_count)" +
+                    " INSERT INTO sighting_view (" + SightingViewJdbcRepository.VIEW_COLUMNS + ")" +
+                    " SELECT i.id, i.bird_id, b.name, c.id, b.weight, b.height, l.id, i.date_time, i.report_count" +
+                    " FROM inserted i JOIN birds b ON b.id = i.bird_id" + SightingViewJdbcRepository.DICTIONARY_JOINS + "i.location";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO sightings (bird_id, location, date_time) VALUES (?, ?, ?)";
+
+    // Targets the sighting by id when known, otherwise the first row with the same bird, location and time
+    private static final String INCREMENT_REPORT_COUNT_SQL =
+            "UPDATE sightings SET report_count = report_count + ? WHERE id = COALESCE(?, " +
+                    "(SELECT MIN(s.id) FROM sightings s WHERE s.bird_id = ? AND s.location = ? AND s.date_time = ?))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final SightingViewJdbcRepository sightingViewJdbcRepository;
+    private final BirdSightingCounters birdSightingCounters;
+    private final LatestSightingRepository latestSightingRepository;
+
+    public SightingJdbcRepository(JdbcTemplate jdbcTemplate,
+                                  NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                  DatabasePlatform databasePlatform,
+                                  SightingViewJdbcRepository sightingViewJdbcRepository,
+                                  BirdSightingCounters birdSightingCounters,
+                                  LatestSightingRepository latestSightingRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.sightingViewJdbcRepository = sightingViewJdbcRepository;
+        this.birdSightingCounters = birdSightingCounters;
+        this.latestSightingRepository = latestSightingRepository;
+    }
+
+    // Keys are lower-cased names; when several birds share a name the lowest id wins
+    public Map<String, Long> findBirdIdsByLowerName(Collection<String> lowerNames) {
+        Map<String, Long> ids = new HashMap<>();
+        if (lowerNames.isEmpty()) {
+            return ids;
+        }
+        namedParameterJdbcTemplate.query(
+                "SELECT lower(name) AS lower_name, MIN(id) AS id FROM birds WHERE lower(name) IN (:names) GROUP BY lower(name)",
+                Collections.singletonMap("names", lowerNames),
+                rs -> {
+                    ids.put(rs.getString("lower_name"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    public Set<Long> findExistingBirdIds(Collection<Long> birdIds) {
+        if (birdIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM birds WHERE id IN (:ids)",
+                Collections.singletonMap("ids", birdIds),
+                Long.class));
+    }
+
+    /**
+     * Inserts rows whose bird id has already been resolved, together with their read model rows and
+     * their birds' latest sightings, and counts them for their birds once the transaction commits.
+     * PostgreSQL receives the rows through a single {@code COPY ... FROM STDIN}; other databases get
+     * one JDBC batch. Runs on the connection of the surrounding transaction.
+     */
+    public int insertAll(List<SightingRow> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        birdSightingCounters.added(rows);
+        if (databasePlatform.isPostgres()) {
+            int inserted = copyIn(rows);
+            latestSightingRepository.advance(rows);
+            return inserted;
+        }
+
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (SightingRow row : rows) {
+                    statement.setLong(1, row.getBirdId());
+                    statement.setString(2, row.getLocation());
+                    statement.setTimestamp(3, Timestamp.valueOf(row.getDateTime()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> keys = new ArrayList<>(rows.size());
+                try (ResultSet generated = statement.getGeneratedKeys()) {
+                    while (generated.next()) {
+                        keys.add(generated.getLong(1));
+                    }
+                }
+                return keys;
+            }
+        });
+        sightingViewJdbcRepository.insertFromSightings(ids);
+        latestSightingRepository.advance(rows);
+        return rows.size();
+    }
+
+    /**
+     * Adds merged near-duplicate reports to existing sightings in one JDBC batch.
+     *
+     * @return the number of rows updated per increment; 0 where the target sighting no longer exists
+     */
+    public int[] incrementReportCounts(List<ReportCountIncrement> increments) {
+        if (increments.isEmpty()) {
+            return new int[0];
+        }
+        List<Object[]> args = new ArrayList<>(increments.size());
+        for (ReportCountIncrement increment : increments) {
+            args.add(new Object[]{increment.getIncrement(), increment.getSightingId(), increment.getBirdId(),
+                    increment.getLocation(), Timestamp.valueOf(increment.getDateTime())});
+        }
+        int[] argTypes = {Types.INTEGER, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP};
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT_REPORT_COUNT_SQL, args, argTypes);
+        sightingViewJdbcRepository.incrementReportCounts(increments);
+        return updated;
+    }
+
+    private int copyIn(List<SightingRow> rows) {
+        List<String> locations = new ArrayList<>(rows.size());
+        List<Long> birdIds = new ArrayList<>(rows.size());
+        for (SightingRow row : rows) {
+            locations.add(row.getLocation());
+            birdIds.add(row.getBirdId());
+        }
+        sightingViewJdbcRepository.internValues(locations, birdIds);
+        byte[] csv = toCopyCsv(rows);
+        Integer inserted = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+                // Left over if an earlier autocommit import failed between its statements
+                statement.execute("TRUNCATE sightings_staging");
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                copyManager.copyIn(COPY_SQL, new ByteArrayInputStream(csv));
+                int count = statement.executeUpdate(INSERT_FROM_STAGING_SQL);
+                statement.execute("TRUNCATE sightings_staging");
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return inserted == null ? 0 : inserted;
+    }
+
+    static byte[] toCopyCsv(List<SightingRow> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 64);
+        for (SightingRow row : rows) {
+            csv.append(row.getBirdId()).append(",\"");
+            String location = row.getLocation();
+            for (int i = 0; i < location.length(); i++) {
+                char c = location.charAt(i);
+                if (c == '"') {
+                    csv.append('"');
+                }
+                csv.append(c);
+            }
+            csv.append("\",").append(row.getDateTime()).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static final class ReportCountIncrement {
+
+        private final Long sightingId;
+        private final long birdId;
+        private final String location;
+        private final LocalDateTime dateTime;
+        private final int increment;
+
+        public ReportCountIncrement(Long sightingId, long birdId, String location, LocalDateTime dateTime, int increment) {
+            this.sightingId = sightingId;
+            this.birdId = birdId;
+            this.location = location;
+            this.dateTime = dateTime;
+            this.increment = increment;
+        }
+
+        public Long getSightingId() {
+            return sightingId;
+        }
+
+        public long getBirdId() {
+            return birdId;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public LocalDateTime getDateTime() {
+            return dateTime;
+        }
+
+        public int getIncrement() {
+            return increment;
+        }
+    }
+}
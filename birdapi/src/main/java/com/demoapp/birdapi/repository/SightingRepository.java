@@ -1,12 +1,61 @@
 package com.demoapp.birdapi.repository;
 
 import com.demoapp.birdapi.model.Sighting;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface SightingRepository extends JpaRepository<Sighting, Long>, JpaSpecificationExecutor<Sighting> {
+public interface SightingRepository extends JpaRepository<Sighting, Long>, JpaSpecificationExecutor<Sighting>, SightingRepositoryCustom {
 
-}
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Sighting s where s.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Sighting s where s.bird.id in :birdIds")
+    int deleteByBirdIdIn(@Param("birdIds") Collection<Long> birdIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Sighting s set s.location = :location where s.id in :ids")
+    int updateLocationByIdIn(@Param("ids") Collection<Long> ids, @Param("location") String location);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Sighting s set s.reportCount = s.reportCount + :increment where s.id = :id")
+    int incrementReportCount(@Param("id") Long id, @Param("increment") int increment);
 
+    Optional<Sighting> findFirstByBirdIdAndLocationAndDateTimeOrderByIdAsc(Long birdId, String location, LocalDateTime dateTime);
+
+    // Latest sightings of each bird, at most perBird each, in one statement
+    @Query(value = "select r.id, r.bird_id, r.location, r.date_time, r.report_count from ("
+            + " select s.*, row_number() over (partition by s.bird_id order by s.date_time desc, s.id desc) as rn"
+            + " from sightings s where s.bird_id in (:birdIds)) r"
+            + " where r.rn <= :perBird order by r.bird_id, r.rn", nativeQuery = true)
+    List<Sighting> findLatestByBirdIdIn(@Param("birdIds") Collection<Long> birdIds, @Param("perBird") int perBird);
+
+    // Rows of [birdId, count] over the given sightings, for taking them back from the bird counters
+    @Query("select s.bird.id, count(s) from Sighting s where s.id in :ids group by s.bird.id")
+    List<Object[]> countByIdInGroupByBird(@Param("ids") Collection<Long> ids);
+
+    // Rows of [id, dateTime] older than the cutoff, oldest first, for the retention purge
+    @Query("select s.id, s.dateTime from Sighting s where s.dateTime < :cutoff order by s.dateTime, s.id")
+    List<Object[]> findOldest(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Same, continuing after the last row of the previous chunk, so the scan does not revisit its dead index entries
+    @Query("select s.id, s.dateTime from Sighting s where s.dateTime < :cutoff" +
+            " and (s.dateTime > :afterDateTime or (s.dateTime = :afterDateTime and s.id > :afterId))" +
+            " order by s.dateTime, s.id")
+    List<Object[]> findOldestAfter(@Param("cutoff") LocalDateTime cutoff,
+                                   @Param("afterDateTime") LocalDateTime afterDateTime,
+                                   @Param("afterId") Long afterId,
+                                   Pageable pageable);
+}
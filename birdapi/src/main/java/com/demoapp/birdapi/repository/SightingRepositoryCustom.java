@@ -0,0 +1,8 @@
+package com.demoapp.birdapi.repository;
+
+import java.time.LocalDateTime;
+
+public interface SightingRepositoryCustom {
+
+    int deleteByFilter(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate);
+}
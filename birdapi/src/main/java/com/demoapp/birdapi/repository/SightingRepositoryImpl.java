@@ -0,0 +1,51 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.model.Sighting;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SightingRepositoryImpl implements SightingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int deleteByFilter(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Sighting> delete = cb.createCriteriaDelete(Sighting.class);
+        Root<Sighting> root = delete.from(Sighting.class);
+        List<Predicate> predicates = new ArrayList<>();
+
+        // Bulk deletes cannot join, so the bird name is matched through a subquery on birds
+        if (birdName != null && !birdName.isEmpty()) {
+            Subquery<Long> birdIds = delete.subquery(Long.class);
+            Root<Bird> bird = birdIds.from(Bird.class);
+            birdIds.select(bird.<Long>get("id")).where(cb.equal(bird.get("name"), birdName));
+            predicates.add(root.get("bird").get("id").in(birdIds));
+        }
+        if (location != null && !location.isEmpty()) {
+            predicates.add(cb.like(cb.lower(root.<String>get("location")), "%" + location.toLowerCase() + "%"));
+        }
+        if (fromDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.<LocalDateTime>get("dateTime"), fromDate));
+        }
+        if (toDate != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.<LocalDateTime>get("dateTime"), toDate));
+        }
+
+        delete.where(predicates.toArray(new Predicate[0]));
+        int deleted = entityManager.createQuery(delete).executeUpdate();
+        entityManager.clear();
+        return deleted;
+    }
+}
@@ -0,0 +1,113 @@
+package com.demoapp.birdapi.repository;
+
+import javax.persistence.Query;
+import java.time.LocalDateTime;
+
+/**
+ * The sighting search as one fixed JPQL statement per combination of its optional filters, built
+ * once and picked by bitmask. Equal JPQL text lets Hibernate reuse its parsed plan for every
+ * request, where a Criteria query is rebuilt and rendered again each time. Statements read the
+ * {@link com.demoapp.birdapi.model.SightingView} read model, which carries the bird columns, so no
+ * filter or result needs a join; filters compare its columns directly, so their indexes stay usable.
+ * The location filter is first resolved against the small {@code locations} dictionary and then
+ * probes the view's integer {@code location_id} column.
+ */
+final class SightingSearchQueries {
+
+    static final int BIRD_NAME = 1;
+    static final int LOCATION = 1 << 1;
+    static final int FROM_DATE = 1 << 2;
+    static final int TO_DATE = 1 << 3;
+    static final int AFTER_ID = 1 << 4;
+
+    private static final int VARIANTS = 1 << 5;
+
+    private static final String[] SELECT = new String[VARIANTS];
+    private static final String[] COUNT = new String[VARIANTS];
+    private static final String[] DELETE = new String[VARIANTS];
+    private static final String[] COUNT_BY_BIRD = new String[VARIANTS];
+
+    static {
+        for (int filters = 0; filters < VARIANTS; filters++) {
+            String where = where(filters);
+            SELECT[filters] = "select s from SightingView s" + where;
+            COUNT[filters] = "select count(s) from SightingView s" + where;
+            DELETE[filters] = "delete from SightingView s" + where;
+            COUNT_BY_BIRD[filters] = "select s.birdId, count(s) from SightingView s" + where + " group by s.birdId";
+        }
+    }
+
+    private SightingSearchQueries() {
+    }
+
+    private static String where(int filters) {
+        StringBuilder where = new StringBuilder();
+        appendIf(where, filters, BIRD_NAME, "s.birdName = :birdName");
+        appendIf(where, filters, LOCATION, "s.location.id in (select l.id from LocationName l where lower(l.name) like :location)");
+        appendIf(where, filters, FROM_DATE, "s.dateTime >= :fromDate");
+        appendIf(where, filters, TO_DATE, "s.dateTime <= :toDate");
+        appendIf(where, filters, AFTER_ID, "s.id > :afterId");
+        return where.toString();
+    }
+
+    private static void appendIf(StringBuilder where, int filters, int filter, String predicate) {
+        if ((filters & filter) != 0) {
+            where.append(where.length() == 0 ? " where " : " and ").append(predicate);
+        }
+    }
+
+    static int filters(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate, Long afterId) {
+        int filters = 0;
+        if (birdName != null && !birdName.isEmpty()) {
+            filters |= BIRD_NAME;
+        }
+        if (location != null && !location.isEmpty()) {
+            filters |= LOCATION;
+        }
+        if (fromDate != null) {
+            filters |= FROM_DATE;
+        }
+        if (toDate != null) {
+            filters |= TO_DATE;
+        }
+        if (afterId != null) {
+            filters |= AFTER_ID;
+        }
+        return filters;
+    }
+
+    static String select(int filters) {
+        return SELECT[filters];
+    }
+
+    static String count(int filters) {
+        return COUNT[filters];
+    }
+
+    static String delete(int filters) {
+        return DELETE[filters];
+    }
+
+    static String countByBird(int filters) {
+        return COUNT_BY_BIRD[filters];
+    }
+
+    static void bind(Query query, int filters, String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                     Long afterId) {
+        if ((filters & BIRD_NAME) != 0) {
+            query.setParameter("birdName", birdName);
+        }
+        if ((filters & LOCATION) != 0) {
+            query.setParameter("location", "%" + location.toLowerCase() + "%");
+        }
+        if ((filters & FROM_DATE) != 0) {
+            query.setParameter("fromDate", fromDate);
+        }
+        if ((filters & TO_DATE) != 0) {
+            query.setParameter("toDate", toDate);
+        }
+        if ((filters & AFTER_ID) != 0) {
+            query.setParameter("afterId", afterId);
+        }
+    }
+}
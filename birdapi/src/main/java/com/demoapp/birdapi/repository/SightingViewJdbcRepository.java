@@ -0,0 +1,190 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.archive.ArchivedSighting;
+import com.demoapp.birdapi.repository.SightingJdbcRepository.ReportCountIncrement;
+import com.demoapp.birdapi.repository.ValueDictionary.Kind;
+import com.demoapp.birdapi.util.Batches;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set-based maintenance of the {@code sighting_view} read model from the {@code sightings} and
+ * {@code birds} tables, for write paths that change rows without going through an entity. Runs on
+ * the connection of the surrounding transaction, so the view commits or rolls back with the write.
+ * Locations and bird colors are interned into their dictionaries before a statement refers to them.
+ */
+@Repository
+public class SightingViewJdbcRepository {
+
+    static final String VIEW_COLUMNS =
+            "id, bird_id, bird_name, bird_color_id, bird_weight, bird_height, location_id, date_time, report_count";
+
+    // Dictionary ids are looked up by string; both dictionaries are small and unique on name
+    static final String DICTIONARY_JOINS =
+            " JOIN colors c ON c.name = b.color JOIN locations l ON l.name = ";
+
+    private static final String INSERT_FROM_SIGHTINGS_SQL =
+            "INSERT INTO sighting_view (" + VIEW_COLUMNS + ")" +
+                    " SELECT s.id, s.bird_id, b.name, c.id, b.weight, b.height, l.id, s.date_time, s.report_count" +
+                    " FROM sightings s JOIN birds b ON b.id = s.bird_id" + DICTIONARY_JOINS + "s.location" +
+                    " WHERE s.id IN (:ids)";
+
+    // Resolves the target the way SightingJdbcRepository's increment does, from the sightings table
+    private static final String INCREMENT_REPORT_COUNT_SQL =
+            "UPDATE sighting_view SET report_count = report_count + ? WHERE id = COALESCE(?, " +
+                    "(SELECT MIN(s.id) FROM sightings s WHERE s.bird_id = ? AND s.location = ? AND s.date_time = ?))";
+
+    // Rewrites only the rows whose bird actually changed
+    private static final String REFRESH_BIRDS_SQL =
+            "UPDATE sighting_view SET" +
+                    " bird_name = (SELECT b.name FROM birds b WHERE b.id = sighting_view.bird_id)," +
+                    " bird_color_id = (SELECT c.id FROM birds b JOIN colors c ON c.name = b.color WHERE b.id = sighting_view.bird_id)," +
+                    " bird_weight = (SELECT b.weight FROM birds b WHERE b.id = sighting_view.bird_id)," +
+                    " bird_height = (SELECT b.height FROM birds b WHERE b.id = sighting_view.bird_id)" +
+                    " WHERE EXISTS (SELECT 1 FROM birds b JOIN colors c ON c.name = b.color" +
+                    " WHERE b.id = sighting_view.bird_id AND lower(b.name) IN (:names)" +
+                    " AND (b.name <> sighting_view.bird_name OR c.id <> sighting_view.bird_color_id" +
+                    " OR b.weight <> sighting_view.bird_weight OR b.height <> sighting_view.bird_height))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ValueDictionary valueDictionary;
+
+    public SightingViewJdbcRepository(JdbcTemplate jdbcTemplate,
+                                      NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                      ValueDictionary valueDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.valueDictionary = valueDictionary;
+    }
+
+    /**
+     * Adds view rows for sightings already written to {@code sightings}.
+     */
+    public int insertFromSightings(Collection<Long> sightingIds) {
+        int inserted = 0;
+        for (List<Long> chunk : Batches.partition(sightingIds)) {
+            Set<String> locations = new HashSet<>();
+            Set<String> colors = new HashSet<>();
+            namedParameterJdbcTemplate.query(
+                    "SELECT DISTINCT s.location, b.color FROM sightings s JOIN birds b ON b.id = s.bird_id WHERE s.id IN (:ids)",
+                    Collections.singletonMap("ids", chunk),
+                    rs -> {
+                        locations.add(rs.getString("location"));
+                        colors.add(rs.getString("color"));
+                    });
+            valueDictionary.intern(Kind.LOCATION, locations);
+            valueDictionary.intern(Kind.COLOR, colors);
+            inserted += namedParameterJdbcTemplate.update(INSERT_FROM_SIGHTINGS_SQL, Collections.singletonMap("ids", chunk));
+        }
+        return inserted;
+    }
+
+    /**
+     * Fills the view from every row of {@code sightings}, after a bulk load into an empty view.
+     */
+    public int insertAll() {
+        valueDictionary.intern(Kind.LOCATION, jdbcTemplate.queryForList("SELECT DISTINCT location FROM sightings", String.class));
+        valueDictionary.intern(Kind.COLOR, jdbcTemplate.queryForList("SELECT DISTINCT color FROM birds", String.class));
+        return jdbcTemplate.update("INSERT INTO sighting_view (" + VIEW_COLUMNS + ")" +
+                " SELECT s.id, s.bird_id, b.name, c.id, b.weight, b.height, l.id, s.date_time, s.report_count" +
+                " FROM sightings s JOIN birds b ON b.id = s.bird_id" + DICTIONARY_JOINS + "s.location");
+    }
+
+    /**
+     * Interns the locations of sightings about to be inserted and the colors of their birds, for a
+     * statement that fills the view by joining the dictionaries.
+     */
+    public void internValues(Collection<String> locations, Collection<Long> birdIds) {
+        valueDictionary.intern(Kind.LOCATION, new HashSet<>(locations));
+        for (List<Long> chunk : Batches.partition(new HashSet<>(birdIds))) {
+            valueDictionary.intern(Kind.COLOR, namedParameterJdbcTemplate.queryForList(
+                    "SELECT DISTINCT color FROM birds WHERE id IN (:ids)",
+                    Collections.singletonMap("ids", chunk),
+                    String.class));
+        }
+    }
+
+    /**
+     * Replaces the view rows of the given sightings with their current state. Pending entity
+     * changes must have been flushed.
+     */
+    public int refreshFromSightings(Collection<Long> sightingIds) {
+        for (List<Long> chunk : Batches.partition(sightingIds)) {
+            namedParameterJdbcTemplate.update("DELETE FROM sighting_view WHERE id IN (:ids)", Collections.singletonMap("ids", chunk));
+        }
+        return insertFromSightings(sightingIds);
+    }
+
+    public int updateLocationByIdIn(Collection<Long> ids, String location) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("locationId", valueDictionary.intern(Kind.LOCATION, location));
+        return namedParameterJdbcTemplate.update("UPDATE sighting_view SET location_id = :locationId WHERE id IN (:ids)", parameters);
+    }
+
+    // A bird change reaches all of its sightings in one statement
+    public int updateBird(long birdId, String name, String color, Double weight, Double height) {
+        return jdbcTemplate.update(
+                "UPDATE sighting_view SET bird_name = ?, bird_color_id = ?, bird_weight = ?, bird_height = ? WHERE bird_id = ?",
+                name, valueDictionary.intern(Kind.COLOR, color), weight, height, birdId);
+    }
+
+    public void incrementReportCounts(List<ReportCountIncrement> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(increments.size());
+        for (ReportCountIncrement increment : increments) {
+            args.add(new Object[]{increment.getIncrement(), increment.getSightingId(), increment.getBirdId(),
+                    increment.getLocation(), Timestamp.valueOf(increment.getDateTime())});
+        }
+        int[] argTypes = {Types.INTEGER, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP};
+        jdbcTemplate.batchUpdate(INCREMENT_REPORT_COUNT_SQL, args, argTypes);
+    }
+
+    /**
+     * Copies the current columns of the named birds (matched case-insensitively) into their
+     * sightings' view rows; one statement per chunk of names, however many sightings a bird has.
+     */
+    public int refreshBirdsByLowerName(Collection<String> lowerNames) {
+        int updated = 0;
+        for (List<String> chunk : Batches.partition(lowerNames)) {
+            valueDictionary.intern(Kind.COLOR, namedParameterJdbcTemplate.queryForList(
+                    "SELECT DISTINCT color FROM birds WHERE lower(name) IN (:names)",
+                    Collections.singletonMap("names", chunk),
+                    String.class));
+            updated += namedParameterJdbcTemplate.update(REFRESH_BIRDS_SQL, Collections.singletonMap("names", chunk));
+        }
+        return updated;
+    }
+
+    /**
+     * The oldest rows before {@code cutoff}, by date and id, with their dictionary references decoded,
+     * for the archiver. The rows stay locked until the surrounding transaction ends, so they cannot
+     * change between being archived and being deleted.
+     */
+    public List<ArchivedSighting> findOldestForUpdate(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query(
+                "SELECT " + VIEW_COLUMNS + " FROM sighting_view WHERE date_time < ? ORDER BY date_time, id LIMIT ? FOR UPDATE",
+                (rs, rowNum) -> new ArchivedSighting(
+                        rs.getLong("id"), rs.getLong("bird_id"), rs.getString("bird_name"),
+                        valueDictionary.name(Kind.COLOR, rs.getInt("bird_color_id")),
+                        rs.getDouble("bird_weight"), rs.getDouble("bird_height"),
+                        valueDictionary.name(Kind.LOCATION, rs.getInt("location_id")),
+                        rs.getTimestamp("date_time").toLocalDateTime(), rs.getInt("report_count")),
+                Timestamp.valueOf(cutoff), limit);
+    }
+}
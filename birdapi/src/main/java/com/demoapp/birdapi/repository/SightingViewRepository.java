@@ -0,0 +1,28 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.model.SightingView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+// Changes mirror the statements of SightingRepository; pending entity changes are flushed first. Writes that
+// need dictionary ids go through SightingViewJdbcRepository
+@Repository
+public interface SightingViewRepository extends JpaRepository<SightingView, Long>, SightingViewRepositoryCustom {
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from SightingView s where s.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from SightingView s where s.birdId in :birdIds")
+    int deleteByBirdIdIn(@Param("birdIds") Collection<Long> birdIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update SightingView s set s.reportCount = s.reportCount + :increment where s.id = :id")
+    int incrementReportCount(@Param("id") Long id, @Param("increment") int increment);
+}
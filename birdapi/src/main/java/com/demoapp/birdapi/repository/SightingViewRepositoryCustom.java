@@ -0,0 +1,24 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.model.SightingView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SightingViewRepositoryCustom {
+
+    // Page of sightings matching the optional filters; sort properties are those of Sighting (e.g. bird.name)
+    Page<SightingView> search(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable);
+
+    // Keyset page ordered by id; no count query
+    List<SightingView> findByFilterAfterId(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                                           Long afterId, int limit);
+
+    // Same filter semantics as SightingRepository.deleteByFilter
+    int deleteByFilter(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate);
+
+    // Rows of [birdId, count] of the sightings deleteByFilter would delete
+    List<Object[]> countByFilterGroupByBird(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate);
+}
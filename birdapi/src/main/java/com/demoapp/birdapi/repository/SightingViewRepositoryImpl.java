@@ -0,0 +1,92 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.model.Sighting;
+import com.demoapp.birdapi.model.SightingView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+public class SightingViewRepositoryImpl implements SightingViewRepositoryCustom {
+
+    // Sighting property paths stored differently in the view: bird columns, and dictionary references sorted by their string
+    private static final Map<String, String> VIEW_PATHS = Map.of(
+            "bird", "birdId",
+            "bird.id", "birdId",
+            "bird.name", "birdName",
+            "bird.color", "birdColor.name",
+            "bird.weight", "birdWeight",
+            "bird.height", "birdHeight",
+            "location", "location.name");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<SightingView> search(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                                     Pageable pageable) {
+        int filters = SightingSearchQueries.filters(birdName, location, fromDate, toDate, null);
+        TypedQuery<SightingView> query = entityManager.createQuery(
+                SightingSearchQueries.select(filters) + orderBy(pageable.getSort()), SightingView.class);
+        SightingSearchQueries.bind(query, filters, birdName, location, fromDate, toDate, null);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        // The count runs only when the page alone cannot tell the total
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery(SightingSearchQueries.count(filters), Long.class);
+            SightingSearchQueries.bind(count, filters, birdName, location, fromDate, toDate, null);
+            return count.getSingleResult();
+        });
+    }
+
+    @Override
+    public List<SightingView> findByFilterAfterId(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                                                  Long afterId, int limit) {
+        int filters = SightingSearchQueries.filters(birdName, location, fromDate, toDate, afterId);
+        TypedQuery<SightingView> query = entityManager.createQuery(
+                SightingSearchQueries.select(filters) + " order by s.id asc", SightingView.class);
+        SightingSearchQueries.bind(query, filters, birdName, location, fromDate, toDate, afterId);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public int deleteByFilter(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate) {
+        int filters = SightingSearchQueries.filters(birdName, location, fromDate, toDate, null);
+        Query delete = entityManager.createQuery(SightingSearchQueries.delete(filters));
+        SightingSearchQueries.bind(delete, filters, birdName, location, fromDate, toDate, null);
+        return delete.executeUpdate();
+    }
+
+    @Override
+    public List<Object[]> countByFilterGroupByBird(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate) {
+        int filters = SightingSearchQueries.filters(birdName, location, fromDate, toDate, null);
+        TypedQuery<Object[]> query = entityManager.createQuery(SightingSearchQueries.countByBird(filters), Object[].class);
+        SightingSearchQueries.bind(query, filters, birdName, location, fromDate, toDate, null);
+        return query.getResultList();
+    }
+
+    // Sort properties are checked against Sighting, so request input never reaches the JPQL unchecked
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+        for (Sort.Order order : sort) {
+            String dotPath = PropertyPath.from(order.getProperty(), Sighting.class).toDotPath();
+            String path = "s." + VIEW_PATHS.getOrDefault(dotPath, dotPath);
+            orderBy.add((order.isIgnoreCase() ? "lower(" + path + ")" : path) + (order.isAscending() ? " asc" : " desc"));
+        }
+        return orderBy.toString();
+    }
+}
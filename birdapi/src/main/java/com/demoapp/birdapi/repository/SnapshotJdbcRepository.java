@@ -0,0 +1,138 @@
+package com.demoapp.birdapi.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * PostgreSQL statements behind database snapshots: binary {@code COPY} of whole tables, and the
+ * index and constraint handling around a bulk load. Runs on the connection of the surrounding
+ * transaction. Table and column names are interpolated into the SQL, so callers pass only names
+ * they own.
+ */
+@Repository
+public class SnapshotJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SnapshotJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Writes the table in binary {@code COPY} format to {@code out}.
+     *
+     * @return the number of rows copied
+     */
+    public long copyOut(String table, List<String> columns, OutputStream out) {
+        return copy(copyManager -> copyManager.copyOut(
+                "COPY " + table + " (" + String.join(", ", columns) + ") TO STDOUT (FORMAT binary)", out));
+    }
+
+    /**
+     * Loads binary {@code COPY} data into the table. The table must have been truncated in the
+     * current transaction: rows are written frozen, so the load leaves no hint bits or freezing to
+     * catch up on later.
+     *
+     * @return the number of rows loaded
+     */
+    public long copyIn(String table, List<String> columns, InputStream in) {
+        return copy(copyManager -> copyManager.copyIn(
+                "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT binary, FREEZE)", in));
+    }
+
+    /**
+     * Drops the foreign keys of the tables and their indexes that do not back a primary key or
+     * unique constraint, so that a load does not maintain them row by row.
+     *
+     * @return the statements that create them again, indexes first
+     */
+    public List<String> dropSecondaryIndexes(Collection<String> tables) {
+        String relations = relations(tables);
+        List<String> indexes = new ArrayList<>();
+        List<String> foreignKeys = new ArrayList<>();
+        List<String> drops = new ArrayList<>();
+        jdbcTemplate.query("SELECT conrelid::regclass::text AS table_name, quote_ident(conname) AS name," +
+                        " pg_get_constraintdef(oid) AS definition FROM pg_constraint" +
+                        " WHERE contype = 'f' AND conrelid IN (" + relations + ") ORDER BY oid",
+                rs -> {
+                    String table = rs.getString("table_name");
+                    String name = rs.getString("name");
+                    drops.add("ALTER TABLE " + table + " DROP CONSTRAINT " + name);
+                    foreignKeys.add("ALTER TABLE " + table + " ADD CONSTRAINT " + name + " " + rs.getString("definition"));
+                });
+        // Indexes referenced by any constraint, including foreign keys of other tables, stay
+        jdbcTemplate.query("SELECT i.indexrelid::regclass::text AS name, pg_get_indexdef(i.indexrelid) AS definition" +
+                        " FROM pg_index i WHERE i.indrelid IN (" + relations + ")" +
+                        " AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = i.indexrelid)" +
+                        " ORDER BY i.indexrelid",
+                rs -> {
+                    drops.add("DROP INDEX " + rs.getString("name"));
+                    indexes.add(rs.getString("definition"));
+                });
+        for (String drop : drops) {
+            jdbcTemplate.execute(drop);
+        }
+        List<String> creates = new ArrayList<>(indexes);
+        creates.addAll(foreignKeys);
+        return creates;
+    }
+
+    public void truncate(Collection<String> tables) {
+        jdbcTemplate.execute("TRUNCATE " + String.join(", ", tables));
+    }
+
+    /**
+     * Moves the id sequence of each table past its highest id, after rows were loaded with their ids.
+     */
+    public void resetIdSequences(Collection<String> tables) {
+        for (String table : tables) {
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('" + table + "', 'id')," +
+                    " COALESCE(MAX(id), 0) + 1, false) FROM " + table, Long.class);
+        }
+    }
+
+    public void analyze(Collection<String> tables) {
+        jdbcTemplate.execute("ANALYZE " + String.join(", ", tables));
+    }
+
+    public void execute(List<String> statements) {
+        for (String statement : statements) {
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    private long copy(CopyOperation operation) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return operation.run(connection.unwrap(PGConnection.class).getCopyAPI());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private static String relations(Collection<String> tables) {
+        List<String> relations = new ArrayList<>(tables.size());
+        for (String table : tables) {
+            relations.add("'" + table + "'::regclass");
+        }
+        return String.join(", ", relations);
+    }
+
+    private interface CopyOperation {
+        long run(CopyManager copyManager) throws SQLException, IOException;
+    }
+}
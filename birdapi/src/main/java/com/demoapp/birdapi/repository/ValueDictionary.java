@@ -0,0 +1,166 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.util.Batches;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interning cache over the {@code locations} and {@code colors} dictionaries. Each distinct string is
+ * stored once and referred to by its integer id; strings seen for the first time are added to the
+ * dictionary on the connection of the surrounding transaction. Both directions are cached in memory:
+ * ids of new strings only once their transaction has committed, so a rolled-back write never leaves
+ * an id behind that the database does not have. Dictionaries are expected to stay small; a cache
+ * that reaches {@code birdapi.dictionary.cache-size} entries starts over.
+ */
+@Repository
+public class ValueDictionary {
+
+    public enum Kind {
+        LOCATION("locations"),
+        COLOR("colors");
+
+        private final String table;
+
+        Kind(String table) {
+            this.table = table;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final int cacheSize;
+
+    private final Map<Kind, Map<String, Integer>> ids = new EnumMap<>(Kind.class);
+    private final Map<Kind, Map<Integer, String>> names = new EnumMap<>(Kind.class);
+
+    public ValueDictionary(JdbcTemplate jdbcTemplate,
+                           NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                           DatabasePlatform databasePlatform,
+                           @Value("${birdapi.dictionary.cache-size:100000}") int cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.cacheSize = cacheSize;
+        for (Kind kind : Kind.values()) {
+            ids.put(kind, new ConcurrentHashMap<>());
+            names.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    public int intern(Kind kind, String name) {
+        return intern(kind, Collections.singleton(name)).get(name);
+    }
+
+    /**
+     * Ids of the given strings, adding those the dictionary does not have yet. Only cache misses
+     * reach the database.
+     */
+    public Map<String, Integer> intern(Kind kind, Collection<String> values) {
+        Map<String, Integer> cached = ids.get(kind);
+        Map<String, Integer> result = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String value : values) {
+            Integer id = cached.get(value);
+            if (id != null) {
+                result.put(value, id);
+            } else {
+                missing.add(value);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<String, Integer> found = new HashMap<>();
+        for (List<String> chunk : Batches.partition(missing)) {
+            insertMissing(kind, chunk);
+            namedParameterJdbcTemplate.query("SELECT id, name FROM " + kind.table + " WHERE name IN (:names)",
+                    Collections.singletonMap("names", chunk),
+                    rs -> {
+                        found.put(rs.getString("name"), rs.getInt("id"));
+                    });
+        }
+        result.putAll(found);
+        // Ids are never reused, so the reverse direction is safe to cache even if this transaction rolls back
+        Map<Integer, String> decoded = names.get(kind);
+        found.forEach((name, id) -> put(decoded, id, name));
+        afterCommit(() -> found.forEach((name, id) -> put(cached, name, id)));
+        return result;
+    }
+
+    /**
+     * The string behind a dictionary id; null for a null id.
+     */
+    public String name(Kind kind, Integer id) {
+        if (id == null) {
+            return null;
+        }
+        Map<Integer, String> decoded = names.get(kind);
+        String name = decoded.get(id);
+        if (name == null) {
+            name = jdbcTemplate.queryForObject("SELECT name FROM " + kind.table + " WHERE id = ?", String.class, id);
+            put(decoded, id, name);
+        }
+        return name;
+    }
+
+    private void insertMissing(Kind kind, List<String> chunk) {
+        List<Object[]> inserts = new ArrayList<>(chunk.size());
+        if (databasePlatform.isPostgres()) {
+            for (String name : chunk) {
+                inserts.add(new Object[]{name});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + kind.table + " (name) VALUES (?) ON CONFLICT (name) DO NOTHING", inserts);
+            return;
+        }
+        Set<String> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT name FROM " + kind.table + " WHERE name IN (:names)",
+                Collections.singletonMap("names", chunk),
+                String.class));
+        for (String name : chunk) {
+            if (!existing.contains(name)) {
+                inserts.add(new Object[]{name});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + kind.table + " (name) VALUES (?)", inserts);
+        }
+    }
+
+    private <K, V> void put(Map<K, V> cache, K key, V value) {
+        if (cache.size() >= cacheSize) {
+            cache.clear();
+        }
+        cache.put(key, value);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
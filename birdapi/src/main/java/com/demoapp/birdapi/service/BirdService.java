@@ -2,10 +2,19 @@ package com.demoapp.birdapi.service;
 
 import com.demoapp.birdapi.controller.BirdController;
 import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.dto.BirdUpsertResultDTO;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
 import com.demoapp.birdapi.exception.ResourceNotFoundException;
 import com.demoapp.birdapi.mapper.BirdMapper;
 import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.repository.BirdJdbcRepository;
 import com.demoapp.birdapi.repository.BirdRepository;
+import com.demoapp.birdapi.repository.BirdSightingCounters;
+import com.demoapp.birdapi.repository.LatestSightingRepository;
+import com.demoapp.birdapi.repository.SightingRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.repository.SightingViewRepository;
+import com.demoapp.birdapi.util.Batches;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -13,7 +22,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,11 +38,30 @@ public class BirdService {
     private static final Logger log = LoggerFactory.getLogger(BirdService.class);
 
     private final BirdRepository birdRepository;
+    private final SightingRepository sightingRepository;
+    private final BirdJdbcRepository birdJdbcRepository;
     private final BirdMapper birdMapper;
-
-    public BirdService(BirdRepository birdRepository, BirdMapper birdMapper) {
+    private final SightingViewRepository sightingViewRepository;
+    private final SightingViewJdbcRepository sightingViewJdbcRepository;
+    private final BirdSightingCounters birdSightingCounters;
+    private final LatestSightingRepository latestSightingRepository;
+
+    public BirdService(BirdRepository birdRepository,
+                       SightingRepository sightingRepository,
+                       BirdJdbcRepository birdJdbcRepository,
+                       BirdMapper birdMapper,
+                       SightingViewRepository sightingViewRepository,
+                       SightingViewJdbcRepository sightingViewJdbcRepository,
+                       BirdSightingCounters birdSightingCounters,
+                       LatestSightingRepository latestSightingRepository) {
         this.birdRepository = birdRepository;
+        this.sightingRepository = sightingRepository;
+        this.birdJdbcRepository = birdJdbcRepository;
         this.birdMapper = birdMapper;
+        this.sightingViewRepository = sightingViewRepository;
+        this.sightingViewJdbcRepository = sightingViewJdbcRepository;
+        this.birdSightingCounters = birdSightingCounters;
+        this.latestSightingRepository = latestSightingRepository;
     }
 
     public BirdDTO createBird(BirdDTO birdDTO) {
@@ -46,9 +80,31 @@ public class BirdService {
 
         birdMapper.updateEntityFromDTO(birdDTO, bird);
         Bird updatedBird = birdRepository.save(bird);
+        // A rename or any other change reaches the bird's sightings in the read model in one statement
+        sightingViewJdbcRepository.updateBird(updatedBird.getId(), updatedBird.getName(), updatedBird.getColor(),
+                updatedBird.getWeight(), updatedBird.getHeight());
         return birdMapper.toDTO(updatedBird);
     }
 
+    public BirdUpsertResultDTO upsertBirds(List<BirdDTO> birdDTOs) {
+        log.info("Upserting {} birds by natural key", birdDTOs.size());
+
+        List<Bird> birds = birdDTOs.stream()
+                .map(birdMapper::toEntity)
+                .collect(Collectors.toList());
+        BirdUpsertResultDTO result = birdJdbcRepository.upsertByNaturalKey(birds);
+        if (result.getUpdated() > 0) {
+            Set<String> lowerNames = new HashSet<>();
+            for (Bird bird : birds) {
+                lowerNames.add(bird.getName().toLowerCase(Locale.ROOT));
+            }
+            sightingViewJdbcRepository.refreshBirdsByLowerName(lowerNames);
+        }
+
+        log.info("Upserted birds created={} updated={} unchanged={}", result.getCreated(), result.getUpdated(), result.getUnchanged());
+        return result;
+    }
+
     public BirdDTO getBirdById(Long id) {
         log.info("Retrieving bird id={}", id);
 
@@ -57,6 +113,20 @@ public class BirdService {
         return birdMapper.toDTO(bird);
     }
 
+    public List<BirdDTO> getBirdsByIds(Collection<Long> ids) {
+        List<BirdDTO> birds = new ArrayList<>();
+        for (List<Long> chunk : Batches.partition(Batches.distinct(ids))) {
+            for (Bird bird : birdRepository.findAllById(chunk)) {
+                birds.add(birdMapper.toDTO(bird));
+            }
+        }
+        return birds;
+    }
+
+    public long countBirds() {
+        return birdRepository.count();
+    }
+
     public Page<BirdDTO> getAllBirds(Pageable pageable) {
         log.info("Listing all birds, pageable={}", pageable);
 
@@ -67,10 +137,32 @@ public class BirdService {
     public void deleteBird(Long id) {
         log.info("Deleting bird id={}", id);
 
-        if (!birdRepository.existsById(id)) {
+        List<Long> ids = Collections.singletonList(id);
+        latestSightingRepository.deleteByBirdIdIn(ids);
+        sightingViewRepository.deleteByBirdIdIn(ids);
+        sightingRepository.deleteByBirdIdIn(ids);
+        if (birdRepository.deleteByIdIn(ids) == 0) {
             throw new ResourceNotFoundException("Bird", id);
         }
-        birdRepository.deleteById(id);
+        birdSightingCounters.forget(ids);
+    }
+
+    public BulkOperationResultDTO deleteBirds(List<Long> ids) {
+        List<Long> distinctIds = Batches.distinct(ids);
+        log.info("Bulk deleting {} birds", distinctIds.size());
+
+        int sightingsDeleted = 0;
+        int birdsDeleted = 0;
+        for (List<Long> chunk : Batches.partition(distinctIds)) {
+            latestSightingRepository.deleteByBirdIdIn(chunk);
+            sightingViewRepository.deleteByBirdIdIn(chunk);
+            sightingsDeleted += sightingRepository.deleteByBirdIdIn(chunk);
+            birdsDeleted += birdRepository.deleteByIdIn(chunk);
+        }
+        birdSightingCounters.forget(distinctIds);
+
+        log.info("Bulk deleted {} birds and {} sightings", birdsDeleted, sightingsDeleted);
+        return new BulkOperationResultDTO(distinctIds.size(), birdsDeleted, sightingsDeleted);
     }
 
     public Page<BirdDTO> searchBirdsByNameAndColor(String name, String color, Pageable pageable) {
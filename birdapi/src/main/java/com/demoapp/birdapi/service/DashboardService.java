@@ -0,0 +1,171 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.dto.DashboardDTO;
+import com.demoapp.birdapi.dto.DashboardSummaryDTO;
+import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the dashboard from independent sections fetched in parallel on a bounded executor.
+ * Each section is cached on its own with its own time-to-live, so a cheap, fast-changing section
+ * does not force the others to be reloaded.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    public static final String BIRDS = "birds";
+    public static final String RECENT_SIGHTINGS = "recentSightings";
+    public static final String SUMMARY = "summary";
+
+    private final BirdService birdService;
+    private final SightingService sightingService;
+    private final Executor executor;
+    private final long birdsTtlMillis;
+    private final long recentSightingsTtlMillis;
+    private final long summaryTtlMillis;
+    private final long timeoutMillis;
+
+    private final Map<String, CachedSection<?>> cache = new ConcurrentHashMap<>();
+
+    public DashboardService(BirdService birdService,
+                            SightingService sightingService,
+                            @Qualifier("dashboardExecutor") Executor executor,
+                            @Value("${birdapi.dashboard.birds-ttl-ms:30000}") long birdsTtlMillis,
+                            @Value("${birdapi.dashboard.recent-sightings-ttl-ms:5000}") long recentSightingsTtlMillis,
+                            @Value("${birdapi.dashboard.summary-ttl-ms:10000}") long summaryTtlMillis,
+                            @Value("${birdapi.dashboard.timeout-ms:5000}") long timeoutMillis) {
+        this.birdService = birdService;
+        this.sightingService = sightingService;
+        this.executor = executor;
+        this.birdsTtlMillis = birdsTtlMillis;
+        this.recentSightingsTtlMillis = recentSightingsTtlMillis;
+        this.summaryTtlMillis = summaryTtlMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public DashboardDTO getDashboard(Set<String> sections, int birdLimit, int sightingLimit) {
+        log.info("Building dashboard sections={} birdLimit={} sightingLimit={}", sections, birdLimit, sightingLimit);
+
+        CompletableFuture<List<BirdDTO>> birds = sections.contains(BIRDS)
+                ? section(BIRDS + ":" + birdLimit, birdsTtlMillis, () -> loadBirds(birdLimit))
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<List<SightingDTO>> recentSightings = sections.contains(RECENT_SIGHTINGS)
+                ? section(RECENT_SIGHTINGS + ":" + sightingLimit, recentSightingsTtlMillis, () -> loadRecentSightings(sightingLimit))
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<DashboardSummaryDTO> summary = sections.contains(SUMMARY)
+                ? section(SUMMARY, summaryTtlMillis, this::loadSummary)
+                : CompletableFuture.completedFuture(null);
+
+        try {
+            CompletableFuture.allOf(birds, recentSightings, summary).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Dashboard did not complete within " + timeoutMillis + " ms", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while building the dashboard", 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        DashboardDTO dashboard = new DashboardDTO();
+        dashboard.setBirds(birds.join());
+        dashboard.setRecentSightings(recentSightings.join());
+        dashboard.setSummary(summary.join());
+        return dashboard;
+    }
+
+    // Smallest time-to-live of the requested sections, for the response's Cache-Control
+    public long maxAgeMillis(Set<String> sections) {
+        long maxAge = Long.MAX_VALUE;
+        if (sections.contains(BIRDS)) {
+            maxAge = Math.min(maxAge, birdsTtlMillis);
+        }
+        if (sections.contains(RECENT_SIGHTINGS)) {
+            maxAge = Math.min(maxAge, recentSightingsTtlMillis);
+        }
+        if (sections.contains(SUMMARY)) {
+            maxAge = Math.min(maxAge, summaryTtlMillis);
+        }
+        return maxAge == Long.MAX_VALUE ? 0 : maxAge;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> section(String key, long ttlMillis, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        CachedSection<T> cached = (CachedSection<T>) cache.get(key);
+        if (cached != null && cached.expiresAt > now && !cached.value.isCompletedExceptionally()) {
+            return cached.value;
+        }
+        // Concurrent callers for the same stale section share one load
+        CachedSection<T> loading = (CachedSection<T>) cache.compute(key, (k, current) -> {
+            if (current != null && current.expiresAt > now && !current.value.isCompletedExceptionally()) {
+                return current;
+            }
+            return new CachedSection<>(CompletableFuture.supplyAsync(loader, executor), now + ttlMillis);
+        });
+        return loading.value;
+    }
+
+    private List<BirdDTO> loadBirds(int limit) {
+        return birdService.getAllBirds(PageRequest.of(0, limit, Sort.by("name", "id"))).getContent();
+    }
+
+    // Sightings without their birds first, then the birds of the page in one query
+    private List<SightingDTO> loadRecentSightings(int limit) {
+        List<SightingDTO> sightings = sightingService.searchSightingSummaries(null, null, null, null,
+                PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "dateTime", "id"))).getContent();
+        List<Long> birdIds = new ArrayList<>(sightings.size());
+        for (SightingDTO sighting : sightings) {
+            birdIds.add(sighting.getBirdId());
+        }
+        Map<Long, BirdDTO> birds = new HashMap<>();
+        for (BirdDTO bird : birdService.getBirdsByIds(birdIds)) {
+            birds.put(bird.getId(), bird);
+        }
+        for (SightingDTO sighting : sightings) {
+            sighting.setBird(birds.get(sighting.getBirdId()));
+        }
+        return sightings;
+    }
+
+    private DashboardSummaryDTO loadSummary() {
+        return new DashboardSummaryDTO(birdService.countBirds(), sightingService.countSightings());
+    }
+
+    private static final class CachedSection<T> {
+
+        private final CompletableFuture<T> value;
+        private final long expiresAt;
+
+        private CachedSection(CompletableFuture<T> value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.dto.SnapshotStatusDTO;
+import com.demoapp.birdapi.exception.InvalidRequestException;
+import com.demoapp.birdapi.exception.ResourceNotFoundException;
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import com.demoapp.birdapi.exception.SnapshotsUnsupportedException;
+import com.demoapp.birdapi.repository.BirdSightingCounters;
+import com.demoapp.birdapi.repository.DatabasePlatform;
+import com.demoapp.birdapi.repository.LatestSightingRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.repository.SnapshotJdbcRepository;
+import com.demoapp.birdapi.snapshot.SnapshotProgress;
+import com.demoapp.birdapi.snapshot.SnapshotReader;
+import com.demoapp.birdapi.snapshot.SnapshotWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Copies the {@code birds} and {@code sightings} tables to and from compressed snapshot files in
+ * {@code birdapi.snapshot.dir}, through PostgreSQL's binary {@code COPY}. A snapshot reads both
+ * tables in one repeatable-read transaction, so it is consistent without blocking writers. A
+ * restore replaces the contents of both tables in one transaction: secondary indexes and foreign
+ * keys are dropped, the tables are emptied and loaded, the read model and latest sightings are
+ * rebuilt from them, and the indexes and keys are created again at the end. Stored idempotency
+ * responses are dropped in the same transaction, since they describe the replaced data. Other
+ * requests touching these tables wait until the restore commits, and a failed restore leaves the
+ * old data in place.
+ * <p>
+ * Once a restore commits, this instance drops what it keeps in memory about the old data: the latest
+ * sightings are reloaded, the near-duplicate index and the idempotency cache are emptied, and the
+ * pending sighting counters are discarded and recomputed. Other instances keep theirs until their
+ * own refresh or restart.
+ * <p>
+ * One snapshot or restore runs at a time per instance. Archived sightings, idempotency records
+ * and job checkpoints are not part of a snapshot.
+ */
+@Service
+public class DatabaseSnapshotService {
+
+    static final String SUFFIX = ".bsnap";
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseSnapshotService.class);
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,127}");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Copied and loaded in this order, so birds exist before the sightings that refer to them
+    private static final Map<String, List<String>> TABLES = new LinkedHashMap<>();
+
+    static {
+        TABLES.put("birds", List.of("id", "name", "color", "weight", "height", "sighting_count", "last_seen"));
+        TABLES.put("sightings", List.of("id", "bird_id", "location", "date_time", "report_count"));
+    }
+
+    // Derived from the copied tables; emptied with them and rebuilt after the load
+    private static final List<String> DERIVED_TABLES = List.of("sighting_view", "latest_sightings");
+
+    // Responses recorded against the replaced data; emptied, never loaded
+    private static final List<String> DISCARDED_TABLES = List.of("idempotency_keys");
+
+    private final SnapshotJdbcRepository snapshotJdbcRepository;
+    private final SightingViewJdbcRepository sightingViewJdbcRepository;
+    private final LatestSightingRepository latestSightingRepository;
+    private final BirdSightingCounters birdSightingCounters;
+    private final SightingDeduplicator sightingDeduplicator;
+    private final IdempotencyService idempotencyService;
+    private final DatabasePlatform databasePlatform;
+    private final TransactionTemplate snapshotTransaction;
+    private final TransactionTemplate restoreTransaction;
+    private final Path directory;
+    private final int compressionLevel;
+    private final long progressIntervalMillis;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private volatile SnapshotProgress last;
+
+    public DatabaseSnapshotService(SnapshotJdbcRepository snapshotJdbcRepository,
+                                   SightingViewJdbcRepository sightingViewJdbcRepository,
+                                   LatestSightingRepository latestSightingRepository,
+                                   BirdSightingCounters birdSightingCounters,
+                                   SightingDeduplicator sightingDeduplicator,
+                                   IdempotencyService idempotencyService,
+                                   DatabasePlatform databasePlatform,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${birdapi.snapshot.dir:${java.io.tmpdir}/birdapi/snapshots}") String directory,
+                                   @Value("${birdapi.snapshot.compression-level:1}") int compressionLevel,
+                                   @Value("${birdapi.snapshot.progress-interval-ms:10000}") long progressIntervalMillis) {
+        this.snapshotJdbcRepository = snapshotJdbcRepository;
+        this.sightingViewJdbcRepository = sightingViewJdbcRepository;
+        this.latestSightingRepository = latestSightingRepository;
+        this.birdSightingCounters = birdSightingCounters;
+        this.sightingDeduplicator = sightingDeduplicator;
+        this.idempotencyService = idempotencyService;
+        this.databasePlatform = databasePlatform;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.restoreTransaction = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.compressionLevel = compressionLevel;
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    /**
+     * Writes a snapshot of both tables to {@code name} in the snapshot directory, replacing a
+     * snapshot of the same name; a null name picks one from the current time.
+     */
+    public SnapshotStatusDTO snapshot(String name) {
+        Path file = resolve(name != null ? name : "snapshot-" + NAME_FORMAT.format(LocalDateTime.now()));
+        SnapshotProgress progress = begin("SNAPSHOT", file);
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                try (SnapshotWriter writer = SnapshotWriter.create(file, compressionLevel, progress)) {
+                    for (Map.Entry<String, List<String>> table : TABLES.entrySet()) {
+                        progress.phase("copying " + table.getKey());
+                        long rows;
+                        try (OutputStream out = writer.beginTable(table.getKey(), table.getValue())) {
+                            rows = snapshotJdbcRepository.copyOut(table.getKey(), table.getValue(), out);
+                        }
+                        writer.endTable(rows);
+                        progress.tableCopied(table.getKey(), rows);
+                    }
+                    progress.phase("finishing " + file.getFileName());
+                    writer.commit();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not write snapshot " + file.getFileName(), e);
+                }
+            });
+            progress.complete();
+            return toDTO(progress);
+        } catch (RuntimeException e) {
+            progress.fail(e.getMessage());
+            throw e;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of both tables with the snapshot {@code name}.
+     *
+     * @throws ResourceNotFoundException if there is no such snapshot
+     */
+    public SnapshotStatusDTO restore(String name) {
+        Path file = resolve(name);
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Snapshot not found: " + name);
+        }
+        SnapshotProgress progress = begin("RESTORE", file);
+        try (SnapshotReader reader = SnapshotReader.open(file, progress)) {
+            log.info("Restoring snapshot {} taken at {}", file.getFileName(), reader.getCreatedAt());
+            restoreTransaction.executeWithoutResult(status -> load(reader, progress));
+            // The load committed; the in-memory state would otherwise keep serving or writing the old data
+            latestSightingRepository.reloadIfLoaded();
+            sightingDeduplicator.clear();
+            idempotencyService.clearCache();
+            progress.phase("reconciling sighting counters");
+            birdSightingCounters.reset();
+            birdSightingCounters.reconcile();
+            progress.complete();
+            return toDTO(progress);
+        } catch (IOException e) {
+            progress.fail(e.getMessage());
+            throw new UncheckedIOException("Could not read snapshot " + name, e);
+        } catch (RuntimeException e) {
+            progress.fail(e.getMessage());
+            throw e;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Progress of the running snapshot or restore, or the outcome of the last one.
+     *
+     * @throws ResourceNotFoundException if none has run since startup
+     */
+    public SnapshotStatusDTO status() {
+        SnapshotProgress progress = last;
+        if (progress == null) {
+            throw new ResourceNotFoundException("No snapshot or restore has run");
+        }
+        return toDTO(progress);
+    }
+
+    private void load(SnapshotReader reader, SnapshotProgress progress) {
+        List<String> tables = new ArrayList<>(TABLES.keySet());
+        tables.addAll(DERIVED_TABLES);
+        progress.phase("dropping secondary indexes");
+        List<String> creates = snapshotJdbcRepository.dropSecondaryIndexes(tables);
+        snapshotJdbcRepository.truncate(tables);
+        snapshotJdbcRepository.truncate(DISCARDED_TABLES);
+
+        try {
+            Set<String> loaded = new HashSet<>();
+            while (reader.nextTable()) {
+                String table = reader.getTable();
+                List<String> columns = reader.getColumns();
+                // Names from the file end up in SQL, so only the known ones are accepted
+                if (!TABLES.containsKey(table) || !TABLES.get(table).containsAll(columns) || !loaded.add(table)) {
+                    throw new IOException("Unexpected table " + table + " " + columns + " in snapshot");
+                }
+                progress.phase("loading " + table);
+                long rows = snapshotJdbcRepository.copyIn(table, columns, reader.data());
+                if (rows != reader.getRows()) {
+                    throw new IOException("Loaded " + rows + " rows into " + table + ", the snapshot has " + reader.getRows());
+                }
+                progress.tableCopied(table, rows);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read snapshot", e);
+        }
+
+        snapshotJdbcRepository.resetIdSequences(TABLES.keySet());
+        progress.phase("rebuilding the read model");
+        sightingViewJdbcRepository.insertAll();
+        latestSightingRepository.insertAll();
+        progress.phase("rebuilding " + creates.size() + " indexes and foreign keys");
+        snapshotJdbcRepository.execute(creates);
+        progress.phase("analyzing");
+        snapshotJdbcRepository.analyze(tables);
+    }
+
+    // Returns with the lock held
+    private SnapshotProgress begin(String operation, Path file) {
+        if (!databasePlatform.isPostgres()) {
+            throw new SnapshotsUnsupportedException("Snapshots need PostgreSQL");
+        }
+        if (!running.tryLock()) {
+            SnapshotProgress current = last;
+            throw new ServiceUnavailableException("A " + current.getOperation().toLowerCase() + " of "
+                    + current.getFile() + " is running", 60);
+        }
+        SnapshotProgress progress = new SnapshotProgress(operation, file.getFileName().toString(), progressIntervalMillis);
+        last = progress;
+        return progress;
+    }
+
+    private Path resolve(String name) {
+        String base = name.endsWith(SUFFIX) ? name.substring(0, name.length() - SUFFIX.length()) : name;
+        if (!NAME.matcher(base).matches()) {
+            throw new InvalidRequestException("Snapshot names may contain letters, digits, '.', '_' and '-' only");
+        }
+        return directory.resolve(base + SUFFIX);
+    }
+
+    private static SnapshotStatusDTO toDTO(SnapshotProgress progress) {
+        SnapshotStatusDTO dto = new SnapshotStatusDTO();
+        dto.setOperation(progress.getOperation());
+        dto.setName(progress.getFile());
+        dto.setStatus(progress.getStatus());
+        dto.setPhase(progress.getPhase());
+        dto.setRows(progress.getRows());
+        dto.setDataBytes(progress.getDataBytes());
+        dto.setFileBytes(progress.getFileBytes());
+        dto.setTotalFileBytes(progress.getTotalFileBytes() < 0 ? null : progress.getTotalFileBytes());
+        dto.setElapsedMillis(progress.elapsedMillis());
+        dto.setStartedAt(progress.getStartedAt());
+        dto.setCompletedAt(progress.getCompletedAt());
+        dto.setError(progress.getError());
+        return dto;
+    }
+}
@@ -0,0 +1,266 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.exception.IdempotencyKeyConflictException;
+import com.demoapp.birdapi.exception.IdempotencyKeyReusedException;
+import com.demoapp.birdapi.exception.InvalidRequestException;
+import com.demoapp.birdapi.model.IdempotencyRecord;
+import com.demoapp.birdapi.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Executes a write at most once per {@code Idempotency-Key}. The first request claims the key with an
+ * insert into {@code idempotency_keys}, which serializes concurrent claims across nodes; its successful
+ * response is stored and answered to every retry until the key expires. Completed keys are also kept
+ * in a bounded in-memory LRU so hot retries do not reach the database.
+ * <p>
+ * A claim is a lease: if its request neither completes nor releases the key before
+ * {@code birdapi.idempotency.claim-lease-seconds} pass, e.g. because the process died after the write or
+ * storing the response failed, the next retry takes the key over and runs the write again. Retries
+ * are rejected with 409 only while the lease lasts, not for the whole lifetime of the key.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final long ttlSeconds;
+    private final long claimLeaseSeconds;
+    private final Map<String, IdempotencyRecord> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${birdapi.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                              @Value("${birdapi.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${birdapi.idempotency.claim-lease-seconds:300}") long claimLeaseSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = ttlSeconds;
+        this.claimLeaseSeconds = claimLeaseSeconds;
+        this.cache = new LinkedHashMap<String, IdempotencyRecord>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} unless {@code key} was already used, in which case the stored response is
+     * returned. Without a key the action simply runs.
+     *
+     * @param scope identifies the endpoint, so the same key sent to another endpoint is rejected
+     */
+    public <T> ResponseEntity<T> execute(String key, String scope, Object request, Class<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String fingerprint = fingerprint(scope, request);
+        Optional<IdempotencyRecord> cached = getCached(key);
+        if (cached.isPresent()) {
+            return replay(cached.get(), fingerprint, responseType);
+        }
+
+        boolean claimed;
+        try {
+            Optional<IdempotencyRecord> existing = claim(key, fingerprint);
+            if (existing.isPresent()) {
+                return replay(existing.get(), fingerprint, responseType);
+            }
+            claimed = true;
+        } catch (DataAccessException | TransactionException e) {
+            // The write itself may still succeed (e.g. into the journal); only this node's cache dedupes meanwhile
+            log.warn("Idempotency store unavailable, using the in-memory store only for key={}: {}", key, e.getMessage());
+            claimed = false;
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            if (claimed) {
+                releaseClaim(key, e);
+            }
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            if (claimed) {
+                releaseClaim(key, null);
+            }
+            return response;
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord(key, fingerprint, LocalDateTime.now(), LocalDateTime.now().plusSeconds(ttlSeconds));
+        record.setStatusCode(response.getStatusCodeValue());
+        record.setResponseBody(toJson(response.getBody()));
+        record.setLocationHeader(response.getHeaders().getFirst(HttpHeaders.LOCATION));
+        putCached(record);
+        if (claimed) {
+            try {
+                idempotencyRecordRepository.complete(key, record.getStatusCode(), record.getResponseBody(), record.getLocationHeader());
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Could not store response for idempotency key={}: {}", key, e.getMessage());
+            }
+        }
+        return response;
+    }
+
+    private void releaseClaim(String key, RuntimeException failure) {
+        try {
+            idempotencyRecordRepository.releaseClaim(key);
+        } catch (DataAccessException | TransactionException e) {
+            if (failure != null) {
+                failure.addSuppressed(e);
+            } else {
+                log.warn("Could not release idempotency key={}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    // Empty when this request now owns the key, otherwise the record of the request that does
+    private Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                idempotencyRecordRepository.claim(key, fingerprint, now.plusSeconds(claimLeaseSeconds), now, now.plusSeconds(ttlSeconds));
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(key);
+                if (existing.isPresent() && existing.get().getExpiresAt().isBefore(now)) {
+                    // Expired but not purged yet: forget it and claim again
+                    idempotencyRecordRepository.deleteIfExpired(key, now);
+                    continue;
+                }
+                if (existing.isEmpty()) {
+                    continue;
+                }
+                IdempotencyRecord record = existing.get();
+                if (!record.getFingerprint().equals(fingerprint)) {
+                    throw new IdempotencyKeyReusedException(key);
+                }
+                if (!record.isCompleted()) {
+                    if (idempotencyRecordRepository.takeOverStaleClaim(key, now, now.plusSeconds(claimLeaseSeconds)) == 1) {
+                        log.warn("Taking over idempotency key={} whose claim lapsed without a stored response", key);
+                        return Optional.empty();
+                    }
+                    throw new IdempotencyKeyConflictException("A request with " + HEADER + " " + key + " is still being processed");
+                }
+                putCached(record);
+                return existing;
+            }
+        }
+        throw new IdempotencyKeyConflictException("A request with " + HEADER + " " + key + " is still being processed");
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyRecord record, String fingerprint, Class<T> responseType) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(record.getKey());
+        }
+        log.info("Replaying stored response for idempotency key={}", record.getKey());
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getStatusCode())
+                .header(REPLAYED_HEADER, "true");
+        if (record.getLocationHeader() != null) {
+            builder.header(HttpHeaders.LOCATION, record.getLocationHeader());
+        }
+        return builder.body(fromJson(record.getResponseBody(), responseType));
+    }
+
+    @Scheduled(fixedDelayString = "${birdapi.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = idempotencyRecordRepository.deleteExpired(now);
+        synchronized (cache) {
+            cache.values().removeIf(record -> record.getExpiresAt().isBefore(now));
+        }
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    // Forgets every cached response, e.g. after a restore emptied the table behind them
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private Optional<IdempotencyRecord> getCached(String key) {
+        synchronized (cache) {
+            IdempotencyRecord record = cache.get(key);
+            if (record != null && record.getExpiresAt().isBefore(LocalDateTime.now())) {
+                cache.remove(key);
+                return Optional.empty();
+            }
+            return Optional.ofNullable(record);
+        }
+    }
+
+    private void putCached(IdempotencyRecord record) {
+        synchronized (cache) {
+            cache.put(record.getKey(), record);
+        }
+    }
+
+    private String fingerprint(String scope, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(request instanceof byte[] ? (byte[]) request : objectMapper.writeValueAsBytes(request));
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store response for idempotent replay", e);
+        }
+    }
+
+    private <T> T fromJson(String body, Class<T> type) {
+        try {
+            return body == null ? null : objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response for idempotent replay", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.repository.JobCheckpointRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * This instance's claim on the {@code job_checkpoints} row of one background job, so that only one
+ * instance of a cluster runs the job at a time. A lease not extended within its duration expires and
+ * can be taken over.
+ */
+class JobLease {
+
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final String job;
+    private final long leaseSeconds;
+
+    // Identifies this instance as the lease owner
+    private final String owner = UUID.randomUUID().toString();
+
+    JobLease(JobCheckpointRepository jobCheckpointRepository, String job, long leaseSeconds) {
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.job = job;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    boolean acquire() {
+        if (!jobCheckpointRepository.existsById(job)) {
+            try {
+                jobCheckpointRepository.create(job);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created it first
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return jobCheckpointRepository.acquire(job, owner, now, expiry(now)) == 1;
+    }
+
+    void release() {
+        jobCheckpointRepository.release(job, owner);
+    }
+
+    // When a lease extended at the given time runs out
+    LocalDateTime expiry(LocalDateTime now) {
+        return now.plusSeconds(leaseSeconds);
+    }
+
+    String job() {
+        return job;
+    }
+
+    String owner() {
+        return owner;
+    }
+}
@@ -0,0 +1,231 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.archive.ArchiveSegment;
+import com.demoapp.birdapi.archive.ArchivedSighting;
+import com.demoapp.birdapi.archive.SightingArchive;
+import com.demoapp.birdapi.repository.JobCheckpointRepository;
+import com.demoapp.birdapi.repository.SightingRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.util.Batches;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves sightings older than {@code birdapi.archive.after-days} out of the database into the
+ * {@link SightingArchive}, oldest first, {@code birdapi.archive.segment-rows} per segment. Each segment
+ * is one transaction: its rows are read and locked, written to a pending segment file and deleted
+ * through {@link SightingService#deleteSightings}; the segment is made visible once that commits. A
+ * pending segment left by a crash or a failed commit is promoted if none of its sightings remain in
+ * the database, and discarded otherwise, as they were never deleted.
+ * <p>
+ * Only the instance holding the lease on the {@code archive} row of {@code job_checkpoints} archives.
+ * In a cluster, every instance must see the same archive directory.
+ */
+@Service
+public class SightingArchiveService {
+
+    static final String JOB = "archive";
+
+    private static final Logger log = LoggerFactory.getLogger(SightingArchiveService.class);
+
+    private final SightingArchive sightingArchive;
+    private final SightingViewJdbcRepository sightingViewJdbcRepository;
+    private final SightingRepository sightingRepository;
+    private final SightingService sightingService;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int afterDays;
+    private final int segmentRows;
+    private final JobLease lease;
+
+    private final Counter archived;
+
+    public SightingArchiveService(SightingArchive sightingArchive,
+                                  SightingViewJdbcRepository sightingViewJdbcRepository,
+                                  SightingRepository sightingRepository,
+                                  SightingService sightingService,
+                                  JobCheckpointRepository jobCheckpointRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${birdapi.archive.after-days:0}") int afterDays,
+                                  @Value("${birdapi.archive.segment-rows:50000}") int segmentRows,
+                                  @Value("${birdapi.archive.lease-seconds:600}") long leaseSeconds) {
+        if (segmentRows <= 0) {
+            throw new IllegalArgumentException("birdapi.archive.segment-rows must be positive");
+        }
+        this.sightingArchive = sightingArchive;
+        this.sightingViewJdbcRepository = sightingViewJdbcRepository;
+        this.sightingRepository = sightingRepository;
+        this.sightingService = sightingService;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.afterDays = afterDays;
+        this.segmentRows = segmentRows;
+        this.lease = new JobLease(jobCheckpointRepository, JOB, leaseSeconds);
+
+        this.archived = Counter.builder("birdapi.archive.archived")
+                .description("Sightings moved from the database to the archive")
+                .register(meterRegistry);
+        Gauge.builder("birdapi.archive.segments", sightingArchive, archive -> archive.segments().size())
+                .description("Archive segments visible to searches")
+                .register(meterRegistry);
+        Gauge.builder("birdapi.archive.rows", sightingArchive, SightingArchive::rowCount)
+                .description("Sightings held in the archive")
+                .register(meterRegistry);
+        Gauge.builder("birdapi.archive.bytes", sightingArchive, SightingArchive::sizeBytes)
+                .description("Size of the archive segments on disk")
+                .register(meterRegistry);
+        FunctionCounter.builder("birdapi.archive.search.segments", sightingArchive, SightingArchive::scannedSegments)
+                .description("Archive segments considered by searches, by outcome")
+                .tag("outcome", "scanned")
+                .register(meterRegistry);
+        FunctionCounter.builder("birdapi.archive.search.segments", sightingArchive, SightingArchive::skippedSegments)
+                .description("Archive segments considered by searches, by outcome")
+                .tag("outcome", "skipped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archives sightings older than the configured number of days; does nothing when archiving is
+     * disabled, which is the default.
+     *
+     * @return the number of sightings archived
+     */
+    @Scheduled(cron = "${birdapi.archive.cron:0 30 1 * * *}")
+    public long archive() {
+        if (afterDays <= 0) {
+            return 0;
+        }
+        return archive(LocalDateTime.now().minusDays(afterDays));
+    }
+
+    /**
+     * Archives every sighting older than {@code cutoff}. Returns without archiving anything while
+     * another instance holds the lease.
+     *
+     * @return the number of sightings archived by this call
+     */
+    public synchronized long archive(LocalDateTime cutoff) {
+        if (!lease.acquire()) {
+            log.info("Archiving is running on another instance, skipping");
+            return 0;
+        }
+        try {
+            recoverPending();
+            jobCheckpointRepository.start(JOB, lease.owner(), cutoff, LocalDateTime.now());
+            log.info("Archiving sightings before {}", cutoff);
+
+            long total = 0;
+            while (true) {
+                ArchiveSegment segment = archiveOldest(cutoff);
+                if (segment == null) {
+                    break;
+                }
+                total += segment.getRowCount();
+                archived.increment(segment.getRowCount());
+                log.info("Archived {} sightings from {} to {} into {}", segment.getRowCount(),
+                        segment.getMinDateTime(), segment.getMaxDateTime(), segment.getFile().getFileName());
+
+                LocalDateTime now = LocalDateTime.now();
+                if (jobCheckpointRepository.advance(JOB, lease.owner(), segment.getMaxDateTime(), segment.getMaxId(),
+                        total, now, lease.expiry(now)) == 0) {
+                    log.warn("Lost the archive lease after archiving {} sightings, stopping", total);
+                    return total;
+                }
+                if (segment.getRowCount() < segmentRows) {
+                    break;
+                }
+            }
+            jobCheckpointRepository.finish(JOB, lease.owner(), LocalDateTime.now());
+            log.info("Archived {} sightings before {}", total, cutoff);
+            return total;
+        } catch (IOException | UncheckedIOException e) {
+            // A pending segment left behind is settled by the next run or refresh
+            log.error("Archiving sightings before {} failed: {}", cutoff, e.getMessage());
+            return 0;
+        } finally {
+            lease.release();
+        }
+    }
+
+    /**
+     * Picks up segments written by other instances, and settles pending segments left by a crash
+     * when no instance is archiving.
+     */
+    @Scheduled(fixedDelayString = "${birdapi.archive.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        try {
+            sightingArchive.refresh();
+            if (!sightingArchive.pending().isEmpty() && lease.acquire()) {
+                try {
+                    recoverPending();
+                } finally {
+                    lease.release();
+                }
+            }
+        } catch (IOException | DataAccessException e) {
+            log.warn("Could not refresh the sighting archive: {}", e.getMessage());
+        }
+    }
+
+    // Null once nothing before the cutoff is left
+    private ArchiveSegment archiveOldest(LocalDateTime cutoff) throws IOException {
+        ArchiveSegment pending = transactionTemplate.execute(status -> {
+            List<ArchivedSighting> rows = sightingViewJdbcRepository.findOldestForUpdate(cutoff, segmentRows);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            ArchiveSegment segment;
+            try {
+                segment = sightingArchive.writePending(rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write archive segment", e);
+            }
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (ArchivedSighting row : rows) {
+                ids.add(row.getId());
+            }
+            sightingService.deleteSightings(ids);
+            return segment;
+        });
+        return pending == null ? null : sightingArchive.promote(pending);
+    }
+
+    // Called with the lease held, so no other instance has a segment in flight
+    private void recoverPending() throws IOException {
+        for (ArchiveSegment pending : sightingArchive.pending()) {
+            List<Long> ids = new ArrayList<>();
+            for (long id : pending.ids()) {
+                ids.add(id);
+            }
+            long remaining = 0;
+            for (List<Long> chunk : Batches.partition(ids)) {
+                for (Object[] row : sightingRepository.countByIdInGroupByBird(chunk)) {
+                    remaining += (Long) row[1];
+                }
+            }
+            if (remaining == 0) {
+                sightingArchive.promote(pending);
+                log.warn("Promoted pending archive segment {}, its sightings were deleted", pending.getFile().getFileName());
+            } else {
+                sightingArchive.discard(pending);
+                log.warn("Discarded pending archive segment {}, its sightings are still in the database", pending.getFile().getFileName());
+            }
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.ingest.SightingRow;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+import com.demoapp.birdapi.repository.SightingJdbcRepository.ReportCountIncrement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Suppresses near-duplicate sightings at ingest: a report of the same bird at the same normalized
+ * location within {@code birdapi.dedupe.window-seconds} of a recently written one is merged into that
+ * sighting (its {@code report_count} goes up) or dropped, depending on {@code birdapi.dedupe.mode}.
+ * Off by default, since a suppressed report answers with the earlier sighting instead of a new one.
+ * <p>
+ * Recent reports are indexed in memory by bird, location and time bucket, bounded in size and age,
+ * so suppression is per instance and best effort. Batch writers {@link #plan} a batch, {@link #apply}
+ * the plan inside their transaction and {@link #commit} it afterwards; only committed rows ever become
+ * merge targets.
+ */
+@Component
+public class SightingDeduplicator {
+
+    public enum Mode { OFF, MERGE, DROP }
+
+    private final SightingJdbcRepository sightingJdbcRepository;
+    private final Mode mode;
+    private final long windowSeconds;
+    private final long retentionNanos;
+    private final int maxEntries;
+
+    // Insertion ordered, so the eldest entries are evicted first; guarded by itself
+    private final LinkedHashMap<Key, RecentSighting> recent = new LinkedHashMap<>();
+
+    private final Counter accepted;
+    private final Counter suppressed;
+
+    public SightingDeduplicator(SightingJdbcRepository sightingJdbcRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${birdapi.dedupe.mode:off}") Mode mode,
+                                @Value("${birdapi.dedupe.window-seconds:60}") long windowSeconds,
+                                @Value("${birdapi.dedupe.max-entries:100000}") int maxEntries) {
+        if (windowSeconds <= 0) {
+            throw new IllegalArgumentException("birdapi.dedupe.window-seconds must be positive");
+        }
+        this.sightingJdbcRepository = sightingJdbcRepository;
+        this.mode = mode;
+        this.windowSeconds = windowSeconds;
+        // Reports arrive roughly in real time; keep entries a little longer than the window for late ones
+        this.retentionNanos = Duration.ofSeconds(windowSeconds * 2).toNanos();
+        this.maxEntries = maxEntries;
+
+        this.accepted = Counter.builder("birdapi.sightings.dedupe")
+                .description("Sightings checked for near-duplicates, by outcome")
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+        this.suppressed = Counter.builder("birdapi.sightings.dedupe")
+                .description("Sightings checked for near-duplicates, by outcome")
+                .tag("outcome", mode == Mode.DROP ? "dropped" : "merged")
+                .register(meterRegistry);
+        Gauge.builder("birdapi.sightings.dedupe.tracked", this, SightingDeduplicator::trackedReports)
+                .description("Recent reports held for near-duplicate detection")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.OFF;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the recently written sighting the report duplicates, if any. The caller merges into or
+     * drops against it and reports that through {@link #suppressed()}, or writes
+     * the report and registers it through {@link #remember}.
+     */
+    public Optional<RecentSighting> findDuplicate(long birdId, String location, LocalDateTime dateTime) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        String normalizedLocation = normalize(location);
+        synchronized (recent) {
+            return Optional.ofNullable(find(recent, birdId, normalizedLocation, dateTime));
+        }
+    }
+
+    public void suppressed() {
+        suppressed.increment();
+    }
+
+    /**
+     * Registers a written sighting as a merge target. Inside a transaction this happens only after it commits.
+     */
+    public void remember(Long sightingId, long birdId, String location, LocalDateTime dateTime) {
+        if (!isEnabled()) {
+            return;
+        }
+        RecentSighting sighting = new RecentSighting(sightingId, birdId, location, dateTime, normalize(location));
+        afterCommit(() -> {
+            accepted.increment();
+            synchronized (recent) {
+                put(sighting);
+            }
+        });
+    }
+
+    // Forgets a merge target whose row turned out to be gone, e.g. deleted since it was written
+    public void forget(RecentSighting target) {
+        synchronized (recent) {
+            recent.remove(target.key(windowSeconds), target);
+        }
+    }
+
+    public Plan plan(List<SightingRow> rows) {
+        Plan plan = new Plan();
+        if (!isEnabled()) {
+            plan.inserts.addAll(rows);
+            return plan;
+        }
+
+        Map<Key, RecentSighting> batch = new HashMap<>();
+        synchronized (recent) {
+            for (SightingRow row : rows) {
+                String normalizedLocation = normalize(row.getLocation());
+                RecentSighting target = find(batch, row.getBirdId(), normalizedLocation, row.getDateTime());
+                if (target == null) {
+                    target = find(recent, row.getBirdId(), normalizedLocation, row.getDateTime());
+                }
+                if (target == null) {
+                    RecentSighting first = new RecentSighting(null, row.getBirdId(), row.getLocation(), row.getDateTime(), normalizedLocation);
+                    batch.put(first.key(windowSeconds), first);
+                    plan.inserts.add(row);
+                    plan.remembered.add(first);
+                } else {
+                    plan.duplicates.computeIfAbsent(target, t -> new ArrayList<>()).add(row);
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Writes a plan on the caller's transaction: inserts the first reports and, in merge mode, adds the
+     * duplicates to their targets. Duplicates whose target row is gone are inserted after all.
+     */
+    public void apply(Plan plan) {
+        sightingJdbcRepository.insertAll(plan.inserts);
+        if (mode != Mode.MERGE || plan.duplicates.isEmpty()) {
+            return;
+        }
+
+        List<RecentSighting> targets = new ArrayList<>(plan.duplicates.keySet());
+        List<ReportCountIncrement> increments = new ArrayList<>(targets.size());
+        for (RecentSighting target : targets) {
+            increments.add(new ReportCountIncrement(target.getSightingId(), target.getBirdId(), target.getLocation(),
+                    target.getDateTime(), plan.duplicates.get(target).size()));
+        }
+        int[] updated = sightingJdbcRepository.incrementReportCounts(increments);
+
+        List<SightingRow> orphaned = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            // Statement.SUCCESS_NO_INFO (-2) counts as updated
+            if (updated[i] == 0) {
+                plan.stale.add(targets.get(i));
+                orphaned.addAll(plan.duplicates.get(targets.get(i)));
+            }
+        }
+        sightingJdbcRepository.insertAll(orphaned);
+    }
+
+    public void commit(Plan plan) {
+        if (!isEnabled()) {
+            return;
+        }
+        int duplicates = 0;
+        for (Map.Entry<RecentSighting, List<SightingRow>> entry : plan.duplicates.entrySet()) {
+            if (!plan.stale.contains(entry.getKey())) {
+                duplicates += entry.getValue().size();
+            }
+        }
+        accepted.increment(plan.inserts.size() + plan.getSuppressed() - duplicates);
+        suppressed.increment(duplicates);
+        synchronized (recent) {
+            for (RecentSighting target : plan.stale) {
+                recent.remove(target.key(windowSeconds), target);
+            }
+            for (RecentSighting sighting : plan.remembered) {
+                put(sighting);
+            }
+        }
+    }
+
+    // Forgets every merge target, e.g. after a restore replaced the sightings they point at
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    public int trackedReports() {
+        synchronized (recent) {
+            return recent.size();
+        }
+    }
+
+    // Called with the lock held
+    private void put(RecentSighting sighting) {
+        recent.put(sighting.key(windowSeconds), sighting);
+        long now = System.nanoTime();
+        Iterator<RecentSighting> eldest = recent.values().iterator();
+        while (eldest.hasNext()) {
+            RecentSighting candidate = eldest.next();
+            if (recent.size() <= maxEntries && now - candidate.rememberedAtNanos < retentionNanos) {
+                break;
+            }
+            eldest.remove();
+        }
+    }
+
+    // Looks in the report's time bucket and both neighbours, since a window can straddle a bucket boundary
+    private RecentSighting find(Map<Key, RecentSighting> index, long birdId, String normalizedLocation, LocalDateTime dateTime) {
+        long bucket = bucket(dateTime, windowSeconds);
+        for (long b = bucket - 1; b <= bucket + 1; b++) {
+            RecentSighting candidate = index.get(new Key(birdId, normalizedLocation, b));
+            if (candidate != null && Math.abs(Duration.between(candidate.getDateTime(), dateTime).getSeconds()) < windowSeconds) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long bucket(LocalDateTime dateTime, long windowSeconds) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), windowSeconds);
+    }
+
+    // "Central Park,  NY" and "central park ny" are the same place
+    static String normalize(String location) {
+        StringBuilder normalized = new StringBuilder(location.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < location.length(); i++) {
+            char c = location.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public static final class Plan {
+
+        private final List<SightingRow> inserts = new ArrayList<>();
+        private final List<RecentSighting> remembered = new ArrayList<>();
+        private final Map<RecentSighting, List<SightingRow>> duplicates = new LinkedHashMap<>();
+        private final List<RecentSighting> stale = new ArrayList<>();
+
+        public List<SightingRow> getInserts() {
+            return inserts;
+        }
+
+        // Rows merged into or dropped against an earlier report
+        public int getSuppressed() {
+            int suppressed = 0;
+            for (List<SightingRow> rows : duplicates.values()) {
+                suppressed += rows.size();
+            }
+            return suppressed;
+        }
+    }
+
+    public static final class RecentSighting {
+
+        private final Long sightingId;
+        private final long birdId;
+        private final String location;
+        private final LocalDateTime dateTime;
+        private final String normalizedLocation;
+        private final long rememberedAtNanos = System.nanoTime();
+
+        private RecentSighting(Long sightingId, long birdId, String location, LocalDateTime dateTime, String normalizedLocation) {
+            this.sightingId = sightingId;
+            this.birdId = birdId;
+            this.location = location;
+            this.dateTime = dateTime;
+            this.normalizedLocation = normalizedLocation;
+        }
+
+        // Null for rows written in bulk, whose ids are not returned
+        public Long getSightingId() {
+            return sightingId;
+        }
+
+        public long getBirdId() {
+            return birdId;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public LocalDateTime getDateTime() {
+            return dateTime;
+        }
+
+        private Key key(long windowSeconds) {
+            return new Key(birdId, normalizedLocation, bucket(dateTime, windowSeconds));
+        }
+    }
+
+    private static final class Key {
+
+        private final long birdId;
+        private final String location;
+        private final long bucket;
+
+        private Key(long birdId, String location, long bucket) {
+            this.birdId = birdId;
+            this.location = location;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return birdId == key.birdId && bucket == key.bucket && location.equals(key.location);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(birdId, location, bucket);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.ingest.ImportFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes search results to a stream in any of the import formats, so an export can be imported
+ * again as is. Rows are read in keyset pages, each in its own short transaction, so neither memory
+ * nor a connection is held for the whole export.
+ */
+@Service
+public class SightingExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(SightingExportService.class);
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final SightingService sightingService;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+
+    public SightingExportService(SightingService sightingService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${birdapi.export.page-size:1000}") int pageSize) {
+        this.sightingService = sightingService;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+
+    public long export(ImportFormat format, String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                       OutputStream out) throws IOException {
+        log.info("Exporting sightings format={} birdName={} location={} fromDate={} toDate={}", format, birdName, location, fromDate, toDate);
+
+        long rows = format == ImportFormat.CSV
+                ? exportCsv(birdName, location, fromDate, toDate, out)
+                : exportJson(format == ImportFormat.NDJSON, birdName, location, fromDate, toDate, out);
+
+        log.info("Exported {} sightings", rows);
+        return rows;
+    }
+
+    private long exportCsv(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                           OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write("id,birdId,birdName,location,dateTime,reportCount\n");
+        long rows = 0;
+        Long lastId = null;
+        while (true) {
+            List<SightingDTO> page = sightingService.searchSightingsAfter(birdName, location, fromDate, toDate, lastId, pageSize);
+            for (SightingDTO sighting : page) {
+                writer.write(String.valueOf(sighting.getId()));
+                writer.write(',');
+                writer.write(String.valueOf(sighting.getBirdId()));
+                writer.write(',');
+                writer.write(csvField(sighting.getBird() != null ? sighting.getBird().getName() : ""));
+                writer.write(',');
+                writer.write(csvField(sighting.getLocation()));
+                writer.write(',');
+                writer.write(DATE_TIME_FORMAT.format(sighting.getDateTime()));
+                writer.write(',');
+                writer.write(String.valueOf(sighting.getReportCount() != null ? sighting.getReportCount() : 1));
+                writer.write('\n');
+                lastId = sighting.getId();
+            }
+            rows += page.size();
+            writer.flush();
+            if (page.size() < pageSize) {
+                return rows;
+            }
+        }
+    }
+
+    private long exportJson(boolean lineDelimited, String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                            OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        if (lineDelimited) {
+            generator.setRootValueSeparator(null);
+        } else {
+            generator.writeStartArray();
+        }
+        long rows = 0;
+        Long lastId = null;
+        while (true) {
+            List<SightingDTO> page = sightingService.searchSightingsAfter(birdName, location, fromDate, toDate, lastId, pageSize);
+            for (SightingDTO sighting : page) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", sighting.getId());
+                generator.writeNumberField("birdId", sighting.getBirdId());
+                if (sighting.getBird() != null) {
+                    generator.writeStringField("birdName", sighting.getBird().getName());
+                }
+                generator.writeStringField("location", sighting.getLocation());
+                generator.writeStringField("dateTime", DATE_TIME_FORMAT.format(sighting.getDateTime()));
+                generator.writeNumberField("reportCount", sighting.getReportCount() != null ? sighting.getReportCount() : 1);
+                generator.writeEndObject();
+                if (lineDelimited) {
+                    generator.writeRaw('\n');
+                }
+                lastId = sighting.getId();
+            }
+            rows += page.size();
+            generator.flush();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        if (!lineDelimited) {
+            generator.writeEndArray();
+        }
+        generator.flush();
+        return rows;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
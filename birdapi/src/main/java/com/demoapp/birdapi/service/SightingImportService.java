@@ -0,0 +1,114 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.dto.ImportResultDTO;
+import com.demoapp.birdapi.ingest.BirdIdResolver;
+import com.demoapp.birdapi.ingest.ImportFormat;
+import com.demoapp.birdapi.ingest.MalformedSightingException;
+import com.demoapp.birdapi.ingest.SightingRow;
+import com.demoapp.birdapi.ingest.SightingRowReader;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class SightingImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(SightingImportService.class);
+
+    private static final int MAX_ERROR_SAMPLES = 20;
+    private static final int BIRD_CACHE_SIZE = 100_000;
+
+    private final SightingJdbcRepository sightingJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public SightingImportService(SightingJdbcRepository sightingJdbcRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${birdapi.import.chunk-size:10000}") int chunkSize) {
+        this.sightingJdbcRepository = sightingJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Streams sightings from {@code in} and loads them chunk by chunk, each chunk in its own
+     * transaction. Only one chunk is held in memory at a time, whatever the size of the input.
+     * Rows that cannot be parsed or whose bird does not exist are counted and skipped.
+     */
+    public ImportResultDTO importSightings(InputStream in, ImportFormat format) throws IOException {
+        log.info("Importing sightings format={} chunkSize={}", format, chunkSize);
+
+        ImportResultDTO result = new ImportResultDTO();
+        BirdIdResolver birdIdResolver = new BirdIdResolver(sightingJdbcRepository, BIRD_CACHE_SIZE);
+        long startNanos = System.nanoTime();
+
+        try (SightingRowReader reader = format.open(in)) {
+            List<SightingRow> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                SightingRow row;
+                try {
+                    row = reader.next();
+                } catch (MalformedSightingException e) {
+                    result.setRowsRead(result.getRowsRead() + 1);
+                    reject(result, e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                result.setRowsRead(result.getRowsRead() + 1);
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, birdIdResolver, result, startNanos);
+                    chunk.clear();
+                }
+            }
+            writeChunk(chunk, birdIdResolver, result, startNanos);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        result.setElapsedMillis(elapsedMillis);
+        result.setRowsPerSecond(rowsPerSecond(result.getRowsImported(), elapsedMillis));
+        log.info("Import finished read={} imported={} rejected={} in {} ms ({} rows/s)",
+                result.getRowsRead(), result.getRowsImported(), result.getRowsRejected(), elapsedMillis, result.getRowsPerSecond());
+        return result;
+    }
+
+    private void writeChunk(List<SightingRow> chunk, BirdIdResolver birdIdResolver, ImportResultDTO result, long startNanos) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Integer imported = transactionTemplate.execute(status -> {
+            List<SightingRow> resolved = birdIdResolver.resolve(chunk, row -> reject(result,
+                    "Line " + row.getLineNumber() + ": bird not found "
+                            + (row.getBirdId() != null ? "with id " + row.getBirdId() : "with name " + row.getBirdName())));
+            return sightingJdbcRepository.insertAll(resolved);
+        });
+        result.setRowsImported(result.getRowsImported() + (imported == null ? 0 : imported));
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        log.info("Import progress read={} imported={} rejected={} ({} rows/s)",
+                result.getRowsRead(), result.getRowsImported(), result.getRowsRejected(),
+                rowsPerSecond(result.getRowsImported(), elapsedMillis));
+    }
+
+    private static void reject(ImportResultDTO result, String reason) {
+        result.setRowsRejected(result.getRowsRejected() + 1);
+        if (result.getErrors().size() < MAX_ERROR_SAMPLES) {
+            result.getErrors().add(reason);
+        }
+    }
+
+    private static long rowsPerSecond(long rows, long elapsedMillis) {
+        return elapsedMillis == 0 ? rows * 1000 : rows * 1000 / elapsedMillis;
+    }
+}
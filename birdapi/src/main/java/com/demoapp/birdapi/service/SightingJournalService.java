@@ -0,0 +1,132 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.ingest.BirdIdResolver;
+import com.demoapp.birdapi.ingest.SightingRow;
+import com.demoapp.birdapi.journal.SightingJournal;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps accepted sightings when the database is unreachable: they are appended to the local
+ * {@link SightingJournal} and replayed in batches once the database answers again. Replay is
+ * at-least-once; a crash between the database commit and the checkpoint replays that batch again.
+ */
+@Service
+public class SightingJournalService {
+
+    private static final Logger log = LoggerFactory.getLogger(SightingJournalService.class);
+
+    private static final int BIRD_CACHE_SIZE = 10_000;
+
+    private final SightingJournal journal;
+    private final SightingJdbcRepository sightingJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SightingDeduplicator sightingDeduplicator;
+    private final int replayBatchSize;
+
+    public SightingJournalService(SightingJournal journal,
+                                  SightingJdbcRepository sightingJdbcRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  SightingDeduplicator sightingDeduplicator,
+                                  @Value("${birdapi.journal.replay-batch-size:1000}") int replayBatchSize) {
+        this.journal = journal;
+        this.sightingJdbcRepository = sightingJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.sightingDeduplicator = sightingDeduplicator;
+        this.replayBatchSize = replayBatchSize;
+    }
+
+    public void append(List<SightingRow> rows) {
+        try {
+            journal.append(rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write sightings to the journal", e);
+        }
+    }
+
+    public boolean hasPending() {
+        return journal.hasPending();
+    }
+
+    // Connection-level failures only; constraint violations and bad SQL must still surface to the caller
+    public boolean isDatabaseUnavailable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CannotCreateTransactionException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessResourceException
+                    || cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                if (sqlState != null && sqlState.startsWith("08")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${birdapi.journal.replay-interval-ms:5000}")
+    public void replay() {
+        if (!journal.hasPending()) {
+            return;
+        }
+        BirdIdResolver birdIdResolver = new BirdIdResolver(sightingJdbcRepository, BIRD_CACHE_SIZE);
+        int replayed = 0;
+        int dropped = 0;
+        try {
+            while (journal.hasPending()) {
+                SightingJournal.JournalBatch batch = journal.readBatch(replayBatchSize);
+                if (batch.getRows().isEmpty()) {
+                    journal.commitCheckpoint(batch.getEndPosition());
+                    break;
+                }
+                List<SightingRow> unresolved = new ArrayList<>();
+                SightingDeduplicator.Plan plan = transactionTemplate.execute(status -> {
+                    unresolved.clear();
+                    SightingDeduplicator.Plan batchPlan = sightingDeduplicator.plan(birdIdResolver.resolve(batch.getRows(), unresolved::add));
+                    sightingDeduplicator.apply(batchPlan);
+                    return batchPlan;
+                });
+                sightingDeduplicator.commit(plan);
+                for (SightingRow row : unresolved) {
+                    log.warn("Dropping journaled sighting of unknown bird {} at {}",
+                            row.getBirdId() != null ? "id " + row.getBirdId() : "name " + row.getBirdName(), row.getDateTime());
+                }
+                journal.commitCheckpoint(batch.getEndPosition());
+                replayed += batch.getRows().size() - unresolved.size();
+                dropped += unresolved.size();
+            }
+        } catch (RuntimeException e) {
+            if (isDatabaseUnavailable(e)) {
+                log.warn("Database still unavailable, {} journal bytes pending replay: {}", journal.pendingBytes(), e.getMessage());
+            } else {
+                // Left in the journal; the next run retries with a fresh bird cache
+                log.error("Journal replay failed, {} bytes pending replay", journal.pendingBytes(), e);
+            }
+        } catch (IOException e) {
+            log.error("Could not advance the journal checkpoint", e);
+        }
+        if (replayed > 0 || dropped > 0) {
+            log.info("Replayed {} journaled sightings ({} dropped)", replayed, dropped);
+        }
+    }
+}
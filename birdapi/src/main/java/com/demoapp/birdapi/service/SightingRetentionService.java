@@ -0,0 +1,214 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.archive.SightingArchive;
+import com.demoapp.birdapi.model.JobCheckpoint;
+import com.demoapp.birdapi.repository.JobCheckpointRepository;
+import com.demoapp.birdapi.repository.SightingRepository;
+import com.demoapp.birdapi.util.Batches;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deletes sightings older than {@code birdapi.retention.years}, oldest first, in chunks of
+ * {@code birdapi.retention.chunk-size} with a pause between them, so the purge never holds long locks
+ * or floods the WAL. Each chunk is deleted through {@link SightingService#deleteSightings} in its own
+ * transaction, which keeps the read model, the latest sightings and the bird counters in step.
+ * <p>
+ * Runs are coordinated through the {@code retention} row of {@code job_checkpoints}: an instance must
+ * hold its lease to delete, and extends it with every chunk. The cutoff of a run and the position of
+ * its last committed chunk are stored there too, so a run interrupted by a restart or by losing the
+ * lease is resumed by whichever instance runs the job next, with the same cutoff. A finished run also
+ * drops the archive segments lying wholly before its cutoff.
+ */
+@Service
+public class SightingRetentionService {
+
+    static final String JOB = "retention";
+
+    private static final Logger log = LoggerFactory.getLogger(SightingRetentionService.class);
+
+    private final SightingRepository sightingRepository;
+    private final SightingService sightingService;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final SightingArchive sightingArchive;
+    private final int years;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final JobLease lease;
+
+    private final Counter deleted;
+    private final Counter chunks;
+
+    private volatile boolean running;
+    private volatile long runDeleted;
+
+    public SightingRetentionService(SightingRepository sightingRepository,
+                                    SightingService sightingService,
+                                    JobCheckpointRepository jobCheckpointRepository,
+                                    SightingArchive sightingArchive,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${birdapi.retention.years:0}") int years,
+                                    @Value("${birdapi.retention.chunk-size:1000}") int chunkSize,
+                                    @Value("${birdapi.retention.pause-ms:200}") long pauseMillis,
+                                    @Value("${birdapi.retention.lease-seconds:300}") long leaseSeconds) {
+        if (chunkSize <= 0 || chunkSize > Batches.MAX_IN_LIST) {
+            throw new IllegalArgumentException("birdapi.retention.chunk-size must be between 1 and " + Batches.MAX_IN_LIST);
+        }
+        this.sightingRepository = sightingRepository;
+        this.sightingService = sightingService;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.sightingArchive = sightingArchive;
+        this.years = years;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.lease = new JobLease(jobCheckpointRepository, JOB, leaseSeconds);
+
+        this.deleted = Counter.builder("birdapi.retention.deleted")
+                .description("Sightings deleted by the retention purge")
+                .register(meterRegistry);
+        this.chunks = Counter.builder("birdapi.retention.chunks")
+                .description("Chunks deleted by the retention purge")
+                .register(meterRegistry);
+        Gauge.builder("birdapi.retention.running", this, service -> service.running ? 1 : 0)
+                .description("Whether this instance is running the retention purge")
+                .register(meterRegistry);
+        Gauge.builder("birdapi.retention.run.deleted", this, service -> service.runDeleted)
+                .description("Sightings deleted by the current or last retention run of this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Purges sightings older than the configured number of years; does nothing when retention is
+     * disabled, which is the default.
+     *
+     * @return the number of sightings deleted
+     */
+    @Scheduled(cron = "${birdapi.retention.cron:0 0 2 * * *}")
+    public long purge() {
+        if (years <= 0) {
+            return 0;
+        }
+        return purge(LocalDateTime.now().minusYears(years));
+    }
+
+    /**
+     * Deletes sightings older than {@code cutoff}, or resumes the unfinished run of any instance with
+     * its own cutoff. Returns without deleting anything while another instance holds the lease.
+     *
+     * @return the number of sightings deleted by this call
+     */
+    public synchronized long purge(LocalDateTime cutoff) {
+        if (!lease.acquire()) {
+            log.info("Retention purge is running on another instance, skipping");
+            return 0;
+        }
+        running = true;
+        try {
+            return run(cutoff);
+        } finally {
+            running = false;
+            lease.release();
+        }
+    }
+
+    private long run(LocalDateTime cutoff) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB)
+                .orElseThrow(() -> new IllegalStateException("Checkpoint of job " + JOB + " is missing"));
+
+        LocalDateTime runCutoff = cutoff;
+        LocalDateTime afterDateTime = null;
+        Long afterId = null;
+        long processed = 0;
+        if (checkpoint.isInProgress()) {
+            runCutoff = checkpoint.getCutoff();
+            afterDateTime = checkpoint.getPositionDateTime();
+            afterId = checkpoint.getPositionId();
+            processed = checkpoint.getProcessed();
+            log.info("Resuming retention purge of sightings before {} after {} deleted", runCutoff, processed);
+        } else {
+            jobCheckpointRepository.start(JOB, lease.owner(), runCutoff, LocalDateTime.now());
+            log.info("Starting retention purge of sightings before {}", runCutoff);
+        }
+
+        long deletedByThisCall = 0;
+        while (true) {
+            List<Object[]> rows = afterId == null
+                    ? sightingRepository.findOldest(runCutoff, PageRequest.of(0, chunkSize))
+                    : sightingRepository.findOldestAfter(runCutoff, afterDateTime, afterId, PageRequest.of(0, chunkSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                ids.add((Long) row[0]);
+            }
+            int count = sightingService.deleteSightings(ids).getAffected();
+            Object[] last = rows.get(rows.size() - 1);
+            afterId = (Long) last[0];
+            afterDateTime = (LocalDateTime) last[1];
+            processed += count;
+            deletedByThisCall += count;
+            runDeleted = processed;
+            deleted.increment(count);
+            chunks.increment();
+
+            LocalDateTime now = LocalDateTime.now();
+            if (jobCheckpointRepository.advance(JOB, lease.owner(), afterDateTime, afterId, processed, now, lease.expiry(now)) == 0) {
+                // The lease expired and another instance took over; it resumes from our last checkpoint
+                log.warn("Lost the retention lease after deleting {} sightings, stopping", deletedByThisCall);
+                return deletedByThisCall;
+            }
+            if (rows.size() < chunkSize) {
+                break;
+            }
+            if (!pause()) {
+                log.info("Retention purge interrupted after deleting {} sightings, the next run resumes it", deletedByThisCall);
+                return deletedByThisCall;
+            }
+        }
+
+        jobCheckpointRepository.finish(JOB, lease.owner(), LocalDateTime.now());
+        log.info("Retention purge of sightings before {} finished, {} deleted", runCutoff, processed);
+        dropArchivedBefore(runCutoff);
+        return deletedByThisCall;
+    }
+
+    // Archived sightings are subject to the same retention, a whole segment at a time
+    private void dropArchivedBefore(LocalDateTime cutoff) {
+        try {
+            long dropped = sightingArchive.dropBefore(cutoff);
+            if (dropped > 0) {
+                log.info("Dropped {} archived sightings before {}", dropped, cutoff);
+            }
+        } catch (IOException e) {
+            log.warn("Could not drop archived sightings before {}: {}", cutoff, e.getMessage());
+        }
+    }
+
+    // Throttles the purge between chunks; false when the thread was interrupted, e.g. at shutdown
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
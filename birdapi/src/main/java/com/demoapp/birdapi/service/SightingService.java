@@ -1,28 +1,55 @@
 package com.demoapp.birdapi.service;
 
+import com.demoapp.birdapi.archive.ArchiveSegment;
+import com.demoapp.birdapi.archive.SightingArchive;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
+import com.demoapp.birdapi.dto.ImportResultDTO;
 import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.exception.InvalidRequestException;
 import com.demoapp.birdapi.exception.ResourceNotFoundException;
 import com.demoapp.birdapi.mapper.SightingMapper;
 import com.demoapp.birdapi.model.Bird;
 import com.demoapp.birdapi.model.Sighting;
+import com.demoapp.birdapi.model.SightingView;
 import com.demoapp.birdapi.repository.BirdRepository;
+import com.demoapp.birdapi.repository.BirdSightingCounters;
+import com.demoapp.birdapi.repository.LatestSightingRepository;
 import com.demoapp.birdapi.repository.SightingRepository;
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.repository.SightingViewRepository;
+import com.demoapp.birdapi.service.SightingDeduplicator.RecentSighting;
+import com.demoapp.birdapi.util.Batches;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
 
+/**
+ * Sighting reads are served from the {@code sighting_view} read model; every write below also
+ * updates it and the birds' latest sightings, in the same transaction, and reports added or removed
+ * sightings to the {@link BirdSightingCounters} of their birds. Searches reaching into the
+ * {@link SightingArchive} merge in its matching sightings, which are read-only.
+ */
 @Service
 @Transactional
 public class SightingService {
@@ -32,26 +59,48 @@ public class SightingService {
     private final SightingRepository sightingRepository;
     private final BirdRepository birdRepository;
     private final SightingMapper sightingMapper;
+    private final SightingDeduplicator sightingDeduplicator;
+    private final SightingViewRepository sightingViewRepository;
+    private final SightingViewJdbcRepository sightingViewJdbcRepository;
+    private final BirdSightingCounters birdSightingCounters;
+    private final LatestSightingRepository latestSightingRepository;
+    private final SightingArchive sightingArchive;
 
     public SightingService(SightingRepository sightingRepository,
                            BirdRepository birdRepository,
-                           SightingMapper sightingMapper) {
+                           SightingMapper sightingMapper,
+                           SightingDeduplicator sightingDeduplicator,
+                           SightingViewRepository sightingViewRepository,
+                           SightingViewJdbcRepository sightingViewJdbcRepository,
+                           BirdSightingCounters birdSightingCounters,
+                           LatestSightingRepository latestSightingRepository,
+                           SightingArchive sightingArchive) {
         this.sightingRepository = sightingRepository;
         this.birdRepository = birdRepository;
         this.sightingMapper = sightingMapper;
+        this.sightingDeduplicator = sightingDeduplicator;
+        this.sightingViewRepository = sightingViewRepository;
+        this.sightingViewJdbcRepository = sightingViewJdbcRepository;
+        this.birdSightingCounters = birdSightingCounters;
+        this.latestSightingRepository = latestSightingRepository;
+        this.sightingArchive = sightingArchive;
     }
 
     public Page<SightingDTO> getAllSightings(Pageable pageable) {
         log.info("Listing all sightings, pageable={}", pageable);
 
-        return sightingRepository.findAll(pageable)
+        return sightingViewRepository.search(null, null, null, null, pageable)
                 .map(sightingMapper::toDTO);
     }
 
+    public long countSightings() {
+        return sightingRepository.count();
+    }
+
     public SightingDTO getSightingById(Long id) {
         log.info("Retrieving sighting id={}", id);
 
-        Sighting sighting = sightingRepository.findById(id)
+        SightingView sighting = sightingViewRepository.findById(id)
                 .orElseThrow(() -> {
                     log.info("Sighting not found id={}", id);
                     return new ResourceNotFoundException("Sighting", id);
@@ -68,17 +117,89 @@ public class SightingService {
                     return new ResourceNotFoundException("Bird", sightingDTO.getBirdId());
                 });
 
+        SightingDTO created = createSighting(bird, sightingDTO);
+        log.info("Created sighting id={}", created.getId());
+        return created;
+    }
+
+    /**
+     * Creates a batch of already validated sightings in one transaction, loading their birds with a
+     * single query. Sightings of unknown birds are rejected individually instead of failing the batch.
+     */
+    public ImportResultDTO createSightings(List<SightingDTO> sightings) {
+        log.info("Creating batch of {} sightings", sightings.size());
+
+        Set<Long> birdIds = new HashSet<>();
+        for (SightingDTO sighting : sightings) {
+            birdIds.add(sighting.getBirdId());
+        }
+        Map<Long, Bird> birds = new HashMap<>();
+        for (Bird bird : birdRepository.findAllById(birdIds)) {
+            birds.put(bird.getId(), bird);
+        }
+
+        ImportResultDTO result = new ImportResultDTO();
+        result.setRowsRead(sightings.size());
+        for (SightingDTO sighting : sightings) {
+            Bird bird = birds.get(sighting.getBirdId());
+            if (bird == null) {
+                result.setRowsRejected(result.getRowsRejected() + 1);
+                result.getErrors().add("Bird not found with id " + sighting.getBirdId());
+                continue;
+            }
+            createSighting(bird, sighting);
+            result.setRowsImported(result.getRowsImported() + 1);
+        }
+
+        log.info("Created {} of {} sightings in batch", result.getRowsImported(), sightings.size());
+        return result;
+    }
+
+    private SightingDTO createSighting(Bird bird, SightingDTO sightingDTO) {
+        Optional<SightingDTO> duplicate = sightingDeduplicator
+                .findDuplicate(bird.getId(), sightingDTO.getLocation(), sightingDTO.getDateTime())
+                .flatMap(this::absorbDuplicate);
+        if (duplicate.isPresent()) {
+            return duplicate.get();
+        }
+
         Sighting sighting = new Sighting();
         sighting.setBird(bird);
         sighting.setLocation(sightingDTO.getLocation());
         sighting.setDateTime(sightingDTO.getDateTime());
 
+        // Identity ids make save() insert at once, so the view row can be copied from it
         Sighting savedSighting = sightingRepository.save(sighting);
-        log.info("Created sighting id={}", savedSighting.getId());
-
+        sightingViewJdbcRepository.insertFromSightings(Collections.singletonList(savedSighting.getId()));
+        latestSightingRepository.advance(bird.getId(), savedSighting.getDateTime());
+        birdSightingCounters.added(bird.getId(), savedSighting.getDateTime());
+        sightingDeduplicator.remember(savedSighting.getId(), bird.getId(), savedSighting.getLocation(), savedSighting.getDateTime());
         return sightingMapper.toDTO(savedSighting);
     }
 
+    // Merges the report into the earlier sighting (or drops it), answering with that sighting
+    private Optional<SightingDTO> absorbDuplicate(RecentSighting target) {
+        Optional<Sighting> existing = target.getSightingId() != null
+                ? sightingRepository.findById(target.getSightingId())
+                : sightingRepository.findFirstByBirdIdAndLocationAndDateTimeOrderByIdAsc(target.getBirdId(), target.getLocation(), target.getDateTime());
+        if (existing.isEmpty()) {
+            sightingDeduplicator.forget(target);
+            return Optional.empty();
+        }
+
+        Sighting sighting = existing.get();
+        if (sightingDeduplicator.getMode() == SightingDeduplicator.Mode.MERGE) {
+            sightingRepository.incrementReportCount(sighting.getId(), 1);
+            sightingViewRepository.incrementReportCount(sighting.getId(), 1);
+            sighting = sightingRepository.findById(sighting.getId()).orElse(sighting);
+            log.info("Merged near-duplicate sighting into id={} reportCount={}", sighting.getId(), sighting.getReportCount());
+        } else {
+            log.info("Dropped near-duplicate of sighting id={}", sighting.getId());
+        }
+        sightingDeduplicator.suppressed();
+        return Optional.of(sightingMapper.toDTO(sighting));
+    }
+
     public SightingDTO updateSighting(Long id, SightingDTO sightingDTO) {
         log.info("Updating sighting id={} payload={}", id, sightingDTO);
         Sighting sighting = sightingRepository.findById(id)
@@ -86,6 +207,7 @@ public class SightingService {
                     log.info("Sighting not found for update id={}", id);
                     return new ResourceNotFoundException("Sighting", id);
                 });
+        Long previousBirdId = sighting.getBird().getId();
 
         if (sightingDTO.getBirdId() != null) {
             Bird bird = birdRepository.findById(sightingDTO.getBirdId())
@@ -99,7 +221,14 @@ public class SightingService {
         sighting.setLocation(sightingDTO.getLocation());
         sighting.setDateTime(sightingDTO.getDateTime());
 
-        Sighting updatedSighting = sightingRepository.save(sighting);
+        Sighting updatedSighting = sightingRepository.saveAndFlush(sighting);
+        sightingViewJdbcRepository.refreshFromSightings(Collections.singletonList(updatedSighting.getId()));
+        // Moved from the previous bird (or time) to the current one; the previous bird's latest goes first,
+        // since it may still point at this sighting
+        latestSightingRepository.replace(Collections.singletonList(updatedSighting.getId()));
+        latestSightingRepository.advance(updatedSighting.getBird().getId(), updatedSighting.getDateTime());
+        birdSightingCounters.removed(Collections.singletonMap(previousBirdId, 1L));
+        birdSightingCounters.added(updatedSighting.getBird().getId(), updatedSighting.getDateTime());
         log.info("Updated sighting id={}", updatedSighting.getId());
         return sightingMapper.toDTO(updatedSighting);
     }
@@ -107,43 +236,157 @@ public class SightingService {
     public void deleteSighting(Long id) {
         log.info("Deleting sighting id={}", id);
 
-        if (!sightingRepository.existsById(id)) {
+        List<Long> ids = Collections.singletonList(id);
+        Map<Long, Long> countsByBird = countByBird(sightingRepository.countByIdInGroupByBird(ids));
+        sightingViewRepository.deleteByIdIn(ids);
+        if (sightingRepository.deleteByIdIn(ids) == 0) {
             log.info("Sighting not found for delete id={}", id);
             throw new ResourceNotFoundException("Sighting", id);
         }
-        sightingRepository.deleteById(id);
+        latestSightingRepository.replace(ids);
+        birdSightingCounters.removed(countsByBird);
 
         log.info("Deleted sighting id={}", id);
     }
 
+    public BulkOperationResultDTO deleteSightings(List<Long> ids) {
+        List<Long> distinctIds = Batches.distinct(ids);
+        log.info("Bulk deleting {} sightings", distinctIds.size());
+
+        int deleted = 0;
+        for (List<Long> chunk : Batches.partition(distinctIds)) {
+            birdSightingCounters.removed(countByBird(sightingRepository.countByIdInGroupByBird(chunk)));
+            sightingViewRepository.deleteByIdIn(chunk);
+            deleted += sightingRepository.deleteByIdIn(chunk);
+            latestSightingRepository.replace(chunk);
+        }
+
+        log.info("Bulk deleted {} sightings", deleted);
+        return new BulkOperationResultDTO(distinctIds.size(), deleted);
+    }
+
+    public BulkOperationResultDTO deleteSightingsByFilter(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate) {
+        log.info("Deleting sightings by filter birdName={} location={} fromDate={} toDate={}", birdName, location, fromDate, toDate);
+
+        if (isEmpty(birdName) && isEmpty(location) && fromDate == null && toDate == null) {
+            throw new InvalidRequestException("At least one filter is required to delete sightings");
+        }
+
+        birdSightingCounters.removed(countByBird(sightingViewRepository.countByFilterGroupByBird(birdName, location, fromDate, toDate)));
+        sightingViewRepository.deleteByFilter(birdName, location, fromDate, toDate);
+        int deleted = sightingRepository.deleteByFilter(birdName, location, fromDate, toDate);
+        latestSightingRepository.replaceDeleted();
+        log.info("Deleted {} sightings by filter", deleted);
+        return new BulkOperationResultDTO(null, deleted);
+    }
+
+    public BulkOperationResultDTO updateSightingLocations(List<Long> ids, String location) {
+        List<Long> distinctIds = Batches.distinct(ids);
+        log.info("Bulk updating location of {} sightings to {}", distinctIds.size(), location);
+
+        int updated = 0;
+        for (List<Long> chunk : Batches.partition(distinctIds)) {
+            sightingViewJdbcRepository.updateLocationByIdIn(chunk, location);
+            updated += sightingRepository.updateLocationByIdIn(chunk, location);
+            latestSightingRepository.replace(chunk);
+        }
+
+        log.info("Bulk updated location of {} sightings", updated);
+        return new BulkOperationResultDTO(distinctIds.size(), updated);
+    }
+
     public Page<SightingDTO> searchSightings(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable) {
         log.info("Searching sightings birdId={} location={} fromDate={} toDate={} pageable={}", birdName, location, fromDate, toDate, pageable);
 
-        Specification<Sighting> spec = (Root<Sighting> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
+        List<ArchiveSegment> segments = sightingArchive.matching(birdName, location, fromDate, toDate);
+        Page<SightingDTO> result = segments.isEmpty()
+                ? sightingViewRepository.search(birdName, location, fromDate, toDate, pageable).map(sightingMapper::toDTO)
+                : searchWithArchive(segments, birdName, location, fromDate, toDate, pageable);
+        log.info("Search returned {} results (page size {})", result.getTotalElements(), pageable.getPageSize());
+
+        return result;
+    }
 
-            if (birdName != null && !birdName.isEmpty()) {
-                predicates.add(cb.equal(root.get("bird").get("name"), birdName));
-            }
-            if (location != null && !location.isEmpty()) {
-                predicates.add(cb.like(cb.lower(root.get("location").as(String.class)), "%" + location.toLowerCase() + "%"));
-            }
-            if (fromDate != null) {
-                predicates.add(cb.greaterThanOrEqualTo(root.get("dateTime").as(LocalDateTime.class), fromDate));
-            }
-            if (toDate != null) {
-                predicates.add(cb.lessThanOrEqualTo(root.get("dateTime").as(LocalDateTime.class), toDate));
-            }
+    /**
+     * Merges the database results with those of the archive segments the filters could not rule out.
+     * Both sides are cut to the first offset + size rows in the requested order (by id when none is
+     * given), so a deep page costs as much as all the pages before it.
+     */
+    private Page<SightingDTO> searchWithArchive(List<ArchiveSegment> segments, String birdName, String location,
+                                                LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable) {
+        Sort sort = SightingSorts.withIdTieBreaker(pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("id"));
+        Comparator<SightingDTO> comparator = SightingSorts.comparator(sort);
+        Pageable window = pageable.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort)
+                : Pageable.unpaged();
+        int limit = window.isPaged() ? window.getPageSize() : Integer.MAX_VALUE;
 
-            return predicates.isEmpty() ? cb.conjunction() : cb.and(predicates.toArray(new Predicate[0]));
+        // Holds the first rows of the window in reverse order, so the head is the one to give up
+        PriorityQueue<SightingDTO> first = new PriorityQueue<>(comparator.reversed());
+        Consumer<SightingDTO> offer = sighting -> {
+            if (first.size() < limit) {
+                first.add(sighting);
+            } else if (comparator.compare(sighting, first.peek()) < 0) {
+                first.poll();
+                first.add(sighting);
+            }
         };
+        Page<SightingView> current = sightingViewRepository.search(birdName, location, fromDate, toDate, window);
+        current.forEach(view -> offer.accept(sightingMapper.toDTO(view)));
+        long archived = sightingArchive.forEachMatching(segments, birdName, location, fromDate, toDate,
+                row -> offer.accept(sightingMapper.toDTO(row)));
 
-        Page<SightingDTO> result = sightingRepository.findAll(spec, pageable).map(sightingMapper::toDTO);
-        log.info("Search returned {} results (page size {})", result.getTotalElements(), pageable.getPageSize());
+        List<SightingDTO> merged = new ArrayList<>(first);
+        merged.sort(comparator);
+        List<SightingDTO> content = pageable.isPaged()
+                ? merged.subList((int) Math.min(pageable.getOffset(), merged.size()), merged.size())
+                : merged;
+        return new PageImpl<>(content, pageable, current.getTotalElements() + archived);
+    }
 
-        return result;
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
     }
 
+    // Next page of search results after the given id, without the count query a Page needs
+    public List<SightingDTO> searchSightingsAfter(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate,
+                                                  Long afterId, int limit) {
+        return sightingMapper.viewsToDTOList(sightingViewRepository.findByFilterAfterId(birdName, location, fromDate, toDate, afterId, limit));
+    }
 
-}
+    // Search results without their birds, which callers load in one batch when needed
+    public Page<SightingDTO> searchSightingSummaries(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable) {
+        return sightingViewRepository.search(birdName, location, fromDate, toDate, pageable)
+                .map(sightingMapper::toSummaryDTO);
+    }
 
+    // Latest sightings (without birds) of each of the given birds, at most perBird each
+    public Map<Long, List<SightingDTO>> getLatestSightingsByBirdIds(Collection<Long> birdIds, int perBird) {
+        Map<Long, List<SightingDTO>> sightings = new HashMap<>();
+        for (List<Long> chunk : Batches.partition(Batches.distinct(birdIds))) {
+            for (Sighting sighting : sightingRepository.findLatestByBirdIdIn(chunk, perBird)) {
+                SightingDTO dto = sightingMapper.toSummaryDTO(sighting);
+                sightings.computeIfAbsent(dto.getBirdId(), id -> new ArrayList<>()).add(dto);
+            }
+        }
+        return sightings;
+    }
+
+    /**
+     * Where and when each bird was last seen, in bird id order. Served from memory, so it runs
+     * outside a transaction: opening one would cost the database round trips the copy avoids.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SightingDTO> getLatestSightings() {
+        return sightingMapper.latestToDTOList(latestSightingRepository.findAll());
+    }
+
+    // Rows of [birdId, count] as a map
+    private static Map<Long, Long> countByBird(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+}
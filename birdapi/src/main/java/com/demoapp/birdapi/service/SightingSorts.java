@@ -0,0 +1,65 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.exception.InvalidRequestException;
+import com.demoapp.birdapi.model.Sighting;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The sighting search order applied in memory, for merging database rows with archived ones. Sort
+ * properties are resolved against {@link Sighting} as the database search resolves them.
+ */
+final class SightingSorts {
+
+    private static final Map<String, Function<SightingDTO, Comparable<?>>> KEYS = Map.of(
+            "id", SightingDTO::getId,
+            "location", SightingDTO::getLocation,
+            "dateTime", SightingDTO::getDateTime,
+            "reportCount", SightingDTO::getReportCount,
+            "bird", SightingDTO::getBirdId,
+            "bird.id", SightingDTO::getBirdId,
+            "bird.name", sighting -> sighting.getBird().getName(),
+            "bird.color", sighting -> sighting.getBird().getColor(),
+            "bird.weight", sighting -> sighting.getBird().getWeight(),
+            "bird.height", sighting -> sighting.getBird().getHeight());
+
+    private SightingSorts() {
+    }
+
+    /**
+     * Comparator for the sort, with the id as the final tie-breaker.
+     */
+    static Comparator<SightingDTO> comparator(Sort sort) {
+        Comparator<SightingDTO> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            String dotPath = PropertyPath.from(order.getProperty(), Sighting.class).toDotPath();
+            Function<SightingDTO, Comparable<?>> key = KEYS.get(dotPath);
+            if (key == null) {
+                throw new InvalidRequestException("Cannot sort sightings by " + order.getProperty());
+            }
+            Comparator<SightingDTO> byKey = Comparator.comparing(sighting -> key.apply(sighting),
+                    Comparator.nullsFirst(order.isIgnoreCase() ? SightingSorts::compareIgnoreCase : SightingSorts::compare));
+            comparator = comparator.thenComparing(order.isAscending() ? byKey : byKey.reversed());
+        }
+        return comparator.thenComparing(SightingDTO::getId);
+    }
+
+    // Adds the id as the last sort property, so equal keys come back in the order the merge uses
+    static Sort withIdTieBreaker(Sort sort) {
+        return sort.getOrderFor("id") != null ? sort : sort.and(Sort.by("id"));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Comparable a, Comparable b) {
+        return a.compareTo(b);
+    }
+
+    private static int compareIgnoreCase(Comparable<?> a, Comparable<?> b) {
+        return a instanceof String ? ((String) a).compareToIgnoreCase((String) b) : compare(a, b);
+    }
+}
@@ -0,0 +1,153 @@
+package com.demoapp.birdapi.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Progress of one snapshot or restore, updated by the thread running it and read by status
+ * requests. Bytes are counted as they pass through the snapshot file; a progress line is logged at
+ * most once per {@code logIntervalMillis}.
+ */
+public class SnapshotProgress {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotProgress.class);
+
+    private final String operation;
+    private final String file;
+    private final long logIntervalMillis;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startedNanos = System.nanoTime();
+
+    // Rows copied per table, in copy order; guarded by itself
+    private final Map<String, Long> rows = new LinkedHashMap<>();
+
+    private volatile String status = "RUNNING";
+    private volatile String phase;
+    private volatile long dataBytes;
+    private volatile long fileBytes;
+    private volatile long totalFileBytes = -1;
+    private volatile LocalDateTime completedAt;
+    private volatile long elapsedNanos = -1;
+    private volatile String error;
+
+    private long nextLogNanos;
+
+    public SnapshotProgress(String operation, String file, long logIntervalMillis) {
+        this.operation = operation;
+        this.file = file;
+        this.logIntervalMillis = logIntervalMillis;
+        this.nextLogNanos = startedNanos + logIntervalMillis * 1_000_000;
+    }
+
+    public void phase(String phase) {
+        this.phase = phase;
+        log.info("{} {}: {}", operation, file, phase);
+    }
+
+    /**
+     * Records bytes of binary COPY data and of the compressed file that have passed since the last
+     * call; called by the copying thread only.
+     */
+    void advance(long dataBytes, long fileBytes) {
+        this.dataBytes += dataBytes;
+        this.fileBytes += fileBytes;
+        long now = System.nanoTime();
+        if (now - nextLogNanos >= 0) {
+            nextLogNanos = now + logIntervalMillis * 1_000_000;
+            log.info("{} {}: {}, {} MB of table data, {} MB of {}{}", operation, file, phase, this.dataBytes >> 20,
+                    this.fileBytes >> 20, file, totalFileBytes < 0 ? "" : " (of " + (totalFileBytes >> 20) + " MB)");
+        }
+    }
+
+    void totalFileBytes(long totalFileBytes) {
+        this.totalFileBytes = totalFileBytes;
+    }
+
+    public void tableCopied(String table, long count) {
+        synchronized (rows) {
+            rows.put(table, count);
+        }
+        log.info("{} {}: {} rows of {} copied", operation, file, count, table);
+    }
+
+    public void complete() {
+        elapsedNanos = System.nanoTime() - startedNanos;
+        completedAt = LocalDateTime.now();
+        status = "COMPLETED";
+        log.info("{} {} completed in {} ms: {} rows, {} MB of table data, {} MB file", operation, file,
+                elapsedMillis(), totalRows(), dataBytes >> 20, fileBytes >> 20);
+    }
+
+    public void fail(String error) {
+        elapsedNanos = System.nanoTime() - startedNanos;
+        completedAt = LocalDateTime.now();
+        this.error = error;
+        status = "FAILED";
+        log.error("{} {} failed after {} ms during {}: {}", operation, file, elapsedMillis(), phase, error);
+    }
+
+    public long elapsedMillis() {
+        long elapsed = elapsedNanos;
+        return (elapsed < 0 ? System.nanoTime() - startedNanos : elapsed) / 1_000_000;
+    }
+
+    public long totalRows() {
+        long total = 0;
+        for (long count : getRows().values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public Map<String, Long> getRows() {
+        synchronized (rows) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(rows));
+        }
+    }
+
+    public long getDataBytes() {
+        return dataBytes;
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    // -1 while writing a snapshot, whose final size is not known yet
+    public long getTotalFileBytes() {
+        return totalFileBytes;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,209 @@
+package com.demoapp.birdapi.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a snapshot file written by {@link SnapshotWriter}, one table at a time: {@link #nextTable()}
+ * moves to the next table, {@link #data()} streams its binary {@code COPY} data, and the row count
+ * recorded by the snapshot is available once that stream is exhausted. The gzip checksum is checked
+ * when {@link #nextTable()} reaches the end. Not thread-safe.
+ */
+public final class SnapshotReader implements Closeable {
+
+    private final SnapshotProgress progress;
+    private final CountingInputStream counted;
+    private final DataInputStream in;
+    private final LocalDateTime createdAt;
+    private long reportedFileBytes;
+
+    private String table;
+    private List<String> columns = Collections.emptyList();
+    private TableInputStream data;
+    private long rows = -1;
+
+    private SnapshotReader(Path file, SnapshotProgress progress) throws IOException {
+        this.progress = progress;
+        this.counted = new CountingInputStream(Files.newInputStream(file));
+        try {
+            this.in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(counted, SnapshotWriter.CHUNK_SIZE), SnapshotWriter.CHUNK_SIZE));
+            if (in.readInt() != SnapshotWriter.MAGIC) {
+                throw new IOException(file + " is not a snapshot");
+            }
+            int version = in.readInt();
+            if (version != SnapshotWriter.VERSION) {
+                throw new IOException(file + " has unsupported snapshot version " + version);
+            }
+            this.createdAt = LocalDateTime.parse(in.readUTF());
+        } catch (IOException e) {
+            counted.close();
+            throw e;
+        }
+        progress.totalFileBytes(Files.size(file));
+    }
+
+    public static SnapshotReader open(Path file, SnapshotProgress progress) throws IOException {
+        return new SnapshotReader(file, progress);
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Moves to the next table, skipping whatever is left of the current one.
+     *
+     * @return false once every table has been read
+     */
+    public boolean nextTable() throws IOException {
+        if (data != null) {
+            data.skipRest();
+        }
+        if (in.readByte() == 0) {
+            // Reading past the end makes the gzip stream verify its checksum and length
+            if (in.read() != -1) {
+                throw new IOException("Unexpected data after the last table");
+            }
+            table = null;
+            data = null;
+            return false;
+        }
+        table = in.readUTF();
+        columns = Collections.unmodifiableList(Arrays.asList(in.readUTF().split(",")));
+        data = new TableInputStream();
+        rows = -1;
+        return true;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * The binary {@code COPY} data of the current table.
+     */
+    public InputStream data() {
+        if (data == null) {
+            throw new IllegalStateException("No current table");
+        }
+        return data;
+    }
+
+    /**
+     * Row count of the current table as recorded by the snapshot; -1 until its data has been read.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void report(long dataBytes) {
+        long fileBytes = counted.count;
+        progress.advance(dataBytes, fileBytes - reportedFileBytes);
+        reportedFileBytes = fileBytes;
+    }
+
+    private final class TableInputStream extends InputStream {
+
+        private int remaining;
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining == 0 && !nextChunk()) {
+                return -1;
+            }
+            int n = in.read(b, off, Math.min(len, remaining));
+            if (n < 0) {
+                throw new IOException("Snapshot ends inside table " + table);
+            }
+            remaining -= n;
+            report(n);
+            return n;
+        }
+
+        // Nothing to release: the chunks belong to the snapshot stream
+        @Override
+        public void close() {
+        }
+
+        private boolean nextChunk() throws IOException {
+            if (ended) {
+                return false;
+            }
+            remaining = in.readInt();
+            if (remaining == 0) {
+                ended = true;
+                rows = in.readLong();
+                return false;
+            }
+            if (remaining < 0) {
+                throw new IOException("Corrupt chunk length " + remaining + " in table " + table);
+            }
+            return true;
+        }
+
+        private void skipRest() throws IOException {
+            byte[] buffer = new byte[SnapshotWriter.CHUNK_SIZE];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // discard
+            }
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
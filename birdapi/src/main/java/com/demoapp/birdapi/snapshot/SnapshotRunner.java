@@ -0,0 +1,46 @@
+package com.demoapp.birdapi.snapshot;
+
+import com.demoapp.birdapi.config.CommandLineMode;
+import com.demoapp.birdapi.service.DatabaseSnapshotService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes or restores a snapshot on startup, e.g. on a production replica
+ * {@code java -jar birdapi.war --birdapi.snapshot.create=prod --spring.main.web-application-type=none}
+ * and on staging, after copying the file into its snapshot directory,
+ * {@code java -jar birdapi.war --birdapi.snapshot.restore=prod --spring.main.web-application-type=none}.
+ * A failure fails the startup. The process exits once the snapshot is written or restored; see
+ * {@link CommandLineMode}.
+ */
+@Component
+@ConditionalOnExpression("'${birdapi.snapshot.create:}' != '' or '${birdapi.snapshot.restore:}' != ''")
+public class SnapshotRunner implements ApplicationRunner {
+
+    private final DatabaseSnapshotService databaseSnapshotService;
+    private final String create;
+    private final String restore;
+
+    public SnapshotRunner(DatabaseSnapshotService databaseSnapshotService,
+                          @Value("${birdapi.snapshot.create:}") String create,
+                          @Value("${birdapi.snapshot.restore:}") String restore) {
+        if (!create.isEmpty() && !restore.isEmpty()) {
+            throw new IllegalArgumentException("Set either birdapi.snapshot.create or birdapi.snapshot.restore, not both");
+        }
+        this.databaseSnapshotService = databaseSnapshotService;
+        this.create = create;
+        this.restore = restore;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!create.isEmpty()) {
+            databaseSnapshotService.snapshot(create);
+        } else {
+            databaseSnapshotService.restore(restore);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.demoapp.birdapi.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a snapshot file: gzip around a header and, per table, its name, its columns and its
+ * binary {@code COPY} output in length-prefixed chunks, followed by the row count. The file is
+ * written under a temporary name and moved into place by {@link #commit()}, so a snapshot that
+ * failed halfway never looks complete. Not thread-safe.
+ */
+public final class SnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x42534E50; // "BSNP"
+    static final int VERSION = 1;
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private final Path file;
+    private final Path tmp;
+    private final SnapshotProgress progress;
+    private final FileChannel channel;
+    private final CountingOutputStream counted;
+    private final GZIPOutputStream gzip;
+    private final DataOutputStream out;
+    private long reportedFileBytes;
+    private boolean committed;
+
+    private SnapshotWriter(Path file, int compressionLevel, SnapshotProgress progress) throws IOException {
+        this.file = file;
+        this.tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        this.progress = progress;
+        this.channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.counted = new CountingOutputStream(Channels.newOutputStream(channel));
+        this.gzip = new GZIPOutputStream(counted, CHUNK_SIZE) {
+            {
+                def.setLevel(compressionLevel);
+            }
+        };
+        this.out = new DataOutputStream(new BufferedOutputStream(gzip, CHUNK_SIZE));
+    }
+
+    /**
+     * Starts a snapshot at {@code file}; {@code compressionLevel} is a {@link Deflater} level.
+     */
+    public static SnapshotWriter create(Path file, int compressionLevel, SnapshotProgress progress) throws IOException {
+        if (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9");
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        SnapshotWriter writer = new SnapshotWriter(file, compressionLevel, progress);
+        writer.out.writeInt(MAGIC);
+        writer.out.writeInt(VERSION);
+        writer.out.writeUTF(LocalDateTime.now().toString());
+        return writer;
+    }
+
+    /**
+     * Stream for the binary {@code COPY} output of one table. Closing it ends the table; the row
+     * count reported by {@code COPY} follows through {@link #endTable}.
+     */
+    public OutputStream beginTable(String table, List<String> columns) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(table);
+        out.writeUTF(String.join(",", columns));
+        return new TableOutputStream();
+    }
+
+    public void endTable(long rows) throws IOException {
+        out.writeLong(rows);
+        report(0);
+    }
+
+    /**
+     * Ends the snapshot and moves it into place, replacing any file of the same name.
+     */
+    public void commit() throws IOException {
+        out.writeByte(0);
+        out.flush();
+        gzip.finish();
+        channel.force(true);
+        out.close();
+        report(0);
+        committed = true;
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Without a commit the partial file is deleted
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private void report(long dataBytes) {
+        long fileBytes = counted.count;
+        progress.advance(dataBytes, fileBytes - reportedFileBytes);
+        reportedFileBytes = fileBytes;
+    }
+
+    // COPY hands over one row per write; rows are gathered into chunks of CHUNK_SIZE bytes
+    private final class TableOutputStream extends OutputStream {
+
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int length;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == buffer.length) {
+                flushChunk();
+            }
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (length == buffer.length) {
+                    flushChunk();
+                }
+                int n = Math.min(len, buffer.length - length);
+                System.arraycopy(b, off, buffer, length, n);
+                length += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                flushChunk();
+                out.writeInt(0);
+            }
+        }
+
+        private void flushChunk() throws IOException {
+            if (length > 0) {
+                out.writeInt(length);
+                out.write(buffer, 0, length);
+                report(length);
+                length = 0;
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
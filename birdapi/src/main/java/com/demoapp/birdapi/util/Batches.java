@@ -0,0 +1,34 @@
+package com.demoapp.birdapi.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Splits id and name lists for IN clauses and multi-row statements; shared by services and repositories
+public final class Batches {
+
+    // Keeps IN lists well below the PostgreSQL bind parameter limit (32767)
+    public static final int MAX_IN_LIST = 1000;
+
+    private Batches() {
+    }
+
+    public static <T> List<T> distinct(Collection<T> values) {
+        return new ArrayList<>(new LinkedHashSet<>(values));
+    }
+
+    // Chunks of at most MAX_IN_LIST values
+    public static <T> List<List<T>> partition(Collection<T> values) {
+        return partition(values, MAX_IN_LIST);
+    }
+
+    public static <T> List<List<T>> partition(Collection<T> values, int size) {
+        List<T> list = values instanceof List ? (List<T>) values : new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += size) {
+            chunks.add(list.subList(from, Math.min(from + size, list.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,63 @@
+-- Runs after Hibernate has created/updated the tables (spring.jpa.defer-datasource-initialization=true)
+
+-- Natural key used by the bulk bird upsert (INSERT ... ON CONFLICT). Birds stored before the key existed may
+-- differ only in case; the index cannot be built over them, so startup stops here naming the pairs to merge.
+-- The block is a single-quoted string because the script is split on semicolons outside of quotes.
+DO '
+DECLARE
+    duplicates bigint;
+    example text;
+BEGIN
+    IF to_regclass(''ux_birds_natural_key'') IS NULL THEN
+        SELECT COUNT(*), MIN(name_key || '' / '' || color_key) INTO duplicates, example
+        FROM (SELECT lower(name) AS name_key, lower(color) AS color_key
+              FROM birds GROUP BY lower(name), lower(color) HAVING COUNT(*) > 1) d;
+        IF duplicates > 0 THEN
+            RAISE EXCEPTION ''Cannot create ux_birds_natural_key: % (name, color) pairs occur more than once ignoring case, e.g. %. Merge or rename those birds, then restart.'', duplicates, example;
+        END IF;
+    END IF;
+END';
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_birds_natural_key ON birds (lower(name), lower(color));
+
+-- Bird lists sorted by popularity (?sort=sightingCount,desc&sort=id,desc) walk this index instead of sorting
+CREATE INDEX IF NOT EXISTS ix_birds_sighting_count_id ON birds (sighting_count, id);
+
+-- Per-bird COUNT and MAX of the counter reconciliation and last-seen refresh, answered from the index alone
+CREATE INDEX IF NOT EXISTS ix_sightings_bird_id_date_time ON sightings (bird_id, date_time);
+
+-- Oldest-first chunks of the retention purge, continued after the last (date_time, id) deleted
+CREATE INDEX IF NOT EXISTS ix_sightings_date_time_id ON sightings (date_time, id);
+
+-- Read model behind sighting lists and searches: bird-name filter with id order, bird fan-out, date range,
+-- and the location filter once resolved against the dictionary
+CREATE INDEX IF NOT EXISTS ix_sighting_view_bird_name_id ON sighting_view (bird_name, id);
+CREATE INDEX IF NOT EXISTS ix_sighting_view_bird_id ON sighting_view (bird_id);
+CREATE INDEX IF NOT EXISTS ix_sighting_view_date_time ON sighting_view (date_time);
+CREATE INDEX IF NOT EXISTS ix_sighting_view_location_id ON sighting_view (location_id);
+
+-- One-time fill of the dictionaries and the read model for sightings written before they existed
+INSERT INTO locations (name)
+SELECT DISTINCT location FROM sightings
+WHERE NOT EXISTS (SELECT 1 FROM sighting_view)
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO colors (name)
+SELECT DISTINCT color FROM birds
+WHERE NOT EXISTS (SELECT 1 FROM sighting_view)
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO sighting_view (id, bird_id, bird_name, bird_color_id, bird_weight, bird_height, location_id, date_time, report_count)
+SELECT s.id, s.bird_id, b.name, c.id, b.weight, b.height, l.id, s.date_time, s.report_count
+FROM sightings s
+JOIN birds b ON b.id = s.bird_id
+JOIN colors c ON c.name = b.color
+JOIN locations l ON l.name = s.location
+WHERE NOT EXISTS (SELECT 1 FROM sighting_view);
+
+-- One-time fill of the latest sighting of each bird, for sightings written before the table existed
+INSERT INTO latest_sightings (bird_id, sighting_id, location, date_time)
+SELECT DISTINCT ON (s.bird_id) s.bird_id, s.id, s.location, s.date_time
+FROM sightings s
+WHERE NOT EXISTS (SELECT 1 FROM latest_sightings)
+ORDER BY s.bird_id, s.date_time DESC, s.id DESC;
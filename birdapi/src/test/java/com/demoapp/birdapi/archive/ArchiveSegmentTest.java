@@ -0,0 +1,93 @@
+package com.demoapp.birdapi.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveSegmentTest {
+
+    private static final LocalDateTime TEN_THIRTY = LocalDateTime.of(2020, 1, 15, 10, 30, 15, 123_000_000);
+
+    @TempDir
+    Path directory;
+
+    private static List<ArchivedSighting> rows() {
+        return Arrays.asList(
+                new ArchivedSighting(12L, 1L, "Sparrow", "Brown", 10.5, 12.0, "Central Park", TEN_THIRTY, 1),
+                new ArchivedSighting(9L, 2L, "Eagle", "Black", 50.0, 80.0, "Gr\u00fcnwald", TEN_THIRTY.plusDays(1), 3),
+                new ArchivedSighting(15L, 1L, "Sparrow", "Brown", 10.5, 12.0, "Central Park North", TEN_THIRTY.plusDays(2), 1));
+    }
+
+    @Test
+    void write_thenOpen_shouldReadBackRowsAndStatistics() throws IOException {
+        // Arrange
+        Path file = directory.resolve("segment-0000000001.bsa");
+        ArchiveSegment.write(file, rows());
+
+        // Act
+        ArchiveSegment segment = ArchiveSegment.open(file);
+
+        // Assert
+        assertEquals(rows(), segment.readAll());
+        assertEquals(3, segment.getRowCount());
+        assertEquals(9L, segment.getMinId());
+        assertEquals(15L, segment.getMaxId());
+        assertEquals(TEN_THIRTY, segment.getMinDateTime());
+        assertEquals(TEN_THIRTY.plusDays(2), segment.getMaxDateTime());
+    }
+
+    @Test
+    void mayContain_shouldRuleOutSegmentByDateRangeAndDictionaries() throws IOException {
+        // Arrange
+        ArchiveSegment segment = ArchiveSegment.write(directory.resolve("segment-0000000001.bsa"), rows());
+
+        // Act & Assert
+        assertTrue(segment.mayContain(null, null, TEN_THIRTY.plusDays(2), null));
+        assertFalse(segment.mayContain(null, null, TEN_THIRTY.plusDays(3), null));
+        assertFalse(segment.mayContain(null, null, null, TEN_THIRTY.minusSeconds(1)));
+        assertTrue(segment.mayContain("Eagle", "gr\u00fcn", null, null));
+        assertFalse(segment.mayContain("Owl", null, null, null));
+        assertFalse(segment.mayContain(null, "Lake", null, null));
+    }
+
+    @Test
+    void forEachMatching_shouldApplySearchFiltersToRows() throws IOException {
+        // Arrange
+        ArchiveSegment segment = ArchiveSegment.write(directory.resolve("segment-0000000001.bsa"), rows());
+        List<ArchivedSighting> found = new ArrayList<>();
+
+        // Act
+        int matched = segment.forEachMatching("Sparrow", "park", TEN_THIRTY.plusSeconds(1), null, found::add);
+
+        // Assert
+        assertEquals(1, matched);
+        assertThat(found).extracting(ArchivedSighting::getId).containsExactly(15L);
+    }
+
+    @Test
+    void open_withCorruptedByte_shouldFailChecksum() throws IOException {
+        // Arrange
+        Path file = directory.resolve("segment-0000000001.bsa");
+        ArchiveSegment.write(file, rows());
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() / 2);
+            int value = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(value ^ 0xFF);
+        }
+
+        // Act & Assert
+        IOException exception = assertThrows(IOException.class, () -> ArchiveSegment.open(file));
+        assertTrue(exception.getMessage().contains("checksum"));
+    }
+}
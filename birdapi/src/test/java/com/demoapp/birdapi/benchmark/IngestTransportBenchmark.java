@@ -0,0 +1,147 @@
+package com.demoapp.birdapi.benchmark;
+
+import com.demoapp.birdapi.grpc.GrpcServerLifecycle;
+import com.demoapp.birdapi.grpc.proto.IngestSummary;
+import com.demoapp.birdapi.grpc.proto.Sighting;
+import com.demoapp.birdapi.grpc.proto.SightingStreamGrpc;
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.repository.BirdRepository;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares sighting ingest over REST (one {@code POST /api/sightings} per sighting, keep-alive)
+ * with one client-streaming gRPC call, both against the same in-memory database on localhost.
+ * Not part of the regular test run; start it explicitly:
+ * <pre>
+ * mvn test -Dtest=IngestTransportBenchmark -Dbirdapi.benchmark.rows=20000
+ * </pre>
+ * Each transport gets a warm-up round first. Results are printed as rows/s.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.demoapp=WARN")
+class IngestTransportBenchmark {
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final int rows = Integer.getInteger("birdapi.benchmark.rows", 5000);
+    private final int warmupRows = Math.max(rows / 10, 100);
+
+    @LocalServerPort
+    private int httpPort;
+
+    @Autowired
+    private GrpcServerLifecycle grpcServer;
+
+    @Autowired
+    private BirdRepository birdRepository;
+
+    // Minutes apart per row, so near-duplicate suppression never merges benchmark rows
+    private LocalDateTime nextDateTime = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Test
+    void compareRestAndGrpcIngest() throws Exception {
+        long birdId = birdRepository.save(new Bird("Benchmark Sparrow", "Brown", 10.0, 5.0)).getId();
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", grpcServer.getPort()).usePlaintext().build();
+        try {
+            rest(http, birdId, warmupRows);
+            grpc(channel, birdId, warmupRows);
+
+            long restNanos = rest(http, birdId, rows);
+            long grpcNanos = grpc(channel, birdId, rows);
+
+            System.out.printf("%nIngest of %d sightings on localhost%n", rows);
+            System.out.printf("  REST POST /api/sightings : %8d ms %10d rows/s%n", restNanos / 1_000_000, rowsPerSecond(restNanos));
+            System.out.printf("  gRPC IngestSightings     : %8d ms %10d rows/s%n%n", grpcNanos / 1_000_000, rowsPerSecond(grpcNanos));
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    private long rest(HttpClient http, long birdId, int count) throws Exception {
+        URI uri = URI.create("http://localhost:" + httpPort + "/api/sightings");
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            String body = "{\"birdId\":" + birdId + ",\"location\":\"Benchmark Park\",\"dateTime\":\"" + nextDateTime() + "\"}";
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            assertEquals(201, response.statusCode());
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Sends only while the stream is ready, so the client honours the server's flow-control window
+    private long grpc(ManagedChannel channel, long birdId, int count) throws Exception {
+        CompletableFuture<IngestSummary> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+        SightingStreamGrpc.newStub(channel).ingestSightings(new ClientResponseObserver<Sighting, IngestSummary>() {
+            private int sent;
+
+            @Override
+            public void beforeStart(ClientCallStreamObserver<Sighting> requests) {
+                requests.setOnReadyHandler(() -> {
+                    while (requests.isReady() && sent < count) {
+                        requests.onNext(Sighting.newBuilder()
+                                .setBirdId(birdId)
+                                .setLocation("Benchmark Park")
+                                .setDateTime(nextDateTime())
+                                .build());
+                        sent++;
+                    }
+                    if (sent == count) {
+                        sent++;
+                        requests.onCompleted();
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(IngestSummary summary) {
+                result.complete(summary);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        IngestSummary summary = result.get(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        assertEquals(count, summary.getRowsImported());
+        return elapsed;
+    }
+
+    private synchronized String nextDateTime() {
+        nextDateTime = nextDateTime.plusMinutes(1);
+        return DATE_TIME_FORMAT.format(nextDateTime);
+    }
+
+    private long rowsPerSecond(long nanos) {
+        return nanos > 0 ? rows * 1_000_000_000L / nanos : 0;
+    }
+}
@@ -0,0 +1,151 @@
+package com.demoapp.birdapi.benchmark;
+
+import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.repository.BirdRepository;
+import com.demoapp.birdapi.service.SightingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures point reads ({@code GET /api/birds/{id}}) while slow searches
+ * ({@code GET /api/sightings/search} with a leading-wildcard location) run concurrently, on a
+ * deliberately small Tomcat pool. Not part of the regular test run; start it once per mode and
+ * compare:
+ * <pre>
+ * mvn test -Dtest=MixedLoadBenchmark
+ * mvn test -Dtest=MixedLoadBenchmark -Dbirdapi.async.enabled=false
+ * </pre>
+ * With the database executor the searches queue on their own pool and the point reads keep their
+ * Tomcat threads; inline, the searches occupy the Tomcat threads and the point reads wait behind
+ * them. Results are printed as requests/s and latency percentiles per request type.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"logging.level.com.demoapp=WARN", "server.tomcat.threads.max=8"})
+class MixedLoadBenchmark {
+
+    private final int sightings = Integer.getInteger("birdapi.benchmark.rows", 20000);
+    private final int searchClients = Integer.getInteger("birdapi.benchmark.search-clients", 16);
+    private final int readClients = Integer.getInteger("birdapi.benchmark.read-clients", 4);
+    private final long durationMillis = Long.getLong("birdapi.benchmark.duration-ms", 20000);
+
+    @LocalServerPort
+    private int httpPort;
+
+    @Value("${birdapi.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Autowired
+    private BirdRepository birdRepository;
+
+    @Autowired
+    private SightingService sightingService;
+
+    @Test
+    void pointReadsUnderSearchLoad() throws Exception {
+        long birdId = seed();
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI search = URI.create("http://localhost:" + httpPort + "/api/sightings/search?location=Meadow&size=50");
+        URI read = URI.create("http://localhost:" + httpPort + "/api/birds/" + birdId);
+
+        run(http, search, read, Math.max(durationMillis / 5, 2000));
+        List<List<Long>> results = run(http, search, read, durationMillis);
+
+        System.out.printf("%nMixed load for %d ms, %d sightings, async=%s%n", durationMillis, sightings, asyncEnabled);
+        print("search     x" + searchClients, results.get(0));
+        print("point read x" + readClients, results.get(1));
+        System.out.println();
+    }
+
+    private long seed() {
+        long birdId = birdRepository.save(new Bird("Benchmark Sparrow", "Brown", 10.0, 5.0)).getId();
+        LocalDateTime dateTime = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<SightingDTO> batch = new ArrayList<>();
+        for (int i = 0; i < sightings; i++) {
+            SightingDTO sighting = new SightingDTO();
+            sighting.setBirdId(birdId);
+            sighting.setLocation("Meadow " + (i % 500));
+            sighting.setDateTime(dateTime.plusMinutes(i));
+            batch.add(sighting);
+            if (batch.size() == 1000) {
+                sightingService.createSightings(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            sightingService.createSightings(batch);
+        }
+        return birdId;
+    }
+
+    // Returns the latencies (nanos) of the search clients and of the point-read clients
+    private List<List<Long>> run(HttpClient http, URI search, URI read, long millis) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(searchClients + readClients);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        try {
+            List<Future<List<Long>>> searches = new ArrayList<>();
+            List<Future<List<Long>>> reads = new ArrayList<>();
+            for (int i = 0; i < searchClients; i++) {
+                searches.add(clients.submit(() -> loop(http, search, deadline)));
+            }
+            for (int i = 0; i < readClients; i++) {
+                reads.add(clients.submit(() -> loop(http, read, deadline)));
+            }
+            return Arrays.asList(collect(searches), collect(reads));
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private List<Long> loop(HttpClient http, URI uri, long deadline) throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 200) {
+                latencies.add(System.nanoTime() - start);
+            }
+        }
+        return latencies;
+    }
+
+    private List<Long> collect(List<Future<List<Long>>> futures) throws Exception {
+        List<Long> all = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            all.addAll(future.get());
+        }
+        all.sort(null);
+        return all;
+    }
+
+    private void print(String label, List<Long> latencies) {
+        long perSecond = latencies.size() * 1000L / durationMillis;
+        System.out.printf("  %-16s : %8d req/s  p50 %6d ms  p99 %6d ms%n", label, perSecond,
+                percentile(latencies, 50), percentile(latencies, 99));
+    }
+
+    private long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = Math.min(sorted.size() - 1, sorted.size() * percentile / 100);
+        return sorted.get(index) / 1_000_000;
+    }
+}
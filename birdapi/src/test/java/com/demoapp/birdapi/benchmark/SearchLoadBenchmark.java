@@ -0,0 +1,109 @@
+package com.demoapp.birdapi.benchmark;
+
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.repository.BirdRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same search load as the reactive module's {@code SearchLoadBenchmark}: the same rows in
+ * an embedded H2 database, the same query and the same closed-loop clients. Not part of the regular
+ * test run; start both and compare:
+ * <pre>
+ * (cd birdapi-reactive &amp;&amp; mvn test -Dtest=SearchLoadBenchmark)
+ * (cd birdapi &amp;&amp; mvn test -Dtest=SearchLoadBenchmark)
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.demoapp=WARN")
+class SearchLoadBenchmark {
+
+    private final int rows = Integer.getInteger("birdapi.benchmark.rows", 20000);
+    private final int clients = Integer.getInteger("birdapi.benchmark.clients", 64);
+    private final long durationMillis = Long.getLong("birdapi.benchmark.duration-ms", 20000);
+
+    @LocalServerPort
+    private int httpPort;
+
+    @Autowired
+    private BirdRepository birdRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SightingViewJdbcRepository sightingViewJdbcRepository;
+
+    @Test
+    void searchUnderLoad() throws Exception {
+        long birdId = birdRepository.save(new Bird("Benchmark Sparrow", "Brown", 10.0, 5.0)).getId();
+        jdbcTemplate.update("INSERT INTO sightings (bird_id, location, date_time, report_count)"
+                + " SELECT ?, CONCAT('Meadow ', MOD(X, 500)), DATEADD('MINUTE', X, TIMESTAMP '2020-01-01 00:00:00'), 1"
+                + " FROM SYSTEM_RANGE(1, ?)", birdId, rows);
+        sightingViewJdbcRepository.insertFromSightings(jdbcTemplate.queryForList("SELECT id FROM sightings", Long.class));
+        URI uri = URI.create("http://localhost:" + httpPort + "/api/sightings/search?location=meadow%2012&size=20");
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        run(http, uri, Math.max(durationMillis / 5, 2000));
+        List<Long> latencies = run(http, uri, durationMillis);
+
+        System.out.printf("%nServlet/JPA GET /api/sightings/search, %d rows, %d clients, %d ms%n", rows, clients, durationMillis);
+        System.out.printf("  %8d req/s  p50 %6d ms  p99 %6d ms%n%n", latencies.size() * 1000L / durationMillis,
+                percentile(latencies, 50), percentile(latencies, 99));
+    }
+
+    private List<Long> run(HttpClient http, URI uri, long millis) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(pool.submit(() -> loop(http, uri, deadline)));
+            }
+            List<Long> all = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                all.addAll(future.get());
+            }
+            all.sort(null);
+            return all;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Long> loop(HttpClient http, URI uri, long deadline) throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", "application/json").GET().build();
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 200) {
+                latencies.add(System.nanoTime() - start);
+            }
+        }
+        return latencies;
+    }
+
+    private long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = Math.min(sorted.size() - 1, sorted.size() * percentile / 100);
+        return sorted.get(index) / 1_000_000;
+    }
+}
@@ -0,0 +1,144 @@
+package com.demoapp.birdapi.benchmark;
+
+import com.demoapp.birdapi.BirdapiApplication;
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.model.Sighting;
+import com.demoapp.birdapi.model.SightingView;
+import com.demoapp.birdapi.repository.BirdRepository;
+import com.demoapp.birdapi.repository.SightingRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.repository.SightingViewRepository;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.criteria.Predicate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of one sighting search page through the per-request Criteria
+ * {@link Specification} the service used to build with the precompiled JPQL variant
+ * {@link SightingViewRepository#search} now picks over the read model, on the same embedded H2 data. {@code filters} is the
+ * bitmask of filters set: 1 bird name, 2 location, 4 from date, 8 to date. Not part of the regular
+ * test run:
+ * <pre>
+ * mvn test -Dtest=SightingSearchBenchmark
+ * mvn test -Dtest=SightingSearchBenchmark -Dbirdapi.benchmark.profiler=gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SightingSearchBenchmark {
+
+    private static final LocalDateTime FROM_DATE = LocalDateTime.of(2020, 1, 3, 0, 0);
+    private static final LocalDateTime TO_DATE = LocalDateTime.of(2020, 1, 10, 0, 0);
+
+    @Param({"0", "2", "15"})
+    public int filters;
+
+    private ConfigurableApplicationContext context;
+    private SightingRepository sightingRepository;
+    private SightingViewRepository sightingViewRepository;
+    private Pageable pageable;
+    private String birdName;
+    private String location;
+    private LocalDateTime fromDate;
+    private LocalDateTime toDate;
+
+    @Test
+    void searchVariants() throws Exception {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(SightingSearchBenchmark.class.getName() + "\\.");
+        String profiler = System.getProperty("birdapi.benchmark.profiler");
+        if (profiler != null) {
+            options.addProfiler(profiler);
+        }
+        new Runner(options.build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BirdapiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN", "logging.level.com.demoapp=WARN", "spring.jpa.show-sql=false")
+                .run();
+        sightingRepository = context.getBean(SightingRepository.class);
+        sightingViewRepository = context.getBean(SightingViewRepository.class);
+        long birdId = context.getBean(BirdRepository.class).save(new Bird("Benchmark Sparrow", "Brown", 10.0, 5.0)).getId();
+        context.getBean(JdbcTemplate.class).update("INSERT INTO sightings (bird_id, location, date_time, report_count)"
+                + " SELECT ?, CONCAT('Meadow ', MOD(X, 500)), DATEADD('MINUTE', X, TIMESTAMP '2020-01-01 00:00:00'), 1"
+                + " FROM SYSTEM_RANGE(1, ?)", birdId, Integer.getInteger("birdapi.benchmark.rows", 20000));
+        context.getBean(SightingViewJdbcRepository.class).insertFromSightings(
+                context.getBean(JdbcTemplate.class).queryForList("SELECT id FROM sightings", Long.class));
+
+        pageable = PageRequest.of(0, 20, Sort.by("id"));
+        birdName = (filters & 1) != 0 ? "Benchmark Sparrow" : null;
+        location = (filters & 2) != 0 ? "meadow 12" : null;
+        fromDate = (filters & 4) != 0 ? FROM_DATE : null;
+        toDate = (filters & 8) != 0 ? TO_DATE : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Sighting> criteriaSpecification() {
+        return sightingRepository.findAll(criteria(birdName, location, fromDate, toDate), pageable);
+    }
+
+    @Benchmark
+    public Page<SightingView> precompiledVariant() {
+        return sightingViewRepository.search(birdName, location, fromDate, toDate, pageable);
+    }
+
+    // The specification SightingService built for every search before the precompiled variants
+    private static Specification<Sighting> criteria(String birdName, String location, LocalDateTime fromDate, LocalDateTime toDate) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (birdName != null && !birdName.isEmpty()) {
+                predicates.add(cb.equal(root.get("bird").get("name"), birdName));
+            }
+            if (location != null && !location.isEmpty()) {
+                predicates.add(cb.like(cb.lower(root.get("location").as(String.class)), "%" + location.toLowerCase() + "%"));
+            }
+            if (fromDate != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dateTime").as(LocalDateTime.class), fromDate));
+            }
+            if (toDate != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dateTime").as(LocalDateTime.class), toDate));
+            }
+            return predicates.isEmpty() ? cb.conjunction() : cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
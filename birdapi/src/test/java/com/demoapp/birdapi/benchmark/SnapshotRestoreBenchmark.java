@@ -0,0 +1,96 @@
+package com.demoapp.birdapi.benchmark;
+
+import com.demoapp.birdapi.dto.SnapshotStatusDTO;
+import com.demoapp.birdapi.service.DatabaseSnapshotService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures snapshot and restore throughput of {@link DatabaseSnapshotService}. Binary COPY needs
+ * PostgreSQL, so this runs against a real database instead of the embedded H2 of the other tests.
+ * Give it a database of its own: every round replaces all birds and sightings in it. Not part of
+ * the regular test run; start it explicitly:
+ * <pre>
+ * mvn test -Dtest=SnapshotRestoreBenchmark -Dbirdapi.benchmark.rows=1000000 \
+ *     -Dbirdapi.benchmark.datasource.url=jdbc:postgresql://localhost:5432/birds_benchmark
+ * mvn test -Dtest=SnapshotRestoreBenchmark -Dbirdapi.snapshot.compression-level=6
+ * </pre>
+ * Rows are generated in the database; a warm-up round on a tenth of them runs first. Results are
+ * printed as rows/s and MB/s of binary COPY data.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${birdapi.benchmark.datasource.url:jdbc:postgresql://localhost:5432/birds_benchmark}",
+        "spring.datasource.username=${birdapi.benchmark.datasource.username:postgres}",
+        "spring.datasource.password=${birdapi.benchmark.datasource.password:postgres}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.platform=postgresql",
+        "spring.jpa.defer-datasource-initialization=true",
+        "birdapi.snapshot.dir=${java.io.tmpdir}/birdapi-benchmark/snapshots",
+        "logging.level.com.demoapp=WARN"})
+class SnapshotRestoreBenchmark {
+
+    private static final int BIRDS = 500;
+
+    private final int rows = Integer.getInteger("birdapi.benchmark.rows", 200_000);
+    private final int warmupRows = Math.max(rows / 10, 1000);
+
+    @Autowired
+    private DatabaseSnapshotService databaseSnapshotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void snapshotAndRestoreThroughput() {
+        round(warmupRows, false);
+        round(rows, true);
+    }
+
+    private void round(int count, boolean print) {
+        seed(count);
+
+        SnapshotStatusDTO snapshot = databaseSnapshotService.snapshot("benchmark");
+        // Restoring over different data shows the full cost of emptying the tables first
+        jdbcTemplate.update("UPDATE sightings SET report_count = report_count + 1");
+        SnapshotStatusDTO restore = databaseSnapshotService.restore("benchmark");
+
+        assertEquals("COMPLETED", restore.getStatus());
+        assertEquals(count, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sighting_view", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sightings WHERE report_count <> 1", Long.class));
+
+        if (print) {
+            long total = BIRDS + count;
+            System.out.printf("%nSnapshot of %d birds and %d sightings, %d MB of table data, %d MB compressed%n",
+                    BIRDS, count, snapshot.getDataBytes() >> 20, snapshot.getFileBytes() >> 20);
+            print("snapshot", snapshot, total);
+            print("restore ", restore, total);
+            System.out.println();
+        }
+    }
+
+    private static void print(String operation, SnapshotStatusDTO status, long total) {
+        long millis = Math.max(status.getElapsedMillis(), 1);
+        System.out.printf("  %s : %8d ms %10d rows/s %8.1f MB/s%n", operation, millis, total * 1000 / millis,
+                status.getDataBytes() / 1048576.0 * 1000 / millis);
+    }
+
+    private void seed(int count) {
+        jdbcTemplate.execute("TRUNCATE sightings, birds, sighting_view, latest_sightings");
+        jdbcTemplate.update("INSERT INTO birds (name, color, weight, height)" +
+                " SELECT 'Benchmark Bird ' || g, 'Color ' || (g % 20), 10 + g % 90, 5 + g % 40 FROM generate_series(1, ?) g", BIRDS);
+        jdbcTemplate.update("INSERT INTO sightings (bird_id, location, date_time, report_count)" +
+                " SELECT b.min_id + g % ?, 'Meadow ' || (g % 5000), TIMESTAMP '2020-01-01' + g * INTERVAL '1 minute', 1" +
+                " FROM generate_series(1, ?) g, (SELECT MIN(id) AS min_id FROM birds) b", BIRDS, count);
+        jdbcTemplate.update("UPDATE birds b SET sighting_count = s.count, last_seen = s.last_seen" +
+                " FROM (SELECT bird_id, COUNT(*) AS count, MAX(date_time) AS last_seen FROM sightings GROUP BY bird_id) s" +
+                " WHERE s.bird_id = b.id");
+        jdbcTemplate.execute("ANALYZE birds, sightings");
+    }
+}
@@ -0,0 +1,136 @@
+package com.demoapp.birdapi.benchmark;
+
+import com.demoapp.birdapi.config.VirtualThreadSupport;
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.repository.BirdRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Drives {@code GET /api/birds/{id}} with 1k, 5k and 10k concurrent keep-alive clients and reports
+ * throughput, peak live threads and peak heap for each level. Not part of the regular test run;
+ * start it once with platform threads and once on Java 21 with the {@code virtual-threads} profile:
+ * <pre>
+ * mvn test -Dtest=VirtualThreadLoadBenchmark
+ * mvn test -Dtest=VirtualThreadLoadBenchmark -Dspring.profiles.active=virtual-threads
+ * </pre>
+ * Both runs use the same connection limits, so only the threading model differs. Client and server
+ * share one JVM, so the thread and heap figures include the client; compare the two runs, not the
+ * absolute values. Large levels need a raised open-file limit ({@code ulimit -n}).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"logging.level.com.demoapp=WARN", "server.tomcat.max-connections=20000", "server.tomcat.accept-count=1000"})
+class VirtualThreadLoadBenchmark {
+
+    private final List<Integer> levels = Arrays.stream(System.getProperty("birdapi.benchmark.clients", "1000,5000,10000").split(","))
+            .map(String::trim)
+            .map(Integer::valueOf)
+            .collect(Collectors.toList());
+    private final long durationMillis = Long.getLong("birdapi.benchmark.duration-ms", 20000);
+
+    @LocalServerPort
+    private int httpPort;
+
+    @Autowired
+    private VirtualThreadSupport virtualThreads;
+
+    @Autowired
+    private BirdRepository birdRepository;
+
+    @Test
+    void compareThreadModels() throws Exception {
+        long birdId = birdRepository.save(new Bird("Benchmark Sparrow", "Brown", 10.0, 5.0)).getId();
+        URI uri = URI.create("http://localhost:" + httpPort + "/api/birds/" + birdId);
+
+        run(uri, levels.get(0), Math.max(durationMillis / 5, 2000));
+
+        System.out.printf("%nGET /api/birds/{id}, %d ms per level, virtual threads=%s%n", durationMillis, virtualThreads.isEnabled());
+        for (int clients : levels) {
+            System.gc();
+            Result result = run(uri, clients, durationMillis);
+            System.out.printf("  %6d clients : %8d req/s  %6d errors  peak threads %6d  peak heap %6d MB%n",
+                    clients, result.completed * 1000 / durationMillis, result.errors, result.peakThreads, result.peakHeapBytes >> 20);
+        }
+        System.out.println();
+    }
+
+    // Each client sends its next request as soon as the previous one completes, until the deadline
+    private Result run(URI uri, int clients, long millis) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        threads.resetPeakThreadCount();
+
+        Result result = new Result();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> result.sampleHeap(memory.getHeapMemoryUsage().getUsed()), 0, 100, TimeUnit.MILLISECONDS);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        CountDownLatch finished = new CountDownLatch(clients);
+        try {
+            for (int i = 0; i < clients; i++) {
+                send(http, request, deadline, result, finished);
+            }
+            finished.await(millis + TimeUnit.MINUTES.toMillis(2), TimeUnit.MILLISECONDS);
+        } finally {
+            sampler.shutdownNow();
+        }
+        result.completed = result.completedCounter.get();
+        result.errors = result.errorCounter.get();
+        result.peakThreads = threads.getPeakThreadCount();
+        result.peakHeapBytes = result.peakHeap.get();
+        return result;
+    }
+
+    private void send(HttpClient http, HttpRequest request, long deadline, Result result, CountDownLatch finished) {
+        if (System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error == null && response.statusCode() == 200) {
+                result.completedCounter.incrementAndGet();
+            } else {
+                result.errorCounter.incrementAndGet();
+            }
+            send(http, request, deadline, result, finished);
+        });
+    }
+
+    private static final class Result {
+        private final AtomicLong completedCounter = new AtomicLong();
+        private final AtomicLong errorCounter = new AtomicLong();
+        private final AtomicLong peakHeap = new AtomicLong();
+        private long completed;
+        private long errors;
+        private long peakThreads;
+        private long peakHeapBytes;
+
+        private void sampleHeap(long used) {
+            peakHeap.accumulateAndGet(used, Math::max);
+        }
+    }
+}
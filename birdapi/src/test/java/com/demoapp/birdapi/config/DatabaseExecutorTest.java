@@ -0,0 +1,142 @@
+package com.demoapp.birdapi.config;
+
+import com.demoapp.birdapi.config.DatabaseExecutor.Workload;
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import com.demoapp.birdapi.limit.ConcurrencyLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseExecutorTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DatabaseExecutor databaseExecutor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (databaseExecutor != null) {
+            databaseExecutor.destroy();
+        }
+    }
+
+    // Pool of 6 connections, 2 reserved: one export thread with no queue, three search threads
+    private DatabaseExecutor databaseExecutor(long searchTimeoutMillis) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", meterRegistry);
+        databaseExecutor = new DatabaseExecutor(beans.getBeanProvider(VirtualThreadSupport.class),
+                beans.getBeanProvider(MeterRegistry.class), environment,
+                true, 6, 2, 0, 0, 10, 0, searchTimeoutMillis, 60000);
+        return databaseExecutor;
+    }
+
+    @Test
+    void submit_whileExportBulkheadIsFull_shouldStillRunSearches() throws Exception {
+        // Arrange
+        DatabaseExecutor executor = databaseExecutor(30000);
+        executor.submit("sightings.export", Workload.EXPORT, this::awaitRelease);
+
+        // Act
+        ServiceUnavailableException rejected = assertThrows(ServiceUnavailableException.class,
+                () -> executor.submit("sightings.export", Workload.EXPORT, this::awaitRelease));
+        String searchThread = executor.submit("sightings.search", Workload.SEARCH, () -> Thread.currentThread().getName())
+                .get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("Too many export requests in progress", rejected.getMessage());
+        assertTrue(searchThread.startsWith("db-search-"), searchThread);
+        assertEquals(1.0, meterRegistry.get("birdapi.bulkhead.rejected").tag("workload", "export").counter().count());
+    }
+
+    @Test
+    void submit_whenRejected_shouldMarkRequestAsShed() {
+        // Arrange
+        DatabaseExecutor executor = databaseExecutor(30000);
+        executor.submit("sightings.export", Workload.EXPORT, this::awaitRelease);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sightings/export");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // Act
+        try {
+            assertThrows(ServiceUnavailableException.class,
+                    () -> executor.submit("sightings.export", Workload.EXPORT, this::awaitRelease));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        // Assert
+        assertEquals(Boolean.TRUE, request.getAttribute(ConcurrencyLimitInterceptor.SHED_ATTRIBUTE));
+    }
+
+    @Test
+    void submit_withEndpointOverride_shouldRunInline() throws Exception {
+        // Arrange
+        environment.setProperty("birdapi.async.endpoints.birds.search", "inline");
+        DatabaseExecutor executor = databaseExecutor(30000);
+
+        // Act
+        String thread = executor.submit("birds.search", Workload.SEARCH, () -> Thread.currentThread().getName()).get();
+
+        // Assert
+        assertEquals(Thread.currentThread().getName(), thread);
+    }
+
+    @Test
+    void submit_pastTimeout_shouldFailWithServiceUnavailable() {
+        // Arrange
+        DatabaseExecutor executor = databaseExecutor(50);
+
+        // Act
+        CompletableFuture<String> result = executor.submit("sightings.search", Workload.SEARCH, this::awaitRelease);
+
+        // Assert
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, ex.getCause());
+    }
+
+    @Test
+    void queryTimeoutSeconds_shouldPreferEndpointOverDefault() {
+        // Arrange
+        environment.setProperty("birdapi.query-timeout.default", "20");
+        environment.setProperty("birdapi.query-timeout.sightings.search", "5");
+        DatabaseExecutor executor = databaseExecutor(30000);
+
+        // Act & Assert
+        assertEquals(5, executor.queryTimeoutSeconds("sightings.search"));
+        assertEquals(20, executor.queryTimeoutSeconds("birds.search"));
+    }
+
+    @Test
+    void constructor_withBulkheadsLargerThanConnectionBudget_shouldFail() {
+        // Arrange
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseExecutor(beans.getBeanProvider(VirtualThreadSupport.class),
+                beans.getBeanProvider(MeterRegistry.class), environment, true, 6, 2, 2, 3, 10, 10, 1000, 1000));
+    }
+
+    private String awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
@@ -1,33 +1,48 @@
 package com.demoapp.birdapi.controller;
 
 import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.dto.BirdUpsertRequestDTO;
+import com.demoapp.birdapi.dto.BirdUpsertResultDTO;
+import com.demoapp.birdapi.dto.BulkIdsDTO;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
 import com.demoapp.birdapi.exception.ResourceNotFoundException;
+import com.demoapp.birdapi.repository.IdempotencyRecordRepository;
 import com.demoapp.birdapi.service.BirdService;
+import com.demoapp.birdapi.service.IdempotencyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BirdController.class)
+@Import(IdempotencyService.class)
 class BirdControllerTest {
 
     @Autowired
@@ -39,6 +54,9 @@ class BirdControllerTest {
     @MockBean
     private BirdService birdService;
 
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
     @Test
     void createBird_withValidData_shouldReturn201() throws Exception {
         // Arrange
@@ -77,6 +95,36 @@ class BirdControllerTest {
         verify(birdService, never()).createBird(any());
     }
 
+    @Test
+    void createBird_withCaseVariantOfExistingBird_shouldReturn409WithoutSqlDetails() throws Exception {
+        // Arrange
+        BirdDTO requestDTO = new BirdDTO(null, "sparrow", "brown", 10.5, 12.0);
+        when(birdService.createBird(any(BirdDTO.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("duplicate key value violates unique constraint \"ux_birds_natural_key\"", "23505")));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/birds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", is("Request conflicts with existing data")));
+    }
+
+    @Test
+    void createBird_withOtherConstraintViolation_shouldReturn500WithoutSqlDetails() throws Exception {
+        // Arrange
+        BirdDTO requestDTO = new BirdDTO(null, "Sparrow", "Brown", 10.5, 12.0);
+        when(birdService.createBird(any(BirdDTO.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("null value in column \"name\" violates not-null constraint", "23502")));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/birds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message", is("An error occurred: the request violates a data constraint")));
+    }
+
     @Test
     void getBirdById_whenExists_shouldReturn200() throws Exception {
         // Arrange
@@ -191,6 +239,55 @@ class BirdControllerTest {
         verify(birdService).deleteBird(999L);
     }
 
+    @Test
+    void upsertBirds_withValidData_shouldReturnCounts() throws Exception {
+        // Arrange
+        BirdUpsertRequestDTO request = new BirdUpsertRequestDTO(Arrays.asList(
+                new BirdDTO(null, "Sparrow", "Brown", 10.5, 12.0),
+                new BirdDTO(null, "Eagle", "Black", 50.0, 80.0)));
+        when(birdService.upsertBirds(anyList())).thenReturn(new BirdUpsertResultDTO(1, 1, 0));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/birds/bulk-upsert")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.updated", is(1)))
+                .andExpect(jsonPath("$.unchanged", is(0)));
+    }
+
+    @Test
+    void upsertBirds_withInvalidBird_shouldReturn400() throws Exception {
+        // Arrange
+        BirdUpsertRequestDTO request = new BirdUpsertRequestDTO(Collections.singletonList(
+                new BirdDTO(null, "", "Brown", -1.0, 12.0)));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/birds/bulk-upsert")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(birdService, never()).upsertBirds(any());
+    }
+
+    @Test
+    void deleteBirds_withIds_shouldReturnCounts() throws Exception {
+        // Arrange
+        when(birdService.deleteBirds(Arrays.asList(1L, 2L)))
+                .thenReturn(new BulkOperationResultDTO(2, 2, 5));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/birds/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkIdsDTO(Arrays.asList(1L, 2L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested", is(2)))
+                .andExpect(jsonPath("$.affected", is(2)))
+                .andExpect(jsonPath("$.sightingsDeleted", is(5)));
+    }
+
     @Test
     void searchBirds_withNameAndColor_shouldReturnMatchingBirds() throws Exception {
         // Arrange
@@ -202,7 +299,7 @@ class BirdControllerTest {
                 .thenReturn(page);
 
         // Act & Assert
-        mockMvc.perform(get("/api/birds/search")
+        performAsync(get("/api/birds/search")
                         .param("name", "Sparrow")
                         .param("color", "Brown"))
                 .andExpect(status().isOk())
@@ -224,11 +321,18 @@ class BirdControllerTest {
                 .thenReturn(page);
 
         // Act & Assert
-        mockMvc.perform(get("/api/birds/search"))
+        performAsync(get("/api/birds/search"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(1)));
 
         verify(birdService).searchBirdsByNameAndColor(isNull(), isNull(), any(Pageable.class));
     }
-}
 
+    // Search handlers complete asynchronously on the database executor
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
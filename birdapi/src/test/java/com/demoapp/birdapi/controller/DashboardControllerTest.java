@@ -0,0 +1,56 @@
+package com.demoapp.birdapi.controller;
+
+import com.demoapp.birdapi.dto.DashboardDTO;
+import com.demoapp.birdapi.dto.DashboardSummaryDTO;
+import com.demoapp.birdapi.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DashboardController.class)
+class DashboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DashboardService dashboardService;
+
+    @Test
+    void getDashboard_withIncludedSection_shouldReturnSectionAndCacheControl() throws Exception {
+        // Arrange
+        DashboardDTO dashboard = new DashboardDTO();
+        dashboard.setSummary(new DashboardSummaryDTO(3, 42));
+        Set<String> summaryOnly = Collections.singleton(DashboardService.SUMMARY);
+        when(dashboardService.getDashboard(eq(summaryOnly), eq(10), eq(10))).thenReturn(dashboard);
+        when(dashboardService.maxAgeMillis(summaryOnly)).thenReturn(10_000L);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/dashboard").param("include", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=10, private"))
+                .andExpect(jsonPath("$.summary.sightingCount", is(42)))
+                .andExpect(jsonPath("$.birds").doesNotExist());
+    }
+
+    @Test
+    void getDashboard_withUnknownSection_shouldReturn400() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/dashboard").param("include", "weather"))
+                .andExpect(status().isBadRequest());
+        verify(dashboardService, never()).getDashboard(anySet(), any(Integer.class), any(Integer.class));
+    }
+}
@@ -0,0 +1,111 @@
+package com.demoapp.birdapi.controller;
+
+import com.demoapp.birdapi.config.GraphQlConfig;
+import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.exception.GraphQlExceptionResolver;
+import com.demoapp.birdapi.exception.ResourceNotFoundException;
+import com.demoapp.birdapi.service.BirdService;
+import com.demoapp.birdapi.service.SightingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@GraphQlTest(GraphQlQueryController.class)
+@Import({GraphQlConfig.class, GraphQlExceptionResolver.class})
+class GraphQlQueryControllerTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @MockBean
+    private BirdService birdService;
+
+    @MockBean
+    private SightingService sightingService;
+
+    @Test
+    void sightings_withNestedBird_shouldLoadAllBirdsInOneBatch() {
+        // Arrange
+        when(sightingService.searchSightingSummaries(eq("Sparrow"), any(), any(), any(), any()))
+                .thenReturn(new PageImpl<>(Arrays.asList(
+                        new SightingDTO(1L, 1L, "Central Park", DATE_TIME),
+                        new SightingDTO(2L, 2L, "Lake View", DATE_TIME),
+                        new SightingDTO(3L, 1L, "Ridge", DATE_TIME))));
+        when(birdService.getBirdsByIds(anyCollection())).thenReturn(Arrays.asList(
+                new BirdDTO(1L, "Sparrow", "Brown", 10.0, 5.0),
+                new BirdDTO(2L, "Eagle", "Black", 50.0, 80.0)));
+
+        // Act & Assert
+        graphQlTester.document("{ sightings(birdName: \"Sparrow\") { id dateTime reportCount bird { name } } }")
+                .execute()
+                .path("sightings[*].bird.name").entityList(String.class).containsExactly("Sparrow", "Eagle", "Sparrow")
+                .path("sightings[0].dateTime").entity(String.class).isEqualTo("2025-01-15T10:30:00")
+                .path("sightings[0].reportCount").entity(Integer.class).isEqualTo(1);
+        verify(birdService, times(1)).getBirdsByIds(anyCollection());
+    }
+
+    @Test
+    void birds_withSightingsAndCounts_shouldBatchSightingsAndReadCountsFromBird() {
+        // Arrange
+        BirdDTO sparrow = new BirdDTO(1L, "Sparrow", "Brown", 10.0, 5.0);
+        sparrow.setSightingCount(42L);
+        sparrow.setLastSeen(DATE_TIME);
+        when(birdService.getAllBirds(any())).thenReturn(new PageImpl<>(Arrays.asList(
+                sparrow,
+                new BirdDTO(2L, "Eagle", "Black", 50.0, 80.0))));
+        when(sightingService.getLatestSightingsByBirdIds(anyCollection(), anyInt()))
+                .thenReturn(Map.of(1L, Collections.singletonList(new SightingDTO(7L, 1L, "Central Park", DATE_TIME))));
+
+        // Act & Assert
+        graphQlTester.document("{ birds { name sightingCount lastSeen sightings { location } } }")
+                .execute()
+                .path("birds[*].sightingCount").entityList(Integer.class).containsExactly(42, 0)
+                .path("birds[0].lastSeen").entity(String.class).isEqualTo("2025-01-15T10:30:00")
+                .path("birds[1].lastSeen").valueIsNull()
+                .path("birds[0].sightings[0].location").entity(String.class).isEqualTo("Central Park")
+                .path("birds[1].sightings").entityList(Object.class).hasSize(0);
+        verify(sightingService, times(1)).getLatestSightingsByBirdIds(anyCollection(), eq(20));
+    }
+
+    @Test
+    void bird_whenNotFound_shouldReturnNotFoundError() {
+        // Arrange
+        when(birdService.getBirdById(99L)).thenThrow(new ResourceNotFoundException("Bird", 99L));
+
+        // Act & Assert
+        graphQlTester.document("{ bird(id: 99) { name } }")
+                .execute()
+                .errors()
+                .expect(error -> error.getErrorType() == ErrorType.NOT_FOUND);
+    }
+
+    @Test
+    void query_exceedingComplexityLimit_shouldBeRejectedBeforeFetching() {
+        // Act & Assert
+        graphQlTester.document("{ birds(size: 100) { sightings { bird { sightings { id } } } } }")
+                .execute()
+                .errors()
+                .satisfy(errors -> assertFalse(errors.isEmpty()));
+        verifyNoInteractions(birdService, sightingService);
+    }
+}
@@ -1,19 +1,33 @@
 package com.demoapp.birdapi.controller;
 
+import com.demoapp.birdapi.dto.BulkIdsDTO;
+import com.demoapp.birdapi.dto.BulkLocationUpdateDTO;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
 import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.exception.InvalidRequestException;
 import com.demoapp.birdapi.exception.ResourceNotFoundException;
+import com.demoapp.birdapi.repository.IdempotencyRecordRepository;
+import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.service.IdempotencyService;
+import com.demoapp.birdapi.service.SightingExportService;
+import com.demoapp.birdapi.service.SightingJournalService;
 import com.demoapp.birdapi.service.SightingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -27,6 +41,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(SightingController.class)
+@Import({IdempotencyService.class, SightingExportService.class})
 class SightingControllerTest {
 
     @Autowired
@@ -38,6 +53,12 @@ class SightingControllerTest {
     @MockBean
     private SightingService sightingService;
 
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @MockBean
+    private SightingJournalService sightingJournalService;
+
     @Test
     void createSighting_withValidData_shouldReturn201() throws Exception {
         // Arrange
@@ -67,6 +88,92 @@ class SightingControllerTest {
         verify(sightingService).createSighting(any(SightingDTO.class));
     }
 
+    @Test
+    void createSighting_whenDatabaseUnavailable_shouldJournalAndReturn202() throws Exception {
+        // Arrange
+        SightingDTO requestDTO = new SightingDTO();
+        requestDTO.setBirdId(1L);
+        requestDTO.setLocation("Central Park");
+        requestDTO.setDateTime(LocalDateTime.of(2025, 1, 15, 10, 30));
+
+        CannotCreateTransactionException failure = new CannotCreateTransactionException("Connection refused");
+        when(sightingService.createSighting(any(SightingDTO.class))).thenThrow(failure);
+        when(sightingJournalService.isDatabaseUnavailable(failure)).thenReturn(true);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/sightings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.location", is("Central Park")));
+
+        verify(sightingJournalService).append(argThat(rows -> rows.size() == 1 && "Central Park".equals(rows.get(0).getLocation())));
+    }
+
+    @Test
+    void createSighting_withRepeatedIdempotencyKey_shouldReplayWithoutCreatingAgain() throws Exception {
+        // Arrange
+        SightingDTO requestDTO = new SightingDTO();
+        requestDTO.setBirdId(1L);
+        requestDTO.setLocation("Central Park");
+        requestDTO.setDateTime(LocalDateTime.of(2025, 1, 15, 10, 30));
+
+        SightingDTO responseDTO = new SightingDTO();
+        responseDTO.setId(100L);
+        responseDTO.setBirdId(1L);
+        responseDTO.setLocation("Central Park");
+
+        when(sightingService.createSighting(any(SightingDTO.class))).thenReturn(responseDTO);
+        String body = objectMapper.writeValueAsString(requestDTO);
+
+        // Act
+        mockMvc.perform(post("/api/sightings")
+                        .header(IdempotencyService.HEADER, "device-7-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated());
+
+        // Assert
+        mockMvc.perform(post("/api/sightings")
+                        .header(IdempotencyService.HEADER, "device-7-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id", is(100)));
+
+        verify(sightingService, times(1)).createSighting(any(SightingDTO.class));
+        verify(idempotencyRecordRepository, times(1)).claim(eq("device-7-42"), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void createSighting_withIdempotencyKeyReusedForOtherPayload_shouldReturn422() throws Exception {
+        // Arrange
+        SightingDTO requestDTO = new SightingDTO();
+        requestDTO.setBirdId(1L);
+        requestDTO.setLocation("Central Park");
+        requestDTO.setDateTime(LocalDateTime.of(2025, 1, 15, 10, 30));
+
+        when(sightingService.createSighting(any(SightingDTO.class))).thenReturn(requestDTO);
+        mockMvc.perform(post("/api/sightings")
+                        .header(IdempotencyService.HEADER, "device-7-43")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isCreated());
+
+        requestDTO.setLocation("Lake View");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/sightings")
+                        .header(IdempotencyService.HEADER, "device-7-43")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(sightingService, times(1)).createSighting(any(SightingDTO.class));
+    }
+
     @Test
     void createSighting_withInvalidData_shouldReturn400() throws Exception {
         // Arrange - missing required fields
@@ -103,6 +210,25 @@ class SightingControllerTest {
         verify(sightingService).getSightingById(100L);
     }
 
+    @Test
+    void getLatestSightings_shouldReturnLatestSightingPerBird() throws Exception {
+        // Arrange
+        LocalDateTime dateTime = LocalDateTime.of(2025, 1, 15, 10, 30);
+        when(sightingService.getLatestSightings()).thenReturn(Arrays.asList(
+                new SightingDTO(100L, 1L, "Central Park", dateTime),
+                new SightingDTO(101L, 2L, "Lake View", dateTime.minusDays(1))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/sightings/latest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].birdId", is(1)))
+                .andExpect(jsonPath("$[0].location", is("Central Park")))
+                .andExpect(jsonPath("$[1].dateTime", is("2025-01-14T10:30:00")));
+
+        verify(sightingService, never()).getSightingById(anyLong());
+    }
+
     @Test
     void getSightingById_whenNotFound_shouldReturn404() throws Exception {
         // Arrange
@@ -226,6 +352,71 @@ class SightingControllerTest {
         verify(sightingService).deleteSighting(999L);
     }
 
+    @Test
+    void deleteSightings_withIds_shouldReturnCounts() throws Exception {
+        // Arrange
+        when(sightingService.deleteSightings(Arrays.asList(1L, 2L, 3L)))
+                .thenReturn(new BulkOperationResultDTO(3, 2));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/sightings/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkIdsDTO(Arrays.asList(1L, 2L, 3L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested", is(3)))
+                .andExpect(jsonPath("$.affected", is(2)));
+    }
+
+    @Test
+    void deleteSightings_withNoIds_shouldReturn400() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/sightings/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkIdsDTO(Collections.emptyList()))))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingService, never()).deleteSightings(any());
+    }
+
+    @Test
+    void deleteSightingsByFilter_shouldReturnCounts() throws Exception {
+        // Arrange
+        when(sightingService.deleteSightingsByFilter(eq("Sparrow"), isNull(), isNull(), isNull()))
+                .thenReturn(new BulkOperationResultDTO(null, 12));
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/sightings").param("birdName", "Sparrow"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected", is(12)))
+                .andExpect(jsonPath("$.requested").doesNotExist());
+    }
+
+    @Test
+    void deleteSightingsByFilter_withoutFilters_shouldReturn400() throws Exception {
+        // Arrange
+        when(sightingService.deleteSightingsByFilter(isNull(), isNull(), isNull(), isNull()))
+                .thenThrow(new InvalidRequestException("At least one filter is required to delete sightings"));
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/sightings"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)));
+    }
+
+    @Test
+    void updateSightingLocations_shouldReturnCounts() throws Exception {
+        // Arrange
+        when(sightingService.updateSightingLocations(Arrays.asList(1L, 2L), "Lake View"))
+                .thenReturn(new BulkOperationResultDTO(2, 2));
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/sightings/location")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkLocationUpdateDTO(Arrays.asList(1L, 2L), "Lake View"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected", is(2)));
+    }
+
     @Test
     void searchSightings_withAllParameters_shouldReturnMatchingResults() throws Exception {
         // Arrange
@@ -251,7 +442,7 @@ class SightingControllerTest {
         )).thenReturn(page);
 
         // Act & Assert
-        mockMvc.perform(get("/api/sightings/search")
+        performAsync(get("/api/sightings/search")
                         .param("birdName", "Blue Jay")
                         .param("location", "Park")
                         .param("fromDate", fromDate.toString())
@@ -291,7 +482,7 @@ class SightingControllerTest {
         )).thenReturn(page);
 
         // Act & Assert
-        mockMvc.perform(get("/api/sightings/search"))
+        performAsync(get("/api/sightings/search"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(1)));
 
@@ -326,7 +517,7 @@ class SightingControllerTest {
         )).thenReturn(page);
 
         // Act & Assert
-        mockMvc.perform(get("/api/sightings/search")
+        performAsync(get("/api/sightings/search")
                         .param("birdName", "Blue Jay"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(1)))
@@ -340,5 +531,52 @@ class SightingControllerTest {
                 any(Pageable.class)
         );
     }
-}
 
+    @Test
+    void exportSightings_asCsv_shouldStreamAllPages() throws Exception {
+        // Arrange
+        BirdDTO bird = new BirdDTO();
+        bird.setId(1L);
+        bird.setName("Blue Jay");
+        SightingDTO sightingDTO = new SightingDTO();
+        sightingDTO.setId(100L);
+        sightingDTO.setBirdId(1L);
+        sightingDTO.setBird(bird);
+        sightingDTO.setLocation("Central Park, NY");
+        sightingDTO.setDateTime(LocalDateTime.of(2025, 1, 15, 10, 30));
+
+        when(sightingService.searchSightingsAfter(eq("Blue Jay"), isNull(), isNull(), isNull(), isNull(), anyInt()))
+                .thenReturn(Collections.singletonList(sightingDTO));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/sightings/export")
+                        .param("format", "csv")
+                        .param("birdName", "Blue Jay"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"sightings.csv\""))
+                .andExpect(content().string("id,birdId,birdName,location,dateTime,reportCount\n"
+                        + "100,1,Blue Jay,\"Central Park, NY\",2025-01-15T10:30:00,1\n"));
+    }
+
+    @Test
+    void exportSightings_withUnknownFormat_shouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/sightings/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(sightingService, never()).searchSightingsAfter(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    // Search handlers complete asynchronously on the database executor
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
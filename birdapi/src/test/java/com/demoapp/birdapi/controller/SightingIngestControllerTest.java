@@ -0,0 +1,125 @@
+package com.demoapp.birdapi.controller;
+
+import com.demoapp.birdapi.dto.ImportResultDTO;
+import com.demoapp.birdapi.exception.TooManyRequestsException;
+import com.demoapp.birdapi.ingest.ImportFormat;
+import com.demoapp.birdapi.ingest.IngestTicket;
+import com.demoapp.birdapi.ingest.SightingIngestPipeline;
+import com.demoapp.birdapi.repository.IdempotencyRecordRepository;
+import com.demoapp.birdapi.service.IdempotencyService;
+import com.demoapp.birdapi.service.SightingImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SightingIngestController.class)
+@Import(IdempotencyService.class)
+class SightingIngestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SightingImportService sightingImportService;
+
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @MockBean
+    private SightingIngestPipeline sightingIngestPipeline;
+
+    @Test
+    void importSightings_withCsv_shouldReturnResult() throws Exception {
+        // Arrange
+        ImportResultDTO result = new ImportResultDTO();
+        result.setRowsRead(2);
+        result.setRowsImported(2);
+        when(sightingImportService.importSightings(any(InputStream.class), eq(ImportFormat.CSV))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/sightings/import")
+                        .contentType("text/csv")
+                        .content("birdId,location,dateTime\n1,Lake,2025-01-15T10:30:00\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsImported", is(2)));
+
+        verify(sightingImportService).importSightings(any(InputStream.class), eq(ImportFormat.CSV));
+    }
+
+    @Test
+    void importSightings_withUnsupportedContentType_shouldReturn415() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/sightings/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<sightings/>"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(sightingImportService, never()).importSightings(any(), any());
+    }
+
+    @Test
+    void ingestSightings_whenAccepted_shouldReturn202WithTrackingId() throws Exception {
+        // Arrange
+        when(sightingIngestPipeline.submit(any(byte[].class))).thenReturn(new IngestTicket("abc-123"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/sightings/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"birdId\":1,\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/sightings/ingest/abc-123"))
+                .andExpect(jsonPath("$.trackingId", is("abc-123")))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+    }
+
+    @Test
+    void ingestSightings_whenBufferFull_shouldReturn429() throws Exception {
+        // Arrange
+        when(sightingIngestPipeline.submit(any(byte[].class)))
+                .thenThrow(new TooManyRequestsException("Ingest buffer is full", 1));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/sightings/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status", is(429)));
+    }
+
+    @Test
+    void ingestSightings_withBodyOverSizeCap_shouldReturn413() throws Exception {
+        // Act & Assert - the test context caps payloads at 8 MiB, the default
+        mockMvc.perform(post("/api/sightings/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new byte[8 * 1024 * 1024 + 1]))
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(sightingIngestPipeline, never()).submit(any(byte[].class));
+    }
+
+    @Test
+    void getIngestStatus_whenUnknown_shouldReturn404() throws Exception {
+        // Arrange
+        when(sightingIngestPipeline.findTicket("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/sightings/ingest/missing"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,113 @@
+package com.demoapp.birdapi.controller;
+
+import com.demoapp.birdapi.dto.SnapshotStatusDTO;
+import com.demoapp.birdapi.exception.ResourceNotFoundException;
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import com.demoapp.birdapi.exception.SnapshotsUnsupportedException;
+import com.demoapp.birdapi.service.DatabaseSnapshotService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = SnapshotController.class, properties = "birdapi.snapshot.enabled=true")
+class SnapshotControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DatabaseSnapshotService databaseSnapshotService;
+
+    private static SnapshotStatusDTO completed(String operation) {
+        SnapshotStatusDTO status = new SnapshotStatusDTO();
+        status.setOperation(operation);
+        status.setName("prod.bsnap");
+        status.setStatus("COMPLETED");
+        status.setRows(Collections.singletonMap("sightings", 1200L));
+        return status;
+    }
+
+    @Test
+    void createSnapshot_shouldReturnCompletedStatus() throws Exception {
+        // Arrange
+        when(databaseSnapshotService.snapshot("prod")).thenReturn(completed("SNAPSHOT"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/snapshots").param("name", "prod"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.operation", is("SNAPSHOT")))
+                .andExpect(jsonPath("$.rows.sightings", is(1200)));
+    }
+
+    @Test
+    void restoreSnapshot_withFileName_shouldPassNameThrough() throws Exception {
+        // Arrange
+        when(databaseSnapshotService.restore("prod.bsnap")).thenReturn(completed("RESTORE"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/snapshots/prod.bsnap/restore"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("COMPLETED")));
+
+        verify(databaseSnapshotService).restore("prod.bsnap");
+    }
+
+    @Test
+    void restoreSnapshot_whenUnknown_shouldReturn404() throws Exception {
+        // Arrange
+        when(databaseSnapshotService.restore("missing")).thenThrow(new ResourceNotFoundException("Snapshot not found: missing"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/snapshots/missing/restore"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createSnapshot_whileAnotherRuns_shouldReturn503() throws Exception {
+        // Arrange
+        when(databaseSnapshotService.snapshot(null)).thenThrow(new ServiceUnavailableException("A restore of prod.bsnap is running", 60));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/snapshots"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "60"));
+    }
+
+    @Test
+    void createSnapshot_onH2_shouldReturn501() throws Exception {
+        // Arrange
+        when(databaseSnapshotService.snapshot(null)).thenThrow(new SnapshotsUnsupportedException("Snapshots need PostgreSQL"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/snapshots"))
+                .andExpect(status().isNotImplemented());
+    }
+
+    @Test
+    void getStatus_shouldReturnProgress() throws Exception {
+        // Arrange
+        SnapshotStatusDTO running = new SnapshotStatusDTO();
+        running.setOperation("RESTORE");
+        running.setStatus("RUNNING");
+        running.setPhase("loading sightings");
+        running.setFileBytes(1024);
+        running.setTotalFileBytes(4096L);
+        when(databaseSnapshotService.status()).thenReturn(running);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/admin/snapshots/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phase", is("loading sightings")))
+                .andExpect(jsonPath("$.totalFileBytes", is(4096)));
+    }
+}
@@ -0,0 +1,137 @@
+package com.demoapp.birdapi.grpc;
+
+import com.demoapp.birdapi.dto.ImportResultDTO;
+import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.grpc.proto.IngestSummary;
+import com.demoapp.birdapi.grpc.proto.SearchSightingsRequest;
+import com.demoapp.birdapi.grpc.proto.Sighting;
+import com.demoapp.birdapi.grpc.proto.SightingStreamGrpc;
+import com.demoapp.birdapi.service.SightingService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.validation.Validation;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SightingGrpcServiceTest {
+
+    @Mock
+    private SightingService sightingService;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        SightingGrpcService service = new SightingGrpcService(sightingService,
+                Validation.buildDefaultValidatorFactory().getValidator(), 2, 2, 30);
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void ingestSightings_shouldWriteOneBatchPerWindowAndSummarize() throws Exception {
+        // Arrange
+        List<Integer> batchSizes = new ArrayList<>();
+        when(sightingService.createSightings(anyList())).thenAnswer(invocation -> {
+            List<SightingDTO> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            ImportResultDTO result = new ImportResultDTO();
+            result.setRowsRead(batch.size());
+            result.setRowsImported(batch.size());
+            return result;
+        });
+        CompletableFuture<IngestSummary> response = new CompletableFuture<>();
+
+        // Act
+        StreamObserver<Sighting> requests = SightingStreamGrpc.newStub(channel).ingestSightings(observer(response));
+        requests.onNext(sighting(1, "Central Park", "2025-01-15T10:30:00"));
+        requests.onNext(sighting(1, "", "2025-01-15T10:30:00"));
+        requests.onNext(sighting(2, "Lake View", "2025-01-15 10:30"));
+        requests.onNext(sighting(2, "Lake View", "2025-01-15T11:30:00"));
+        requests.onNext(sighting(3, "Ridge", "2025-01-15T12:30:00"));
+        requests.onCompleted();
+        IngestSummary summary = response.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(5, summary.getRowsRead());
+        assertEquals(3, summary.getRowsImported());
+        assertEquals(2, summary.getRowsRejected());
+        assertTrue(summary.getErrors(0).startsWith("Item 1: location"));
+        assertTrue(summary.getErrors(1).startsWith("Item 2: dateTime"));
+        assertEquals(Arrays.asList(1, 1, 1), batchSizes);
+    }
+
+    @Test
+    void searchSightings_shouldStreamAllKeysetPages() {
+        // Arrange
+        LocalDateTime dateTime = LocalDateTime.of(2025, 1, 15, 10, 30);
+        when(sightingService.searchSightingsAfter(eq("Sparrow"), eq(""), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(Arrays.asList(new SightingDTO(1L, 1L, "Central Park", dateTime), new SightingDTO(2L, 1L, "Lake", dateTime)));
+        when(sightingService.searchSightingsAfter(eq("Sparrow"), eq(""), isNull(), isNull(), eq(2L), eq(2)))
+                .thenReturn(Collections.singletonList(new SightingDTO(5L, 1L, "Ridge", dateTime)));
+
+        // Act
+        Iterator<Sighting> results = SightingStreamGrpc.newBlockingStub(channel)
+                .searchSightings(SearchSightingsRequest.newBuilder().setBirdName("Sparrow").build());
+        List<Long> ids = new ArrayList<>();
+        results.forEachRemaining(sighting -> ids.add(sighting.getId()));
+
+        // Assert
+        assertEquals(Arrays.asList(1L, 2L, 5L), ids);
+        verify(sightingService, times(2)).searchSightingsAfter(any(), any(), any(), any(), any(), eq(2));
+    }
+
+    private static Sighting sighting(long birdId, String location, String dateTime) {
+        return Sighting.newBuilder().setBirdId(birdId).setLocation(location).setDateTime(dateTime).build();
+    }
+
+    private static <T> StreamObserver<T> observer(CompletableFuture<T> future) {
+        return new StreamObserver<T>() {
+            @Override
+            public void onNext(T value) {
+                future.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.demoapp.birdapi.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvSightingReaderTest {
+
+    private CsvSightingReader reader(String csv) {
+        return new CsvSightingReader(new BufferedReader(new StringReader(csv)));
+    }
+
+    @Test
+    void next_shouldReadColumnsInHeaderOrder() throws Exception {
+        // Arrange
+        CsvSightingReader reader = reader("location,dateTime,birdName\n"
+                + "\"Central Park, NY\",2025-01-15T10:30:00,Sparrow\n");
+
+        // Act
+        SightingRow row = reader.next();
+
+        // Assert
+        assertEquals("Central Park, NY", row.getLocation());
+        assertEquals(LocalDateTime.of(2025, 1, 15, 10, 30), row.getDateTime());
+        assertEquals("Sparrow", row.getBirdName());
+        assertNull(row.getBirdId());
+        assertEquals(2, row.getLineNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_shouldUnescapeDoubledQuotes() throws Exception {
+        // Arrange
+        CsvSightingReader reader = reader("birdId,location,dateTime\n1,\"The \"\"Old\"\" Pier\",2025-01-15T10:30:00\n");
+
+        // Act
+        SightingRow row = reader.next();
+
+        // Assert
+        assertEquals(1L, row.getBirdId());
+        assertEquals("The \"Old\" Pier", row.getLocation());
+    }
+
+    @Test
+    void next_withInvalidRow_shouldThrowAndContinueWithNextLine() throws Exception {
+        // Arrange
+        CsvSightingReader reader = reader("birdId,location,dateTime\n"
+                + "x,Lake,2025-01-15T10:30:00\n"
+                + "2,Lake,2025-01-15T10:30:00\n");
+
+        // Act & Assert
+        MalformedSightingException ex = assertThrows(MalformedSightingException.class, reader::next);
+        assertEquals(2, ex.getLineNumber());
+        assertEquals(2L, reader.next().getBirdId());
+    }
+
+    @Test
+    void next_withMissingColumns_shouldRejectHeader() {
+        // Arrange
+        CsvSightingReader reader = reader("birdId,location\n1,Lake\n");
+
+        // Act & Assert
+        assertThrows(MalformedSightingException.class, reader::next);
+    }
+
+    @Test
+    void next_withBlankLocation_shouldThrow() {
+        // Arrange
+        CsvSightingReader reader = reader("birdId,location,dateTime\n1, ,2025-01-15T10:30:00\n");
+
+        // Act & Assert
+        assertThrows(MalformedSightingException.class, reader::next);
+    }
+}
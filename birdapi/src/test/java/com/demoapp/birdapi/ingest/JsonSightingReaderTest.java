@@ -0,0 +1,87 @@
+package com.demoapp.birdapi.ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonSightingReaderTest {
+
+    private JsonSightingReader reader(String json) throws Exception {
+        return new JsonSightingReader(new StringReader(json));
+    }
+
+    @Test
+    void next_withArray_shouldStreamOneRowPerItem() throws Exception {
+        // Arrange
+        JsonSightingReader reader = reader("[{\"birdId\":1,\"location\":\"Lake View\",\"dateTime\":\"2025-01-15T10:30:00\",\"extra\":[1,{\"a\":2}]},"
+                + "{\"birdName\":\"Eagle\",\"location\":\"Ridge\",\"dateTime\":\"2025-01-16T08:00:00\"}]");
+
+        // Act
+        SightingRow first = reader.next();
+        SightingRow second = reader.next();
+
+        // Assert
+        assertEquals(1L, first.getBirdId());
+        assertEquals("Lake View", first.getLocation());
+        assertEquals(LocalDateTime.of(2025, 1, 15, 10, 30), first.getDateTime());
+        assertEquals(0, first.getLineNumber());
+        assertEquals("Eagle", second.getBirdName());
+        assertEquals(1, second.getLineNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_withSingleObject_shouldReadOneRow() throws Exception {
+        // Arrange
+        JsonSightingReader reader = reader("{\"birdId\":\"7\",\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"}");
+
+        // Act & Assert
+        assertEquals(7L, reader.next().getBirdId());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_withInvalidItems_shouldThrowAndContinueWithNextItem() throws Exception {
+        // Arrange
+        JsonSightingReader reader = reader("[{\"birdId\":1,\"location\":\"Lake\",\"dateTime\":\"2025-01-15 10:30\",\"nested\":{\"x\":1}},"
+                + "null,"
+                + "{\"birdId\":1,\"location\":\"  \",\"dateTime\":\"2025-01-15T10:30:00\"},"
+                + "{\"birdId\":2,\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"}]");
+
+        // Act & Assert
+        MalformedSightingException badDate = assertThrows(MalformedSightingException.class, reader::next);
+        assertEquals(0, badDate.getLineNumber());
+        assertTrue(badDate.getReason().startsWith("dateTime"));
+        assertEquals(1, assertThrows(MalformedSightingException.class, reader::next).getLineNumber());
+        assertEquals(2, assertThrows(MalformedSightingException.class, reader::next).getLineNumber());
+        assertEquals(2L, reader.next().getBirdId());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_withBrokenJson_shouldThrowAndEndStream() throws Exception {
+        // Arrange
+        JsonSightingReader reader = reader("[{\"birdId\":1,\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"},{\"birdId\":");
+
+        // Act & Assert
+        assertEquals(1L, reader.next().getBirdId());
+        assertThrows(MalformedSightingException.class, reader::next);
+        assertNull(reader.next());
+    }
+
+    @Test
+    void countItems_shouldCountWithoutBuildingRows() throws Exception {
+        // Arrange
+        JsonFactory factory = new JsonFactory();
+
+        // Act & Assert
+        assertEquals(3, JsonSightingReader.countItems(factory.createParser("[{\"a\":[1,2]},null,{}]")));
+        assertEquals(1, JsonSightingReader.countItems(factory.createParser("{\"birdId\":1}")));
+        assertThrows(IOException.class, () -> JsonSightingReader.countItems(factory.createParser("[{\"a\":1}")));
+    }
+}
@@ -0,0 +1,58 @@
+package com.demoapp.birdapi.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonSightingReaderTest {
+
+    private NdjsonSightingReader reader(String ndjson) {
+        return new NdjsonSightingReader(new BufferedReader(new StringReader(ndjson)));
+    }
+
+    @Test
+    void next_shouldReadOneObjectPerLine() throws Exception {
+        // Arrange
+        NdjsonSightingReader reader = reader(
+                "{\"birdId\":1,\"location\":\"Lake View\",\"dateTime\":\"2025-01-15T10:30:00\",\"bird\":{\"name\":\"x\"}}\n"
+                        + "\n"
+                        + "{\"birdName\":\"Eagle\",\"location\":\"Ridge\",\"dateTime\":\"2025-01-16T08:00:00\"}\n");
+
+        // Act
+        SightingRow first = reader.next();
+        SightingRow second = reader.next();
+
+        // Assert
+        assertEquals(1L, first.getBirdId());
+        assertEquals("Lake View", first.getLocation());
+        assertEquals(LocalDateTime.of(2025, 1, 15, 10, 30), first.getDateTime());
+        assertEquals("Eagle", second.getBirdName());
+        assertEquals(3, second.getLineNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_withBrokenJson_shouldThrowAndContinueWithNextLine() throws Exception {
+        // Arrange
+        NdjsonSightingReader reader = reader("{\"birdId\":1,\"location\":\n"
+                + "{\"birdId\":2,\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"}\n");
+
+        // Act & Assert
+        MalformedSightingException ex = assertThrows(MalformedSightingException.class, reader::next);
+        assertEquals(1, ex.getLineNumber());
+        assertEquals(2L, reader.next().getBirdId());
+    }
+
+    @Test
+    void next_withoutBird_shouldThrow() {
+        // Arrange
+        NdjsonSightingReader reader = reader("{\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"}\n");
+
+        // Act & Assert
+        assertThrows(MalformedSightingException.class, reader::next);
+    }
+}
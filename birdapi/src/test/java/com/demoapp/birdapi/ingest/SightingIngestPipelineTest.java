@@ -0,0 +1,203 @@
+package com.demoapp.birdapi.ingest;
+
+import com.demoapp.birdapi.config.VirtualThreadSupport;
+import com.demoapp.birdapi.dto.IngestStatusDTO;
+import com.demoapp.birdapi.exception.PayloadTooLargeException;
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import com.demoapp.birdapi.exception.TooManyRequestsException;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+import com.demoapp.birdapi.service.SightingDeduplicator;
+import com.demoapp.birdapi.service.SightingJournalService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SightingIngestPipelineTest {
+
+    @Mock
+    private SightingJdbcRepository sightingJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SightingJournalService sightingJournalService;
+
+    private SightingIngestPipeline pipeline;
+
+    private SightingIngestPipeline pipeline(int queueCapacity, int parseWorkers) {
+        return pipeline(queueCapacity, 1 << 20, parseWorkers);
+    }
+
+    private SightingIngestPipeline pipeline(int queueCapacity, int bufferBytes, int parseWorkers) {
+        pipeline = new SightingIngestPipeline(new ObjectMapper().registerModule(new JavaTimeModule()),
+                sightingJdbcRepository, new TransactionTemplate(transactionManager),
+                sightingJournalService,
+                new SightingDeduplicator(sightingJdbcRepository, new SimpleMeterRegistry(), SightingDeduplicator.Mode.OFF, 60, 100),
+                new VirtualThreadSupport(false),
+                queueCapacity, bufferBytes, parseWorkers, 1, 100, 5, 1000, 3600);
+        pipeline.start();
+        return pipeline;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    private static byte[] json(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static IngestStatusDTO awaitDone(IngestTicket ticket) throws InterruptedException {
+        for (int i = 0; i < 200 && !ticket.isDone(); i++) {
+            Thread.sleep(10);
+        }
+        return ticket.toDTO();
+    }
+
+    @Test
+    void submit_shouldValidateResolveAndCommitRows() throws Exception {
+        // Arrange
+        when(sightingJdbcRepository.findExistingBirdIds(anyCollection())).thenReturn(Collections.singleton(1L));
+        when(sightingJdbcRepository.insertAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        SightingIngestPipeline pipeline = pipeline(10, 1);
+
+        // Act
+        IngestTicket ticket = pipeline.submit(json("["
+                + "{\"birdId\":1,\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"},"
+                + "{\"birdId\":1,\"location\":\"\",\"dateTime\":\"2025-01-15T10:30:00\"},"
+                + "{\"birdId\":2,\"location\":\"Ridge\",\"dateTime\":\"2025-01-15T11:30:00\"}]"));
+        IngestStatusDTO status = awaitDone(ticket);
+
+        // Assert
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(3, status.getReceived());
+        assertEquals(1, status.getCommitted());
+        assertEquals(2, status.getRejected());
+        assertEquals(2, status.getErrors().size());
+        verify(sightingJdbcRepository).insertAll(argThat(rows -> rows.size() == 1));
+        verify(transactionManager, atLeastOnce()).commit(any());
+    }
+
+    @Test
+    void submit_whenDatabaseUnavailable_shouldJournalBatch() throws Exception {
+        // Arrange
+        CannotCreateTransactionException failure = new CannotCreateTransactionException("Connection refused");
+        when(transactionManager.getTransaction(any())).thenThrow(failure);
+        when(sightingJournalService.isDatabaseUnavailable(failure)).thenReturn(true);
+        SightingIngestPipeline pipeline = pipeline(10, 1);
+
+        // Act
+        IngestStatusDTO status = awaitDone(pipeline.submit(json(
+                "{\"birdId\":1,\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"}")));
+
+        // Assert
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(0, status.getCommitted());
+        assertEquals(1, status.getJournaled());
+        assertEquals(0, status.getRejected());
+        verify(sightingJournalService).append(argThat(rows -> rows.size() == 1 && rows.get(0).getBirdId() == 1L));
+        verifyNoInteractions(sightingJdbcRepository);
+    }
+
+    @Test
+    void submit_withMalformedJson_shouldFailTicket() throws Exception {
+        // Arrange
+        SightingIngestPipeline pipeline = pipeline(10, 1);
+
+        // Act
+        IngestStatusDTO status = awaitDone(pipeline.submit(json("{\"birdId\":")));
+
+        // Assert
+        assertEquals("FAILED", status.getStatus());
+        verifyNoInteractions(sightingJdbcRepository);
+    }
+
+    @Test
+    void submit_afterBirdWasCreated_shouldResolveBirdUnknownToEarlierBatch() throws Exception {
+        // Arrange
+        when(sightingJdbcRepository.findBirdIdsByLowerName(anyCollection()))
+                .thenReturn(Collections.emptyMap())
+                .thenReturn(Collections.singletonMap("heron", 7L));
+        when(sightingJdbcRepository.insertAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        SightingIngestPipeline pipeline = pipeline(10, 1);
+        byte[] body = json("[{\"birdName\":\"Heron\",\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"}]");
+
+        // Act
+        IngestStatusDTO before = awaitDone(pipeline.submit(body));
+        IngestStatusDTO after = awaitDone(pipeline.submit(body));
+
+        // Assert
+        assertEquals(1, before.getRejected());
+        assertEquals(1, after.getCommitted());
+        verify(sightingJdbcRepository, times(2)).findBirdIdsByLowerName(anyCollection());
+    }
+
+    @Test
+    void submit_whenBufferFull_shouldThrowTooManyRequests() {
+        // Arrange - no parse workers, so nothing drains the buffer
+        SightingIngestPipeline pipeline = pipeline(1, 0);
+        pipeline.submit(json("[]"));
+
+        // Act & Assert
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class, () -> pipeline.submit(json("[]")));
+        assertEquals(1, ex.getRetryAfterSeconds());
+    }
+
+    @Test
+    void submit_whenBufferBytesExhausted_shouldThrowTooManyRequestsUntilParsed() throws Exception {
+        // Arrange - room for many payloads by count, but only for one of these payloads of about 70 bytes
+        when(sightingJdbcRepository.findExistingBirdIds(anyCollection())).thenReturn(Collections.emptySet());
+        SightingIngestPipeline stalled = pipeline(100, 100, 0);
+        byte[] body = json("[{\"birdId\":1,\"location\":\"Lake\",\"dateTime\":\"2025-01-15T10:30:00\"}]");
+        stalled.submit(body);
+
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class, () -> stalled.submit(body));
+        stalled.stop();
+
+        SightingIngestPipeline draining = pipeline(100, 100, 1);
+        awaitDone(draining.submit(body));
+        assertNotNull(draining.submit(body));
+    }
+
+    @Test
+    void submit_withPayloadLargerThanBuffer_shouldThrowPayloadTooLarge() {
+        // Arrange
+        SightingIngestPipeline pipeline = pipeline(10, 16, 1);
+
+        // Act & Assert
+        assertThrows(PayloadTooLargeException.class, () -> pipeline.submit(json("[{\"birdId\":1}, {\"birdId\":2}]")));
+    }
+
+    @Test
+    void submit_whenStopped_shouldThrowServiceUnavailable() {
+        // Arrange
+        SightingIngestPipeline pipeline = pipeline(10, 1);
+        pipeline.stop();
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> pipeline.submit(json("[]")));
+    }
+}
@@ -0,0 +1,39 @@
+package com.demoapp.birdapi.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SightingRowsTest {
+
+    @Test
+    void parseFixedDateTime_shouldParseExactFormatAtOffset() {
+        // Arrange
+        char[] chars = "xx2025-01-15T10:30:45yy".toCharArray();
+
+        // Act
+        LocalDateTime dateTime = SightingRows.parseFixedDateTime(chars, 2, 19);
+
+        // Assert
+        assertEquals(LocalDateTime.of(2025, 1, 15, 10, 30, 45), dateTime);
+    }
+
+    @Test
+    void parseFixedDateTime_withOtherShapesOrInvalidDates_shouldReturnNull() {
+        // Act & Assert
+        assertNull(SightingRows.parseFixedDateTime("2025-01-15T10:30"));
+        assertNull(SightingRows.parseFixedDateTime("2025-01-15 10:30:00"));
+        assertNull(SightingRows.parseFixedDateTime("2025-0a-15T10:30:00"));
+        assertNull(SightingRows.parseFixedDateTime("2025-02-30T10:30:00"));
+        assertNull(SightingRows.parseFixedDateTime("2025-01-15T24:00:00"));
+    }
+
+    @Test
+    void parseDateTime_withFractionalSeconds_shouldFallBackToIsoParsing() {
+        // Act & Assert
+        assertEquals(LocalDateTime.of(2025, 1, 15, 10, 30, 0, 500_000_000),
+                SightingRows.parseDateTime("2025-01-15T10:30:00.5", 1));
+    }
+}
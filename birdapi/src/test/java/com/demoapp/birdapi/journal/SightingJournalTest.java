@@ -0,0 +1,257 @@
+package com.demoapp.birdapi.journal;
+
+import com.demoapp.birdapi.ingest.SightingRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SightingJournalTest {
+
+    private static final int SEGMENT_SIZE = SightingJournal.MIN_SEGMENT_SIZE;
+
+    @TempDir
+    Path directory;
+
+    private static SightingRow row(long birdId, String location) {
+        return new SightingRow(birdId, null, location, LocalDateTime.of(2025, 1, 15, 10, 30, 15, 123_000_000));
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void append_thenReadBatch_shouldReturnRowsInOrder() throws IOException {
+        // Arrange
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            journal.append(Arrays.asList(row(1L, "Central Park"), row(2L, "Gr\u00fcnwald")));
+
+            // Act
+            SightingJournal.JournalBatch batch = journal.readBatch(10);
+
+            // Assert
+            assertTrue(journal.hasPending());
+            assertEquals(2, batch.getRows().size());
+            assertEquals(1L, batch.getRows().get(0).getBirdId());
+            assertEquals("Central Park", batch.getRows().get(0).getLocation());
+            assertEquals(LocalDateTime.of(2025, 1, 15, 10, 30, 15, 123_000_000), batch.getRows().get(0).getDateTime());
+            assertEquals("Gr\u00fcnwald", batch.getRows().get(1).getLocation());
+        }
+    }
+
+    @Test
+    void append_withRowNamingItsBird_shouldKeepTheNameForReplay() throws IOException {
+        // Arrange
+        SightingRow named = new SightingRow(null, "Gr\u00fcnspecht", "Lake", LocalDateTime.of(2025, 1, 15, 10, 30));
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            journal.append(Arrays.asList(named, row(2L, "Ridge")));
+
+            // Act
+            SightingJournal.JournalBatch batch = journal.readBatch(10);
+
+            // Assert
+            assertNull(batch.getRows().get(0).getBirdId());
+            assertEquals("Gr\u00fcnspecht", batch.getRows().get(0).getBirdName());
+            assertEquals("Lake", batch.getRows().get(0).getLocation());
+            assertEquals(2L, batch.getRows().get(1).getBirdId());
+            assertNull(batch.getRows().get(1).getBirdName());
+        }
+    }
+
+    @Test
+    void commitCheckpoint_shouldSurviveReopen() throws IOException {
+        // Arrange
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            journal.append(Arrays.asList(row(1L, "A"), row(2L, "B"), row(3L, "C")));
+            journal.commitCheckpoint(journal.readBatch(2).getEndPosition());
+        }
+
+        // Act
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            SightingJournal.JournalBatch batch = journal.readBatch(10);
+            journal.commitCheckpoint(batch.getEndPosition());
+
+            // Assert
+            assertEquals(1, batch.getRows().size());
+            assertEquals(3L, batch.getRows().get(0).getBirdId());
+            assertFalse(journal.hasPending());
+        }
+    }
+
+    @Test
+    void append_whenSegmentFull_shouldRotateAndDeleteReplayedSegments() throws IOException {
+        // Arrange
+        char[] padding = new char[200];
+        Arrays.fill(padding, 'x');
+        String location = new String(padding);
+
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            int rows = 1000;
+            for (int i = 0; i < rows; i++) {
+                journal.append(Collections.singletonList(row(i, location)));
+            }
+            assertTrue(journal.segmentCount() > 1);
+
+            // Act
+            List<SightingRow> replayed = new ArrayList<>();
+            while (journal.hasPending()) {
+                SightingJournal.JournalBatch batch = journal.readBatch(100);
+                replayed.addAll(batch.getRows());
+                journal.commitCheckpoint(batch.getEndPosition());
+            }
+
+            // Assert
+            assertEquals(rows, replayed.size());
+            for (int i = 0; i < rows; i++) {
+                assertEquals(i, replayed.get(i).getBirdId());
+            }
+            assertEquals(1, journal.segmentCount());
+            assertEquals(1, segmentFiles(directory).size());
+        }
+    }
+
+    @Test
+    void readBatch_afterRecordExactlyFillingSegment_shouldContinueInNextSegment() throws IOException {
+        // Arrange - eight records of 8191 bytes fill the data area of a 64 KiB segment exactly
+        char[] location = new char[8191 - SightingJournal.RECORD_HEADER_SIZE - 25];
+        Arrays.fill(location, 'x');
+        List<SightingRow> rows = new ArrayList<>();
+        for (long i = 1; i <= 8; i++) {
+            rows.add(row(i, new String(location)));
+        }
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            long end = journal.append(rows);
+            assertEquals(SEGMENT_SIZE, end);
+            SightingJournal.JournalBatch first = journal.readBatch(10);
+            journal.commitCheckpoint(first.getEndPosition());
+            journal.append(Collections.singletonList(row(9L, "Lake")));
+
+            // Act
+            SightingJournal.JournalBatch second = journal.readBatch(10);
+
+            // Assert
+            assertEquals(8, first.getRows().size());
+            assertEquals(1, second.getRows().size());
+            assertEquals(9L, second.getRows().get(0).getBirdId());
+            journal.commitCheckpoint(second.getEndPosition());
+            assertFalse(journal.hasPending());
+            assertEquals(1, journal.segmentCount());
+        }
+    }
+
+    @Test
+    void open_withTornLastRecord_shouldRecoverPrecedingRecordsAndKeepAppending() throws IOException {
+        // Arrange
+        long endOfFirst;
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            endOfFirst = journal.append(Collections.singletonList(row(1L, "Intact")));
+            journal.append(Collections.singletonList(row(2L, "Torn")));
+        }
+        // Simulate a crash in the middle of the second record: its payload is partly overwritten
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles(directory).get(0).toFile(), "rw")) {
+            file.seek(endOfFirst + SightingJournal.RECORD_HEADER_SIZE + 10);
+            file.write(new byte[]{0x7F, 0x7F, 0x7F});
+        }
+
+        // Act
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            journal.append(Collections.singletonList(row(3L, "After restart")));
+            SightingJournal.JournalBatch batch = journal.readBatch(10);
+
+            // Assert
+            assertEquals(2, batch.getRows().size());
+            assertEquals("Intact", batch.getRows().get(0).getLocation());
+            assertEquals("After restart", batch.getRows().get(1).getLocation());
+        }
+    }
+
+    @Test
+    void open_withGarbageAfterLastRecord_shouldIgnoreIt() throws IOException {
+        // Arrange
+        long end;
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            end = journal.append(Collections.singletonList(row(1L, "Intact")));
+        }
+        // A length header whose record was never completed
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles(directory).get(0).toFile(), "rw")) {
+            file.seek(end);
+            file.writeInt(40);
+        }
+
+        // Act
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            SightingJournal.JournalBatch batch = journal.readBatch(10);
+
+            // Assert
+            assertEquals(1, batch.getRows().size());
+            assertEquals("Intact", batch.getRows().get(0).getLocation());
+        }
+    }
+
+    @Test
+    void open_whenDirectoryAlreadyOpen_shouldThrow() throws IOException {
+        // Arrange
+        try (SightingJournal ignored = SightingJournal.open(directory, SEGMENT_SIZE)) {
+
+            // Act & Assert
+            assertThrows(IOException.class, () -> SightingJournal.open(directory, SEGMENT_SIZE));
+        }
+    }
+
+    @Test
+    void append_fromConcurrentThreads_shouldKeepEveryRecord() throws Exception {
+        // Arrange
+        int threads = 4;
+        int perThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try (SightingJournal journal = SightingJournal.open(directory, SEGMENT_SIZE)) {
+            // Act
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = t * 1000L;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        journal.append(Collections.singletonList(row(base + i, "Concurrent")));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // Assert
+            List<SightingRow> rows = new ArrayList<>();
+            while (journal.hasPending()) {
+                SightingJournal.JournalBatch batch = journal.readBatch(100);
+                rows.addAll(batch.getRows());
+                journal.commitCheckpoint(batch.getEndPosition());
+            }
+            assertEquals(threads * perThread, rows.size());
+            assertEquals(threads * perThread, rows.stream().map(SightingRow::getBirdId).distinct().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
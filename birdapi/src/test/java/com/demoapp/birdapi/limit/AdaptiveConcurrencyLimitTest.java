@@ -0,0 +1,98 @@
+package com.demoapp.birdapi.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_atLimit_shouldRefuseUntilReleased() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10);
+
+        // Act
+        int first = limit.tryAcquire();
+        int second = limit.tryAcquire();
+        int refused = limit.tryAcquire();
+        limit.release(second, 0, false);
+        int afterRelease = limit.tryAcquire();
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(-1, refused);
+        assertEquals(2, afterRelease);
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    void release_whenSaturatedAtSteadyLatency_shouldGrowLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            limit.release(saturate(limit), 10 * MILLIS, false);
+        }
+
+        // Assert
+        assertTrue(limit.getLimit() > 10, "limit " + limit.getLimit());
+    }
+
+    @Test
+    void release_whenLatencyRises_shouldShrinkLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 2, 100);
+        for (int i = 0; i < 50; i++) {
+            limit.release(saturate(limit), 10 * MILLIS, false);
+        }
+        int before = limit.getLimit();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limit.release(saturate(limit), 100 * MILLIS, false);
+        }
+
+        // Assert
+        assertTrue(limit.getLimit() < before, "limit " + limit.getLimit() + " not below " + before);
+    }
+
+    @Test
+    void release_withDroppedRequests_shouldBackOffToMinimum() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 3, 100);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            limit.release(limit.tryAcquire(), 10 * MILLIS, true);
+        }
+
+        // Assert
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void release_whenFarBelowLimit_shouldNotGrowLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 100);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            limit.release(limit.tryAcquire(), 10 * MILLIS, false);
+        }
+
+        // Assert
+        assertEquals(20, limit.getLimit());
+    }
+
+    // Reports the sample as if the limit had been fully used when the request started
+    private static int saturate(AdaptiveConcurrencyLimit limit) {
+        limit.tryAcquire();
+        return limit.getLimit();
+    }
+}
@@ -0,0 +1,140 @@
+package com.demoapp.birdapi.limit;
+
+import com.demoapp.birdapi.controller.BirdController;
+import com.demoapp.birdapi.controller.DashboardController;
+import com.demoapp.birdapi.controller.SightingController;
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimit readLimit;
+    private AdaptiveConcurrencyLimit writeLimit;
+    private ConcurrencyLimitInterceptor interceptor;
+    private HandlerMethod birdHandler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        readLimit = new AdaptiveConcurrencyLimit(1, 1, 10);
+        writeLimit = new AdaptiveConcurrencyLimit(1, 1, 10);
+        interceptor = new ConcurrencyLimitInterceptor(Set.of(BirdController.class), readLimit, writeLimit, meterRegistry);
+        birdHandler = new HandlerMethod(new BirdController(null, null, null), BirdController.class.getMethod("getBirdById", Long.class));
+    }
+
+    @Test
+    void preHandle_overReadLimit_shouldRejectWithServiceUnavailable() {
+        // Arrange
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/birds/1"), new MockHttpServletResponse(), birdHandler);
+
+        // Act
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class, () ->
+                interceptor.preHandle(new MockHttpServletRequest("GET", "/api/birds/2"), new MockHttpServletResponse(), birdHandler));
+
+        // Assert
+        assertEquals(1, ex.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("birdapi.concurrency.rejected").tag("type", "read").counter().count());
+        assertEquals(1.0, meterRegistry.get("birdapi.concurrency.limit").tag("type", "read").gauge().value());
+    }
+
+    @Test
+    void preHandle_writeWhileReadsAreAtLimit_shouldUseWriteLimit() {
+        // Arrange
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/birds/1"), new MockHttpServletResponse(), birdHandler);
+
+        // Act
+        boolean admitted = interceptor.preHandle(new MockHttpServletRequest("POST", "/api/birds"), new MockHttpServletResponse(), birdHandler);
+
+        // Assert
+        assertTrue(admitted);
+        assertEquals(1, readLimit.getInFlight());
+        assertEquals(1, writeLimit.getInFlight());
+    }
+
+    @Test
+    void afterCompletion_shouldReleaseSlotOnce() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/birds/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, birdHandler);
+        // The async dispatch of the same request must not take a second slot
+        interceptor.preHandle(request, response, birdHandler);
+
+        // Act
+        interceptor.afterCompletion(request, response, birdHandler, null);
+        interceptor.afterCompletion(request, response, birdHandler, null);
+
+        // Assert
+        assertEquals(0, readLimit.getInFlight());
+    }
+
+    @Test
+    void preHandle_forOtherController_shouldNotTakeSlot() throws Exception {
+        // Arrange
+        HandlerMethod dashboardHandler = new HandlerMethod(new DashboardController(null),
+                DashboardController.class.getMethod("getDashboard", List.class, int.class, int.class));
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/birds/1"), new MockHttpServletResponse(), birdHandler);
+
+        // Act
+        boolean admitted = interceptor.preHandle(new MockHttpServletRequest("GET", "/api/dashboard"), new MockHttpServletResponse(), dashboardHandler);
+
+        // Assert
+        assertTrue(admitted);
+        assertEquals(1, readLimit.getInFlight());
+    }
+
+    @Test
+    void preHandle_forStreamingExport_shouldNotTakeReadSlot() throws Exception {
+        // Arrange
+        HandlerMethod exportHandler = new HandlerMethod(new SightingController(null, null, null, null, null),
+                SightingController.class.getMethod("exportSightings", String.class, String.class, String.class,
+                        LocalDateTime.class, LocalDateTime.class));
+        interceptor = new ConcurrencyLimitInterceptor(Set.of(BirdController.class, SightingController.class),
+                readLimit, writeLimit, new SimpleMeterRegistry());
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/birds/1"), new MockHttpServletResponse(), birdHandler);
+
+        // Act
+        boolean admitted = interceptor.preHandle(new MockHttpServletRequest("GET", "/api/sightings/export"),
+                new MockHttpServletResponse(), exportHandler);
+
+        // Assert
+        assertTrue(admitted);
+        assertEquals(1, readLimit.getInFlight());
+    }
+
+    @Test
+    void afterCompletion_withShedRequest_shouldNotCountAsDrop() {
+        // Arrange
+        readLimit = new AdaptiveConcurrencyLimit(5, 1, 10);
+        interceptor = new ConcurrencyLimitInterceptor(Set.of(BirdController.class), readLimit, writeLimit, new SimpleMeterRegistry());
+        MockHttpServletRequest shed = new MockHttpServletRequest("GET", "/api/birds/search");
+        MockHttpServletRequest failed = new MockHttpServletRequest("GET", "/api/birds/search");
+        MockHttpServletResponse unavailable = new MockHttpServletResponse();
+        unavailable.setStatus(503);
+        interceptor.preHandle(shed, unavailable, birdHandler);
+        interceptor.preHandle(failed, unavailable, birdHandler);
+        shed.setAttribute(ConcurrencyLimitInterceptor.SHED_ATTRIBUTE, Boolean.TRUE);
+
+        // Act
+        interceptor.afterCompletion(shed, unavailable, birdHandler, null);
+        int limitAfterShed = readLimit.getLimit();
+        interceptor.afterCompletion(failed, unavailable, birdHandler, null);
+
+        // Assert
+        assertEquals(5, limitAfterShed);
+        assertEquals(4, readLimit.getLimit());
+        assertEquals(0, readLimit.getInFlight());
+    }
+}
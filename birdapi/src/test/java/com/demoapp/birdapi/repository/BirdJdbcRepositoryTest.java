@@ -0,0 +1,94 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.dto.BirdUpsertResultDTO;
+import com.demoapp.birdapi.model.Bird;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({BirdJdbcRepository.class, DatabasePlatform.class})
+class BirdJdbcRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BirdRepository birdRepository;
+
+    @Autowired
+    private BirdJdbcRepository birdJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new Bird("Sparrow", "Brown", 10.5, 12.0));
+        entityManager.persist(new Bird("Eagle", "Black", 50.0, 80.0));
+        entityManager.flush();
+    }
+
+    @Test
+    void upsertByNaturalKey_shouldCreateUpdateAndSkipUnchanged() {
+        // Arrange
+        List<Bird> incoming = Arrays.asList(
+                new Bird("sparrow", "BROWN", 11.0, 12.0),
+                new Bird("Eagle", "Black", 50.0, 80.0),
+                new Bird("Robin", "Red", 0.08, 25.0));
+
+        // Act
+        BirdUpsertResultDTO result = birdJdbcRepository.upsertByNaturalKey(incoming);
+        entityManager.clear();
+
+        // Assert
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getUnchanged()).isEqualTo(1);
+        assertThat(birdRepository.count()).isEqualTo(3);
+        assertThat(birdRepository.findByNameContainingIgnoreCase("sparrow", Pageable.unpaged()).getContent())
+                .singleElement()
+                .extracting(Bird::getWeight)
+                .isEqualTo(11.0);
+    }
+
+    @Test
+    void upsertByNaturalKey_withDuplicateKeysInInput_shouldKeepLastOccurrence() {
+        // Arrange
+        List<Bird> incoming = Arrays.asList(
+                new Bird("Robin", "Red", 0.08, 25.0),
+                new Bird("ROBIN", "red", 0.09, 26.0));
+
+        // Act
+        BirdUpsertResultDTO result = birdJdbcRepository.upsertByNaturalKey(incoming);
+        entityManager.clear();
+
+        // Assert
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(birdRepository.count()).isEqualTo(3);
+        assertThat(birdRepository.findByColorIgnoreCase("red", Pageable.unpaged()).getContent())
+                .singleElement()
+                .extracting(Bird::getName)
+                .isEqualTo("ROBIN");
+    }
+
+    @Test
+    void insert_withCaseVariantOfExistingBird_shouldViolateNaturalKey() {
+        // Act & Assert - schema-h2.sql mirrors ux_birds_natural_key of schema-postgresql.sql
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "INSERT INTO birds (name, color, weight, height) VALUES ('SPARROW', 'brown', 1.0, 1.0)"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
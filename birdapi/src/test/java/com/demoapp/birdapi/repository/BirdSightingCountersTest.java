@@ -0,0 +1,210 @@
+package com.demoapp.birdapi.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+// Runs without a test transaction, so counter changes are applied as they would be after a commit
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BirdSightingCountersTest {
+
+    private static final LocalDateTime TEN_THIRTY = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private BirdSightingCounters counters;
+    private long birdId;
+
+    @BeforeEach
+    void setUp() {
+        counters = new BirdSightingCounters(jdbcTemplate, namedParameterJdbcTemplate, transactionTemplate, 1000, false);
+        jdbcTemplate.update("INSERT INTO birds (name, color, weight, height) VALUES ('Sparrow', 'Brown', 10.5, 12.0)");
+        birdId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM birds", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM sightings");
+        jdbcTemplate.update("DELETE FROM birds");
+    }
+
+    @Test
+    void flush_shouldWriteAccumulatedCountAndLatestTimeOnce() {
+        // Arrange
+        counters.added(birdId, TEN_THIRTY.plusDays(1));
+        counters.added(birdId, TEN_THIRTY);
+
+        // Act
+        counters.flush();
+        counters.flush();
+
+        // Assert
+        assertEquals(2L, sightingCount());
+        assertEquals(TEN_THIRTY.plusDays(1), lastSeen());
+    }
+
+    @Test
+    void removed_shouldTakeBackCountAndRecomputeLastSeenAtFlush() {
+        // Arrange
+        addSighting(TEN_THIRTY);
+        long newest = addSighting(TEN_THIRTY.plusDays(1));
+        counters.flush();
+        jdbcTemplate.update("DELETE FROM sightings WHERE id = ?", newest);
+
+        // Act
+        counters.removed(Map.of(birdId, 1L));
+        counters.flush();
+
+        // Assert
+        assertEquals(1L, sightingCount());
+        assertEquals(TEN_THIRTY, lastSeen());
+    }
+
+    @Test
+    void reconcile_shouldRepairDriftedBirdsOnly() {
+        // Arrange
+        addSighting(TEN_THIRTY);
+        counters.flush();
+        jdbcTemplate.update("UPDATE birds SET sighting_count = 99 WHERE id = ?", birdId);
+
+        // Act
+        int repaired = counters.reconcile();
+        int repairedAgain = counters.reconcile();
+
+        // Assert
+        assertEquals(1, repaired);
+        assertEquals(0, repairedAgain);
+        assertEquals(1L, sightingCount());
+        assertEquals(TEN_THIRTY, lastSeen());
+    }
+
+    @Test
+    void reconcile_withSightingCommittedAfterItsFlush_shouldNotCountItTwice() {
+        // Arrange
+        JdbcTemplate racingJdbcTemplate = spy(jdbcTemplate);
+        counters = new BirdSightingCounters(racingJdbcTemplate, namedParameterJdbcTemplate, transactionTemplate, 1000, false);
+        addSighting(TEN_THIRTY);
+        doAnswer(invocation -> {
+            addSighting(TEN_THIRTY.plusDays(1));
+            return invocation.callRealMethod();
+        }).when(racingJdbcTemplate).queryForObject("SELECT MAX(id) FROM birds", Long.class);
+
+        // Act
+        counters.reconcile();
+        counters.flush();
+
+        // Assert
+        assertEquals(2L, sightingCount());
+        assertEquals(TEN_THIRTY.plusDays(1), lastSeen());
+    }
+
+    @Test
+    void reconcile_whileSightingCommitsButIsNotYetRecorded_shouldCountItOnce() throws Exception {
+        // Arrange
+        addSighting(TEN_THIRTY);
+        counters.flush();
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                // Registered first, so it holds the commit before the counters record it
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        committed.countDown();
+                        await(release);
+                    }
+                });
+                jdbcTemplate.update("INSERT INTO sightings (bird_id, location, date_time) VALUES (?, 'Central Park', ?)",
+                        birdId, Timestamp.valueOf(TEN_THIRTY.plusDays(1)));
+                counters.added(birdId, TEN_THIRTY.plusDays(1));
+            }));
+            assertTrue(committed.await(5, TimeUnit.SECONDS));
+
+            // Act
+            Future<Integer> reconciling = executor.submit(counters::reconcile);
+            Thread.sleep(200);
+            release.countDown();
+            writer.get(5, TimeUnit.SECONDS);
+            reconciling.get(5, TimeUnit.SECONDS);
+            counters.flush();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(2L, sightingCount());
+        assertEquals(TEN_THIRTY.plusDays(1), lastSeen());
+    }
+
+    @Test
+    void reset_shouldDiscardChangesNotYetFlushed() {
+        // Arrange
+        addSighting(TEN_THIRTY);
+        counters.flush();
+        counters.added(birdId, TEN_THIRTY.plusDays(1));
+
+        // Act
+        counters.reset();
+        counters.flush();
+
+        // Assert
+        assertEquals(1L, sightingCount());
+        assertEquals(TEN_THIRTY, lastSeen());
+    }
+
+    private long addSighting(LocalDateTime dateTime) {
+        jdbcTemplate.update("INSERT INTO sightings (bird_id, location, date_time) VALUES (?, 'Central Park', ?)",
+                birdId, Timestamp.valueOf(dateTime));
+        counters.added(birdId, dateTime);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM sightings", Long.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long sightingCount() {
+        return jdbcTemplate.queryForObject("SELECT sighting_count FROM birds WHERE id = ?", Long.class, birdId);
+    }
+
+    private LocalDateTime lastSeen() {
+        return jdbcTemplate.queryForObject("SELECT last_seen FROM birds WHERE id = ?", LocalDateTime.class, birdId);
+    }
+}
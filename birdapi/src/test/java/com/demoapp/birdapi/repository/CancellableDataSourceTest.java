@@ -0,0 +1,101 @@
+package com.demoapp.birdapi.repository;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CancellableDataSourceTest {
+
+    // Ten billion rows; runs far longer than any test waits
+    private static final String ENDLESS_QUERY = "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b";
+
+    private CancellableDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:cancellable;DB_CLOSE_DELAY=-1");
+        dataSource = new CancellableDataSource(h2);
+    }
+
+    @Test
+    void getConnection_insideScope_shouldApplyEndpointTimeout() throws Exception {
+        // Arrange
+        QueryScope scope = new QueryScope("sightings.search", 7);
+
+        // Act
+        int timeout;
+        try (QueryScope.Binding ignored = scope.bind();
+             Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            timeout = statement.getQueryTimeout();
+        }
+
+        // Assert
+        assertEquals(7, timeout);
+    }
+
+    @Test
+    void getConnection_outsideScope_shouldLeaveStatementsAlone() throws Exception {
+        // Act
+        int timeout;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            timeout = statement.getQueryTimeout();
+        }
+
+        // Assert
+        assertEquals(0, timeout);
+    }
+
+    @Test
+    void cancel_whileQueryRuns_shouldStopStatement() throws Exception {
+        // Arrange
+        QueryScope scope = new QueryScope("sightings.export", 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> query = CompletableFuture.runAsync(() -> {
+            try (QueryScope.Binding ignored = scope.bind();
+                 Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                started.countDown();
+                statement.executeQuery(ENDLESS_QUERY);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+
+        // Act
+        scope.cancel();
+
+        // Assert
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> query.get(10, TimeUnit.SECONDS));
+        assertEquals("57014", ((SQLException) ex.getCause().getCause()).getSQLState());
+    }
+
+    @Test
+    void createStatement_afterCancel_shouldFailWithoutRunning() throws Exception {
+        // Arrange
+        QueryScope scope = new QueryScope("grpc.search", 0);
+        scope.cancel();
+
+        // Act & Assert
+        try (QueryScope.Binding ignored = scope.bind();
+             Connection connection = dataSource.getConnection()) {
+            SQLException ex = assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+            assertEquals("57014", ex.getSQLState());
+        }
+    }
+}
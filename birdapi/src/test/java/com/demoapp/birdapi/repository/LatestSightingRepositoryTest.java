@@ -0,0 +1,191 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.model.LatestSighting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+// Runs without a test transaction, so the in-memory copy is refreshed as it would be after a commit
+@DataJpaTest
+@Import({LatestSightingRepository.class, DatabasePlatform.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LatestSightingRepositoryTest {
+
+    private static final LocalDateTime TEN_THIRTY = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+    @Autowired
+    private LatestSightingRepository latestSightingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private DatabasePlatform databasePlatform;
+
+    private long sparrowId;
+    private long eagleId;
+
+    @BeforeEach
+    void setUp() {
+        sparrowId = addBird("Sparrow");
+        eagleId = addBird("Eagle");
+        latestSightingRepository.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM latest_sightings");
+        jdbcTemplate.update("DELETE FROM sightings");
+        jdbcTemplate.update("DELETE FROM birds");
+    }
+
+    @Test
+    void advance_withOlderSightingArrivingLater_shouldKeepLatest() {
+        // Arrange
+        long latest = addSighting(sparrowId, "Ridge", TEN_THIRTY.plusDays(1));
+        addSighting(sparrowId, "Meadow", TEN_THIRTY);
+
+        // Act
+        List<LatestSighting> found = latestSightingRepository.findAll();
+
+        // Assert
+        assertThat(found).extracting(LatestSighting::getSightingId).containsExactly(latest);
+        assertEquals("Ridge", found.get(0).getLocation());
+        assertEquals(TEN_THIRTY.plusDays(1), found.get(0).getDateTime());
+    }
+
+    @Test
+    void advance_withSameTime_shouldPreferHigherId() {
+        // Arrange
+        addSighting(sparrowId, "Meadow", TEN_THIRTY);
+        long later = addSighting(sparrowId, "Ridge", TEN_THIRTY);
+        long eagle = addSighting(eagleId, "Lake View", TEN_THIRTY.minusDays(2));
+
+        // Act
+        List<LatestSighting> found = latestSightingRepository.findAll();
+
+        // Assert
+        assertThat(found).extracting(LatestSighting::getSightingId).containsExactly(later, eagle);
+    }
+
+    @Test
+    void replace_afterLatestSightingDeleted_shouldFallBackToPreviousOrDropBird() {
+        // Arrange
+        long previous = addSighting(sparrowId, "Meadow", TEN_THIRTY);
+        long latest = addSighting(sparrowId, "Ridge", TEN_THIRTY.plusDays(1));
+        long eagle = addSighting(eagleId, "Lake View", TEN_THIRTY);
+        jdbcTemplate.update("DELETE FROM sightings WHERE id IN (?, ?)", latest, eagle);
+
+        // Act
+        latestSightingRepository.replace(Arrays.asList(latest, eagle));
+
+        // Assert
+        assertThat(latestSightingRepository.findAll()).extracting(LatestSighting::getSightingId).containsExactly(previous);
+    }
+
+    @Test
+    void replaceDeleted_shouldRecomputeBirdsWhoseLatestSightingIsGone() {
+        // Arrange
+        long previous = addSighting(sparrowId, "Meadow", TEN_THIRTY);
+        long latest = addSighting(sparrowId, "Ridge", TEN_THIRTY.plusDays(1));
+        jdbcTemplate.update("DELETE FROM sightings WHERE id = ?", latest);
+
+        // Act
+        latestSightingRepository.replaceDeleted();
+
+        // Assert
+        assertThat(latestSightingRepository.findAll()).extracting(LatestSighting::getSightingId).containsExactly(previous);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM latest_sightings", Integer.class));
+    }
+
+    @Test
+    void deleteByBirdIdIn_shouldDropBirdFromTableAndMemory() {
+        // Arrange
+        addSighting(sparrowId, "Meadow", TEN_THIRTY);
+
+        // Act
+        latestSightingRepository.deleteByBirdIdIn(Collections.singletonList(sparrowId));
+
+        // Assert
+        assertThat(latestSightingRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void insertAll_afterBulkLoad_shouldFillLatestSightingOfEveryBird() {
+        // Arrange
+        addSighting(sparrowId, "Meadow", TEN_THIRTY);
+        long sparrowLatest = addSighting(sparrowId, "Ridge", TEN_THIRTY.plusDays(1));
+        addSighting(eagleId, "Lake View", TEN_THIRTY);
+        long eagleLatest = addSighting(eagleId, "Cliff", TEN_THIRTY);
+        jdbcTemplate.update("DELETE FROM latest_sightings");
+
+        // Act
+        int inserted = latestSightingRepository.insertAll();
+        latestSightingRepository.reload();
+
+        // Assert
+        assertEquals(2, inserted);
+        assertThat(latestSightingRepository.findAll()).extracting(LatestSighting::getSightingId)
+                .containsExactly(sparrowLatest, eagleLatest);
+    }
+
+    @Test
+    void reload_withRefreshAppliedWhileItReads_shouldKeepTheRefreshedBird() {
+        // Arrange
+        JdbcTemplate racingJdbcTemplate = spy(jdbcTemplate);
+        LatestSightingRepository racing = new LatestSightingRepository(racingJdbcTemplate, namedParameterJdbcTemplate, databasePlatform);
+        racing.reload();
+        long[] sighting = new long[1];
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            jdbcTemplate.update("INSERT INTO sightings (bird_id, location, date_time) VALUES (?, 'Meadow', ?)",
+                    sparrowId, Timestamp.valueOf(TEN_THIRTY));
+            racing.advance(sparrowId, TEN_THIRTY);
+            sighting[0] = jdbcTemplate.queryForObject("SELECT MAX(id) FROM sightings", Long.class);
+            return null;
+        }).when(racingJdbcTemplate).query(eq("SELECT bird_id, sighting_id, location, date_time FROM latest_sightings"),
+                any(RowCallbackHandler.class));
+
+        // Act
+        racing.reload();
+
+        // Assert
+        assertThat(racing.findAll()).extracting(LatestSighting::getSightingId).containsExactly(sighting[0]);
+    }
+
+    private long addBird(String name) {
+        jdbcTemplate.update("INSERT INTO birds (name, color, weight, height) VALUES (?, 'Brown', 10.5, 12.0)", name);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM birds", Long.class);
+    }
+
+    private long addSighting(long birdId, String location, LocalDateTime dateTime) {
+        jdbcTemplate.update("INSERT INTO sightings (bird_id, location, date_time) VALUES (?, ?, ?)",
+                birdId, location, Timestamp.valueOf(dateTime));
+        latestSightingRepository.advance(birdId, dateTime);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM sightings", Long.class);
+    }
+}
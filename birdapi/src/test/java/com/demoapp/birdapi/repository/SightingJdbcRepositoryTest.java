@@ -0,0 +1,83 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.ingest.SightingRow;
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.model.Sighting;
+import com.demoapp.birdapi.model.SightingView;
+import com.demoapp.birdapi.repository.SightingJdbcRepository.ReportCountIncrement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({SightingJdbcRepository.class, SightingViewJdbcRepository.class, ValueDictionary.class,
+        DatabasePlatform.class, BirdSightingCounters.class, LatestSightingRepository.class})
+class SightingJdbcRepositoryTest {
+
+    private static final LocalDateTime TEN_THIRTY = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SightingJdbcRepository sightingJdbcRepository;
+
+    @Autowired
+    private SightingViewJdbcRepository sightingViewJdbcRepository;
+
+    private Bird sparrow;
+    private Sighting first;
+    private Sighting second;
+
+    @BeforeEach
+    void setUp() {
+        sparrow = entityManager.persist(new Bird("Sparrow", "Brown", 10.5, 12.0));
+        first = entityManager.persist(new Sighting(sparrow, "Central Park", TEN_THIRTY));
+        second = entityManager.persist(new Sighting(sparrow, "Lake View", TEN_THIRTY));
+        entityManager.flush();
+        sightingViewJdbcRepository.insertFromSightings(Arrays.asList(first.getId(), second.getId()));
+    }
+
+    @Test
+    void insertAll_shouldAddSightingsWithTheirReadModelRows() {
+        // Act
+        int inserted = sightingJdbcRepository.insertAll(Collections.singletonList(
+                new SightingRow(sparrow.getId(), null, "Harbor", TEN_THIRTY)));
+        entityManager.clear();
+
+        // Assert
+        assertThat(inserted).isEqualTo(1);
+        SightingView view = entityManager.getEntityManager()
+                .createQuery("select v from SightingView v where v.location.name = 'Harbor'", SightingView.class)
+                .getSingleResult();
+        assertThat(entityManager.find(Sighting.class, view.getId()).getLocation()).isEqualTo("Harbor");
+        assertThat(view.getBirdName()).isEqualTo("Sparrow");
+        assertThat(view.getBirdColor().getName()).isEqualTo("Brown");
+    }
+
+    @Test
+    void incrementReportCounts_shouldTargetByIdOrByNaturalColumns() {
+        // Act
+        int[] updated = sightingJdbcRepository.incrementReportCounts(Arrays.asList(
+                new ReportCountIncrement(first.getId(), sparrow.getId(), "ignored", TEN_THIRTY, 2),
+                new ReportCountIncrement(null, sparrow.getId(), "Lake View", TEN_THIRTY, 3),
+                new ReportCountIncrement(null, sparrow.getId(), "Nowhere", TEN_THIRTY, 1)));
+        entityManager.clear();
+
+        // Assert
+        assertThat(updated).containsExactly(1, 1, 0);
+        assertThat(entityManager.find(Sighting.class, first.getId()).getReportCount()).isEqualTo(3);
+        assertThat(entityManager.find(Sighting.class, second.getId()).getReportCount()).isEqualTo(4);
+        assertThat(entityManager.find(SightingView.class, first.getId()).getReportCount()).isEqualTo(3);
+        assertThat(entityManager.find(SightingView.class, second.getId()).getReportCount()).isEqualTo(4);
+    }
+}
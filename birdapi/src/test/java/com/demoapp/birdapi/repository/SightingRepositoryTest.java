@@ -13,6 +13,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -264,5 +267,91 @@ class SightingRepositoryTest {
         assertThat(found.getBird().getId()).isEqualTo(eagle.getId());
         assertThat(found.getBird().getName()).isEqualTo("Eagle");
     }
-}
 
+    @Test
+    void deleteByIdIn_shouldDeleteOnlyExistingIds() {
+        // Act
+        int deleted = sightingRepository.deleteByIdIn(Arrays.asList(sighting1.getId(), 9999L));
+
+        // Assert
+        assertThat(deleted).isEqualTo(1);
+        assertThat(sightingRepository.findAll()).containsExactly(sighting2);
+    }
+
+    @Test
+    void deleteByBirdIdIn_shouldDeleteSightingsOfBird() {
+        // Act
+        int deleted = sightingRepository.deleteByBirdIdIn(Collections.singletonList(sparrow.getId()));
+
+        // Assert
+        assertThat(deleted).isEqualTo(1);
+        assertThat(sightingRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void updateLocationByIdIn_shouldUpdateAllMatchingRows() {
+        // Act
+        int updated = sightingRepository.updateLocationByIdIn(Arrays.asList(sighting1.getId(), sighting2.getId()), "Harbor");
+
+        // Assert
+        assertThat(updated).isEqualTo(2);
+        assertThat(sightingRepository.findAll()).extracting(Sighting::getLocation).containsOnly("Harbor");
+    }
+
+    @Test
+    void deleteByFilter_shouldCombineBirdNameAndDateFilters() {
+        // Arrange
+        entityManager.persist(new Sighting(sparrow, "Lake View", testDateTime.plusDays(5)));
+        entityManager.flush();
+
+        // Act
+        int deleted = sightingRepository.deleteByFilter("Sparrow", null, null, testDateTime.plusDays(1));
+
+        // Assert
+        assertThat(deleted).isEqualTo(1);
+        assertThat(sightingRepository.findById(sighting1.getId())).isEmpty();
+        assertThat(sightingRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void deleteByFilter_shouldMatchLocationIgnoringCase() {
+        // Act
+        int deleted = sightingRepository.deleteByFilter(null, "lake", null, null);
+
+        // Assert
+        assertThat(deleted).isEqualTo(1);
+        assertThat(sightingRepository.findById(sighting2.getId())).isEmpty();
+    }
+
+    @Test
+    void findLatestByBirdIdIn_shouldReturnNewestSightingsPerBird() {
+        // Arrange
+        Sighting newest = new Sighting(sparrow, "Ridge", testDateTime.plusDays(9));
+        entityManager.persist(new Sighting(sparrow, "Meadow", testDateTime.minusDays(3)));
+        entityManager.persist(newest);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Sighting> latest = sightingRepository.findLatestByBirdIdIn(Arrays.asList(sparrow.getId(), eagle.getId()), 2);
+
+        // Assert
+        assertThat(latest).extracting(Sighting::getId).containsExactly(newest.getId(), sighting1.getId(), sighting2.getId());
+    }
+
+    @Test
+    void countByIdInGroupByBird_shouldGroupCountsOfGivenSightingsByBird() {
+        // Arrange
+        Sighting meadow = new Sighting(sparrow, "Meadow", testDateTime.minusDays(3));
+        entityManager.persist(meadow);
+        entityManager.persist(new Sighting(sparrow, "Ridge", testDateTime.minusDays(4)));
+        entityManager.flush();
+
+        // Act
+        List<Object[]> counts = sightingRepository.countByIdInGroupByBird(Arrays.asList(sighting1.getId(), meadow.getId(), sighting2.getId()));
+
+        // Assert
+        assertThat(counts).extracting(row -> row[0] + "=" + row[1])
+                .containsExactlyInAnyOrder(sparrow.getId() + "=2", eagle.getId() + "=1");
+    }
+}
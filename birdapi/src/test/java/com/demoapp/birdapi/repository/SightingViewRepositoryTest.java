@@ -0,0 +1,194 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.model.Sighting;
+import com.demoapp.birdapi.model.SightingView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({SightingViewJdbcRepository.class, ValueDictionary.class, DatabasePlatform.class})
+class SightingViewRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SightingViewRepository sightingViewRepository;
+
+    @Autowired
+    private SightingViewJdbcRepository sightingViewJdbcRepository;
+
+    private Bird sparrow;
+    private Bird eagle;
+    private Sighting sighting1;
+    private Sighting sighting2;
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() {
+        testDateTime = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+        sparrow = entityManager.persist(new Bird("Sparrow", "Brown", 10.5, 12.0));
+        eagle = entityManager.persist(new Bird("Eagle", "Black", 50.0, 80.0));
+        sighting1 = entityManager.persist(new Sighting(sparrow, "Central Park", testDateTime));
+        sighting2 = entityManager.persist(new Sighting(eagle, "Lake View", testDateTime.plusDays(1)));
+        entityManager.flush();
+        sightingViewJdbcRepository.insertFromSightings(Arrays.asList(sighting1.getId(), sighting2.getId()));
+    }
+
+    @Test
+    void insertFromSightings_shouldCopySightingWithBirdColumns() {
+        // Act
+        SightingView view = sightingViewRepository.findById(sighting1.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(sparrow.getId(), view.getBirdId());
+        assertEquals("Sparrow", view.getBirdName());
+        assertEquals("Brown", view.getBirdColor().getName());
+        assertEquals("Central Park", view.getLocation().getName());
+        assertEquals(testDateTime, view.getDateTime());
+        assertEquals(1, view.getReportCount());
+    }
+
+    @Test
+    void findByFilterAfterId_shouldReturnNextKeysetPageInIdOrder() {
+        // Arrange
+        addSighting(sparrow, "Central Park North", testDateTime.plusDays(3));
+
+        // Act
+        List<SightingView> firstPage = sightingViewRepository.findByFilterAfterId(null, "central", null, null, null, 1);
+        List<SightingView> secondPage = sightingViewRepository.findByFilterAfterId(null, "central", null, null, firstPage.get(0).getId(), 1);
+
+        // Assert
+        assertThat(firstPage).extracting(SightingView::getId).containsExactly(sighting1.getId());
+        assertThat(secondPage).extracting(view -> view.getLocation().getName()).containsExactly("Central Park North");
+        assertThat(secondPage.get(0).getBirdName()).isEqualTo("Sparrow");
+    }
+
+    @Test
+    void search_withAllFilters_shouldReturnMatchingPageWithBirds() {
+        // Arrange
+        addSighting(sparrow, "Central Park North", testDateTime.plusDays(5));
+
+        // Act
+        Page<SightingView> result = sightingViewRepository.search("Sparrow", "PARK", testDateTime.minusDays(1), testDateTime.plusDays(1),
+                PageRequest.of(0, 10, Sort.by("id")));
+
+        // Assert
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent()).extracting(SightingView::getId).containsExactly(sighting1.getId());
+        assertThat(result.getContent().get(0).getBirdName()).isEqualTo("Sparrow");
+    }
+
+    @Test
+    void search_withoutFilters_shouldSortAndCountAll() {
+        // Arrange
+        addSighting(sparrow, "Harbor", testDateTime.plusDays(2));
+
+        // Act
+        Page<SightingView> result = sightingViewRepository.search(null, "", null, null,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "dateTime")));
+
+        // Assert
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting(view -> view.getLocation().getName()).containsExactly("Harbor", "Lake View");
+    }
+
+    @Test
+    void search_sortedByBirdName_shouldOrderByDenormalizedColumn() {
+        // Act
+        Page<SightingView> result = sightingViewRepository.search(null, null, null, null,
+                PageRequest.of(0, 10, Sort.by("bird.name")));
+
+        // Assert
+        assertThat(result.getContent()).extracting(SightingView::getId).containsExactly(sighting2.getId(), sighting1.getId());
+    }
+
+    @Test
+    void search_sortedByLocation_shouldOrderByDictionaryName() {
+        // Arrange
+        addSighting(eagle, "Aviary", testDateTime.plusDays(2));
+
+        // Act
+        Page<SightingView> result = sightingViewRepository.search(null, null, null, null,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "location")));
+
+        // Assert
+        assertThat(result.getContent()).extracting(view -> view.getLocation().getName())
+                .containsExactly("Lake View", "Central Park", "Aviary");
+    }
+
+    @Test
+    void search_withUnknownSortProperty_shouldFail() {
+        // Act & Assert
+        assertThrows(PropertyReferenceException.class, () -> sightingViewRepository.search(null, null, null, null,
+                PageRequest.of(0, 10, Sort.by("location; drop table sightings"))));
+    }
+
+    @Test
+    void updateBird_shouldRewriteEverySightingOfTheBird() {
+        // Arrange
+        addSighting(sparrow, "Harbor", testDateTime.plusDays(2));
+
+        // Act
+        int updated = sightingViewJdbcRepository.updateBird(sparrow.getId(), "House Sparrow", "Grey", 11.0, 12.5);
+
+        // Assert
+        assertEquals(2, updated);
+        assertThat(sightingViewRepository.search("House Sparrow", null, null, null, PageRequest.of(0, 10)).getContent())
+                .extracting(view -> view.getBirdColor().getName()).containsOnly("Grey");
+        assertEquals("Eagle", sightingViewRepository.findById(sighting2.getId()).orElseThrow().getBirdName());
+    }
+
+    @Test
+    void refreshBirdsByLowerName_shouldCopyChangedBirdColumns() {
+        // Arrange
+        entityManager.getEntityManager().createQuery("update Bird b set b.color = 'Grey' where b.id = :id")
+                .setParameter("id", sparrow.getId())
+                .executeUpdate();
+
+        // Act
+        int updated = sightingViewJdbcRepository.refreshBirdsByLowerName(Collections.singleton("sparrow"));
+
+        // Assert
+        assertEquals(1, updated);
+        entityManager.clear();
+        assertEquals("Grey", sightingViewRepository.findById(sighting1.getId()).orElseThrow().getBirdColor().getName());
+    }
+
+    @Test
+    void countByFilterGroupByBird_shouldCountMatchingSightingsPerBird() {
+        // Arrange
+        addSighting(sparrow, "Lake View", testDateTime.plusDays(2));
+
+        // Act
+        List<Object[]> counts = sightingViewRepository.countByFilterGroupByBird(null, "lake", null, null);
+
+        // Assert
+        assertThat(counts).extracting(row -> row[0] + "=" + row[1])
+                .containsExactlyInAnyOrder(sparrow.getId() + "=1", eagle.getId() + "=1");
+    }
+
+    private void addSighting(Bird bird, String location, LocalDateTime dateTime) {
+        Sighting sighting = entityManager.persistAndFlush(new Sighting(bird, location, dateTime));
+        sightingViewJdbcRepository.insertFromSightings(Collections.singletonList(sighting.getId()));
+        entityManager.clear();
+    }
+}
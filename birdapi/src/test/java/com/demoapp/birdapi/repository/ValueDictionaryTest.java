@@ -0,0 +1,59 @@
+package com.demoapp.birdapi.repository;
+
+import com.demoapp.birdapi.repository.ValueDictionary.Kind;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ValueDictionary.class, DatabasePlatform.class})
+class ValueDictionaryTest {
+
+    @Autowired
+    private ValueDictionary valueDictionary;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void intern_shouldStoreEachDistinctValueOnce() {
+        // Act
+        Map<String, Integer> first = valueDictionary.intern(Kind.LOCATION, Arrays.asList("Central Park", "Lake View", "Central Park"));
+        Map<String, Integer> second = valueDictionary.intern(Kind.LOCATION, Arrays.asList("Lake View", "Harbor"));
+
+        // Assert
+        assertEquals(2, first.size());
+        assertNotEquals(first.get("Central Park"), first.get("Lake View"));
+        assertEquals(first.get("Lake View"), second.get("Lake View"));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM locations", Integer.class));
+    }
+
+    @Test
+    void name_shouldDecodeInternedId() {
+        // Arrange
+        int id = valueDictionary.intern(Kind.COLOR, "Brown");
+
+        // Act & Assert
+        assertEquals("Brown", valueDictionary.name(Kind.COLOR, id));
+        assertNull(valueDictionary.name(Kind.COLOR, null));
+    }
+
+    @Test
+    void intern_shouldKeepDictionariesApart() {
+        // Act
+        int location = valueDictionary.intern(Kind.LOCATION, "Brown");
+        int color = valueDictionary.intern(Kind.COLOR, "Brown");
+
+        // Assert
+        assertEquals("Brown", valueDictionary.name(Kind.LOCATION, location));
+        assertEquals("Brown", valueDictionary.name(Kind.COLOR, color));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM colors WHERE name = 'Brown'", Integer.class));
+    }
+}
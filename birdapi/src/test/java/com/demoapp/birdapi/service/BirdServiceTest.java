@@ -1,10 +1,18 @@
 package com.demoapp.birdapi.service;
 
 import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.dto.BirdUpsertResultDTO;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
 import com.demoapp.birdapi.exception.ResourceNotFoundException;
 import com.demoapp.birdapi.mapper.BirdMapper;
 import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.repository.BirdJdbcRepository;
 import com.demoapp.birdapi.repository.BirdRepository;
+import com.demoapp.birdapi.repository.BirdSightingCounters;
+import com.demoapp.birdapi.repository.LatestSightingRepository;
+import com.demoapp.birdapi.repository.SightingRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.repository.SightingViewRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +24,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -28,9 +37,27 @@ class BirdServiceTest {
     @Mock
     private BirdRepository birdRepository;
 
+    @Mock
+    private SightingRepository sightingRepository;
+
+    @Mock
+    private BirdJdbcRepository birdJdbcRepository;
+
     @Mock
     private BirdMapper birdMapper;
 
+    @Mock
+    private SightingViewRepository sightingViewRepository;
+
+    @Mock
+    private SightingViewJdbcRepository sightingViewJdbcRepository;
+
+    @Mock
+    private BirdSightingCounters birdSightingCounters;
+
+    @Mock
+    private LatestSightingRepository latestSightingRepository;
+
     @InjectMocks
     private BirdService birdService;
 
@@ -114,6 +141,7 @@ class BirdServiceTest {
         verify(birdRepository).findById(1L);
         verify(birdMapper).updateEntityFromDTO(birdDTO, bird);
         verify(birdRepository).save(bird);
+        verify(sightingViewJdbcRepository).updateBird(1L, "Sparrow", "Brown", 10.5, 12.0);
         verify(birdMapper).toDTO(bird);
     }
 
@@ -129,27 +157,43 @@ class BirdServiceTest {
     }
 
     @Test
-    void deleteBird_whenExists_shouldDelete() {
+    void deleteBird_whenExists_shouldDeleteBirdAndSightings() {
         // Arrange
-        when(birdRepository.existsById(1L)).thenReturn(true);
+        when(birdRepository.deleteByIdIn(Collections.singletonList(1L))).thenReturn(1);
 
         // Act
         birdService.deleteBird(1L);
 
         // Assert
-        verify(birdRepository).existsById(1L);
-        verify(birdRepository).deleteById(1L);
+        verify(sightingRepository).deleteByBirdIdIn(Collections.singletonList(1L));
+        verify(sightingViewRepository).deleteByBirdIdIn(Collections.singletonList(1L));
+        verify(birdRepository).deleteByIdIn(Collections.singletonList(1L));
+        verify(birdRepository, never()).existsById(anyLong());
     }
 
     @Test
     void deleteBird_whenNotExists_shouldThrowException() {
         // Arrange
-        when(birdRepository.existsById(999L)).thenReturn(false);
+        when(birdRepository.deleteByIdIn(Collections.singletonList(999L))).thenReturn(0);
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> birdService.deleteBird(999L));
-        verify(birdRepository).existsById(999L);
-        verify(birdRepository, never()).deleteById(anyLong());
+        verify(birdRepository).deleteByIdIn(Collections.singletonList(999L));
+    }
+
+    @Test
+    void deleteBirds_shouldDeleteDistinctIdsAndReportCounts() {
+        // Arrange
+        when(sightingRepository.deleteByBirdIdIn(Arrays.asList(1L, 2L, 3L))).thenReturn(4);
+        when(birdRepository.deleteByIdIn(Arrays.asList(1L, 2L, 3L))).thenReturn(2);
+
+        // Act
+        BulkOperationResultDTO result = birdService.deleteBirds(Arrays.asList(1L, 2L, 2L, 3L));
+
+        // Assert
+        assertEquals(3, result.getRequested());
+        assertEquals(2, result.getAffected());
+        assertEquals(4, result.getSightingsDeleted());
     }
 
     @Test
@@ -191,5 +235,34 @@ class BirdServiceTest {
         verify(birdRepository).findByNameContainingIgnoreCaseAndColorIgnoreCase("Sparrow", "Brown", pageable);
         verify(birdMapper).toDTO(bird);
     }
-}
 
+    @Test
+    void upsertBirds_shouldMapAndDelegateToJdbcRepository() {
+        // Arrange
+        when(birdMapper.toEntity(birdDTO)).thenReturn(bird);
+        when(birdJdbcRepository.upsertByNaturalKey(Collections.singletonList(bird)))
+                .thenReturn(new BirdUpsertResultDTO(1, 0, 0));
+
+        // Act
+        BirdUpsertResultDTO result = birdService.upsertBirds(Collections.singletonList(birdDTO));
+
+        // Assert
+        assertEquals(1, result.getCreated());
+        verify(birdJdbcRepository).upsertByNaturalKey(Collections.singletonList(bird));
+        verifyNoInteractions(sightingViewJdbcRepository);
+    }
+
+    @Test
+    void upsertBirds_whenBirdsUpdated_shouldRefreshTheirSightingViews() {
+        // Arrange
+        when(birdMapper.toEntity(birdDTO)).thenReturn(bird);
+        when(birdJdbcRepository.upsertByNaturalKey(Collections.singletonList(bird)))
+                .thenReturn(new BirdUpsertResultDTO(0, 1, 0));
+
+        // Act
+        birdService.upsertBirds(Collections.singletonList(birdDTO));
+
+        // Assert
+        verify(sightingViewJdbcRepository).refreshBirdsByLowerName(Collections.singleton("sparrow"));
+    }
+}
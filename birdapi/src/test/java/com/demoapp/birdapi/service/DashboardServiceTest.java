@@ -0,0 +1,118 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.dto.BirdDTO;
+import com.demoapp.birdapi.dto.DashboardDTO;
+import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    private static final Set<String> ALL_SECTIONS = new HashSet<>(Arrays.asList(
+            DashboardService.BIRDS, DashboardService.RECENT_SIGHTINGS, DashboardService.SUMMARY));
+
+    @Mock
+    private BirdService birdService;
+
+    @Mock
+    private SightingService sightingService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private DashboardService dashboardService(long timeoutMillis) {
+        return new DashboardService(birdService, sightingService, executor, 30_000, 5_000, 10_000, timeoutMillis);
+    }
+
+    @Test
+    void getDashboard_shouldAssembleAllSectionsAndAttachBirdsToSightings() {
+        // Arrange
+        BirdDTO sparrow = new BirdDTO(1L, "Sparrow", "Brown", 10.0, 5.0);
+        when(birdService.getAllBirds(any())).thenReturn(new PageImpl<>(Collections.singletonList(sparrow)));
+        when(sightingService.searchSightingSummaries(isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(new PageImpl<>(Collections.singletonList(new SightingDTO(7L, 1L, "Central Park", LocalDateTime.of(2025, 1, 15, 10, 30)))));
+        when(birdService.getBirdsByIds(anyCollection())).thenReturn(Collections.singletonList(sparrow));
+        when(birdService.countBirds()).thenReturn(1L);
+        when(sightingService.countSightings()).thenReturn(12L);
+
+        // Act
+        DashboardDTO dashboard = dashboardService(5_000).getDashboard(ALL_SECTIONS, 10, 10);
+
+        // Assert
+        assertEquals(Collections.singletonList(sparrow), dashboard.getBirds());
+        assertEquals("Sparrow", dashboard.getRecentSightings().get(0).getBird().getName());
+        assertEquals(1L, dashboard.getSummary().getBirdCount());
+        assertEquals(12L, dashboard.getSummary().getSightingCount());
+    }
+
+    @Test
+    void getDashboard_shouldServeEachSectionFromItsOwnCacheAndSkipUnrequestedOnes() {
+        // Arrange
+        when(birdService.countBirds()).thenReturn(1L);
+        when(sightingService.countSightings()).thenReturn(12L);
+        DashboardService dashboardService = dashboardService(5_000);
+        Set<String> summaryOnly = Collections.singleton(DashboardService.SUMMARY);
+
+        // Act
+        dashboardService.getDashboard(summaryOnly, 10, 10);
+        DashboardDTO dashboard = dashboardService.getDashboard(summaryOnly, 10, 10);
+
+        // Assert
+        assertNull(dashboard.getBirds());
+        assertNull(dashboard.getRecentSightings());
+        assertEquals(12L, dashboard.getSummary().getSightingCount());
+        verify(sightingService, times(1)).countSightings();
+        verify(birdService, never()).getAllBirds(any());
+        assertEquals(10_000, dashboardService.maxAgeMillis(summaryOnly));
+        assertEquals(5_000, dashboardService.maxAgeMillis(ALL_SECTIONS));
+    }
+
+    @Test
+    void getDashboard_whenSectionIsTooSlow_shouldThrowServiceUnavailable() {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(birdService.countBirds()).thenAnswer(invocation -> {
+            release.await();
+            return 1L;
+        });
+
+        // Act & Assert
+        try {
+            assertThrows(ServiceUnavailableException.class,
+                    () -> dashboardService(50).getDashboard(Collections.singleton(DashboardService.SUMMARY), 10, 10));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.repository.BirdSightingCounters;
+import com.demoapp.birdapi.repository.DatabasePlatform;
+import com.demoapp.birdapi.repository.LatestSightingRepository;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.repository.SnapshotJdbcRepository;
+import com.demoapp.birdapi.snapshot.SnapshotProgress;
+import com.demoapp.birdapi.snapshot.SnapshotWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseSnapshotServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private SnapshotJdbcRepository snapshotJdbcRepository;
+
+    @Mock
+    private SightingViewJdbcRepository sightingViewJdbcRepository;
+
+    @Mock
+    private LatestSightingRepository latestSightingRepository;
+
+    @Mock
+    private BirdSightingCounters birdSightingCounters;
+
+    @Mock
+    private SightingJdbcRepository sightingJdbcRepository;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private DatabasePlatform databasePlatform;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SightingDeduplicator sightingDeduplicator;
+    private DatabaseSnapshotService databaseSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        sightingDeduplicator = new SightingDeduplicator(sightingJdbcRepository, new SimpleMeterRegistry(),
+                SightingDeduplicator.Mode.MERGE, 60, 1000);
+        databaseSnapshotService = new DatabaseSnapshotService(snapshotJdbcRepository, sightingViewJdbcRepository,
+                latestSightingRepository, birdSightingCounters, sightingDeduplicator, idempotencyService,
+                databasePlatform, transactionManager, directory.toString(), 1, 60_000);
+    }
+
+    @Test
+    void restore_shouldDropInMemoryStateOfTheReplacedData() throws IOException {
+        // Arrange
+        try (SnapshotWriter writer = SnapshotWriter.create(directory.resolve("prod.bsnap"), 1,
+                new SnapshotProgress("SNAPSHOT", "prod.bsnap", 60_000))) {
+            writer.beginTable("birds", List.of("id", "name")).close();
+            writer.endTable(0);
+            writer.beginTable("sightings", List.of("id", "bird_id")).close();
+            writer.endTable(0);
+            writer.commit();
+        }
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(snapshotJdbcRepository.copyIn(anyString(), anyList(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, InputStream.class).readAllBytes();
+            return 0L;
+        });
+        sightingDeduplicator.remember(7L, 1L, "Central Park", LocalDateTime.of(2025, 1, 15, 10, 30));
+
+        // Act
+        databaseSnapshotService.restore("prod");
+
+        // Assert
+        assertEquals(0, sightingDeduplicator.trackedReports());
+        verify(snapshotJdbcRepository).truncate(List.of("idempotency_keys"));
+        verify(idempotencyService).clearCache();
+        verify(latestSightingRepository).reloadIfLoaded();
+        InOrder counters = inOrder(birdSightingCounters);
+        counters.verify(birdSightingCounters).reset();
+        counters.verify(birdSightingCounters).reconcile();
+    }
+}
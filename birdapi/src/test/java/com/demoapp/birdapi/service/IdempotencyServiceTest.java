@@ -0,0 +1,125 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
+import com.demoapp.birdapi.exception.IdempotencyKeyConflictException;
+import com.demoapp.birdapi.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs without a test transaction, like the controllers, so every repository call commits on its own
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private IdempotencyService node(long ttlSeconds) {
+        return new IdempotencyService(idempotencyRecordRepository, objectMapper, ttlSeconds, 100, 300);
+    }
+
+    private static ResponseEntity<BulkOperationResultDTO> count(AtomicInteger executions) {
+        return ResponseEntity.ok(new BulkOperationResultDTO(2, executions.incrementAndGet()));
+    }
+
+    @Test
+    void execute_withKeyCompletedOnOtherNode_shouldReplayStoredResponse() {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+        node(3600).execute("key-replay", "POST /test", "payload", BulkOperationResultDTO.class, () -> count(executions));
+
+        // Act
+        ResponseEntity<BulkOperationResultDTO> replayed =
+                node(3600).execute("key-replay", "POST /test", "payload", BulkOperationResultDTO.class, () -> count(executions));
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.OK, replayed.getStatusCode());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(1, replayed.getBody().getAffected());
+        assertTrue(idempotencyRecordRepository.findById("key-replay").get().isCompleted());
+    }
+
+    @Test
+    void execute_whileKeyIsClaimedByRunningRequest_shouldThrowConflict() {
+        // Arrange
+        IdempotencyService node = node(3600);
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyConflictException.class, () ->
+                node.execute("key-running", "POST /test", "payload", BulkOperationResultDTO.class, () ->
+                        node(3600).execute("key-running", "POST /test", "payload", BulkOperationResultDTO.class, () -> count(executions))));
+        assertEquals(0, executions.get());
+        assertFalse(idempotencyRecordRepository.findById("key-running").isPresent());
+    }
+
+    @Test
+    void execute_withClaimWhoseLeaseLapsed_shouldTakeOverAndStoreResponse() {
+        // Arrange - a request claimed the key, then its process died before storing the response
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyService node = node(3600);
+        AtomicInteger executions = new AtomicInteger();
+        node.execute("key-probe", "POST /test", "payload", BulkOperationResultDTO.class, () -> count(executions));
+        String fingerprint = idempotencyRecordRepository.findById("key-probe").get().getFingerprint();
+        idempotencyRecordRepository.claim("key-abandoned", fingerprint, now.minusSeconds(1), now.minusSeconds(600), now.plusSeconds(3600));
+
+        // Act
+        ResponseEntity<BulkOperationResultDTO> retried =
+                node.execute("key-abandoned", "POST /test", "payload", BulkOperationResultDTO.class, () -> count(executions));
+
+        // Assert
+        assertEquals(2, executions.get());
+        assertNull(retried.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertTrue(idempotencyRecordRepository.findById("key-abandoned").get().isCompleted());
+    }
+
+    @Test
+    void execute_whenActionFails_shouldReleaseKeyForRetry() {
+        // Arrange
+        IdempotencyService node = node(3600);
+        AtomicInteger executions = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () ->
+                node.execute("key-failed", "POST /test", "payload", BulkOperationResultDTO.class, () -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        // Act
+        ResponseEntity<BulkOperationResultDTO> retried =
+                node.execute("key-failed", "POST /test", "payload", BulkOperationResultDTO.class, () -> count(executions));
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertNull(retried.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_withExpiredKey_shouldRunAgainAndPurgeShouldDeleteExpired() {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+        node(-60).execute("key-expired", "POST /test", "payload", BulkOperationResultDTO.class, () -> count(executions));
+        node(-60).execute("key-expired-2", "POST /test", "payload", BulkOperationResultDTO.class, () -> count(executions));
+
+        // Act
+        node(3600).execute("key-expired", "POST /test", "payload", BulkOperationResultDTO.class, () -> count(executions));
+        node(3600).purgeExpired();
+
+        // Assert
+        assertEquals(3, executions.get());
+        assertTrue(idempotencyRecordRepository.findById("key-expired").get().getExpiresAt().isAfter(LocalDateTime.now()));
+        assertFalse(idempotencyRecordRepository.findById("key-expired-2").isPresent());
+    }
+}
@@ -0,0 +1,148 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.archive.ArchivedSighting;
+import com.demoapp.birdapi.archive.SightingArchive;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
+import com.demoapp.birdapi.repository.DatabasePlatform;
+import com.demoapp.birdapi.repository.JobCheckpointRepository;
+import com.demoapp.birdapi.repository.SightingRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.repository.ValueDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Runs without a test transaction, so each segment commits on its own as in production
+@DataJpaTest
+@Import({SightingViewJdbcRepository.class, ValueDictionary.class, DatabasePlatform.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SightingArchiveServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private SightingViewJdbcRepository sightingViewJdbcRepository;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private SightingArchive archive;
+    private SightingArchiveService service;
+    private long birdId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        archive = SightingArchive.open(directory);
+        // The read model and counters are covered by SightingServiceTest; here only the rows matter
+        SightingService sightingService = mock(SightingService.class);
+        when(sightingService.deleteSightings(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            namedParameterJdbcTemplate.update("DELETE FROM sighting_view WHERE id IN (:ids)", Collections.singletonMap("ids", ids));
+            int deleted = namedParameterJdbcTemplate.update("DELETE FROM sightings WHERE id IN (:ids)",
+                    Collections.singletonMap("ids", ids));
+            return new BulkOperationResultDTO(ids.size(), deleted);
+        });
+        service = new SightingArchiveService(archive, sightingViewJdbcRepository, sightingRepository, sightingService,
+                jobCheckpointRepository, transactionTemplate, new SimpleMeterRegistry(), 0, 2, 600);
+        jdbcTemplate.update("INSERT INTO birds (name, color, weight, height) VALUES ('Sparrow', 'Brown', 10.5, 12.0)");
+        birdId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM birds", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM job_checkpoints");
+        jdbcTemplate.update("DELETE FROM sighting_view");
+        jdbcTemplate.update("DELETE FROM sightings");
+        jdbcTemplate.update("DELETE FROM birds");
+    }
+
+    @Test
+    void archive_shouldMoveOlderSightingsIntoSegmentsAndDeleteThem() throws IOException {
+        // Arrange
+        long oldest = addSighting("Central Park", CUTOFF.minusDays(3));
+        addSighting("Lake View", CUTOFF.minusDays(2));
+        addSighting("Central Park", CUTOFF.minusDays(1));
+        long kept = addSighting("Central Park", CUTOFF.plusDays(1));
+
+        // Act
+        long archived = service.archive(CUTOFF);
+
+        // Assert
+        assertEquals(3, archived);
+        assertEquals(2, archive.segments().size());
+        assertEquals(Collections.singletonList(kept), jdbcTemplate.queryForList("SELECT id FROM sightings", Long.class));
+        ArchivedSighting first = archive.segments().get(0).readAll().get(0);
+        assertEquals(oldest, first.getId());
+        assertEquals("Sparrow", first.getBirdName());
+        assertEquals("Brown", first.getBirdColor());
+        assertEquals("Central Park", first.getLocation());
+        assertTrue(archive.pending().isEmpty());
+    }
+
+    @Test
+    void refresh_withPendingSegments_shouldPromoteDeletedAndDiscardStillPresent() throws IOException {
+        // Arrange
+        long deleted = addSighting("Central Park", CUTOFF.minusDays(2));
+        long present = addSighting("Lake View", CUTOFF.minusDays(1));
+        List<ArchivedSighting> rows = transactionTemplate.execute(status -> sightingViewJdbcRepository.findOldestForUpdate(CUTOFF, 10));
+        archive.writePending(rows.subList(0, 1));
+        archive.writePending(rows.subList(1, 2));
+        jdbcTemplate.update("DELETE FROM sighting_view WHERE id = ?", deleted);
+        jdbcTemplate.update("DELETE FROM sightings WHERE id = ?", deleted);
+
+        // Act
+        service.refresh();
+
+        // Assert
+        assertTrue(archive.pending().isEmpty());
+        assertEquals(1, archive.segments().size());
+        assertThat(archive.segments().get(0).readAll()).extracting(ArchivedSighting::getId).containsExactly(deleted);
+        assertEquals(Collections.singletonList(present), jdbcTemplate.queryForList("SELECT id FROM sightings", Long.class));
+    }
+
+    private long addSighting(String location, LocalDateTime dateTime) {
+        jdbcTemplate.update("INSERT INTO sightings (bird_id, location, date_time) VALUES (?, ?, ?)",
+                birdId, location, Timestamp.valueOf(dateTime));
+        long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM sightings", Long.class);
+        transactionTemplate.executeWithoutResult(status -> sightingViewJdbcRepository.insertFromSightings(Collections.singletonList(id)));
+        return id;
+    }
+}
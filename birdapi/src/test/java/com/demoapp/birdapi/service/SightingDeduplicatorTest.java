@@ -0,0 +1,141 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.ingest.SightingRow;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SightingDeduplicatorTest {
+
+    private static final LocalDateTime TEN_THIRTY = LocalDateTime.of(2025, 1, 15, 10, 30);
+
+    @Mock
+    private SightingJdbcRepository sightingJdbcRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SightingDeduplicator deduplicator(SightingDeduplicator.Mode mode) {
+        return new SightingDeduplicator(sightingJdbcRepository, meterRegistry, mode, 60, 1000);
+    }
+
+    private static SightingRow row(long birdId, String location, LocalDateTime dateTime) {
+        return new SightingRow(birdId, null, location, dateTime);
+    }
+
+    private double counter(String outcome) {
+        return meterRegistry.get("birdapi.sightings.dedupe").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void plan_shouldMergeReportsOfSameBirdAndPlaceWithinWindow() {
+        // Arrange
+        SightingDeduplicator deduplicator = deduplicator(SightingDeduplicator.Mode.MERGE);
+        List<SightingRow> rows = Arrays.asList(
+                row(1L, "Central Park", TEN_THIRTY),
+                row(1L, "central park!", TEN_THIRTY.plusSeconds(20)),
+                row(1L, "Central Park", TEN_THIRTY.plusSeconds(90)),
+                row(2L, "Central Park", TEN_THIRTY.plusSeconds(5)),
+                row(1L, "Lake View", TEN_THIRTY.plusSeconds(5)));
+        when(sightingJdbcRepository.incrementReportCounts(anyList())).thenReturn(new int[]{1});
+
+        // Act
+        SightingDeduplicator.Plan plan = deduplicator.plan(rows);
+        deduplicator.apply(plan);
+        deduplicator.commit(plan);
+
+        // Assert
+        assertEquals(4, plan.getInserts().size());
+        assertEquals(1, plan.getSuppressed());
+        verify(sightingJdbcRepository).insertAll(plan.getInserts());
+        verify(sightingJdbcRepository).incrementReportCounts(argThat(increments -> increments.size() == 1
+                && increments.get(0).getIncrement() == 1
+                && increments.get(0).getSightingId() == null
+                && increments.get(0).getDateTime().equals(TEN_THIRTY)));
+        assertEquals(4, counter("accepted"));
+        assertEquals(1, counter("merged"));
+        assertEquals(4, deduplicator.trackedReports());
+    }
+
+    @Test
+    void plan_shouldMatchCommittedReportsAcrossBucketBoundary() {
+        // Arrange
+        SightingDeduplicator deduplicator = deduplicator(SightingDeduplicator.Mode.MERGE);
+        LocalDateTime endOfBucket = LocalDateTime.of(2025, 1, 15, 10, 30, 59);
+        deduplicator.remember(42L, 1L, "Central Park", endOfBucket);
+
+        // Act
+        SightingDeduplicator.Plan plan = deduplicator.plan(Collections.singletonList(row(1L, "Central Park", endOfBucket.plusSeconds(2))));
+
+        // Assert
+        assertTrue(plan.getInserts().isEmpty());
+        assertEquals(1, plan.getSuppressed());
+        assertEquals(42L, deduplicator.findDuplicate(1L, "CENTRAL PARK", endOfBucket.minusSeconds(30)).get().getSightingId());
+    }
+
+    @Test
+    void plan_shouldIgnoreUncommittedPlans() {
+        // Arrange
+        SightingDeduplicator deduplicator = deduplicator(SightingDeduplicator.Mode.MERGE);
+        deduplicator.plan(Collections.singletonList(row(1L, "Central Park", TEN_THIRTY)));
+
+        // Act
+        SightingDeduplicator.Plan retry = deduplicator.plan(Collections.singletonList(row(1L, "Central Park", TEN_THIRTY)));
+
+        // Assert
+        assertEquals(1, retry.getInserts().size());
+    }
+
+    @Test
+    void apply_whenMergeTargetIsGone_shouldInsertDuplicatesAndForgetTarget() {
+        // Arrange
+        SightingDeduplicator deduplicator = deduplicator(SightingDeduplicator.Mode.MERGE);
+        deduplicator.remember(42L, 1L, "Central Park", TEN_THIRTY);
+        SightingRow repeat = row(1L, "Central Park", TEN_THIRTY.plusSeconds(10));
+        when(sightingJdbcRepository.incrementReportCounts(anyList())).thenReturn(new int[]{0});
+
+        // Act
+        SightingDeduplicator.Plan plan = deduplicator.plan(Collections.singletonList(repeat));
+        deduplicator.apply(plan);
+        deduplicator.commit(plan);
+
+        // Assert
+        verify(sightingJdbcRepository).insertAll(Collections.singletonList(repeat));
+        assertFalse(deduplicator.findDuplicate(1L, "Central Park", TEN_THIRTY).isPresent());
+        assertEquals(0, counter("merged"));
+    }
+
+    @Test
+    void apply_inDropMode_shouldNotTouchTargets() {
+        // Arrange
+        SightingDeduplicator deduplicator = deduplicator(SightingDeduplicator.Mode.DROP);
+        deduplicator.remember(42L, 1L, "Central Park", TEN_THIRTY);
+
+        // Act
+        SightingDeduplicator.Plan plan = deduplicator.plan(Collections.singletonList(row(1L, "Central Park", TEN_THIRTY)));
+        deduplicator.apply(plan);
+        deduplicator.commit(plan);
+
+        // Assert
+        verify(sightingJdbcRepository, never()).incrementReportCounts(anyList());
+        assertEquals(1, counter("dropped"));
+    }
+
+    @Test
+    void normalize_shouldIgnoreCasePunctuationAndSpacing() {
+        // Act & Assert
+        assertEquals("central park ny", SightingDeduplicator.normalize("  Central Park,  NY. "));
+    }
+}
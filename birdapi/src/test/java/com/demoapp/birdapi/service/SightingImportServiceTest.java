@@ -0,0 +1,94 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.dto.ImportResultDTO;
+import com.demoapp.birdapi.ingest.ImportFormat;
+import com.demoapp.birdapi.model.Bird;
+import com.demoapp.birdapi.model.Sighting;
+import com.demoapp.birdapi.repository.BirdSightingCounters;
+import com.demoapp.birdapi.repository.DatabasePlatform;
+import com.demoapp.birdapi.repository.LatestSightingRepository;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+import com.demoapp.birdapi.repository.SightingRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.repository.ValueDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({SightingImportService.class, SightingJdbcRepository.class, SightingViewJdbcRepository.class, ValueDictionary.class,
+        DatabasePlatform.class, BirdSightingCounters.class, LatestSightingRepository.class})
+@TestPropertySource(properties = "birdapi.import.chunk-size=2")
+class SightingImportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private SightingImportService sightingImportService;
+
+    private Bird sparrow;
+
+    @BeforeEach
+    void setUp() {
+        sparrow = entityManager.persist(new Bird("Sparrow", "Brown", 10.5, 12.0));
+        entityManager.persist(new Bird("Eagle", "Black", 50.0, 80.0));
+        entityManager.flush();
+    }
+
+    @Test
+    void importSightings_fromCsv_shouldResolveBirdsAndSkipBadRows() throws Exception {
+        // Arrange
+        String csv = "birdId,birdName,location,dateTime\n"
+                + sparrow.getId() + ",,Central Park,2025-01-15T10:30:00\n"
+                + ",eagle,Ridge,2025-01-15T11:00:00\n"
+                + ",Dodo,Mauritius,2025-01-15T12:00:00\n"
+                + "999999,,Nowhere,2025-01-15T12:00:00\n"
+                + ",Sparrow,not-a-date-row,yesterday\n"
+                + ",SPARROW,\"Lake, North\",2025-01-16T09:15:00\n";
+
+        // Act
+        ImportResultDTO result = sightingImportService.importSightings(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+        entityManager.clear();
+
+        // Assert
+        assertThat(result.getRowsRead()).isEqualTo(6);
+        assertThat(result.getRowsImported()).isEqualTo(3);
+        assertThat(result.getRowsRejected()).isEqualTo(3);
+        assertThat(result.getErrors()).hasSize(3);
+
+        List<Sighting> sightings = sightingRepository.findAll();
+        assertThat(sightings).extracting(Sighting::getLocation)
+                .containsExactlyInAnyOrder("Central Park", "Ridge", "Lake, North");
+    }
+
+    @Test
+    void importSightings_fromNdjson_shouldInsertRows() throws Exception {
+        // Arrange
+        String ndjson = "{\"birdId\":" + sparrow.getId() + ",\"location\":\"Lake View\",\"dateTime\":\"2025-01-15T10:30:00\"}\n"
+                + "{\"birdName\":\"Eagle\",\"location\":\"Ridge\",\"dateTime\":\"2025-01-15T11:00:00\"}\n";
+
+        // Act
+        ImportResultDTO result = sightingImportService.importSightings(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+
+        // Assert
+        assertThat(result.getRowsImported()).isEqualTo(2);
+        assertThat(result.getRowsRejected()).isZero();
+        assertThat(sightingRepository.count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,124 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.ingest.SightingRow;
+import com.demoapp.birdapi.journal.SightingJournal;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SightingJournalServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private SightingJdbcRepository sightingJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SightingJournal journal;
+
+    private SightingJournalService sightingJournalService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = SightingJournal.open(directory, 64 * 1024);
+        sightingJournalService = new SightingJournalService(journal, sightingJdbcRepository,
+                new TransactionTemplate(transactionManager),
+                new SightingDeduplicator(sightingJdbcRepository, new SimpleMeterRegistry(), SightingDeduplicator.Mode.OFF, 60, 100), 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    private static SightingRow row(long birdId) {
+        return new SightingRow(birdId, null, "Central Park", LocalDateTime.of(2025, 1, 15, 10, 30));
+    }
+
+    @Test
+    void replay_shouldInsertJournaledRowsInBatchesAndDropUnknownBirds() {
+        // Arrange
+        sightingJournalService.append(Arrays.asList(row(1L), row(2L), row(99L)));
+        when(sightingJdbcRepository.findExistingBirdIds(anyCollection()))
+                .thenReturn(new HashSet<>(Arrays.asList(1L, 2L)), new HashSet<>());
+        when(sightingJdbcRepository.insertAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        // Act
+        sightingJournalService.replay();
+
+        // Assert
+        verify(sightingJdbcRepository).insertAll(argThat(rows -> rows.size() == 2));
+        verify(sightingJdbcRepository).insertAll(argThat(List::isEmpty));
+        assertFalse(sightingJournalService.hasPending());
+    }
+
+    @Test
+    void replay_ofRowJournaledByBirdNameDuringOutage_shouldResolveTheName() {
+        // Arrange - the name could not be resolved while the database was down
+        SightingRow named = new SightingRow(null, "Heron", "Lake", LocalDateTime.of(2025, 1, 15, 10, 30));
+        sightingJournalService.append(Arrays.asList(row(1L), named));
+        when(sightingJdbcRepository.findExistingBirdIds(anyCollection())).thenReturn(Collections.singleton(1L));
+        when(sightingJdbcRepository.findBirdIdsByLowerName(anyCollection())).thenReturn(Collections.singletonMap("heron", 7L));
+        when(sightingJdbcRepository.insertAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        // Act
+        sightingJournalService.replay();
+
+        // Assert
+        verify(sightingJdbcRepository).insertAll(argThat(rows -> rows.size() == 2 && rows.get(1).getBirdId() == 7L));
+        assertFalse(sightingJournalService.hasPending());
+    }
+
+    @Test
+    void replay_whenDatabaseUnavailable_shouldKeepRowsPending() {
+        // Arrange
+        sightingJournalService.append(Arrays.asList(row(1L), row(2L)));
+        when(sightingJdbcRepository.findExistingBirdIds(anyCollection()))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection refused"));
+
+        // Act
+        sightingJournalService.replay();
+
+        // Assert
+        verify(sightingJdbcRepository, never()).insertAll(anyList());
+        assertTrue(sightingJournalService.hasPending());
+    }
+
+    @Test
+    void isDatabaseUnavailable_shouldOnlyMatchConnectionFailures() {
+        // Act & Assert
+        assertTrue(sightingJournalService.isDatabaseUnavailable(new CannotGetJdbcConnectionException("refused")));
+        assertTrue(sightingJournalService.isDatabaseUnavailable(
+                new RuntimeException(new SQLException("connection lost", "08006"))));
+        assertFalse(sightingJournalService.isDatabaseUnavailable(new DataIntegrityViolationException("duplicate")));
+        assertFalse(sightingJournalService.isDatabaseUnavailable(new IllegalArgumentException("bad")));
+    }
+}
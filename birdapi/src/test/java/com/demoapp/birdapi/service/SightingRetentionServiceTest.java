@@ -0,0 +1,181 @@
+package com.demoapp.birdapi.service;
+
+import com.demoapp.birdapi.archive.ArchivedSighting;
+import com.demoapp.birdapi.archive.SightingArchive;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
+import com.demoapp.birdapi.model.JobCheckpoint;
+import com.demoapp.birdapi.repository.JobCheckpointRepository;
+import com.demoapp.birdapi.repository.SightingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Runs without a test transaction, so every chunk and checkpoint commits on its own as in production
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SightingRetentionServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    private SightingArchive archive;
+    private SimpleMeterRegistry meterRegistry;
+    private SightingService sightingService;
+    private long birdId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        archive = SightingArchive.open(directory);
+        meterRegistry = new SimpleMeterRegistry();
+        // The read model and counters are covered by SightingServiceTest; here only the rows matter
+        sightingService = mock(SightingService.class);
+        when(sightingService.deleteSightings(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            int deleted = namedParameterJdbcTemplate.update("DELETE FROM sightings WHERE id IN (:ids)",
+                    Collections.singletonMap("ids", ids));
+            return new BulkOperationResultDTO(ids.size(), deleted);
+        });
+        jdbcTemplate.update("INSERT INTO birds (name, color, weight, height) VALUES ('Sparrow', 'Brown', 10.5, 12.0)");
+        birdId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM birds", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM job_checkpoints");
+        jdbcTemplate.update("DELETE FROM sightings");
+        jdbcTemplate.update("DELETE FROM birds");
+    }
+
+    private SightingRetentionService node(int chunkSize) {
+        return new SightingRetentionService(sightingRepository, sightingService, jobCheckpointRepository,
+                archive, meterRegistry, 5, chunkSize, 0, 300);
+    }
+
+    @Test
+    void purge_shouldDeleteOlderSightingsInChunksAndFinishRun() {
+        // Arrange
+        for (int day = 1; day <= 5; day++) {
+            addSighting(CUTOFF.minusDays(day));
+        }
+        addSighting(CUTOFF);
+        addSighting(CUTOFF.plusDays(1));
+
+        // Act
+        long deleted = node(2).purge(CUTOFF);
+
+        // Assert
+        assertEquals(5, deleted);
+        assertEquals(2, sightingCount());
+        assertEquals(5.0, meterRegistry.get("birdapi.retention.deleted").counter().count());
+        assertEquals(3.0, meterRegistry.get("birdapi.retention.chunks").counter().count());
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(SightingRetentionService.JOB).get();
+        assertFalse(checkpoint.isInProgress());
+        assertEquals(5, checkpoint.getProcessed());
+        assertNull(checkpoint.getLeaseOwner());
+    }
+
+    @Test
+    void purge_whileOtherNodeHoldsLease_shouldDeleteNothing() {
+        // Arrange
+        addSighting(CUTOFF.minusDays(1));
+        jobCheckpointRepository.create(SightingRetentionService.JOB);
+        LocalDateTime now = LocalDateTime.now();
+        jobCheckpointRepository.acquire(SightingRetentionService.JOB, "other-node", now, now.plusMinutes(5));
+
+        // Act
+        long deleted = node(2).purge(CUTOFF);
+
+        // Assert
+        assertEquals(0, deleted);
+        assertEquals(1, sightingCount());
+        assertEquals("other-node", jobCheckpointRepository.findById(SightingRetentionService.JOB).get().getLeaseOwner());
+    }
+
+    @Test
+    void purge_withRunInterruptedOnOtherNode_shouldResumeWithItsCutoffAndPosition() {
+        // Arrange
+        long first = addSighting(CUTOFF.minusDays(3));
+        addSighting(CUTOFF.minusDays(2));
+        addSighting(CUTOFF.minusDays(1));
+        addSighting(CUTOFF.plusDays(1));
+        // The other node deleted the first sighting, checkpointed and died; its lease has expired
+        jobCheckpointRepository.create(SightingRetentionService.JOB);
+        LocalDateTime past = LocalDateTime.now().minusHours(1);
+        jobCheckpointRepository.acquire(SightingRetentionService.JOB, "crashed-node", past, past.plusMinutes(5));
+        jobCheckpointRepository.start(SightingRetentionService.JOB, "crashed-node", CUTOFF, past);
+        jdbcTemplate.update("DELETE FROM sightings WHERE id = ?", first);
+        jobCheckpointRepository.advance(SightingRetentionService.JOB, "crashed-node", CUTOFF.minusDays(3), first, 1, past, past.plusMinutes(5));
+
+        // Act
+        long deleted = node(10).purge(CUTOFF.plusYears(1));
+
+        // Assert
+        assertEquals(2, deleted);
+        assertEquals(1, sightingCount());
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(SightingRetentionService.JOB).get();
+        assertFalse(checkpoint.isInProgress());
+        assertEquals(3, checkpoint.getProcessed());
+    }
+
+    @Test
+    void purge_shouldDropArchiveSegmentsWhollyBeforeCutoff() throws IOException {
+        // Arrange
+        archive.promote(archive.writePending(Collections.singletonList(archived(1L, CUTOFF.minusDays(1)))));
+        archive.promote(archive.writePending(Collections.singletonList(archived(2L, CUTOFF.plusDays(1)))));
+
+        // Act
+        node(2).purge(CUTOFF);
+
+        // Assert
+        assertEquals(1, archive.segments().size());
+        assertEquals(CUTOFF.plusDays(1), archive.segments().get(0).getMinDateTime());
+    }
+
+    private static ArchivedSighting archived(long id, LocalDateTime dateTime) {
+        return new ArchivedSighting(id, 1L, "Sparrow", "Brown", 10.5, 12.0, "Central Park", dateTime, 1);
+    }
+
+    private long addSighting(LocalDateTime dateTime) {
+        jdbcTemplate.update("INSERT INTO sightings (bird_id, location, date_time) VALUES (?, 'Central Park', ?)",
+                birdId, Timestamp.valueOf(dateTime));
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM sightings", Long.class);
+    }
+
+    private int sightingCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sightings", Integer.class);
+    }
+}
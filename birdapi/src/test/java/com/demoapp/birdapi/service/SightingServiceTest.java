@@ -1,16 +1,31 @@
 package com.demoapp.birdapi.service;
 
+import com.demoapp.birdapi.archive.ArchiveSegment;
+import com.demoapp.birdapi.archive.ArchivedSighting;
+import com.demoapp.birdapi.archive.SightingArchive;
+import com.demoapp.birdapi.dto.BulkOperationResultDTO;
+import com.demoapp.birdapi.dto.ImportResultDTO;
 import com.demoapp.birdapi.dto.SightingDTO;
+import com.demoapp.birdapi.exception.InvalidRequestException;
 import com.demoapp.birdapi.exception.ResourceNotFoundException;
 import com.demoapp.birdapi.mapper.SightingMapper;
 import com.demoapp.birdapi.model.Bird;
 import com.demoapp.birdapi.model.Sighting;
+import com.demoapp.birdapi.model.SightingView;
 import com.demoapp.birdapi.repository.BirdRepository;
+import com.demoapp.birdapi.repository.BirdSightingCounters;
+import com.demoapp.birdapi.repository.LatestSightingRepository;
+import com.demoapp.birdapi.repository.SightingJdbcRepository;
 import com.demoapp.birdapi.repository.SightingRepository;
+import com.demoapp.birdapi.repository.SightingViewJdbcRepository;
+import com.demoapp.birdapi.repository.SightingViewRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -18,12 +33,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Sort;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -39,11 +62,30 @@ class SightingServiceTest {
     @Mock
     private SightingMapper sightingMapper;
 
+    @Mock
+    private SightingDeduplicator sightingDeduplicator;
+
+    @Mock
+    private SightingViewRepository sightingViewRepository;
+
+    @Mock
+    private SightingViewJdbcRepository sightingViewJdbcRepository;
+
+    @Mock
+    private BirdSightingCounters birdSightingCounters;
+
+    @Mock
+    private LatestSightingRepository latestSightingRepository;
+
+    @Mock
+    private SightingArchive sightingArchive;
+
     @InjectMocks
     private SightingService sightingService;
 
     private Bird bird;
     private Sighting sighting;
+    private SightingView sightingView;
     private SightingDTO sightingDTO;
     private LocalDateTime testDateTime;
 
@@ -60,6 +102,8 @@ class SightingServiceTest {
         sighting.setLocation("Central Park");
         sighting.setDateTime(testDateTime);
 
+        sightingView = new SightingView();
+
         sightingDTO = new SightingDTO();
         sightingDTO.setId(100L);
         sightingDTO.setBirdId(1L);
@@ -71,9 +115,9 @@ class SightingServiceTest {
     void getAllSightings_shouldReturnPageOfDtos() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Sighting> page = new PageImpl<>(Collections.singletonList(sighting), pageable, 1);
-        when(sightingRepository.findAll(pageable)).thenReturn(page);
-        when(sightingMapper.toDTO(sighting)).thenReturn(sightingDTO);
+        Page<SightingView> page = new PageImpl<>(Collections.singletonList(sightingView), pageable, 1);
+        when(sightingViewRepository.search(null, null, null, null, pageable)).thenReturn(page);
+        when(sightingMapper.toDTO(sightingView)).thenReturn(sightingDTO);
 
         // Act
         Page<SightingDTO> result = sightingService.getAllSightings(pageable);
@@ -81,15 +125,15 @@ class SightingServiceTest {
         // Assert
         assertEquals(1, result.getTotalElements());
         assertEquals("Central Park", result.getContent().get(0).getLocation());
-        verify(sightingRepository).findAll(pageable);
-        verify(sightingMapper).toDTO(sighting);
+        verify(sightingViewRepository).search(null, null, null, null, pageable);
+        verify(sightingRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
     void getSightingById_whenFound_shouldReturnDto() {
         // Arrange
-        when(sightingRepository.findById(100L)).thenReturn(Optional.of(sighting));
-        when(sightingMapper.toDTO(sighting)).thenReturn(sightingDTO);
+        when(sightingViewRepository.findById(100L)).thenReturn(Optional.of(sightingView));
+        when(sightingMapper.toDTO(sightingView)).thenReturn(sightingDTO);
 
         // Act
         SightingDTO result = sightingService.getSightingById(100L);
@@ -98,19 +142,19 @@ class SightingServiceTest {
         assertNotNull(result);
         assertEquals(100L, result.getId());
         assertEquals("Central Park", result.getLocation());
-        verify(sightingRepository).findById(100L);
-        verify(sightingMapper).toDTO(sighting);
+        verify(sightingViewRepository).findById(100L);
+        verify(sightingMapper).toDTO(sightingView);
     }
 
     @Test
     void getSightingById_whenNotFound_shouldThrowException() {
         // Arrange
-        when(sightingRepository.findById(999L)).thenReturn(Optional.empty());
+        when(sightingViewRepository.findById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> sightingService.getSightingById(999L));
-        verify(sightingRepository).findById(999L);
-        verify(sightingMapper, never()).toDTO(any());
+        verify(sightingViewRepository).findById(999L);
+        verify(sightingMapper, never()).toDTO(any(SightingView.class));
     }
 
     @Test
@@ -136,6 +180,31 @@ class SightingServiceTest {
         assertEquals(testDateTime, saved.getDateTime());
     }
 
+    @Test
+    void createSighting_whenNearDuplicateOfRecentSighting_shouldMergeInsteadOfInsert() {
+        // Arrange
+        SightingDeduplicator deduplicator = new SightingDeduplicator(mock(SightingJdbcRepository.class),
+                new SimpleMeterRegistry(), SightingDeduplicator.Mode.MERGE, 60, 100);
+        SightingService service = new SightingService(sightingRepository, birdRepository, sightingMapper, deduplicator,
+                sightingViewRepository, sightingViewJdbcRepository, birdSightingCounters, latestSightingRepository, sightingArchive);
+        deduplicator.remember(100L, 1L, "Central Park", testDateTime);
+
+        SightingDTO repeat = new SightingDTO(null, 1L, " central  park ", testDateTime.plusSeconds(30));
+        when(birdRepository.findById(1L)).thenReturn(Optional.of(bird));
+        when(sightingRepository.findById(100L)).thenReturn(Optional.of(sighting));
+        when(sightingRepository.incrementReportCount(100L, 1)).thenReturn(1);
+        when(sightingMapper.toDTO(sighting)).thenReturn(sightingDTO);
+
+        // Act
+        SightingDTO result = service.createSighting(repeat);
+
+        // Assert
+        assertEquals(100L, result.getId());
+        verify(sightingRepository).incrementReportCount(100L, 1);
+        verify(sightingViewRepository).incrementReportCount(100L, 1);
+        verify(sightingRepository, never()).save(any(Sighting.class));
+    }
+
     @Test
     void createSighting_whenBirdNotFound_shouldThrowException() {
         // Arrange
@@ -147,6 +216,27 @@ class SightingServiceTest {
         verify(sightingRepository, never()).save(any());
     }
 
+    @Test
+    void createSightings_shouldLoadBirdsOnceAndRejectUnknownBirds() {
+        // Arrange
+        SightingDTO unknownBird = new SightingDTO(null, 2L, "Lake View", testDateTime);
+        when(birdRepository.findAllById(any())).thenReturn(Collections.singletonList(bird));
+        when(sightingRepository.save(any(Sighting.class))).thenReturn(sighting);
+        when(sightingMapper.toDTO(sighting)).thenReturn(sightingDTO);
+
+        // Act
+        ImportResultDTO result = sightingService.createSightings(Arrays.asList(sightingDTO, unknownBird, sightingDTO));
+
+        // Assert
+        assertEquals(3, result.getRowsRead());
+        assertEquals(2, result.getRowsImported());
+        assertEquals(1, result.getRowsRejected());
+        assertEquals(Collections.singletonList("Bird not found with id 2"), result.getErrors());
+        verify(birdRepository).findAllById(any());
+        verify(birdRepository, never()).findById(any());
+        verify(sightingRepository, times(2)).save(any(Sighting.class));
+    }
+
     @Test
     void updateSighting_whenFound_shouldUpdateAndReturnDto() {
         // Arrange
@@ -157,7 +247,7 @@ class SightingServiceTest {
 
         when(sightingRepository.findById(100L)).thenReturn(Optional.of(sighting));
         when(birdRepository.findById(1L)).thenReturn(Optional.of(bird));
-        when(sightingRepository.save(any(Sighting.class))).thenReturn(sighting);
+        when(sightingRepository.saveAndFlush(any(Sighting.class))).thenReturn(sighting);
         when(sightingMapper.toDTO(sighting)).thenReturn(sightingDTO);
 
         // Act
@@ -167,7 +257,11 @@ class SightingServiceTest {
         assertNotNull(result);
         verify(sightingRepository).findById(100L);
         verify(birdRepository).findById(1L);
-        verify(sightingRepository).save(sighting);
+        verify(sightingRepository).saveAndFlush(sighting);
+        verify(sightingViewJdbcRepository).refreshFromSightings(Collections.singletonList(100L));
+        InOrder latest = inOrder(latestSightingRepository);
+        latest.verify(latestSightingRepository).replace(Collections.singletonList(100L));
+        latest.verify(latestSightingRepository).advance(1L, sighting.getDateTime());
     }
 
     @Test
@@ -178,7 +272,7 @@ class SightingServiceTest {
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> sightingService.updateSighting(999L, sightingDTO));
         verify(sightingRepository).findById(999L);
-        verify(sightingRepository, never()).save(any());
+        verify(sightingRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -191,43 +285,99 @@ class SightingServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> sightingService.updateSighting(100L, sightingDTO));
         verify(sightingRepository).findById(100L);
         verify(birdRepository).findById(1L);
-        verify(sightingRepository, never()).save(any());
+        verify(sightingRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void deleteSighting_whenExists_shouldDelete() {
         // Arrange
-        when(sightingRepository.existsById(100L)).thenReturn(true);
+        when(sightingRepository.countByIdInGroupByBird(Collections.singletonList(100L)))
+                .thenReturn(Collections.singletonList(new Object[]{1L, 1L}));
+        when(sightingRepository.deleteByIdIn(Collections.singletonList(100L))).thenReturn(1);
 
         // Act
         sightingService.deleteSighting(100L);
 
         // Assert
-        verify(sightingRepository).existsById(100L);
-        verify(sightingRepository).deleteById(100L);
+        verify(sightingRepository).deleteByIdIn(Collections.singletonList(100L));
+        verify(sightingViewRepository).deleteByIdIn(Collections.singletonList(100L));
+        verify(sightingRepository, never()).existsById(anyLong());
+        verify(birdSightingCounters).removed(Map.of(1L, 1L));
     }
 
     @Test
     void deleteSighting_whenNotExists_shouldThrowException() {
         // Arrange
-        when(sightingRepository.existsById(999L)).thenReturn(false);
+        when(sightingRepository.deleteByIdIn(Collections.singletonList(999L))).thenReturn(0);
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> sightingService.deleteSighting(999L));
-        verify(sightingRepository).existsById(999L);
-        verify(sightingRepository, never()).deleteById(anyLong());
+        verify(sightingRepository).deleteByIdIn(Collections.singletonList(999L));
+    }
+
+    @Test
+    void deleteSightings_shouldDeleteInChunksAndReportCounts() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1500; id++) {
+            ids.add(id);
+        }
+        when(sightingRepository.deleteByIdIn(anyList())).thenReturn(1000, 400);
+
+        // Act
+        BulkOperationResultDTO result = sightingService.deleteSightings(ids);
+
+        // Assert
+        assertEquals(1500, result.getRequested());
+        assertEquals(1400, result.getAffected());
+        verify(sightingRepository, times(2)).deleteByIdIn(anyList());
+    }
+
+    @Test
+    void deleteSightingsByFilter_shouldDelegateToRepository() {
+        // Arrange
+        when(sightingRepository.deleteByFilter("Sparrow", null, null, testDateTime)).thenReturn(7);
+
+        // Act
+        BulkOperationResultDTO result = sightingService.deleteSightingsByFilter("Sparrow", null, null, testDateTime);
+
+        // Assert
+        assertNull(result.getRequested());
+        assertEquals(7, result.getAffected());
+        verify(sightingViewRepository).deleteByFilter("Sparrow", null, null, testDateTime);
+    }
+
+    @Test
+    void deleteSightingsByFilter_withoutFilters_shouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> sightingService.deleteSightingsByFilter(null, "", null, null));
+        verify(sightingRepository, never()).deleteByFilter(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateSightingLocations_shouldUpdateDistinctIds() {
+        // Arrange
+        when(sightingRepository.updateLocationByIdIn(Arrays.asList(1L, 2L), "Lake View")).thenReturn(2);
+
+        // Act
+        BulkOperationResultDTO result = sightingService.updateSightingLocations(Arrays.asList(1L, 2L, 1L), "Lake View");
+
+        // Assert
+        assertEquals(2, result.getRequested());
+        assertEquals(2, result.getAffected());
+        verify(sightingViewJdbcRepository).updateLocationByIdIn(Arrays.asList(1L, 2L), "Lake View");
     }
 
     @Test
     void searchSightings_withAllParameters_shouldReturnPageOfDtos() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Sighting> page = new PageImpl<>(Collections.singletonList(sighting), pageable, 1);
+        Page<SightingView> page = new PageImpl<>(Collections.singletonList(sightingView), pageable, 1);
         LocalDateTime fromDate = testDateTime.minusDays(1);
         LocalDateTime toDate = testDateTime.plusDays(1);
 
-        when(sightingRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
-        when(sightingMapper.toDTO(sighting)).thenReturn(sightingDTO);
+        when(sightingViewRepository.search("Sparrow", "Park", fromDate, toDate, pageable)).thenReturn(page);
+        when(sightingMapper.toDTO(sightingView)).thenReturn(sightingDTO);
 
         // Act
         Page<SightingDTO> result = sightingService.searchSightings("Sparrow", "Park", fromDate, toDate, pageable);
@@ -235,25 +385,54 @@ class SightingServiceTest {
         // Assert
         assertEquals(1, result.getTotalElements());
         assertEquals("Central Park", result.getContent().get(0).getLocation());
-        verify(sightingRepository).findAll(any(Specification.class), eq(pageable));
-        verify(sightingMapper).toDTO(sighting);
+        verify(sightingViewRepository).search("Sparrow", "Park", fromDate, toDate, pageable);
+        verify(sightingMapper).toDTO(sightingView);
     }
 
     @Test
     void searchSightings_withNoParameters_shouldReturnAll() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Sighting> page = new PageImpl<>(Collections.singletonList(sighting), pageable, 1);
+        Page<SightingView> page = new PageImpl<>(Collections.singletonList(sightingView), pageable, 1);
 
-        when(sightingRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
-        when(sightingMapper.toDTO(sighting)).thenReturn(sightingDTO);
+        when(sightingViewRepository.search(null, null, null, null, pageable)).thenReturn(page);
+        when(sightingMapper.toDTO(sightingView)).thenReturn(sightingDTO);
 
         // Act
         Page<SightingDTO> result = sightingService.searchSightings(null, null, null, null, pageable);
 
         // Assert
         assertEquals(1, result.getTotalElements());
-        verify(sightingRepository).findAll(any(Specification.class), eq(pageable));
+        verify(sightingViewRepository).search(null, null, null, null, pageable);
     }
-}
 
+    @Test
+    void searchSightings_reachingIntoArchive_shouldMergeArchivedSightingsInSortOrder(@TempDir Path directory) throws IOException {
+        // Arrange
+        ArchivedSighting archived = new ArchivedSighting(7L, 1L, "Sparrow", "Brown", 10.0, 5.0, "Central Park",
+                testDateTime.minusYears(3), 1);
+        ArchiveSegment segment = ArchiveSegment.write(directory.resolve("segment-0000000001.bsa"), List.of(archived));
+        SightingDTO archivedDTO = new SightingDTO(7L, 1L, "Central Park", testDateTime.minusYears(3));
+        Pageable pageable = PageRequest.of(0, 5, Sort.by("dateTime"));
+        Pageable window = PageRequest.of(0, 5, Sort.by("dateTime", "id"));
+
+        when(sightingArchive.matching(null, null, null, null)).thenReturn(List.of(segment));
+        when(sightingViewRepository.search(null, null, null, null, window))
+                .thenReturn(new PageImpl<>(Collections.singletonList(sightingView), window, 1));
+        when(sightingMapper.toDTO(sightingView)).thenReturn(sightingDTO);
+        when(sightingArchive.forEachMatching(eq(List.of(segment)), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<ArchivedSighting> action = invocation.getArgument(5);
+                    action.accept(archived);
+                    return 1L;
+                });
+        when(sightingMapper.toDTO(archived)).thenReturn(archivedDTO);
+
+        // Act
+        Page<SightingDTO> result = sightingService.searchSightings(null, null, null, null, pageable);
+
+        // Assert
+        assertEquals(2, result.getTotalElements());
+        assertThat(result.getContent()).extracting(SightingDTO::getId).containsExactly(7L, 100L);
+    }
+}
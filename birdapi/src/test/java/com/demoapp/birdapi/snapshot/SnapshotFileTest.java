@@ -0,0 +1,138 @@
+package com.demoapp.birdapi.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    // Random bytes barely compress, so the file is about as large as the data
+    private static byte[] data(int length) {
+        byte[] data = new byte[length];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    private static void writeTable(SnapshotWriter writer, String table, List<String> columns, byte[] data, long rows) throws IOException {
+        try (OutputStream out = writer.beginTable(table, columns)) {
+            // COPY writes a row at a time
+            for (int offset = 0; offset < data.length; offset += 100) {
+                out.write(data, offset, Math.min(100, data.length - offset));
+            }
+        }
+        writer.endTable(rows);
+    }
+
+    @Test
+    void write_thenRead_shouldReturnTablesInOrderWithRowCountsAndProgress() throws IOException {
+        // Arrange
+        Path file = directory.resolve("prod.bsnap");
+        byte[] birds = data(1000);
+        byte[] sightings = data(3 * SnapshotWriter.CHUNK_SIZE + 7);
+        SnapshotProgress written = new SnapshotProgress("SNAPSHOT", "prod.bsnap", 60_000);
+        try (SnapshotWriter writer = SnapshotWriter.create(file, 1, written)) {
+            writeTable(writer, "birds", Arrays.asList("id", "name"), birds, 10);
+            writeTable(writer, "sightings", Arrays.asList("id", "bird_id", "location"), sightings, 300);
+            writer.commit();
+        }
+        SnapshotProgress read = new SnapshotProgress("RESTORE", "prod.bsnap", 60_000);
+
+        // Act & Assert
+        try (SnapshotReader reader = SnapshotReader.open(file, read)) {
+            assertNotNull(reader.getCreatedAt());
+            assertTrue(reader.nextTable());
+            assertEquals("birds", reader.getTable());
+            assertEquals(Arrays.asList("id", "name"), reader.getColumns());
+            assertEquals(-1, reader.getRows());
+            assertArrayEquals(birds, reader.data().readAllBytes());
+            assertEquals(10, reader.getRows());
+
+            assertTrue(reader.nextTable());
+            assertEquals("sightings", reader.getTable());
+            assertArrayEquals(sightings, reader.data().readAllBytes());
+            assertEquals(300, reader.getRows());
+
+            assertFalse(reader.nextTable());
+        }
+        assertEquals(birds.length + sightings.length, written.getDataBytes());
+        assertEquals(Files.size(file), written.getFileBytes());
+        assertEquals(birds.length + sightings.length, read.getDataBytes());
+        assertEquals(Files.size(file), read.getTotalFileBytes());
+    }
+
+    @Test
+    void nextTable_withTableDataLeftUnread_shouldSkipToNextTable() throws IOException {
+        // Arrange
+        Path file = directory.resolve("prod.bsnap");
+        try (SnapshotWriter writer = SnapshotWriter.create(file, 1, new SnapshotProgress("SNAPSHOT", "prod.bsnap", 60_000))) {
+            writeTable(writer, "birds", Collections.singletonList("id"), data(SnapshotWriter.CHUNK_SIZE * 2), 5);
+            writeTable(writer, "sightings", Collections.singletonList("id"), data(10), 1);
+            writer.commit();
+        }
+
+        // Act & Assert
+        try (SnapshotReader reader = SnapshotReader.open(file, new SnapshotProgress("RESTORE", "prod.bsnap", 60_000))) {
+            assertTrue(reader.nextTable());
+            assertTrue(reader.nextTable());
+            assertEquals("sightings", reader.getTable());
+            assertArrayEquals(data(10), reader.data().readAllBytes());
+            assertFalse(reader.nextTable());
+        }
+    }
+
+    @Test
+    void close_withoutCommit_shouldLeaveNoFile() throws IOException {
+        // Arrange
+        Path file = directory.resolve("prod.bsnap");
+
+        // Act
+        try (SnapshotWriter writer = SnapshotWriter.create(file, 1, new SnapshotProgress("SNAPSHOT", "prod.bsnap", 60_000))) {
+            writeTable(writer, "birds", Collections.singletonList("id"), data(1000), 10);
+        }
+
+        // Assert
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void read_withCorruptedByte_shouldFail() throws IOException {
+        // Arrange
+        Path file = directory.resolve("prod.bsnap");
+        try (SnapshotWriter writer = SnapshotWriter.create(file, 1, new SnapshotProgress("SNAPSHOT", "prod.bsnap", 60_000))) {
+            writeTable(writer, "birds", Collections.singletonList("id"), data(SnapshotWriter.CHUNK_SIZE), 10);
+            writer.commit();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() / 2);
+            int value = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(value ^ 0xFF);
+        }
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> {
+            try (SnapshotReader reader = SnapshotReader.open(file, new SnapshotProgress("RESTORE", "prod.bsnap", 60_000))) {
+                while (reader.nextTable()) {
+                    reader.data().readAllBytes();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,7 @@
+-- Runs after Hibernate has created the tables (spring.jpa.defer-datasource-initialization=true)
+
+-- H2 has no expression indexes, so the natural key of schema-postgresql.sql is mirrored through
+-- generated columns; the portable bulk upsert runs against the same constraint as production
+ALTER TABLE birds ADD COLUMN name_key VARCHAR(255) INVISIBLE GENERATED ALWAYS AS (LOWER(name));
+ALTER TABLE birds ADD COLUMN color_key VARCHAR(255) INVISIBLE GENERATED ALWAYS AS (LOWER(color));
+CREATE UNIQUE INDEX ux_birds_natural_key ON birds (name_key, color_key);